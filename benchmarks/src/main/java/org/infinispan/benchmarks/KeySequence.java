@@ -0,0 +1,31 @@
+package org.infinispan.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per thread index into a benchmark's key space. Each thread starts from a different offset, so that the threads
+ * don't all hit the same keys at the same time.
+ *
+ * @since 7.2
+ */
+@State(Scope.Thread)
+public class KeySequence {
+
+   private int index;
+
+   @Setup(Level.Trial)
+   public void setUp() {
+      index = System.identityHashCode(this) & Integer.MAX_VALUE;
+   }
+
+   /**
+    * @return the next index in {@code [0, size)}
+    */
+   public int next(int size) {
+      index = (index + 1) & Integer.MAX_VALUE;
+      return index % size;
+   }
+}
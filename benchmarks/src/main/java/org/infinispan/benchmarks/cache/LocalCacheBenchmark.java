@@ -0,0 +1,98 @@
+package org.infinispan.benchmarks.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.Cache;
+import org.infinispan.benchmarks.KeySequence;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.transaction.LockingMode;
+import org.infinispan.transaction.TransactionMode;
+import org.infinispan.transaction.lookup.DummyTransactionManagerLookup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Cache#put(Object, Object)} and {@link Cache#get(Object)} on a local cache, i.e. the cost of the
+ * interceptor chain without any network. Transactional caches use auto-commit, so each operation runs in its own
+ * transaction.
+ *
+ * @since 7.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@Threads(4)
+public class LocalCacheBenchmark {
+
+   public enum TransactionType {
+      NON_TRANSACTIONAL, OPTIMISTIC, PESSIMISTIC
+   }
+
+   @Param({"NON_TRANSACTIONAL", "OPTIMISTIC", "PESSIMISTIC"})
+   TransactionType transactionType;
+
+   @Param("100000")
+   int keySpace;
+
+   private EmbeddedCacheManager cacheManager;
+   private Cache<String, String> cache;
+   private String[] keys;
+
+   @Setup
+   public void setUp() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      switch (transactionType) {
+         case OPTIMISTIC:
+            builder.transaction().transactionMode(TransactionMode.TRANSACTIONAL).lockingMode(LockingMode.OPTIMISTIC)
+                  .transactionManagerLookup(new DummyTransactionManagerLookup());
+            break;
+         case PESSIMISTIC:
+            builder.transaction().transactionMode(TransactionMode.TRANSACTIONAL).lockingMode(LockingMode.PESSIMISTIC)
+                  .transactionManagerLookup(new DummyTransactionManagerLookup());
+            break;
+         default:
+            builder.transaction().transactionMode(TransactionMode.NON_TRANSACTIONAL);
+      }
+      GlobalConfigurationBuilder global = new GlobalConfigurationBuilder();
+      global.globalJmxStatistics().allowDuplicateDomains(true);
+      cacheManager = new DefaultCacheManager(global.build(), builder.build());
+      cache = cacheManager.getCache();
+      keys = new String[keySpace];
+      for (int i = 0; i < keySpace; i++) {
+         keys[i] = "key" + i;
+         cache.put(keys[i], "value");
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      cacheManager.stop();
+   }
+
+   @Benchmark
+   public String put(KeySequence sequence) {
+      return cache.put(keys[sequence.next(keySpace)], "value");
+   }
+
+   @Benchmark
+   public String get(KeySequence sequence) {
+      return cache.get(keys[sequence.next(keySpace)]);
+   }
+}
@@ -0,0 +1,73 @@
+package org.infinispan.benchmarks.commons;
+
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.benchmarks.KeySequence;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.util.concurrent.jdk8backported.BoundedEquivalentConcurrentHashMapV8;
+import org.infinispan.commons.util.concurrent.jdk8backported.BoundedEquivalentConcurrentHashMapV8.Eviction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link BoundedEquivalentConcurrentHashMapV8} with concurrent readers and writers, for each eviction
+ * algorithm. The map holds half of the key space, so writes of absent keys evict, while reads update the eviction
+ * order and contend with the writers on it.
+ *
+ * @since 7.2
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class BoundedConcurrentHashMapBenchmark {
+
+   @Param({"LRU", "LIRS"})
+   Eviction eviction;
+
+   @Param("100000")
+   int keySpace;
+
+   private BoundedEquivalentConcurrentHashMapV8<Integer, Integer> map;
+   private Integer[] keys;
+
+   @Setup
+   public void setUp() {
+      map = new BoundedEquivalentConcurrentHashMapV8<Integer, Integer>(keySpace / 2, eviction,
+            BoundedEquivalentConcurrentHashMapV8.<Integer, Integer>getNullEvictionListener(),
+            AnyEquivalence.INT, AnyEquivalence.INT);
+      keys = new Integer[keySpace];
+      for (int i = 0; i < keySpace; i++) {
+         keys[i] = i;
+         map.put(keys[i], keys[i]);
+      }
+   }
+
+   @Benchmark
+   @Group("readWrite")
+   @GroupThreads(3)
+   public Integer get(KeySequence sequence) {
+      return map.get(keys[sequence.next(keySpace)]);
+   }
+
+   @Benchmark
+   @Group("readWrite")
+   @GroupThreads(1)
+   public Integer put(KeySequence sequence) {
+      Integer key = keys[sequence.next(keySpace)];
+      return map.put(key, key);
+   }
+}
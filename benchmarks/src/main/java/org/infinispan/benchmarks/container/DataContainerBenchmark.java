@@ -0,0 +1,99 @@
+package org.infinispan.benchmarks.container;
+
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.benchmarks.KeySequence;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link DataContainer} reads and writes for each {@link EvictionStrategy}. The container is taken from a
+ * local cache, so that the eviction listener is wired like in production. With a bounded strategy the container only
+ * holds half of the key space, so about every other write evicts an entry.
+ *
+ * @since 7.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@Threads(4)
+public class DataContainerBenchmark {
+
+   @Param({"NONE", "LRU", "LIRS"})
+   EvictionStrategy strategy;
+
+   @Param("100000")
+   int keySpace;
+
+   private EmbeddedCacheManager cacheManager;
+   private DataContainer<Object, Object> container;
+   private Metadata metadata;
+   private String[] keys;
+   private String value;
+
+   @Setup
+   public void setUp() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      if (strategy.isEnabled()) {
+         builder.eviction().strategy(strategy).maxEntries(keySpace / 2);
+      }
+      GlobalConfigurationBuilder global = new GlobalConfigurationBuilder();
+      global.globalJmxStatistics().allowDuplicateDomains(true);
+      cacheManager = new DefaultCacheManager(global.build(), builder.build());
+      container = cacheManager.getCache().getAdvancedCache().getDataContainer();
+      metadata = new EmbeddedMetadata.Builder().build();
+      keys = new String[keySpace];
+      for (int i = 0; i < keySpace; i++) {
+         keys[i] = "key" + i;
+      }
+      value = "value";
+      for (String key : keys) {
+         container.put(key, value, metadata);
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      cacheManager.stop();
+   }
+
+   @Benchmark
+   public void put(KeySequence sequence) {
+      container.put(keys[sequence.next(keySpace)], value, metadata);
+   }
+
+   @Benchmark
+   public InternalCacheEntry<Object, Object> get(KeySequence sequence) {
+      return container.get(keys[sequence.next(keySpace)]);
+   }
+
+   @Benchmark
+   public void evict(KeySequence sequence) {
+      String key = keys[sequence.next(keySpace)];
+      container.evict(key);
+      container.put(key, value, metadata);
+   }
+}
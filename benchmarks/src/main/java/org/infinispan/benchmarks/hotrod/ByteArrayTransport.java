@@ -0,0 +1,137 @@
+package org.infinispan.benchmarks.hotrod;
+
+import java.net.SocketAddress;
+import java.util.Arrays;
+
+import org.infinispan.client.hotrod.impl.transport.AbstractTransport;
+
+/**
+ * An in-memory {@link org.infinispan.client.hotrod.impl.transport.Transport}, so that the codec can be measured
+ * without a server. Requests are written to a growing buffer and responses are read from a fixed array. Not thread
+ * safe.
+ *
+ * @since 7.2
+ */
+class ByteArrayTransport extends AbstractTransport {
+
+   private byte[] out = new byte[256];
+   private int outLength;
+   private byte[] in;
+   private int inPosition;
+
+   ByteArrayTransport() {
+      super(null);
+   }
+
+   /**
+    * Discards what was written and makes the next reads start from the beginning of {@code response}.
+    */
+   ByteArrayTransport reset(byte[] response) {
+      outLength = 0;
+      in = response;
+      inPosition = 0;
+      return this;
+   }
+
+   byte[] written() {
+      return Arrays.copyOf(out, outLength);
+   }
+
+   @Override
+   protected void writeBytes(byte[] toAppend) {
+      ensureCapacity(toAppend.length);
+      System.arraycopy(toAppend, 0, out, outLength, toAppend.length);
+      outLength += toAppend.length;
+   }
+
+   @Override
+   public void writeByte(short toWrite) {
+      ensureCapacity(1);
+      out[outLength++] = (byte) toWrite;
+   }
+
+   @Override
+   public void writeVInt(int vint) {
+      while ((vint & ~0x7F) != 0) {
+         writeByte((short) ((vint & 0x7F) | 0x80));
+         vint >>>= 7;
+      }
+      writeByte((short) vint);
+   }
+
+   @Override
+   public void writeVLong(long l) {
+      while ((l & ~0x7F) != 0) {
+         writeByte((short) ((l & 0x7F) | 0x80));
+         l >>>= 7;
+      }
+      writeByte((short) l);
+   }
+
+   @Override
+   public long readVLong() {
+      byte b = in[inPosition++];
+      long l = b & 0x7F;
+      for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+         b = in[inPosition++];
+         l |= (b & 0x7FL) << shift;
+      }
+      return l;
+   }
+
+   @Override
+   public int readVInt() {
+      byte b = in[inPosition++];
+      int i = b & 0x7F;
+      for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+         b = in[inPosition++];
+         i |= (b & 0x7F) << shift;
+      }
+      return i;
+   }
+
+   @Override
+   public void flush() {
+   }
+
+   @Override
+   public short readByte() {
+      return (short) (in[inPosition++] & 0xFF);
+   }
+
+   @Override
+   public void release() {
+   }
+
+   @Override
+   public byte[] readByteArray(int size) {
+      byte[] bytes = Arrays.copyOfRange(in, inPosition, inPosition + size);
+      inPosition += size;
+      return bytes;
+   }
+
+   @Override
+   public byte[] dumpStream() {
+      return Arrays.copyOfRange(in, inPosition, in.length);
+   }
+
+   @Override
+   public SocketAddress getRemoteSocketAddress() {
+      return null;
+   }
+
+   @Override
+   public void invalidate() {
+   }
+
+   @Override
+   public boolean isValid() {
+      return true;
+   }
+
+   private void ensureCapacity(int extra) {
+      if (outLength + extra > out.length) {
+         out = Arrays.copyOf(out, Math.max(out.length * 2, outLength + extra));
+      }
+   }
+}
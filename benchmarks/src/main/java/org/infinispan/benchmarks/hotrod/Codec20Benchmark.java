@@ -0,0 +1,95 @@
+package org.infinispan.benchmarks.hotrod;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.client.hotrod.impl.protocol.Codec20;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
+import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
+import org.infinispan.commons.marshall.Marshaller;
+import org.infinispan.commons.marshall.jboss.GenericJBossMarshaller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the client side encoding of Hot Rod 2.0 get and put requests and the decoding of a get response, over an
+ * in-memory transport. Keys and values are marshalled once, up front, so only the codec is measured.
+ *
+ * @since 7.2
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class Codec20Benchmark {
+
+   private static final long MESSAGE_ID = 4242;
+
+   private final Codec20 codec = new Codec20();
+   private final ByteArrayTransport transport = new ByteArrayTransport();
+   private final AtomicInteger topologyId = new AtomicInteger();
+   private byte[] cacheName;
+   private byte[] key;
+   private byte[] value;
+   private byte[] getResponse;
+
+   @Setup
+   public void setUp() throws Exception {
+      Marshaller marshaller = new GenericJBossMarshaller();
+      cacheName = "benchmark".getBytes(HotRodConstants.HOTROD_STRING_CHARSET);
+      key = marshaller.objectToByteBuffer("key");
+      value = marshaller.objectToByteBuffer("value of a cache entry, neither tiny nor large, just a string");
+
+      ByteArrayTransport response = new ByteArrayTransport();
+      response.writeByte(HotRodConstants.RESPONSE_MAGIC);
+      response.writeVLong(MESSAGE_ID);
+      response.writeByte(HotRodConstants.GET_RESPONSE);
+      response.writeByte(HotRodConstants.NO_ERROR_STATUS);
+      // no topology change
+      response.writeByte((short) 0);
+      response.writeArray(value);
+      getResponse = response.written();
+   }
+
+   @Benchmark
+   public ByteArrayTransport encodeGet() {
+      ByteArrayTransport transport = this.transport.reset(null);
+      codec.writeHeader(transport, params(HotRodConstants.GET_REQUEST));
+      transport.writeArray(key);
+      return transport;
+   }
+
+   @Benchmark
+   public ByteArrayTransport encodePut() {
+      ByteArrayTransport transport = this.transport.reset(null);
+      codec.writeHeader(transport, params(HotRodConstants.PUT_REQUEST));
+      transport.writeArray(key);
+      // lifespan and max idle
+      transport.writeVInt(0);
+      transport.writeVInt(0);
+      transport.writeArray(value);
+      return transport;
+   }
+
+   @Benchmark
+   public byte[] decodeGet() {
+      ByteArrayTransport transport = this.transport.reset(getResponse);
+      codec.readHeader(transport, params(HotRodConstants.GET_REQUEST).messageId(MESSAGE_ID));
+      return transport.readArray();
+   }
+
+   private HeaderParams params(short opCode) {
+      return new HeaderParams().opCode(opCode).cacheName(cacheName).flags(null)
+            .clientIntel(HotRodConstants.CLIENT_INTELLIGENCE_HASH_DISTRIBUTION_AWARE).topologyId(topologyId);
+   }
+}
@@ -0,0 +1,101 @@
+package org.infinispan.benchmarks.marshall;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a marshalling round trip, object to bytes and back, with the global marshaller used for commands and with
+ * the cache marshaller, i.e. the JBoss Marshalling based marshaller used for keys and values.
+ *
+ * @since 7.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MarshallerBenchmark {
+
+   public enum MarshallerType {
+      GLOBAL, CACHE
+   }
+
+   public enum PayloadType {
+      STRING, BYTE_ARRAY, MAP
+   }
+
+   @Param({"GLOBAL", "CACHE"})
+   MarshallerType marshallerType;
+
+   @Param({"STRING", "BYTE_ARRAY", "MAP"})
+   PayloadType payloadType;
+
+   private EmbeddedCacheManager cacheManager;
+   private StreamingMarshaller marshaller;
+   private Object payload;
+
+   @Setup
+   public void setUp() {
+      GlobalConfigurationBuilder global = new GlobalConfigurationBuilder();
+      global.globalJmxStatistics().allowDuplicateDomains(true);
+      cacheManager = new DefaultCacheManager(global.build(), new ConfigurationBuilder().build());
+      // the marshallers are only registered once a cache is started
+      Cache<Object, Object> cache = cacheManager.getCache();
+      switch (marshallerType) {
+         case GLOBAL:
+            marshaller = cacheManager.getGlobalComponentRegistry().getComponent(StreamingMarshaller.class,
+                  KnownComponentNames.GLOBAL_MARSHALLER);
+            break;
+         default:
+            marshaller = cache.getAdvancedCache().getComponentRegistry().getCacheMarshaller();
+      }
+      switch (payloadType) {
+         case STRING:
+            payload = "value of a cache entry, neither tiny nor large, just a string";
+            break;
+         case BYTE_ARRAY:
+            payload = new byte[1024];
+            break;
+         default:
+            Map<String, Integer> map = new HashMap<String, Integer>();
+            for (int i = 0; i < 16; i++) {
+               map.put("key" + i, i);
+            }
+            payload = map;
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      cacheManager.stop();
+   }
+
+   @Benchmark
+   public Object roundTrip() throws IOException, InterruptedException, ClassNotFoundException {
+      byte[] bytes = marshaller.objectToByteBuffer(payload);
+      return marshaller.objectFromByteBuffer(bytes);
+   }
+}
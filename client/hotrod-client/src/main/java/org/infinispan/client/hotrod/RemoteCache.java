@@ -23,10 +23,12 @@
  * is returned instead. E.g. {@link java.util.Map#put(Object, Object)} returns the previous value associated to the
  * supplied key. In case of RemoteCache, this returns null.
  * <p/>
- * <b>Synthetic operations</b>: aggregate operations are being implemented based on other Hot Rod operations. E.g. all
- * the {@link java.util.Map#putAll(java.util.Map)} is implemented through multiple individual puts. This means that the
- * these operations are not atomic and that they are costly, e.g. as the number of network round-trips is not one, but
- * the size of the added map. All these synthetic operations are documented as such.
+ * <b>Synthetic operations</b>: aggregate operations are being implemented based on other Hot Rod operations. E.g. with
+ * protocol versions older than 2.1 the {@link java.util.Map#putAll(java.util.Map)} is implemented through multiple
+ * individual puts. This means that the these operations are not atomic and that they are costly, e.g. as the number of
+ * network round-trips is not one, but the size of the added map. All these synthetic operations are documented as such.
+ * Since protocol version 2.1, {@link #putAll(java.util.Map)} and {@link #getAll(java.util.Set)} send one request per
+ * server owning some of the keys, in parallel, but they are still not atomic.
  * <p/>
  * <b>changing default behavior through {@link org.infinispan.client.hotrod.Flag}s</b>: it is possible to change the
  * default cache behaviour by using flags on an per invocation basis. E.g.
@@ -270,6 +272,17 @@
     */
    Map<K, V> getBulk(int size);
 
+   /**
+    * Retrieves all the entries for the given keys. The keys are grouped by the server owning them, and a single request
+    * is sent to each server, in parallel. Keys that are not present in the cache are not present in the returned map
+    * either. With protocol versions older than 2.1 this is a synthetic operation, implemented with one
+    * {@link #get(Object)} per key.
+    *
+    * @return an unmodifiable map of the entries found
+    * @since 7.2
+    */
+   Map<K, V> getAll(Set<? extends K> keys);
+
 
    /**
     * Returns the HotRod protocol version supported by this RemoteCache implementation
@@ -9,9 +9,11 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.infinispan.client.hotrod.Flag;
 import org.infinispan.client.hotrod.MetadataValue;
@@ -23,11 +25,13 @@
 import org.infinispan.client.hotrod.event.ClientListenerNotifier;
 import org.infinispan.client.hotrod.exceptions.HotRodClientException;
 import org.infinispan.client.hotrod.exceptions.RemoteCacheManagerNotStartedException;
+import org.infinispan.client.hotrod.impl.async.OperationFuture;
 import org.infinispan.client.hotrod.impl.operations.*;
 import org.infinispan.client.hotrod.logging.Log;
 import org.infinispan.client.hotrod.logging.LogFactory;
 import org.infinispan.client.hotrod.marshall.MarshallerUtil;
 import org.infinispan.commons.marshall.Marshaller;
+import org.infinispan.commons.util.concurrent.FutureListener;
 import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.NotifyingFutureImpl;
 
@@ -83,6 +87,10 @@ public boolean removeWithVersion(K key, long version) {
    @Override
    public NotifyingFuture<Boolean> removeWithVersionAsync(final K key, final long version) {
       assertRemoteCacheManagerIsStarted();
+      if (operationsFactory.isMultiplexing()) {
+         RemoveIfUnmodifiedOperation op = operationsFactory.newRemoveIfUnmodifiedOperation(obj2bytes(key, true), version);
+         return convertAsync(op.executeAsync(), IS_UPDATED);
+      }
       final NotifyingFutureImpl<Boolean> result = new NotifyingFutureImpl<Boolean>();
       Future<Boolean> future = executorService.submit(new Callable<Boolean>() {
          @Override
@@ -120,6 +128,10 @@ public boolean replaceWithVersion(K key, V newValue, long version, int lifespanS
    @Override
    public NotifyingFuture<Boolean> replaceWithVersionAsync(final K key, final V newValue, final long version, final int lifespanSeconds, final int maxIdleSeconds) {
       assertRemoteCacheManagerIsStarted();
+      if (operationsFactory.isMultiplexing()) {
+         ReplaceIfUnmodifiedOperation op = operationsFactory.newReplaceIfUnmodifiedOperation(obj2bytes(key, true), obj2bytes(newValue, false), lifespanSeconds, maxIdleSeconds, version);
+         return convertAsync(op.executeAsync(), IS_UPDATED);
+      }
       final NotifyingFutureImpl<Boolean> result = new NotifyingFutureImpl<Boolean>();
       Future<Boolean> future = executorService.submit(new Callable<Boolean>() {
          @Override
@@ -165,14 +177,25 @@ public MetadataValue<V> getWithMetadata(K key) {
    @Override
    public void putAll(Map<? extends K, ? extends V> map, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
       assertRemoteCacheManagerIsStarted();
-      for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
-         put(entry.getKey(), entry.getValue(), lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
+      if (!operationsFactory.isBulkOperationSupported()) {
+         for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue(), lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
+         }
+         return;
+      }
+      if (map.isEmpty()) {
+         return;
       }
+      PutAllParallelOperation op = newPutAllOperation(map, lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
+      op.execute();
    }
 
    @Override
    public NotifyingFuture<Void> putAllAsync(final Map<? extends K, ? extends V> data, final long lifespan, final TimeUnit lifespanUnit, final long maxIdle, final TimeUnit maxIdleUnit) {
       assertRemoteCacheManagerIsStarted();
+      if (operationsFactory.isMultiplexing()) {
+         return putAllMultiplexed(data, lifespan, lifespanUnit, maxIdle, maxIdleUnit);
+      }
       final NotifyingFutureImpl<Void> result = new NotifyingFutureImpl<Void>();
       Future<Void> future = executorService.submit(new Callable<Void>() {
          @Override
@@ -227,25 +250,87 @@ public ServerStatistics stats() {
    @Override
    public V put(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
       assertRemoteCacheManagerIsStarted();
+      PutOperation op = newPutOperation(key, value, lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
+      byte[] result = op.execute();
+      return MarshallerUtil.bytes2obj(marshaller, result);
+   }
+
+   private PutOperation newPutOperation(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
       int lifespanSecs = toSeconds(lifespan, lifespanUnit);
       int maxIdleSecs = toSeconds(maxIdleTime, maxIdleTimeUnit);
       applyDefaultExpirationFlags(lifespan, maxIdleTime);
       if (log.isTraceEnabled()) {
          log.tracef("About to add (K,V): (%s, %s) lifespanSecs:%d, maxIdleSecs:%d", key, value, lifespanSecs, maxIdleSecs);
       }
-      PutOperation op = operationsFactory.newPutKeyValueOperation(obj2bytes(key, true), obj2bytes(value, false), lifespanSecs, maxIdleSecs);
-      byte[] result = op.execute();
-      return MarshallerUtil.bytes2obj(marshaller, result);
+      return operationsFactory.newPutKeyValueOperation(obj2bytes(key, true), obj2bytes(value, false), lifespanSecs, maxIdleSecs);
    }
 
+   private PutIfAbsentOperation newPutIfAbsentOperation(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
+      int lifespanSecs = toSeconds(lifespan, lifespanUnit);
+      int maxIdleSecs = toSeconds(maxIdleTime, maxIdleTimeUnit);
+      applyDefaultExpirationFlags(lifespan, maxIdleTime);
+      return operationsFactory.newPutIfAbsentOperation(obj2bytes(key, true), obj2bytes(value, false), lifespanSecs, maxIdleSecs);
+   }
 
-   @Override
-   public V putIfAbsent(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
-      assertRemoteCacheManagerIsStarted();
+   private ReplaceOperation newReplaceOperation(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
+      int lifespanSecs = toSeconds(lifespan, lifespanUnit);
+      int maxIdleSecs = toSeconds(maxIdleTime, maxIdleTimeUnit);
+      applyDefaultExpirationFlags(lifespan, maxIdleTime);
+      return operationsFactory.newReplaceOperation(obj2bytes(key, true), obj2bytes(value, false), lifespanSecs, maxIdleSecs);
+   }
+
+   private PutAllParallelOperation newPutAllOperation(Map<? extends K, ? extends V> map, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
       int lifespanSecs = toSeconds(lifespan, lifespanUnit);
       int maxIdleSecs = toSeconds(maxIdleTime, maxIdleTimeUnit);
       applyDefaultExpirationFlags(lifespan, maxIdleTime);
-      PutIfAbsentOperation op = operationsFactory.newPutIfAbsentOperation(obj2bytes(key, true), obj2bytes(value, false), lifespanSecs, maxIdleSecs);
+      if (log.isTraceEnabled()) {
+         log.tracef("About to putAll entries (%s) lifespanSecs:%d, maxIdleSecs:%d", map, lifespanSecs, maxIdleSecs);
+      }
+      Map<byte[], byte[]> byteMap = new HashMap<byte[], byte[]>(map.size());
+      for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
+         byteMap.put(obj2bytes(entry.getKey(), true), obj2bytes(entry.getValue(), false));
+      }
+      return operationsFactory.newPutAllOperation(byteMap, lifespanSecs, maxIdleSecs);
+   }
+
+   private NotifyingFuture<Void> putAllMultiplexed(Map<? extends K, ? extends V> data, long lifespan, TimeUnit lifespanUnit, long maxIdle, TimeUnit maxIdleUnit) {
+      final OperationFuture<Void> result = new OperationFuture<Void>();
+      if (data.isEmpty()) {
+         result.complete(null);
+         return result;
+      }
+      if (operationsFactory.isBulkOperationSupported()) {
+         // one putAll request per owner, completed by the transport's I/O threads
+         return newPutAllOperation(data, lifespan, lifespanUnit, maxIdle, maxIdleUnit).executeAsync();
+      }
+      final AtomicInteger remaining = new AtomicInteger(data.size());
+      FutureListener<byte[]> listener = new FutureListener<byte[]>() {
+         @Override
+         public void futureDone(Future<byte[]> future) {
+            try {
+               future.get();
+               if (remaining.decrementAndGet() == 0) {
+                  result.complete(null);
+               }
+            } catch (ExecutionException e) {
+               result.completeExceptionally(e.getCause());
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               result.completeExceptionally(e);
+            }
+         }
+      };
+      for (Entry<? extends K, ? extends V> entry : data.entrySet()) {
+         newPutOperation(entry.getKey(), entry.getValue(), lifespan, lifespanUnit, maxIdle, maxIdleUnit).executeAsync().attachListener(listener);
+      }
+      return result;
+   }
+
+
+   @Override
+   public V putIfAbsent(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
+      assertRemoteCacheManagerIsStarted();
+      PutIfAbsentOperation op = newPutIfAbsentOperation(key, value, lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
       byte[] bytes = op.execute();
       return MarshallerUtil.bytes2obj(marshaller, bytes);
    }
@@ -253,10 +338,7 @@ public V putIfAbsent(K key, V value, long lifespan, TimeUnit lifespanUnit, long
    @Override
    public V replace(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxIdleTime, TimeUnit maxIdleTimeUnit) {
       assertRemoteCacheManagerIsStarted();
-      int lifespanSecs = toSeconds(lifespan, lifespanUnit);
-      int maxIdleSecs = toSeconds(maxIdleTime, maxIdleTimeUnit);
-      applyDefaultExpirationFlags(lifespan, maxIdleTime);
-      ReplaceOperation op = operationsFactory.newReplaceOperation(obj2bytes(key, true), obj2bytes(value, false), lifespanSecs, maxIdleSecs);
+      ReplaceOperation op = newReplaceOperation(key, value, lifespan, lifespanUnit, maxIdleTime, maxIdleTimeUnit);
       byte[] bytes = op.execute();
       return MarshallerUtil.bytes2obj(marshaller, bytes);
    }
@@ -264,6 +346,9 @@ public V replace(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxI
    @Override
    public NotifyingFuture<V> putAsync(final K key, final V value, final long lifespan, final TimeUnit lifespanUnit, final long maxIdle, final TimeUnit maxIdleUnit) {
       assertRemoteCacheManagerIsStarted();
+      if (operationsFactory.isMultiplexing()) {
+         return convertAsync(newPutOperation(key, value, lifespan, lifespanUnit, maxIdle, maxIdleUnit).executeAsync(), unmarshaller);
+      }
       final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
       Future<V> future = executorService.submit(new Callable<V>() {
          @Override
@@ -322,6 +407,9 @@ public Void call() throws Exception {
    @Override
    public NotifyingFuture<V> putIfAbsentAsync(final K key,final V value,final long lifespan,final TimeUnit lifespanUnit,final long maxIdle,final TimeUnit maxIdleUnit) {
       assertRemoteCacheManagerIsStarted();
+      if (operationsFactory.isMultiplexing()) {
+         return convertAsync(newPutIfAbsentOperation(key, value, lifespan, lifespanUnit, maxIdle, maxIdleUnit).executeAsync(), unmarshaller);
+      }
       final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
       Future<V> future = executorService.submit(new Callable<V>() {
          @Override
@@ -351,6 +439,9 @@ public V call() throws Exception {
    @Override
    public NotifyingFuture<V> removeAsync(final Object key) {
       assertRemoteCacheManagerIsStarted();
+      if (operationsFactory.isMultiplexing()) {
+         return convertAsync(operationsFactory.newRemoveOperation(obj2bytes(key, true)).executeAsync(), unmarshaller);
+      }
       final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
       Future<V> future = executorService.submit(new Callable<V>() {
          @Override
@@ -380,6 +471,9 @@ public V call() throws Exception {
    @Override
    public NotifyingFuture<V> replaceAsync(final K key,final V value,final long lifespan,final TimeUnit lifespanUnit,final long maxIdle,final TimeUnit maxIdleUnit) {
       assertRemoteCacheManagerIsStarted();
+      if (operationsFactory.isMultiplexing()) {
+         return convertAsync(newReplaceOperation(key, value, lifespan, lifespanUnit, maxIdle, maxIdleUnit).executeAsync(), unmarshaller);
+      }
       final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
       Future<V> future = executorService.submit(new Callable<V>() {
          @Override
@@ -445,6 +539,36 @@ public Map<K, V> getBulk(int size) {
       return Collections.unmodifiableMap(toReturn);
    }
 
+   @Override
+   public Map<K, V> getAll(Set<? extends K> keys) {
+      assertRemoteCacheManagerIsStarted();
+      Map<K, V> toReturn = new HashMap<K, V>();
+      if (!operationsFactory.isBulkOperationSupported()) {
+         for (K key : keys) {
+            V value = get(key);
+            if (value != null) {
+               toReturn.put(key, value);
+            }
+         }
+         return Collections.unmodifiableMap(toReturn);
+      }
+      if (keys.isEmpty()) {
+         return Collections.emptyMap();
+      }
+      Set<byte[]> byteKeys = new HashSet<byte[]>(keys.size());
+      for (K key : keys) {
+         byteKeys.add(obj2bytes(key, true));
+      }
+      GetAllParallelOperation op = operationsFactory.newGetAllOperation(byteKeys);
+      Map<byte[], byte[]> result = op.execute();
+      for (Map.Entry<byte[], byte[]> entry : result.entrySet()) {
+         V value = MarshallerUtil.bytes2obj(marshaller, entry.getValue());
+         K key = MarshallerUtil.bytes2obj(marshaller, entry.getKey());
+         toReturn.put(key, value);
+      }
+      return Collections.unmodifiableMap(toReturn);
+   }
+
    @Override
    public V remove(Object key) {
       assertRemoteCacheManagerIsStarted();
@@ -543,6 +667,9 @@ public RemoteCache<K, V> withFlags(Flag... flags) {
    @Override
    public NotifyingFuture<V> getAsync(final K key) {
       assertRemoteCacheManagerIsStarted();
+      if (operationsFactory.isMultiplexing()) {
+         return convertAsync(operationsFactory.newGetKeyOperation(obj2bytes(key, true)).executeAsync(), unmarshaller);
+      }
       final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
       Future<V> future = executorService.submit(new Callable<V>() {
          @Override
@@ -573,6 +700,47 @@ public PingOperation.PingResult ping() {
       return operationsFactory.newFaultTolerantPingOperation().execute();
    }
 
+   /**
+    * Completes the returned future with the converted result of the operation, in the thread completing the operation.
+    */
+   private static <S, T> NotifyingFuture<T> convertAsync(OperationFuture<S> operationFuture, final ResultConverter<S, T> converter) {
+      final OperationFuture<T> result = new OperationFuture<T>();
+      operationFuture.attachListener(new FutureListener<S>() {
+         @Override
+         public void futureDone(Future<S> future) {
+            try {
+               result.complete(converter.convert(future.get()));
+            } catch (ExecutionException e) {
+               result.completeExceptionally(e.getCause());
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               result.completeExceptionally(e);
+            } catch (RuntimeException e) {
+               result.completeExceptionally(e);
+            }
+         }
+      });
+      return result;
+   }
+
+   private interface ResultConverter<S, T> {
+      T convert(S source);
+   }
+
+   private static final ResultConverter<VersionedOperationResponse, Boolean> IS_UPDATED = new ResultConverter<VersionedOperationResponse, Boolean>() {
+      @Override
+      public Boolean convert(VersionedOperationResponse response) {
+         return response.getCode().isUpdated();
+      }
+   };
+
+   private final ResultConverter<byte[], V> unmarshaller = new ResultConverter<byte[], V>() {
+      @Override
+      public V convert(byte[] bytes) {
+         return MarshallerUtil.bytes2obj(marshaller, bytes);
+      }
+   };
+
    private byte[] obj2bytes(Object o, boolean isKey) {
       try {
          return marshaller.objectToByteBuffer(o, isKey ? estimateKeySize : estimateValueSize);
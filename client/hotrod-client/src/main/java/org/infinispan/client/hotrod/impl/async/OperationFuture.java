@@ -0,0 +1,86 @@
+package org.infinispan.client.hotrod.impl.async;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.infinispan.commons.util.concurrent.BaseNotifyingFuture;
+
+/**
+ * A {@link org.infinispan.commons.util.concurrent.NotifyingFuture} completed explicitly by whoever produces the
+ * result, usually the I/O thread that decoded the response. Unlike
+ * {@link org.infinispan.commons.util.concurrent.NotifyingFutureImpl} it doesn't need a backing future, so no thread is
+ * blocked while the operation is in progress.
+ * <p/>
+ * Listeners are invoked by the thread completing the future, so they should not block.
+ *
+ * @since 7.2
+ */
+public class OperationFuture<T> extends BaseNotifyingFuture<T> {
+
+   private final CountDownLatch latch = new CountDownLatch(1);
+   private final AtomicBoolean completed = new AtomicBoolean();
+   private volatile T result;
+   private volatile Throwable exception;
+
+   /**
+    * @return {@code true} if this call completed the future, {@code false} if it was already completed
+    */
+   public boolean complete(T result) {
+      if (!completed.compareAndSet(false, true))
+         return false;
+      this.result = result;
+      latch.countDown();
+      fireListeners();
+      return true;
+   }
+
+   /**
+    * @return {@code true} if this call completed the future, {@code false} if it was already completed
+    */
+   public boolean completeExceptionally(Throwable exception) {
+      if (!completed.compareAndSet(false, true))
+         return false;
+      this.exception = exception;
+      latch.countDown();
+      fireListeners();
+      return true;
+   }
+
+   @Override
+   public boolean cancel(boolean mayInterruptIfRunning) {
+      // the request is already on the wire
+      return false;
+   }
+
+   @Override
+   public boolean isCancelled() {
+      return false;
+   }
+
+   @Override
+   public boolean isDone() {
+      return latch.getCount() == 0;
+   }
+
+   @Override
+   public T get() throws InterruptedException, ExecutionException {
+      latch.await();
+      return getResult();
+   }
+
+   @Override
+   public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+      if (!latch.await(timeout, unit))
+         throw new TimeoutException();
+      return getResult();
+   }
+
+   private T getResult() throws ExecutionException {
+      if (exception != null)
+         throw new ExecutionException(exception);
+      return result;
+   }
+}
@@ -1,14 +1,23 @@
 package org.infinispan.client.hotrod.impl.operations;
 
 import java.net.SocketAddress;
+import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import net.jcip.annotations.Immutable;
 import org.infinispan.client.hotrod.Flag;
+import org.infinispan.client.hotrod.exceptions.HotRodClientException;
+import org.infinispan.client.hotrod.exceptions.RemoteIllegalLifecycleStateException;
+import org.infinispan.client.hotrod.exceptions.RemoteNodeSuspectException;
+import org.infinispan.client.hotrod.exceptions.TransportException;
 import org.infinispan.client.hotrod.impl.VersionedOperationResponse;
+import org.infinispan.client.hotrod.impl.async.OperationFuture;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
 import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
+import org.infinispan.client.hotrod.impl.transport.MultiplexedRequest;
+import org.infinispan.client.hotrod.impl.transport.MultiplexingTransportFactory;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
 import org.infinispan.commons.logging.BasicLogFactory;
@@ -43,14 +52,67 @@ protected Transport getTransport(int retryCount, Set<SocketAddress> failedServer
       }
    }
 
-   protected short sendKeyOperation(byte[] key, Transport transport, byte opCode, byte opRespCode) {
-      // 1) write [header][key length][key]
+   @Override
+   public T execute() {
+      if (!isMultiplexing()) {
+         return super.execute();
+      }
+      try {
+         return executeAsync().get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new HotRodClientException(e);
+      } catch (ExecutionException e) {
+         Throwable cause = e.getCause();
+         if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+         }
+         throw new HotRodClientException(cause);
+      }
+   }
+
+   /**
+    * Sends the operation without blocking the calling thread. The returned future is completed by the I/O thread that
+    * receives the response, so its listeners should not block. Requires a {@link MultiplexingTransportFactory}.
+    */
+   public OperationFuture<T> executeAsync() {
+      AsyncExecution execution = new AsyncExecution((MultiplexingTransportFactory) transportFactory);
+      try {
+         execution.send();
+      } catch (RuntimeException e) {
+         execution.future.completeExceptionally(e);
+      }
+      return execution.future;
+   }
+
+   private boolean isMultiplexing() {
+      return transportFactory instanceof MultiplexingTransportFactory
+            && ((MultiplexingTransportFactory) transportFactory).isMultiplexing();
+   }
+
+   @Override
+   protected final T executeOperation(Transport transport) {
+      HeaderParams params = writeRequest(transport);
+      return readResponse(transport, params);
+   }
+
+   /**
+    * Writes the request, header included.
+    */
+   protected abstract HeaderParams writeRequest(Transport transport);
+
+   /**
+    * Reads the response, header included. With a {@link MultiplexingTransportFactory} this is invoked by an I/O thread,
+    * possibly several times for the same response if it hasn't been received completely.
+    */
+   protected abstract T readResponse(Transport transport, HeaderParams params);
+
+   protected HeaderParams writeKeyRequest(Transport transport, byte opCode) {
+      // [header][key length][key]
       HeaderParams params = writeHeader(transport, opCode);
       transport.writeArray(key);
       transport.flush();
-
-      // 2) now read the header
-      return readHeaderAndValidate(transport, params);
+      return params;
    }
 
    protected byte[] returnPossiblePrevValue(Transport transport, short status) {
@@ -75,4 +137,69 @@ protected VersionedOperationResponse returnVersionedOperationResponse(Transport
       byte[] prevValue = returnPossiblePrevValue(transport, respStatus);
       return new VersionedOperationResponse(prevValue, code);
    }
+
+   /**
+    * Sends the operation through a {@link MultiplexingTransportFactory}, retrying on another server on the same errors
+    * as {@link RetryOnFailureOperation#execute()}.
+    */
+   private class AsyncExecution implements MultiplexedRequest<T> {
+      final OperationFuture<T> future = new OperationFuture<T>();
+      final MultiplexingTransportFactory factory;
+      int retryCount;
+      Set<SocketAddress> failedServers;
+
+      AsyncExecution(MultiplexingTransportFactory factory) {
+         this.factory = factory;
+      }
+
+      void send() {
+         SocketAddress server = factory.getServer(retryCount == 0 ? key : null, failedServers, cacheName);
+         factory.send(server, this);
+      }
+
+      @Override
+      public HeaderParams writeRequest(Transport transport) {
+         return AbstractKeyOperation.this.writeRequest(transport);
+      }
+
+      @Override
+      public T readResponse(Transport transport, HeaderParams params) {
+         return AbstractKeyOperation.this.readResponse(transport, params);
+      }
+
+      @Override
+      public void completed(T result) {
+         future.complete(result);
+      }
+
+      @Override
+      public void failed(Throwable cause) {
+         boolean retriable = false;
+         if (cause instanceof TransportException) {
+            if (failedServers == null) {
+               failedServers = new HashSet<SocketAddress>();
+            }
+            failedServers.add(((TransportException) cause).getServerAddress());
+            retriable = true;
+         } else if (cause instanceof RemoteNodeSuspectException || cause instanceof RemoteIllegalLifecycleStateException) {
+            retriable = true;
+         }
+
+         int maxRetries = factory.getMaxRetries();
+         if (!retriable || retryCount >= maxRetries) {
+            if (retriable) {
+               log.tracef(cause, "Exception encountered and no retries left (%d out of %d)", retryCount, maxRetries);
+            }
+            future.completeExceptionally(cause);
+            return;
+         }
+         log.tracef(cause, "Exception encountered. Retry %d out of %d", retryCount, maxRetries);
+         retryCount++;
+         try {
+            send();
+         } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+         }
+      }
+   }
 }
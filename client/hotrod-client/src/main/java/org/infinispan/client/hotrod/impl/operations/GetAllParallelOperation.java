@@ -0,0 +1,70 @@
+package org.infinispan.client.hotrod.impl.operations;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.client.hotrod.Flag;
+import org.infinispan.client.hotrod.impl.consistenthash.ConsistentHash;
+import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+
+/**
+ * Reads a set of keys with one {@link GetAllOperation} per owner.
+ *
+ * @since 7.2
+ */
+public class GetAllParallelOperation extends ParallelHotRodOperation<Map<byte[], byte[]>, GetAllOperation> {
+
+   private final Set<byte[]> keys;
+
+   protected GetAllParallelOperation(Codec codec, TransportFactory transportFactory, Set<byte[]> keys, byte[] cacheName,
+                                     AtomicInteger topologyId, Flag[] flags, ExecutorService executorService) {
+      super(codec, transportFactory, cacheName, topologyId, flags, executorService);
+      this.keys = keys;
+   }
+
+   @Override
+   protected List<GetAllOperation> mapOperations() {
+      ConsistentHash consistentHash = transportFactory.getConsistentHash(cacheName);
+      if (consistentHash == null) {
+         return Collections.singletonList(newOperation(keys));
+      }
+      Map<SocketAddress, Set<byte[]>> keysByOwner = new HashMap<SocketAddress, Set<byte[]>>();
+      for (byte[] key : keys) {
+         SocketAddress owner = consistentHash.getServer(key);
+         Set<byte[]> ownerKeys = keysByOwner.get(owner);
+         if (ownerKeys == null) {
+            ownerKeys = new HashSet<byte[]>();
+            keysByOwner.put(owner, ownerKeys);
+         }
+         ownerKeys.add(key);
+      }
+      List<GetAllOperation> operations = new ArrayList<GetAllOperation>(keysByOwner.size());
+      for (Set<byte[]> ownerKeys : keysByOwner.values()) {
+         operations.add(newOperation(ownerKeys));
+      }
+      return operations;
+   }
+
+   private GetAllOperation newOperation(Set<byte[]> keys) {
+      return new GetAllOperation(codec, transportFactory, keys, cacheName, topologyId, flags);
+   }
+
+   @Override
+   protected Map<byte[], byte[]> createCollector() {
+      return new HashMap<byte[], byte[]>();
+   }
+
+   @Override
+   protected void combine(Map<byte[], byte[]> collector, Map<byte[], byte[]> result) {
+      collector.putAll(result);
+   }
+}
@@ -6,8 +6,10 @@
 import org.infinispan.client.hotrod.RemoteCacheManager;
 import org.infinispan.client.hotrod.event.ClientListenerNotifier;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.Codec21;
 import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
 import org.infinispan.client.hotrod.impl.query.RemoteQuery;
+import org.infinispan.client.hotrod.impl.transport.MultiplexingTransportFactory;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
 import org.infinispan.commons.util.InfinispanCollections;
@@ -18,7 +20,9 @@
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -46,15 +50,34 @@ public class OperationsFactory implements HotRodConstants {
 
    private final ClientListenerNotifier listenerNotifier;
 
+   private final ExecutorService executorService;
+
    public OperationsFactory(TransportFactory transportFactory, String cacheName,
                             AtomicInteger topologyId, boolean forceReturnValue, Codec codec,
-                            ClientListenerNotifier listenerNotifier) {
+                            ClientListenerNotifier listenerNotifier, ExecutorService executorService) {
       this.transportFactory = transportFactory;
       this.cacheNameBytes = RemoteCacheManager.cacheNameBytes(cacheName);
       this.topologyId = topologyId;
       this.forceReturnValue = forceReturnValue;
       this.codec = codec;
       this.listenerNotifier = listenerNotifier;
+      this.executorService = executorService;
+   }
+
+   /**
+    * @return {@code true} if key operations can be executed without blocking, see
+    *         {@link AbstractKeyOperation#executeAsync()}
+    */
+   public boolean isMultiplexing() {
+      return transportFactory instanceof MultiplexingTransportFactory
+            && ((MultiplexingTransportFactory) transportFactory).isMultiplexing();
+   }
+
+   /**
+    * @return {@code true} if the protocol version in use has the getAll and putAll requests, added in version 2.1
+    */
+   public boolean isBulkOperationSupported() {
+      return codec instanceof Codec21;
    }
 
    public ClientListenerNotifier getListenerNotifier() {
@@ -123,6 +146,18 @@ codec, transportFactory, key, cacheNameBytes, topologyId, flags(),
             values, lifespanSecs, maxIdleSecs);
    }
 
+   public GetAllParallelOperation newGetAllOperation(Set<byte[]> keys) {
+      return new GetAllParallelOperation(
+            codec, transportFactory, keys, cacheNameBytes, topologyId, flags(), executorService);
+   }
+
+   public PutAllParallelOperation newPutAllOperation(Map<byte[], byte[]> map,
+            int lifespanSecs, int maxIdleSecs) {
+      return new PutAllParallelOperation(
+            codec, transportFactory, map, cacheNameBytes, topologyId, flags(),
+            lifespanSecs, maxIdleSecs, executorService);
+   }
+
    public ContainsKeyOperation newContainsKeyOperation(byte[] key) {
       return new ContainsKeyOperation(
             codec, transportFactory, key, cacheNameBytes, topologyId, flags());
@@ -0,0 +1,84 @@
+package org.infinispan.client.hotrod.impl.operations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.jcip.annotations.Immutable;
+import org.infinispan.client.hotrod.Flag;
+import org.infinispan.client.hotrod.exceptions.HotRodClientException;
+import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+
+/**
+ * An operation on many keys that is split into one sub-operation per owner, according to the consistent hash of the
+ * cache. The sub-operations are executed in parallel, one of them in the caller thread and the others in the given
+ * executor, and their results are combined once all of them are done.
+ *
+ * @param <T> the result type of the operation and of each sub-operation
+ * @param <SUBOP> the sub-operation type
+ * @since 7.2
+ */
+@Immutable
+public abstract class ParallelHotRodOperation<T, SUBOP extends RetryOnFailureOperation<T>> extends HotRodOperation {
+
+   protected final TransportFactory transportFactory;
+   protected final ExecutorService executorService;
+
+   protected ParallelHotRodOperation(Codec codec, TransportFactory transportFactory, byte[] cacheName,
+                                     AtomicInteger topologyId, Flag[] flags, ExecutorService executorService) {
+      super(codec, flags, cacheName, topologyId);
+      this.transportFactory = transportFactory;
+      this.executorService = executorService;
+   }
+
+   @Override
+   public T execute() {
+      List<SUBOP> operations = mapOperations();
+      if (operations.isEmpty()) {
+         return createCollector();
+      } else if (operations.size() == 1) {
+         return operations.get(0).execute();
+      }
+
+      List<Future<T>> futures = new ArrayList<Future<T>>(operations.size() - 1);
+      for (final SUBOP operation : operations.subList(1, operations.size())) {
+         futures.add(executorService.submit(new Callable<T>() {
+            @Override
+            public T call() {
+               return operation.execute();
+            }
+         }));
+      }
+      T result = createCollector();
+      combine(result, operations.get(0).execute());
+      try {
+         for (Future<T> future : futures) {
+            combine(result, future.get());
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new HotRodClientException(e);
+      } catch (ExecutionException e) {
+         if (e.getCause() instanceof HotRodClientException) {
+            throw (HotRodClientException) e.getCause();
+         }
+         throw new HotRodClientException(e.getCause());
+      }
+      return result;
+   }
+
+   /**
+    * @return the sub-operations, one per owner of the keys according to
+    *         {@link TransportFactory#getConsistentHash(byte[])}, or a single one if there is no consistent hash
+    */
+   protected abstract List<SUBOP> mapOperations();
+
+   protected abstract T createCollector();
+
+   protected abstract void combine(T collector, T result);
+}
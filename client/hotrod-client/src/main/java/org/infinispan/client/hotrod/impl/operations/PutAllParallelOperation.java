@@ -0,0 +1,109 @@
+package org.infinispan.client.hotrod.impl.operations;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.client.hotrod.Flag;
+import org.infinispan.client.hotrod.impl.async.OperationFuture;
+import org.infinispan.client.hotrod.impl.consistenthash.ConsistentHash;
+import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.commons.util.concurrent.FutureListener;
+
+/**
+ * Stores a map of entries with one {@link PutAllOperation} per owner.
+ *
+ * @since 7.2
+ */
+public class PutAllParallelOperation extends ParallelHotRodOperation<Void, PutAllOperation> {
+
+   private final Map<byte[], byte[]> map;
+   private final int lifespan;
+   private final int maxIdle;
+
+   protected PutAllParallelOperation(Codec codec, TransportFactory transportFactory, Map<byte[], byte[]> map,
+                                     byte[] cacheName, AtomicInteger topologyId, Flag[] flags, int lifespan,
+                                     int maxIdle, ExecutorService executorService) {
+      super(codec, transportFactory, cacheName, topologyId, flags, executorService);
+      this.map = map;
+      this.lifespan = lifespan;
+      this.maxIdle = maxIdle;
+   }
+
+   /**
+    * Sends one request per owner without blocking the calling thread, see
+    * {@link AbstractKeyOperation#executeAsync()}. The returned future is completed by the I/O thread that receives
+    * the last response, or the first failure. Requires a multiplexing transport factory.
+    */
+   public OperationFuture<Void> executeAsync() {
+      final OperationFuture<Void> result = new OperationFuture<Void>();
+      List<PutAllOperation> operations = mapOperations();
+      final AtomicInteger remaining = new AtomicInteger(operations.size());
+      FutureListener<Void> listener = new FutureListener<Void>() {
+         @Override
+         public void futureDone(Future<Void> future) {
+            try {
+               future.get();
+               if (remaining.decrementAndGet() == 0) {
+                  result.complete(null);
+               }
+            } catch (ExecutionException e) {
+               result.completeExceptionally(e.getCause());
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               result.completeExceptionally(e);
+            }
+         }
+      };
+      for (PutAllOperation operation : operations) {
+         operation.executeAsync().attachListener(listener);
+      }
+      return result;
+   }
+
+   @Override
+   protected List<PutAllOperation> mapOperations() {
+      ConsistentHash consistentHash = transportFactory.getConsistentHash(cacheName);
+      if (consistentHash == null) {
+         return Collections.singletonList(newOperation(map));
+      }
+      Map<SocketAddress, Map<byte[], byte[]>> entriesByOwner = new HashMap<SocketAddress, Map<byte[], byte[]>>();
+      for (Entry<byte[], byte[]> entry : map.entrySet()) {
+         SocketAddress owner = consistentHash.getServer(entry.getKey());
+         Map<byte[], byte[]> ownerEntries = entriesByOwner.get(owner);
+         if (ownerEntries == null) {
+            ownerEntries = new HashMap<byte[], byte[]>();
+            entriesByOwner.put(owner, ownerEntries);
+         }
+         ownerEntries.put(entry.getKey(), entry.getValue());
+      }
+      List<PutAllOperation> operations = new ArrayList<PutAllOperation>(entriesByOwner.size());
+      for (Map<byte[], byte[]> ownerEntries : entriesByOwner.values()) {
+         operations.add(newOperation(ownerEntries));
+      }
+      return operations;
+   }
+
+   private PutAllOperation newOperation(Map<byte[], byte[]> entries) {
+      return new PutAllOperation(codec, transportFactory, entries, cacheName, topologyId, flags, lifespan, maxIdle);
+   }
+
+   @Override
+   protected Void createCollector() {
+      return null;
+   }
+
+   @Override
+   protected void combine(Void collector, Void result) {
+      // nothing to combine
+   }
+}
@@ -212,7 +212,6 @@ protected void readNewTopologyIfPresent(Transport transport, HeaderParams params
    protected void readNewTopologyAndHash(Transport transport, AtomicInteger topologyId, byte[] cacheName) {
       final Log localLog = getLog();
       int newTopologyId = transport.readVInt();
-      topologyId.set(newTopologyId);
       int numKeyOwners = transport.readUnsignedShort();
       short hashFunctionVersion = transport.readByte();
       int hashSpace = transport.readVInt();
@@ -222,6 +221,13 @@ protected void readNewTopologyAndHash(Transport transport, AtomicInteger topolog
             transport, localLog, newTopologyId, numKeyOwners,
             hashFunctionVersion, hashSpace, clusterSize);
 
+      // The topology is applied once it has been read completely. A multiplexed response is decoded again when more
+      // bytes arrive, so its header may be read more than once
+      if (topologyId.getAndSet(newTopologyId) == newTopologyId) {
+         if (localLog.isTraceEnabled())
+            localLog.tracef("Topology %d already applied", newTopologyId);
+         return;
+      }
       Set<SocketAddress> socketAddresses = servers2Hash.keySet();
       if (localLog.isInfoEnabled()) {
          localLog.newTopology(transport.getRemoteSocketAddress(), newTopologyId,
@@ -360,7 +360,6 @@ protected void readNewTopologyIfPresent(Transport transport, HeaderParams params
    protected void readNewTopologyAndHash(Transport transport, AtomicInteger topologyId, byte[] cacheName) {
       final Log localLog = getLog();
       int newTopologyId = transport.readVInt();
-      topologyId.set(newTopologyId);
 
       int clusterSize = transport.readVInt();
       SocketAddress[] addresses = new SocketAddress[clusterSize];
@@ -382,6 +381,13 @@ protected void readNewTopologyAndHash(Transport transport, AtomicInteger topolog
          }
       }
 
+      // The topology is applied once it has been read completely. A multiplexed response is decoded again when more
+      // bytes arrive, so its header may be read more than once
+      if (topologyId.getAndSet(newTopologyId) == newTopologyId) {
+         if (trace)
+            localLog.tracef("Topology %d already applied", newTopologyId);
+         return;
+      }
       List<SocketAddress> addressList = Arrays.asList(addresses);
       if (localLog.isInfoEnabled()) {
          localLog.newTopology(transport.getRemoteSocketAddress(), newTopologyId,
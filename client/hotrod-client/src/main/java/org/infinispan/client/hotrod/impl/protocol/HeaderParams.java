@@ -57,6 +57,10 @@ public HeaderParams messageId(long messageId) {
       return this;
    }
 
+   public long getMessageId() {
+      return messageId;
+   }
+
    private short toOpRespCode(short opCode) {
       switch (opCode) {
          case HotRodConstants.PUT_REQUEST:
@@ -103,6 +107,10 @@ private short toOpRespCode(short opCode) {
             return HotRodConstants.SIZE_RESPONSE;
          case HotRodConstants.EXEC_REQUEST:
             return HotRodConstants.EXEC_RESPONSE;
+         case HotRodConstants.PUT_ALL_REQUEST:
+            return HotRodConstants.PUT_ALL_RESPONSE;
+         case HotRodConstants.GET_ALL_REQUEST:
+            return HotRodConstants.GET_ALL_RESPONSE;
          default:
             throw new IllegalStateException("Unknown operation code: " + opCode);
       }
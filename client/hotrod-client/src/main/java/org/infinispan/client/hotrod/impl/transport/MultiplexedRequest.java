@@ -0,0 +1,39 @@
+package org.infinispan.client.hotrod.impl.transport;
+
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
+
+/**
+ * A request sent through a {@link MultiplexingTransportFactory}. The request is written by the calling thread, while
+ * the response is read and the request completed by an I/O thread, once the response with the same message id
+ * arrives.
+ *
+ * @since 7.2
+ */
+public interface MultiplexedRequest<T> {
+
+   /**
+    * Writes the whole request, header included, to the given transport.
+    *
+    * @return the header parameters, used to correlate the response by its message id
+    */
+   HeaderParams writeRequest(Transport transport);
+
+   /**
+    * Reads the response, header included. Responses are decoded as soon as data arrives, so this method may be
+    * invoked several times for the same response if it hasn't been received completely; it must not have side
+    * effects. The codec applies a new topology found in the header only once, even if the header is read again.
+    */
+   T readResponse(Transport transport, HeaderParams params);
+
+   /**
+    * Invoked once, with the result of {@link #readResponse(Transport, HeaderParams)}.
+    */
+   void completed(T result);
+
+   /**
+    * Invoked once if the request couldn't be sent or its response couldn't be read, e.g. with a
+    * {@link org.infinispan.client.hotrod.exceptions.TransportException} if the connection was lost or the response
+    * did not arrive within the socket timeout.
+    */
+   void failed(Throwable cause);
+}
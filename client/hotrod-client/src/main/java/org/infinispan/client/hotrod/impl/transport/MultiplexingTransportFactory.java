@@ -0,0 +1,31 @@
+package org.infinispan.client.hotrod.impl.transport;
+
+import java.net.SocketAddress;
+import java.util.Set;
+
+/**
+ * A {@link TransportFactory} able to have many requests in flight over the same connection, correlating the responses
+ * by their message id. Requests are sent without blocking the caller and completed asynchronously.
+ *
+ * @since 7.2
+ */
+public interface MultiplexingTransportFactory extends TransportFactory {
+
+   /**
+    * @return {@code true} if requests can be multiplexed with the current configuration. If not, operations should use
+    *         the {@link Transport}s returned by the {@link TransportFactory} methods.
+    */
+   boolean isMultiplexing();
+
+   /**
+    * Picks the server a request should be sent to: the owner of the key according to the consistent hash, or the next
+    * server according to the balancing strategy if the key is {@code null} or no consistent hash is known.
+    */
+   SocketAddress getServer(byte[] key, Set<SocketAddress> failedServers, byte[] cacheName);
+
+   /**
+    * Sends the request to the given server. Never blocks: connection failures are reported to
+    * {@link MultiplexedRequest#failed(Throwable)}.
+    */
+   void send(SocketAddress server, MultiplexedRequest<?> request);
+}
@@ -9,6 +9,7 @@
 
 import org.infinispan.client.hotrod.configuration.Configuration;
 import org.infinispan.client.hotrod.event.ClientListenerNotifier;
+import org.infinispan.client.hotrod.impl.consistenthash.ConsistentHash;
 import org.infinispan.client.hotrod.impl.consistenthash.ConsistentHashFactory;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
 
@@ -42,6 +43,11 @@ public interface TransportFactory {
 
    ConsistentHashFactory getConsistentHashFactory();
 
+   /**
+    * @return the consistent hash of the given cache, or {@code null} if the client has not received one
+    */
+   ConsistentHash getConsistentHash(byte[] cacheName);
+
    Transport getTransport(byte[] key, Set<SocketAddress> failedServers, byte[] cacheName);
 
    boolean isTcpNoDelay();
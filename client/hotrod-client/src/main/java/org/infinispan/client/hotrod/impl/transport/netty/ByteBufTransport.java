@@ -0,0 +1,126 @@
+package org.infinispan.client.hotrod.impl.transport.netty;
+
+import java.net.SocketAddress;
+
+import io.netty.buffer.ByteBuf;
+import org.infinispan.client.hotrod.impl.transport.AbstractTransport;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.commons.util.Util;
+
+/**
+ * A {@link org.infinispan.client.hotrod.impl.transport.Transport} over a Netty {@link ByteBuf}. It is used to encode a
+ * request before writing it to a channel and to decode a response from the bytes received so far.
+ * <p/>
+ * Instances are short lived and confined to the thread that encodes or decodes, hence not thread safe.
+ *
+ * @since 7.2
+ */
+class ByteBufTransport extends AbstractTransport {
+
+   private final ByteBuf buf;
+   private final SocketAddress serverAddress;
+   private boolean invalid;
+
+   ByteBufTransport(ByteBuf buf, TransportFactory transportFactory, SocketAddress serverAddress) {
+      super(transportFactory);
+      this.buf = buf;
+      this.serverAddress = serverAddress;
+   }
+
+   @Override
+   protected void writeBytes(byte[] toAppend) {
+      buf.writeBytes(toAppend);
+   }
+
+   @Override
+   public void writeByte(short toWrite) {
+      buf.writeByte(toWrite);
+   }
+
+   @Override
+   public void writeVInt(int vint) {
+      while ((vint & ~0x7F) != 0) {
+         buf.writeByte((vint & 0x7F) | 0x80);
+         vint >>>= 7;
+      }
+      buf.writeByte(vint);
+   }
+
+   @Override
+   public void writeVLong(long l) {
+      while ((l & ~0x7F) != 0) {
+         buf.writeByte((int) ((l & 0x7F) | 0x80));
+         l >>>= 7;
+      }
+      buf.writeByte((int) l);
+   }
+
+   @Override
+   public long readVLong() {
+      return readVLong(buf);
+   }
+
+   @Override
+   public int readVInt() {
+      byte b = buf.readByte();
+      int i = b & 0x7F;
+      for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+         b = buf.readByte();
+         i |= (b & 0x7F) << shift;
+      }
+      return i;
+   }
+
+   @Override
+   public void flush() {
+      // the buffer is written to the channel once the whole request is encoded
+   }
+
+   @Override
+   public short readByte() {
+      return buf.readUnsignedByte();
+   }
+
+   @Override
+   public void release() {
+      // nothing to release, the channel is shared
+   }
+
+   @Override
+   public byte[] readByteArray(int size) {
+      byte[] bytes = new byte[size];
+      buf.readBytes(bytes);
+      return bytes;
+   }
+
+   @Override
+   public byte[] dumpStream() {
+      // the remaining bytes belong to other responses on the same channel
+      return Util.EMPTY_BYTE_ARRAY;
+   }
+
+   @Override
+   public SocketAddress getRemoteSocketAddress() {
+      return serverAddress;
+   }
+
+   @Override
+   public void invalidate() {
+      invalid = true;
+   }
+
+   @Override
+   public boolean isValid() {
+      return !invalid;
+   }
+
+   static long readVLong(ByteBuf buf) {
+      byte b = buf.readByte();
+      long l = b & 0x7F;
+      for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+         b = buf.readByte();
+         l |= (b & 0x7FL) << shift;
+      }
+      return l;
+   }
+}
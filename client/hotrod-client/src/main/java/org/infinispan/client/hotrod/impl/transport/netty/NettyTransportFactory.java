@@ -0,0 +1,182 @@
+package org.infinispan.client.hotrod.impl.transport.netty;
+
+import java.net.SocketAddress;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.client.hotrod.configuration.Configuration;
+import org.infinispan.client.hotrod.event.ClientListenerNotifier;
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
+import org.infinispan.client.hotrod.impl.transport.MultiplexedRequest;
+import org.infinispan.client.hotrod.impl.transport.MultiplexingTransportFactory;
+import org.infinispan.client.hotrod.impl.transport.tcp.TcpTransportFactory;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+import org.infinispan.commons.util.CollectionFactory;
+
+/**
+ * A transport factory that multiplexes the key based operations over a few Netty channels per server, instead of
+ * borrowing a connection for each operation. Many requests can be in flight on the same channel and their responses
+ * are matched by message id, so neither the number of connections nor the number of threads limits the number of
+ * concurrent operations, and the asynchronous {@link org.infinispan.client.hotrod.RemoteCache} methods don't block any
+ * thread.
+ * <p/>
+ * The number of channels per server is the connection pool's {@code minIdle}, or 1 if not positive. Operations that
+ * need a connection of their own, e.g. bulk operations, queries and client listeners, still use the connection pool
+ * of the {@link TcpTransportFactory}, and so do all operations if authentication is enabled.
+ *
+ * @since 7.2
+ */
+@ThreadSafe
+public class NettyTransportFactory extends TcpTransportFactory implements MultiplexingTransportFactory {
+
+   private static final Log log = LogFactory.getLog(NettyTransportFactory.class, Log.class);
+
+   public static final String THREAD_NAME = "HotRod-client-netty";
+
+   private final ConcurrentMap<SocketAddress, ServerChannels> channels = CollectionFactory.makeConcurrentMap();
+   private volatile EventLoopGroup eventLoopGroup;
+   private volatile Bootstrap bootstrap;
+   private volatile int channelsPerServer;
+
+   @Override
+   public void start(Codec codec, Configuration configuration, AtomicInteger defaultCacheTopologyId, ClientListenerNotifier listenerNotifier) {
+      super.start(codec, configuration, defaultCacheTopologyId, listenerNotifier);
+      if (configuration.security().authentication().enabled()) {
+         log.authenticationNotMultiplexed();
+         return;
+      }
+      channelsPerServer = Math.max(1, configuration.connectionPool().minIdle());
+      eventLoopGroup = new NioEventLoopGroup(0, new DefaultThreadFactory(THREAD_NAME, true));
+      bootstrap = new Bootstrap()
+            .group(eventLoopGroup)
+            .channel(NioSocketChannel.class)
+            .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+            .option(ChannelOption.TCP_NODELAY, isTcpNoDelay())
+            .option(ChannelOption.SO_KEEPALIVE, isTcpKeepAlive())
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, getConnectTimeout());
+      if (log.isDebugEnabled()) {
+         log.debugf("Multiplexing key operations over %d channel(s) per server", channelsPerServer);
+      }
+   }
+
+   @Override
+   public boolean isMultiplexing() {
+      return bootstrap != null;
+   }
+
+   @Override
+   public void send(final SocketAddress server, final MultiplexedRequest<?> request) {
+      ChannelFuture connect = getChannels(server).acquire();
+      if (connect.isDone()) {
+         write(connect, server, request);
+      } else {
+         connect.addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) {
+               write(future, server, request);
+            }
+         });
+      }
+   }
+
+   private void write(ChannelFuture connect, SocketAddress server, MultiplexedRequest<?> request) {
+      if (!connect.isSuccess()) {
+         request.failed(new TransportException("Could not connect to server: " + server, connect.cause(), server));
+         return;
+      }
+      Channel channel = connect.channel();
+      ByteBuf buf = channel.alloc().buffer();
+      final HeaderParams params;
+      try {
+         params = request.writeRequest(new ByteBufTransport(buf, this, server));
+      } catch (RuntimeException e) {
+         buf.release();
+         request.failed(e);
+         return;
+      }
+      final ResponseDecoder decoder = channel.pipeline().get(ResponseDecoder.class);
+      decoder.register(channel, params, request, getSoTimeout());
+      channel.writeAndFlush(buf).addListener(new ChannelFutureListener() {
+         @Override
+         public void operationComplete(ChannelFuture future) {
+            if (!future.isSuccess()) {
+               decoder.failed(params, future.cause());
+            }
+         }
+      });
+   }
+
+   private ServerChannels getChannels(final SocketAddress server) {
+      ServerChannels serverChannels = channels.get(server);
+      if (serverChannels == null) {
+         Bootstrap serverBootstrap = bootstrap.clone().handler(new ChannelInitializer<Channel>() {
+            @Override
+            protected void initChannel(Channel channel) {
+               SSLContext sslContext = getSSLContext();
+               if (sslContext != null) {
+                  SSLEngine engine = sslContext.createSSLEngine();
+                  engine.setUseClientMode(true);
+                  channel.pipeline().addLast("ssl", new SslHandler(engine));
+               }
+               channel.pipeline().addLast("decoder", new ResponseDecoder(NettyTransportFactory.this, server));
+            }
+         });
+         serverChannels = new ServerChannels(server, serverBootstrap, channelsPerServer);
+         ServerChannels existing = channels.putIfAbsent(server, serverChannels);
+         if (existing != null) {
+            serverChannels = existing;
+         }
+      }
+      return serverChannels;
+   }
+
+   @Override
+   public void updateServers(Collection<SocketAddress> newServers, byte[] cacheName, boolean quiet) {
+      super.updateServers(newServers, cacheName, quiet);
+      Collection<SocketAddress> servers = getServers();
+      for (Iterator<Map.Entry<SocketAddress, ServerChannels>> it = channels.entrySet().iterator(); it.hasNext(); ) {
+         Map.Entry<SocketAddress, ServerChannels> entry = it.next();
+         if (!servers.contains(entry.getKey())) {
+            it.remove();
+            // in-flight requests fail with a TransportException and are retried on another server
+            entry.getValue().close();
+         }
+      }
+   }
+
+   @Override
+   public void destroy() {
+      super.destroy();
+      for (ServerChannels serverChannels : channels.values()) {
+         serverChannels.close();
+      }
+      channels.clear();
+      if (eventLoopGroup != null) {
+         eventLoopGroup.shutdownGracefully(0, getSoTimeout(), TimeUnit.MILLISECONDS).awaitUninterruptibly();
+      }
+   }
+}
@@ -0,0 +1,206 @@
+package org.infinispan.client.hotrod.impl.transport.netty;
+
+import java.net.SocketAddress;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ReplayingDecoder;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.infinispan.client.hotrod.exceptions.HotRodClientException;
+import org.infinispan.client.hotrod.exceptions.InvalidResponseException;
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
+import org.infinispan.client.hotrod.impl.transport.MultiplexedRequest;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+import org.infinispan.commons.util.CollectionFactory;
+
+/**
+ * Decodes the responses received on a channel shared by many in-flight requests. Each response is matched to its
+ * request by the message id in the response header, so responses may arrive in any order.
+ * <p/>
+ * The body of a Hot Rod response is not length-prefixed, so the request decodes its own response as with a blocking
+ * transport. If not all the bytes have arrived yet, the {@link ReplayingDecoder} rewinds and decodes the response again
+ * once more data is available.
+ *
+ * @since 7.2
+ */
+class ResponseDecoder extends ReplayingDecoder<Void> {
+
+   private static final Log log = LogFactory.getLog(ResponseDecoder.class, Log.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private final ConcurrentMap<Long, PendingRequest> pending = CollectionFactory.makeConcurrentMap();
+   private final TransportFactory transportFactory;
+   private final SocketAddress server;
+   private volatile boolean closed;
+
+   ResponseDecoder(TransportFactory transportFactory, SocketAddress server) {
+      this.transportFactory = transportFactory;
+      this.server = server;
+   }
+
+   /**
+    * Registers a request before it is written to the channel, so that the response can't arrive first.
+    * <p/>
+    * A request that times out is unregistered and the channel is closed: its response could still arrive, and without
+    * the request there is no way to find where the next response starts. The other requests in flight on the channel
+    * fail with a {@link TransportException}, so they are retried.
+    */
+   void register(final Channel channel, HeaderParams params, MultiplexedRequest<?> request, final long timeoutMillis) {
+      final long messageId = params.getMessageId();
+      final PendingRequest pendingRequest = new PendingRequest(params, request);
+      pending.put(messageId, pendingRequest);
+      if (closed) {
+         // the channel was closed concurrently and the pending requests may have been failed already
+         if (pending.remove(messageId, pendingRequest)) {
+            pendingRequest.fail(new TransportException("Connection closed", server));
+         }
+         return;
+      }
+      if (timeoutMillis > 0) {
+         pendingRequest.timeout = channel.eventLoop().schedule(new Runnable() {
+            @Override
+            public void run() {
+               // Runs in the event loop of the channel, so it can't interleave with the decoding of a response
+               if (pending.remove(messageId, pendingRequest)) {
+                  pendingRequest.fail(new TransportException(String.format(
+                        "No response received for message %d within %d ms", messageId, timeoutMillis), server));
+                  closed = true;
+                  failAll(new TransportException("Connection closed after a response timeout", server));
+                  channel.close();
+               }
+            }
+         }, timeoutMillis, TimeUnit.MILLISECONDS);
+      }
+   }
+
+   /**
+    * Fails a request that couldn't be written to the channel.
+    */
+   void failed(HeaderParams params, Throwable cause) {
+      PendingRequest pendingRequest = pending.remove(params.getMessageId());
+      if (pendingRequest != null) {
+         pendingRequest.fail(new TransportException(cause, server));
+      }
+   }
+
+   @Override
+   protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+      if (closed) {
+         in.skipBytes(actualReadableBytes());
+         return;
+      }
+
+      // [magic][message id]: peek at the message id, the whole header is validated by the codec
+      int start = in.readerIndex();
+      in.skipBytes(1);
+      long messageId = ByteBufTransport.readVLong(in);
+      in.readerIndex(start);
+
+      PendingRequest pendingRequest = pending.get(messageId);
+      if (pendingRequest == null) {
+         log.unknownResponseMessageId(messageId, server);
+         close(ctx, in);
+         return;
+      }
+
+      ByteBufTransport transport = new ByteBufTransport(in, transportFactory, server);
+      Object result;
+      try {
+         result = pendingRequest.request.readResponse(transport, pendingRequest.params);
+      } catch (RuntimeException e) {
+         pending.remove(messageId);
+         pendingRequest.fail(e);
+         // error responses are read completely, but after anything else the stream is no longer in sync
+         if (!transport.isValid() || !(e instanceof HotRodClientException) || e instanceof InvalidResponseException) {
+            close(ctx, in);
+         }
+         return;
+      }
+      pending.remove(messageId);
+      if (trace) {
+         log.tracef("Received response for message %d from %s", messageId, server);
+      }
+      pendingRequest.complete(result);
+   }
+
+   @Override
+   public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+      closed = true;
+      failAll(new TransportException("Connection closed", server));
+      super.channelInactive(ctx);
+   }
+
+   @Override
+   public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+      log.closingConnectionAfterError(server, cause);
+      closed = true;
+      failAll(new TransportException(cause, server));
+      ctx.close();
+   }
+
+   private void close(ChannelHandlerContext ctx, ByteBuf in) {
+      closed = true;
+      in.skipBytes(actualReadableBytes());
+      failAll(new TransportException("Connection closed after an invalid response", server));
+      ctx.close();
+   }
+
+   private void failAll(TransportException cause) {
+      for (Iterator<PendingRequest> it = pending.values().iterator(); it.hasNext(); ) {
+         PendingRequest pendingRequest = it.next();
+         it.remove();
+         pendingRequest.fail(cause);
+      }
+   }
+
+   private static class PendingRequest {
+      final HeaderParams params;
+      final MultiplexedRequest<?> request;
+      final AtomicBoolean done = new AtomicBoolean();
+      volatile ScheduledFuture<?> timeout;
+
+      PendingRequest(HeaderParams params, MultiplexedRequest<?> request) {
+         this.params = params;
+         this.request = request;
+      }
+
+      @SuppressWarnings("unchecked")
+      void complete(Object result) {
+         if (done.compareAndSet(false, true)) {
+            cancelTimeout();
+            try {
+               ((MultiplexedRequest<Object>) request).completed(result);
+            } catch (RuntimeException e) {
+               log.trace("Error when notifying", e);
+            }
+         }
+      }
+
+      void fail(Throwable cause) {
+         if (done.compareAndSet(false, true)) {
+            cancelTimeout();
+            try {
+               request.failed(cause);
+            } catch (RuntimeException e) {
+               log.trace("Error when notifying", e);
+            }
+         }
+      }
+
+      private void cancelTimeout() {
+         ScheduledFuture<?> timeout = this.timeout;
+         if (timeout != null) {
+            timeout.cancel(false);
+         }
+      }
+   }
+}
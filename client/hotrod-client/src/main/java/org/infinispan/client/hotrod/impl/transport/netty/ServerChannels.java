@@ -0,0 +1,61 @@
+package org.infinispan.client.hotrod.impl.transport.netty;
+
+import java.net.SocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelFuture;
+
+/**
+ * A fixed number of channels to a server, handed out in a round robin fashion. A channel is (re)connected lazily, by
+ * the first request that finds its slot empty or closed.
+ *
+ * @since 7.2
+ */
+class ServerChannels {
+
+   private final SocketAddress server;
+   private final Bootstrap bootstrap;
+   private final AtomicReferenceArray<ChannelFuture> channels;
+   private final AtomicInteger next = new AtomicInteger();
+
+   ServerChannels(SocketAddress server, Bootstrap bootstrap, int numChannels) {
+      this.server = server;
+      this.bootstrap = bootstrap;
+      this.channels = new AtomicReferenceArray<ChannelFuture>(numChannels);
+   }
+
+   /**
+    * @return the connect future of the next channel, possibly not completed yet
+    */
+   ChannelFuture acquire() {
+      int index = (next.getAndIncrement() & Integer.MAX_VALUE) % channels.length();
+      for (;;) {
+         ChannelFuture current = channels.get(index);
+         if (current != null && (!current.isDone() || current.isSuccess() && current.channel().isActive())) {
+            return current;
+         }
+         ChannelFuture connect = bootstrap.connect(server);
+         if (channels.compareAndSet(index, current, connect)) {
+            return connect;
+         }
+         // another thread reconnected the slot first
+         connect.channel().close();
+      }
+   }
+
+   void close() {
+      for (int i = 0; i < channels.length(); i++) {
+         ChannelFuture channel = channels.getAndSet(i, null);
+         if (channel != null) {
+            channel.channel().close();
+         }
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "ServerChannels{server=" + server + ", channels=" + channels.length() + "}";
+   }
+}
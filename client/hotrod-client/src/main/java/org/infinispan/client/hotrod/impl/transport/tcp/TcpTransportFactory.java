@@ -240,19 +240,26 @@ public Transport getAddressTransport(SocketAddress server) {
    }
 
    public Transport getTransport(byte[] key, Set<SocketAddress> failedServers, byte[] cacheName) {
-      SocketAddress server;
+      return borrowTransportFromPool(getServer(key, failedServers, cacheName));
+   }
+
+   /**
+    * Returns the owner of the key according to the consistent hash of the cache, or the next server chosen by the
+    * balancing strategy if the key is {@code null} or there is no consistent hash.
+    */
+   public SocketAddress getServer(byte[] key, Set<SocketAddress> failedServers, byte[] cacheName) {
       synchronized (lock) {
-         ConsistentHash consistentHash = consistentHashes.get(cacheName);
+         ConsistentHash consistentHash = key == null ? null : consistentHashes.get(cacheName);
          if (consistentHash != null) {
-            server = consistentHash.getServer(key);
+            SocketAddress server = consistentHash.getServer(key);
             if (log.isTraceEnabled()) {
                log.tracef("Using consistent hash for determining the server: " + server);
             }
+            return server;
          } else {
-            server = getNextServer(failedServers, cacheName);
+            return getNextServer(failedServers, cacheName);
          }
       }
-      return borrowTransportFromPool(server);
    }
 
    @Override
@@ -369,6 +376,7 @@ private Transport borrowTransportFromPool(SocketAddress server) {
    /**
     * Note that the returned <code>ConsistentHash</code> may not be thread-safe.
     */
+   @Override
    public ConsistentHash getConsistentHash(byte[] cacheName) {
       synchronized (lock) {
          return consistentHashes.get(cacheName);
@@ -186,4 +186,16 @@ public interface Log extends BasicLogger {
 
    @Message(value = "When enabling near caching, number of max entries must be configured", id = 4045)
    CacheConfigurationException nearCacheMaxEntriesUndefined();
+
+   @LogMessage(level = WARN)
+   @Message(value = "Received a response with unknown message id %d from server %s, closing the connection", id = 4046)
+   void unknownResponseMessageId(long messageId, SocketAddress server);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Closing the connection to server %s after an unexpected error", id = 4047)
+   void closingConnectionAfterError(SocketAddress server, @Cause Throwable t);
+
+   @LogMessage(level = INFO)
+   @Message(value = "Authentication is not supported by the Netty transport, operations will use pooled connections", id = 4048)
+   void authenticationNotMultiplexed();
 }
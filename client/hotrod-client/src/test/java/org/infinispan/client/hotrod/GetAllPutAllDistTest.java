@@ -0,0 +1,116 @@
+package org.infinispan.client.hotrod;
+
+import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.killRemoteCacheManager;
+import static org.infinispan.client.hotrod.test.HotRodClientTestingUtil.killServers;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.hotRodCacheConfiguration;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.client.hotrod.impl.ConfigurationProperties;
+import org.infinispan.client.hotrod.test.HotRodClientTestingUtil;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.context.Flag;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.server.hotrod.HotRodServer;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the getAll and putAll operations, which send one request per owner of the keys.
+ *
+ * @since 7.2
+ */
+@Test(testName = "client.hotrod.GetAllPutAllDistTest", groups = "functional")
+public class GetAllPutAllDistTest extends MultipleCacheManagersTest {
+
+   private static final int NUM_SERVERS = 3;
+   private static final int NUM_ENTRIES = 100;
+
+   protected HotRodServer[] hotrodServers;
+   protected RemoteCacheManager remoteCacheManager;
+   protected RemoteCache<String, String> remoteCache;
+
+   protected String protocolVersion() {
+      return ConfigurationProperties.DEFAULT_PROTOCOL_VERSION;
+   }
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      createCluster(hotRodCacheConfiguration(getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false)), NUM_SERVERS);
+      hotrodServers = new HotRodServer[NUM_SERVERS];
+      for (int i = 0; i < NUM_SERVERS; i++) {
+         EmbeddedCacheManager cm = cacheManagers.get(i);
+         hotrodServers[i] = HotRodClientTestingUtil.startHotRodServer(cm);
+      }
+
+      org.infinispan.client.hotrod.configuration.ConfigurationBuilder clientBuilder =
+            new org.infinispan.client.hotrod.configuration.ConfigurationBuilder();
+      clientBuilder.addServers(HotRodClientTestingUtil.getServersString(hotrodServers))
+            .protocolVersion(protocolVersion());
+      remoteCacheManager = new RemoteCacheManager(clientBuilder.build());
+      remoteCache = remoteCacheManager.getCache();
+   }
+
+   @AfterClass(alwaysRun = true)
+   public void release() {
+      killRemoteCacheManager(remoteCacheManager);
+      killServers(hotrodServers);
+   }
+
+   public void testPutAllGetAll() {
+      Map<String, String> data = new HashMap<String, String>();
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         data.put("k" + i, "v" + i);
+      }
+      remoteCache.putAll(data);
+
+      for (int i = 0; i < NUM_SERVERS; i++) {
+         assertTrue(cache(i).getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL).size() < NUM_ENTRIES);
+      }
+      for (Map.Entry<String, String> entry : data.entrySet()) {
+         assertEquals(entry.getValue(), remoteCache.get(entry.getKey()));
+      }
+
+      Set<String> keys = new HashSet<String>(data.keySet());
+      keys.add("missing");
+      Map<String, String> result = remoteCache.getAll(keys);
+      assertEquals(data, result);
+      assertFalse(result.containsKey("missing"));
+   }
+
+   public void testPutAllWithLifespan() {
+      Map<String, String> data = new HashMap<String, String>();
+      for (int i = 0; i < 10; i++) {
+         data.put("lifespan" + i, "v" + i);
+      }
+      remoteCache.putAll(data, 100, TimeUnit.SECONDS);
+      for (String key : data.keySet()) {
+         MetadataValue<String> value = remoteCache.getWithMetadata(key);
+         assertEquals(100, value.getLifespan());
+         assertEquals(data.get(key), value.getValue());
+      }
+   }
+
+   public void testPutAllVersioned() {
+      remoteCache.putAll(Collections.singletonMap("versioned", "v1"));
+      VersionedValue<String> value = remoteCache.getVersioned("versioned");
+      assertEquals("v1", value.getValue());
+      assertTrue(remoteCache.replaceWithVersion("versioned", "v2", value.getVersion()));
+      assertEquals("v2", remoteCache.get("versioned"));
+   }
+
+   public void testEmpty() {
+      remoteCache.putAll(new HashMap<String, String>());
+      assertTrue(remoteCache.getAll(new HashSet<String>()).isEmpty());
+      assertTrue(remoteCache.getAll(Collections.singleton("nothing")).isEmpty());
+   }
+}
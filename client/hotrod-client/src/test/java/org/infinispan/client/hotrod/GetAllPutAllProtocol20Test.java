@@ -0,0 +1,18 @@
+package org.infinispan.client.hotrod;
+
+import org.infinispan.client.hotrod.impl.ConfigurationProperties;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that getAll and putAll fall back to single key operations with a protocol version without bulk requests.
+ *
+ * @since 7.2
+ */
+@Test(testName = "client.hotrod.GetAllPutAllProtocol20Test", groups = "functional")
+public class GetAllPutAllProtocol20Test extends GetAllPutAllDistTest {
+
+   @Override
+   protected String protocolVersion() {
+      return ConfigurationProperties.PROTOCOL_VERSION_20;
+   }
+}
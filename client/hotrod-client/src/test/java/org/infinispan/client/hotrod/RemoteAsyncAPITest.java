@@ -36,7 +36,7 @@
 public class RemoteAsyncAPITest extends SingleCacheManagerTest {
    private HotRodServer hotrodServer;
    private RemoteCacheManager rcm;
-   private RemoteCache<String, String> c;
+   protected RemoteCache<String, String> c;
 
    @Override
    protected EmbeddedCacheManager createCacheManager() throws Exception {
@@ -48,12 +48,16 @@ protected EmbeddedCacheManager createCacheManager() throws Exception {
    protected void setup() throws Exception {
       super.setup();
       hotrodServer = HotRodClientTestingUtil.startHotRodServer(cacheManager);
+      rcm = new RemoteCacheManager(clientProperties());
+      c = rcm.getCache(true);
+   }
+
+   protected Properties clientProperties() {
       Properties props = new Properties();
       props.put("infinispan.client.hotrod.server_list", "127.0.0.1:" + hotrodServer.getPort());
       props.put("infinispan.client.hotrod.force_return_values","true");
       props.put("testOnBorrow", "false");
-      rcm = new RemoteCacheManager(props);
-      c = rcm.getCache(true);
+      return props;
    }
 
    @AfterClass
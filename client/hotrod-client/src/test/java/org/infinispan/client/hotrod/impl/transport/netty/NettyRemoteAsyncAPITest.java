@@ -0,0 +1,74 @@
+package org.infinispan.client.hotrod.impl.transport.netty;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.client.hotrod.RemoteAsyncAPITest;
+import org.infinispan.client.hotrod.impl.RemoteCacheImpl;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the asynchronous API tests with the key operations multiplexed over Netty channels.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "client.hotrod.impl.transport.netty.NettyRemoteAsyncAPITest")
+public class NettyRemoteAsyncAPITest extends RemoteAsyncAPITest {
+
+   private static final int NUM_KEYS = 1000;
+
+   @Override
+   protected Properties clientProperties() {
+      Properties props = super.clientProperties();
+      props.put("infinispan.client.hotrod.transport_factory", NettyTransportFactory.class.getName());
+      return props;
+   }
+
+   public void testMultiplexing() {
+      RemoteCacheImpl<String, String> cache = (RemoteCacheImpl<String, String>) c;
+      assertTrue(cache.getOperationsFactory().isMultiplexing());
+   }
+
+   public void testManyConcurrentOperations() throws Exception {
+      List<Future<String>> puts = new ArrayList<Future<String>>(NUM_KEYS);
+      for (int i = 0; i < NUM_KEYS; i++) {
+         puts.add(c.putAsync("key" + i, "value" + i));
+      }
+      for (Future<String> put : puts) {
+         assertNull(put.get(10, TimeUnit.SECONDS));
+      }
+
+      List<Future<String>> gets = new ArrayList<Future<String>>(NUM_KEYS);
+      for (int i = 0; i < NUM_KEYS; i++) {
+         gets.add(c.getAsync("key" + i));
+      }
+      for (int i = 0; i < NUM_KEYS; i++) {
+         assertEquals("value" + i, gets.get(i).get(10, TimeUnit.SECONDS));
+      }
+
+      // the synchronous methods go through the same channels
+      for (int i = 0; i < NUM_KEYS; i += 100) {
+         assertEquals("value" + i, c.remove("key" + i));
+      }
+   }
+
+   public void testPutAllAsyncMultiplexed() throws Exception {
+      Map<String, String> data = new HashMap<String, String>();
+      for (int i = 0; i < 100; i++) {
+         data.put("putAll" + i, "value" + i);
+      }
+      c.putAllAsync(data).get(10, TimeUnit.SECONDS);
+      for (Map.Entry<String, String> entry : data.entrySet()) {
+         assertEquals(entry.getValue(), c.get(entry.getKey()));
+      }
+   }
+}
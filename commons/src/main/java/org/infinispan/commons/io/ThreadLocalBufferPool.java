@@ -0,0 +1,96 @@
+package org.infinispan.commons.io;
+
+/**
+ * A per-thread pool of the scratch buffers used while marshalling, which would otherwise be allocated and discarded
+ * for every object.
+ * <p/>
+ * Marshalling can be reentrant (e.g. an externalizer marshalling its parameters with another marshaller), so each
+ * thread has a small stack of buffers. Buffers must be released in the reverse order of their acquisition, by the
+ * same thread, and they must not be used after they are released. When the stack is exhausted, or when a buffer has
+ * grown above {@link #MAX_POOLED_SIZE}, a throw-away buffer is used instead.
+ * <p/>
+ * Buffers handed over to other components, e.g. to JGroups messages, which may be retransmitted at any time, must
+ * never come from this pool.
+ *
+ * @since 7.2
+ */
+public final class ThreadLocalBufferPool {
+
+   /**
+    * The maximum capacity of a buffer kept in the pool.
+    */
+   public static final int MAX_POOLED_SIZE = 64 * 1024;
+
+   private static final int MAX_DEPTH = 4;
+
+   private static final ThreadLocal<Buffers> BUFFERS = new ThreadLocal<Buffers>() {
+      @Override
+      protected Buffers initialValue() {
+         return new Buffers();
+      }
+   };
+
+   private ThreadLocalBufferPool() {
+   }
+
+   /**
+    * @return an empty stream, which must be released with {@link #release(ExposedByteArrayOutputStream)}
+    */
+   public static ExposedByteArrayOutputStream acquireOutputStream(int estimatedSize) {
+      Buffers buffers = BUFFERS.get();
+      if (buffers.streamDepth == MAX_DEPTH)
+         return new ExposedByteArrayOutputStream(estimatedSize);
+
+      ExposedByteArrayOutputStream stream = buffers.streams[buffers.streamDepth];
+      if (stream == null) {
+         stream = new ExposedByteArrayOutputStream(estimatedSize);
+         buffers.streams[buffers.streamDepth] = stream;
+      } else {
+         stream.reset();
+      }
+      buffers.streamDepth++;
+      return stream;
+   }
+
+   public static void release(ExposedByteArrayOutputStream stream) {
+      Buffers buffers = BUFFERS.get();
+      int depth = buffers.streamDepth - 1;
+      if (depth >= 0 && buffers.streams[depth] == stream) {
+         if (stream.getRawBuffer().length > MAX_POOLED_SIZE)
+            buffers.streams[depth] = null;
+         buffers.streamDepth = depth;
+      }
+   }
+
+   /**
+    * @return an array of at least {@code length} bytes, which must be released with {@link #release(byte[])}
+    */
+   public static byte[] acquireBytes(int length) {
+      Buffers buffers = BUFFERS.get();
+      if (buffers.bytesDepth == MAX_DEPTH || length > MAX_POOLED_SIZE)
+         return new byte[length];
+
+      byte[] bytes = buffers.bytes[buffers.bytesDepth];
+      if (bytes == null || bytes.length < length) {
+         bytes = new byte[length];
+         buffers.bytes[buffers.bytesDepth] = bytes;
+      }
+      buffers.bytesDepth++;
+      return bytes;
+   }
+
+   public static void release(byte[] bytes) {
+      Buffers buffers = BUFFERS.get();
+      int depth = buffers.bytesDepth - 1;
+      if (depth >= 0 && buffers.bytes[depth] == bytes) {
+         buffers.bytesDepth = depth;
+      }
+   }
+
+   private static final class Buffers {
+      final ExposedByteArrayOutputStream[] streams = new ExposedByteArrayOutputStream[MAX_DEPTH];
+      int streamDepth;
+      final byte[][] bytes = new byte[MAX_DEPTH][];
+      int bytesDepth;
+   }
+}
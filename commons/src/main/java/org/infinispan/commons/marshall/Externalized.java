@@ -0,0 +1,32 @@
+package org.infinispan.commons.marshall;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indicate that an {@link AdvancedExternalizer} should be generated for this class at build time, by the annotation
+ * processor in the infinispan-marshall-processor module.
+ *
+ * The generated externalizer is named after the class with an {@code _Externalizer} suffix, it's placed in the same
+ * package and it's registered with the global marshaller automatically when the cache manager starts. Only the
+ * fields annotated with {@link ExternalizedField} are marshalled, so they must not be private or final, and the class
+ * must have a non-private no-arg constructor.
+ *
+ * @see GeneratedExternalizer
+ * @since 7.2
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+@Documented
+public @interface Externalized {
+
+   /**
+    * The identifier of the generated externalizer. It must be positive and it must not clash with the identifiers
+    * of any other externalizer, see {@link AdvancedExternalizer#getId()}.
+    */
+   int id();
+
+}
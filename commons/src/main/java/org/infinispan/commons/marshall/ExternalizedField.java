@@ -0,0 +1,33 @@
+package org.infinispan.commons.marshall;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field of an {@link Externalized} class to be marshalled by the generated externalizer.
+ *
+ * Each field is written together with its identifier, so fields can be added to or removed from the class without
+ * breaking the nodes running the previous version: unknown fields are skipped when reading, and fields that are
+ * missing from the stream keep the value assigned by the no-arg constructor. The identifier of a removed field, or
+ * of a field whose type has changed, must not be reused.
+ *
+ * The annotated fields of the superclasses are marshalled as well, so the identifiers must be unique in the whole
+ * class hierarchy. Fields inherited from a superclass in another package must be public.
+ *
+ * @since 7.2
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+@Documented
+public @interface ExternalizedField {
+
+   /**
+    * The identifier of the field, unique within the class and its superclasses. It must be between 1 and
+    * {@link GeneratedExternalizer#MAX_FIELD_ID}.
+    */
+   int id();
+
+}
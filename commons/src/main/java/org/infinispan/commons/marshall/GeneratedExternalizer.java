@@ -0,0 +1,125 @@
+package org.infinispan.commons.marshall;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Collections;
+import java.util.Set;
+
+import org.infinispan.commons.io.UnsignedNumeric;
+
+/**
+ * Base class for the externalizers generated for {@link Externalized} classes. The generated externalizers are
+ * listed in {@code META-INF/services/org.infinispan.commons.marshall.GeneratedExternalizer}, so that they can be
+ * registered without any configuration.
+ *
+ * An object is written as the number of fields followed by the fields themselves. Each field starts with a tag
+ * containing the field identifier and the wire type, which says how to skip the field if the reader doesn't know
+ * about it. Primitive fields are written with their fixed size, and references with
+ * {@link ObjectOutput#writeObject(Object)}. {@code null} references are not written at all.
+ *
+ * @since 7.2
+ */
+public abstract class GeneratedExternalizer<T> implements AdvancedExternalizer<T> {
+
+   /**
+    * {@code boolean} and {@code byte} fields.
+    */
+   protected static final int WIRE_BYTE = 0;
+   /**
+    * {@code char} and {@code short} fields.
+    */
+   protected static final int WIRE_SHORT = 1;
+   /**
+    * {@code int} and {@code float} fields.
+    */
+   protected static final int WIRE_INT = 2;
+   /**
+    * {@code long} and {@code double} fields.
+    */
+   protected static final int WIRE_LONG = 3;
+   /**
+    * Reference fields.
+    */
+   protected static final int WIRE_OBJECT = 4;
+
+   private static final int WIRE_TYPE_BITS = 3;
+   private static final int WIRE_TYPE_MASK = (1 << WIRE_TYPE_BITS) - 1;
+
+   /**
+    * The maximum field identifier, so that the tag fits in a positive {@code int}.
+    */
+   public static final int MAX_FIELD_ID = Integer.MAX_VALUE >>> WIRE_TYPE_BITS;
+
+   private final Class<T> type;
+   private final int id;
+
+   protected GeneratedExternalizer(Class<T> type, int id) {
+      this.type = type;
+      this.id = id;
+   }
+
+   @Override
+   public Set<Class<? extends T>> getTypeClasses() {
+      return Collections.<Class<? extends T>>singleton(type);
+   }
+
+   @Override
+   public Integer getId() {
+      return id;
+   }
+
+   protected static void writeFieldCount(ObjectOutput output, int count) throws IOException {
+      UnsignedNumeric.writeUnsignedInt(output, count);
+   }
+
+   protected static int readFieldCount(ObjectInput input) throws IOException {
+      return UnsignedNumeric.readUnsignedInt(input);
+   }
+
+   protected static void writeTag(ObjectOutput output, int fieldId, int wireType) throws IOException {
+      UnsignedNumeric.writeUnsignedInt(output, fieldId << WIRE_TYPE_BITS | wireType);
+   }
+
+   protected static int readTag(ObjectInput input) throws IOException {
+      return UnsignedNumeric.readUnsignedInt(input);
+   }
+
+   protected static int fieldId(int tag) {
+      return tag >>> WIRE_TYPE_BITS;
+   }
+
+   protected static int wireType(int tag) {
+      return tag & WIRE_TYPE_MASK;
+   }
+
+   /**
+    * Skips a field that is unknown to this version of the class, or whose type has changed.
+    */
+   protected static void skipField(ObjectInput input, int tag) throws IOException, ClassNotFoundException {
+      switch (wireType(tag)) {
+         case WIRE_BYTE:
+            input.readByte();
+            break;
+         case WIRE_SHORT:
+            input.readShort();
+            break;
+         case WIRE_INT:
+            input.readInt();
+            break;
+         case WIRE_LONG:
+            input.readLong();
+            break;
+         case WIRE_OBJECT:
+            input.readObject();
+            break;
+         default:
+            throw new IOException("Unknown wire type " + wireType(tag) + " for field " + fieldId(tag));
+      }
+   }
+
+   @Override
+   public String toString() {
+      return getClass().getSimpleName() + "{id=" + id + ", type=" + type.getName() + "}";
+   }
+}
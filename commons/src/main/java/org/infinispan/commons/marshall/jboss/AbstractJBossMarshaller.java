@@ -3,6 +3,7 @@
 import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.commons.io.ByteBufferImpl;
 import org.infinispan.commons.io.ExposedByteArrayOutputStream;
+import org.infinispan.commons.io.ThreadLocalBufferPool;
 import org.infinispan.commons.logging.BasicLogFactory;
 import org.infinispan.commons.marshall.AbstractMarshaller;
 import org.infinispan.commons.marshall.StreamingMarshaller;
@@ -24,6 +25,7 @@
 import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.net.URL;
+import java.util.Arrays;
 
 import static org.infinispan.commons.util.ReflectionUtil.EMPTY_CLASS_ARRAY;
 import static org.infinispan.commons.util.Util.EMPTY_OBJECT_ARRAY;
@@ -75,14 +77,19 @@ final public void objectToObjectStream(final Object obj, final ObjectOutput out)
 
    @Override
    final protected ByteBuffer objectToBuffer(final Object o, final int estimatedSize) throws IOException {
-      ExposedByteArrayOutputStream baos = new ExposedByteArrayOutputStream(estimatedSize);
-      ObjectOutput marshaller = startObjectOutput(baos, false, estimatedSize);
+      ExposedByteArrayOutputStream baos = ThreadLocalBufferPool.acquireOutputStream(estimatedSize);
       try {
-         objectToObjectStream(o, marshaller);
+         ObjectOutput marshaller = startObjectOutput(baos, false, estimatedSize);
+         try {
+            objectToObjectStream(o, marshaller);
+         } finally {
+            finishObjectOutput(marshaller);
+         }
+         // The pooled buffer is reused, so hand out an exact copy
+         return new ByteBufferImpl(Arrays.copyOf(baos.getRawBuffer(), baos.size()), 0, baos.size());
       } finally {
-         finishObjectOutput(marshaller);
+         ThreadLocalBufferPool.release(baos);
       }
-      return new ByteBufferImpl(baos.getRawBuffer(), 0, baos.size());
    }
 
    @Override
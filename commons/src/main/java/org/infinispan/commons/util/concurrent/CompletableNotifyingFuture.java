@@ -0,0 +1,109 @@
+package org.infinispan.commons.util.concurrent;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link NotifyingFuture} which is not backed by a task, but completed explicitly by whoever produces the result,
+ * e.g. the thread receiving the last response of a remote invocation.
+ * <p/>
+ * Only the first call to {@link #complete(Object)}, {@link #completeExceptionally(Throwable)} or
+ * {@link #cancel(boolean)} has any effect. The listeners are notified in the completing thread, so they should not
+ * block.
+ *
+ * @since 7.2
+ */
+public class CompletableNotifyingFuture<T> extends BaseNotifyingFuture<T> implements NotifyingNotifiableFuture<T> {
+
+   private final AtomicBoolean completing = new AtomicBoolean(false);
+   private final CountDownLatch latch = new CountDownLatch(1);
+   private volatile T value;
+   private volatile Throwable exception;
+
+   /**
+    * @return {@code true} if this call completed the future, {@code false} if it was already completed
+    */
+   public boolean complete(T value) {
+      if (!completing.compareAndSet(false, true))
+         return false;
+      this.value = value;
+      done();
+      return true;
+   }
+
+   /**
+    * @return {@code true} if this call completed the future, {@code false} if it was already completed
+    */
+   public boolean completeExceptionally(Throwable exception) {
+      if (exception == null)
+         throw new NullPointerException("exception");
+      if (!completing.compareAndSet(false, true))
+         return false;
+      this.exception = exception;
+      done();
+      return true;
+   }
+
+   private void done() {
+      // release the waiting threads first, so that listeners can call get()
+      latch.countDown();
+      fireListeners();
+   }
+
+   @Override
+   public void notifyDone(T result) {
+      complete(result);
+   }
+
+   @Override
+   public void notifyException(Throwable exception) {
+      completeExceptionally(exception);
+   }
+
+   @Override
+   public void setFuture(Future<T> future) {
+      // not backed by a task
+   }
+
+   @Override
+   public boolean cancel(boolean mayInterruptIfRunning) {
+      return completeExceptionally(new CancellationException());
+   }
+
+   @Override
+   public boolean isCancelled() {
+      return exception instanceof CancellationException;
+   }
+
+   @Override
+   public boolean isDone() {
+      return latch.getCount() == 0;
+   }
+
+   @Override
+   public T get() throws InterruptedException, ExecutionException {
+      latch.await();
+      return getValue();
+   }
+
+   @Override
+   public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+      if (!latch.await(timeout, unit))
+         throw new TimeoutException();
+      return getValue();
+   }
+
+   private T getValue() throws ExecutionException {
+      Throwable t = exception;
+      if (t instanceof CancellationException)
+         throw (CancellationException) t;
+      if (t != null)
+         throw new ExecutionException(t);
+      return value;
+   }
+}
@@ -0,0 +1,83 @@
+package org.infinispan.commons.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ThreadLocalBufferPoolTest {
+   @Test
+   public void testOutputStreamReused() {
+      ExposedByteArrayOutputStream stream = ThreadLocalBufferPool.acquireOutputStream(16);
+      stream.write(1);
+      ThreadLocalBufferPool.release(stream);
+
+      ExposedByteArrayOutputStream again = ThreadLocalBufferPool.acquireOutputStream(16);
+      try {
+         assertSame(stream, again);
+         assertEquals(0, again.size());
+      } finally {
+         ThreadLocalBufferPool.release(again);
+      }
+   }
+
+   @Test
+   public void testNestedOutputStreams() {
+      ExposedByteArrayOutputStream outer = ThreadLocalBufferPool.acquireOutputStream(16);
+      outer.write(1);
+      ExposedByteArrayOutputStream inner = ThreadLocalBufferPool.acquireOutputStream(16);
+      inner.write(2);
+      assertNotSame(outer, inner);
+      ThreadLocalBufferPool.release(inner);
+      assertEquals(1, outer.size());
+      assertEquals(1, outer.getRawBuffer()[0]);
+      ThreadLocalBufferPool.release(outer);
+   }
+
+   @Test
+   public void testLargeOutputStreamNotRetained() {
+      ExposedByteArrayOutputStream stream = ThreadLocalBufferPool.acquireOutputStream(16);
+      stream.write(new byte[ThreadLocalBufferPool.MAX_POOLED_SIZE + 1], 0, ThreadLocalBufferPool.MAX_POOLED_SIZE + 1);
+      ThreadLocalBufferPool.release(stream);
+
+      ExposedByteArrayOutputStream again = ThreadLocalBufferPool.acquireOutputStream(16);
+      try {
+         assertNotSame(stream, again);
+      } finally {
+         ThreadLocalBufferPool.release(again);
+      }
+   }
+
+   @Test
+   public void testBytesReused() {
+      byte[] bytes = ThreadLocalBufferPool.acquireBytes(32);
+      assertTrue(bytes.length >= 32);
+      ThreadLocalBufferPool.release(bytes);
+
+      byte[] smaller = ThreadLocalBufferPool.acquireBytes(8);
+      ThreadLocalBufferPool.release(smaller);
+      assertSame(bytes, smaller);
+
+      byte[] larger = ThreadLocalBufferPool.acquireBytes(bytes.length + 1);
+      ThreadLocalBufferPool.release(larger);
+      assertTrue(larger.length > bytes.length);
+   }
+
+   @Test
+   public void testExhaustedPool() {
+      ExposedByteArrayOutputStream[] streams = new ExposedByteArrayOutputStream[10];
+      for (int i = 0; i < streams.length; i++) {
+         streams[i] = ThreadLocalBufferPool.acquireOutputStream(16);
+      }
+      for (int i = streams.length - 1; i >= 0; i--) {
+         ThreadLocalBufferPool.release(streams[i]);
+      }
+
+      // The pooled streams are available again
+      ExposedByteArrayOutputStream stream = ThreadLocalBufferPool.acquireOutputStream(16);
+      ThreadLocalBufferPool.release(stream);
+      assertSame(streams[0], stream);
+   }
+}
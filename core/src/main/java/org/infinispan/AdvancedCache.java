@@ -29,6 +29,7 @@
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * An advanced interface that exposes additional methods not available on {@link Cache}.
@@ -308,6 +309,18 @@
     */
    V put(K key, V value, Metadata metadata);
 
+   /**
+    * An overloaded form of {@link #putAll(Map)}, which takes in an instance of
+    * {@link org.infinispan.metadata.Metadata} which can be used to provide metadata information for
+    * the entries being stored, such as lifespan, version of value...etc.
+    *
+    * @param map the values to store
+    * @param metadata information to store alongside the values
+    *
+    * @since 7.2
+    */
+   void putAll(Map<? extends K, ? extends V> map, Metadata metadata);
+
    /**
     * An overloaded form of {@link #replace(K, V)}, which takes in an
     * instance of {@link Metadata} which can be used to provide metadata
@@ -404,6 +417,21 @@
     */
    CacheEntry<K, V> getCacheEntry(K key);
 
+   /**
+    * Gets a collection of entries, returning them as {@link Map} of the values associated with the set of keys
+    * requested.
+    * <p/>
+    * Unlike calling {@link #get(Object)} for each key, the keys are retrieved with a single invocation: keys owned by
+    * the same remote node are fetched with a single RPC, and the RPCs to different owners are sent in parallel.
+    *
+    * @param keys The keys whose associated values are to be returned.
+    * @return A map of entries that were found for the given keys. Keys not found in the cache are not present in the
+    *         returned map.
+    *
+    * @since 7.2
+    */
+   Map<K, V> getAll(Set<?> keys);
+
    /**
     * Retrieve the entry iterable that can be used to iterate over the contents of this cache.  Note that every
     * invocation of {@link Iterable#iterator()} will cause a new request chain to retrieve all of the values in
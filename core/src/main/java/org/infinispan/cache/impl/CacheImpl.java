@@ -9,6 +9,7 @@
 import org.infinispan.commands.control.LockControlCommand;
 import org.infinispan.commands.read.EntryRetrievalCommand;
 import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetCacheEntryCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
@@ -32,6 +33,8 @@
 import org.infinispan.commons.util.CloseableIteratorSet;
 import org.infinispan.commons.util.Util;
 import org.infinispan.commons.util.concurrent.AbstractInProcessNotifyingFuture;
+import org.infinispan.commons.util.concurrent.CompletableNotifyingFuture;
+import org.infinispan.commons.util.concurrent.FutureListener;
 import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.NotifyingFutureImpl;
 import org.infinispan.configuration.cache.Configuration;
@@ -45,6 +48,7 @@
 import org.infinispan.context.InvocationContextFactory;
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.eviction.EvictionManager;
 import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.factories.annotations.ComponentName;
@@ -56,6 +60,7 @@
 import org.infinispan.filter.NullValueConverter;
 import org.infinispan.interceptors.InterceptorChain;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.base.InvocationStage;
 import org.infinispan.iteration.EntryIterable;
 import org.infinispan.iteration.impl.EntryRetriever;
 import org.infinispan.jmx.annotations.DataType;
@@ -229,7 +234,14 @@ private void assertKeysNotNull(Map<?, ?> data) {
       if (data == null) {
          throw new NullPointerException("Expected map cannot be null");
       }
-      for (Object key : data.keySet()) {
+      assertKeysNotNull(data.keySet());
+   }
+
+   private void assertKeysNotNull(Collection<?> keys) {
+      if (keys == null) {
+         throw new NullPointerException("Expected keys cannot be null");
+      }
+      for (Object key : keys) {
          if (key == null) {
             throw new NullPointerException("Null keys are not supported!");
          }
@@ -436,6 +448,22 @@ public final CacheEntry getCacheEntry(K key) {
       return getCacheEntry(key, null, null);
    }
 
+   @Override
+   public Map<K, V> getAll(Set<?> keys) {
+      return getAll(keys, null, null);
+   }
+
+   @SuppressWarnings("unchecked")
+   public final Map<K, V> getAll(Set<?> keys, EnumSet<Flag> explicitFlags, ClassLoader explicitClassLoader) {
+      assertKeysNotNull(keys);
+      if (keys.isEmpty()) {
+         return Collections.emptyMap();
+      }
+      InvocationContext ctx = getInvocationContextForRead(explicitClassLoader, keys.size());
+      GetAllCommand command = commandsFactory.buildGetAllCommand(keys, explicitFlags, false);
+      return (Map<K, V>) invoker.invoke(ctx, command);
+   }
+
    @Override
    public EntryIterable<K, V> filterEntries(KeyValueFilter<? super K, ? super V> filter) {
       return filterEntries(filter, null, null);
@@ -1182,6 +1210,10 @@ public final NotifyingFuture<V> putAsync(K key, V value, long lifespan, TimeUnit
    final NotifyingFuture<V> putAsync(final K key, final V value, final Metadata metadata, final EnumSet<Flag> explicitFlags, final ClassLoader explicitClassLoader) {
       final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
       final InvocationContext ctx = getInvocationContextWithImplicitTransactionForAsyncOps(false, explicitClassLoader, 1);
+      if (isNonBlockingWrite(ctx, explicitFlags, key)) {
+         assertKeyValueNotNull(key, value);
+         return invokeNonBlocking(ctx, commandsFactory.buildPutKeyValueCommand(key, value, metadata, explicitFlags));
+      }
       Future<V> returnValue = asyncExecutor.submit(new Callable<V>() {
          @Override
          public V call() throws Exception {
@@ -1293,6 +1325,13 @@ final NotifyingFuture<V> putIfAbsentAsync(final K key, final V value, final Meta
          final EnumSet<Flag> explicitFlags,final ClassLoader explicitClassLoader) {
       final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
       final InvocationContext ctx = getInvocationContextWithImplicitTransactionForAsyncOps(false, explicitClassLoader, 1);
+      if (isNonBlockingWrite(ctx, explicitFlags, key)) {
+         assertKeyValueNotNull(key, value);
+         PutKeyValueCommand command = commandsFactory.buildPutKeyValueCommand(key, value, metadata, explicitFlags);
+         command.setPutIfAbsent(true);
+         command.setValueMatcher(ValueMatcher.MATCH_EXPECTED);
+         return invokeNonBlocking(ctx, command);
+      }
       Future<V> returnValue = asyncExecutor.submit(new Callable<V>() {
          @Override
          public V call() throws Exception {
@@ -1327,6 +1366,10 @@ public final NotifyingFuture<V> removeAsync(Object key) {
    final NotifyingFuture<V> removeAsync(final Object key, final EnumSet<Flag> explicitFlags, final ClassLoader explicitClassLoader) {
       final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
       final InvocationContext ctx = getInvocationContextWithImplicitTransactionForAsyncOps(false, explicitClassLoader, 1);
+      if (isNonBlockingWrite(ctx, explicitFlags, key)) {
+         assertKeyNotNull(key);
+         return invokeNonBlocking(ctx, commandsFactory.buildRemoveCommand(key, null, explicitFlags));
+      }
       Future<V> returnValue = asyncExecutor.submit(new Callable<V>() {
          @Override
          public V call() throws Exception {
@@ -1361,6 +1404,10 @@ public final NotifyingFuture<Boolean> removeAsync(Object key, Object value) {
    final NotifyingFuture<Boolean> removeAsync(final Object key, final Object value, final EnumSet<Flag> explicitFlags, final ClassLoader explicitClassLoader) {
       final NotifyingFutureImpl<Boolean> result = new NotifyingFutureImpl<Boolean>();
       final InvocationContext ctx = getInvocationContextWithImplicitTransactionForAsyncOps(false, explicitClassLoader, 1);
+      if (isNonBlockingWrite(ctx, explicitFlags, key)) {
+         assertKeyValueNotNull(key, value);
+         return invokeNonBlocking(ctx, commandsFactory.buildRemoveCommand(key, value, explicitFlags));
+      }
       Future<Boolean> returnValue = asyncExecutor.submit(new Callable<Boolean>() {
          @Override
          public Boolean call() throws Exception {
@@ -1399,6 +1446,10 @@ final NotifyingFuture<V> replaceAsync(final K key, final V value, final Metadata
          final EnumSet<Flag> explicitFlags, final ClassLoader explicitClassLoader) {
       final NotifyingFutureImpl<V> result = new NotifyingFutureImpl<V>();
       final InvocationContext ctx = getInvocationContextWithImplicitTransactionForAsyncOps(false, explicitClassLoader, 1);
+      if (isNonBlockingWrite(ctx, explicitFlags, key)) {
+         assertKeyValueNotNull(key, value);
+         return invokeNonBlocking(ctx, commandsFactory.buildReplaceCommand(key, null, value, metadata, explicitFlags));
+      }
       Future<V> returnValue = asyncExecutor.submit(new Callable<V>() {
          @Override
          public V call() throws Exception {
@@ -1437,6 +1488,11 @@ final NotifyingFuture<Boolean> replaceAsync(final K key, final V oldValue, final
          final Metadata metadata, final EnumSet<Flag> explicitFlags, final ClassLoader explicitClassLoader) {
       final NotifyingFutureImpl<Boolean> result = new NotifyingFutureImpl<Boolean>();
       final InvocationContext ctx = getInvocationContextWithImplicitTransactionForAsyncOps(false, explicitClassLoader, 1);
+      if (isNonBlockingWrite(ctx, explicitFlags, key)) {
+         assertKeyValueNotNull(key, newValue);
+         assertValueNotNull(oldValue);
+         return invokeNonBlocking(ctx, commandsFactory.buildReplaceCommand(key, oldValue, newValue, metadata, explicitFlags));
+      }
       Future<Boolean> returnValue = asyncExecutor.submit(new Callable<Boolean>() {
          @Override
          public Boolean call() throws Exception {
@@ -1532,6 +1588,57 @@ private boolean asyncSkipsThread(EnumSet<Flag> flags, K key) {
       return distributionManager.getLocality(key).isLocal();
    }
 
+   /**
+    * Single key writes can be invoked without an async thread if the key is not owned locally: the command is only
+    * forwarded to the primary owner, and the interceptors finish the invocation when the response is received.
+    *
+    * @return true if the write can be invoked in non-blocking mode
+    */
+   private boolean isNonBlockingWrite(InvocationContext ctx, EnumSet<Flag> flags, Object key) {
+      if (ctx.isInTxScope() || distributionManager == null || !config.clustering().cacheMode().isSynchronous()) {
+         return false;
+      }
+      if (flags != null && (flags.contains(Flag.FORCE_ASYNCHRONOUS) || flags.contains(Flag.CACHE_MODE_LOCAL))) {
+         return false;
+      }
+      ConsistentHash writeCh = distributionManager.getWriteConsistentHash();
+      if (writeCh == null || writeCh.isKeyLocalToNode(rpcManager.getAddress(), key)) {
+         return false;
+      }
+      return invoker.isStageAware();
+   }
+
+   @SuppressWarnings("unchecked")
+   private <X> NotifyingFuture<X> invokeNonBlocking(InvocationContext ctx, VisitableCommand command) {
+      ctx.setNonBlocking(true);
+      final CompletableNotifyingFuture<X> result = new CompletableNotifyingFuture<X>();
+      Object retval;
+      try {
+         retval = invoker.invoke(ctx, command);
+      } catch (RuntimeException e) {
+         result.completeExceptionally(e);
+         return result;
+      }
+      if (!(retval instanceof InvocationStage)) {
+         result.complete((X) retval);
+         return result;
+      }
+      ((InvocationStage) retval).attachListener(new FutureListener<Object>() {
+         @Override
+         public void futureDone(Future<Object> future) {
+            try {
+               result.complete((X) future.get());
+            } catch (ExecutionException e) {
+               Throwable cause = e.getCause();
+               result.completeExceptionally(cause instanceof RuntimeException ? cause : new CacheException(cause));
+            } catch (Throwable t) {
+               result.completeExceptionally(t);
+            }
+         }
+      });
+      return result;
+   }
+
    private boolean isSkipLoader(EnumSet<Flag> flags) {
       boolean hasCacheLoaderConfig = !config.persistence().stores().isEmpty();
       return !hasCacheLoaderConfig
@@ -1649,6 +1756,12 @@ public V put(K key, V value, Metadata metadata) {
       return put(key, value, merged, null, null);
    }
 
+   @Override
+   public void putAll(Map<? extends K, ? extends V> map, Metadata metadata) {
+      Metadata merged = applyDefaultMetadata(metadata);
+      putAll(map, merged, null, null);
+   }
+
    private Metadata applyDefaultMetadata(Metadata metadata) {
       Metadata.Builder builder = metadata.builder();
       return builder != null ? builder.merge(defaultMetadata).build() : metadata;
@@ -3,6 +3,8 @@
 import org.infinispan.commands.read.EntryRetrievalCommand;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.commands.remote.GetKeysInGroupCommand;
+import org.infinispan.iteration.EntryReducer;
+import org.infinispan.iteration.impl.EntryReduceCommand;
 import org.infinispan.iteration.impl.EntryRequestCommand;
 import org.infinispan.iteration.impl.EntryResponseCommand;
 import org.infinispan.metadata.Metadata;
@@ -10,6 +12,7 @@
 import org.infinispan.commands.control.LockControlCommand;
 import org.infinispan.commands.read.DistributedExecuteCommand;
 import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetCacheEntryCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
@@ -17,7 +20,9 @@
 import org.infinispan.commands.read.ReduceCommand;
 import org.infinispan.commands.read.SizeCommand;
 import org.infinispan.commands.read.ValuesCommand;
+import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
+import org.infinispan.commands.remote.GetSegmentSizesCommand;
 import org.infinispan.commands.remote.MultipleRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
 import org.infinispan.commands.remote.recovery.CompleteTransactionCommand;
@@ -147,6 +152,15 @@ public interface CommandsFactory {
     */
    GetCacheEntryCommand buildGetCacheEntryCommand(Object key, Set<Flag> explicitFlags);
 
+   /**
+    * Builds a GetAllCommand
+    * @param keys keys to get
+    * @param flags Command flags provided by cache
+    * @param returnEntries whether the command should return {@link CacheEntry} copies instead of the values
+    * @return a GetAllCommand
+    */
+   GetAllCommand buildGetAllCommand(Collection<?> keys, Set<Flag> flags, boolean returnEntries);
+
    /**
     * Builds a KeySetCommand
     * @param flags Command flags provided by cache
@@ -274,6 +288,19 @@ public interface CommandsFactory {
     */
    ClusteredGetCommand buildClusteredGetCommand(Object key, Set<Flag> flags, boolean acquireRemoteLock, GlobalTransaction gtx);
 
+   /**
+    * Builds a ClusteredGetAllCommand, which is a remote lookup command for several keys owned by the same node
+    * @param keys keys to look up
+    * @return a ClusteredGetAllCommand
+    */
+   ClusteredGetAllCommand buildClusteredGetAllCommand(List<Object> keys, Set<Flag> flags, GlobalTransaction gtx);
+
+   /**
+    * Builds a GetSegmentSizesCommand, which reads the size of every segment of the data container of the target
+    * @return a GetSegmentSizesCommand
+    */
+   GetSegmentSizesCommand buildGetSegmentSizesCommand();
+
    /**
     * Builds a LockControlCommand to control explicit remote locking
     *
@@ -448,6 +475,25 @@ <K, V, C> EntryRequestCommand<K, V, C> buildEntryRequestCommand(UUID identifier,
                                                 KeyValueFilter<? super K, ? super V> filter,
                                                 Converter<? super K, ? super V, C> converter, Set<Flag> flags);
 
+   /**
+    * Builds {@link org.infinispan.iteration.impl.EntryReduceCommand} used to reduce the entries of the given segments
+    * on their primary owner
+    * @param segments The segments this request should reduce
+    * @param filter The filter to apply to the entries before reducing them
+    * @param converter The converter to apply to the values before reducing them
+    * @param reducer The reducer producing the partial result
+    * @param flags The flags used to modify behavior
+    * @param <K> The key type of the stored key
+    * @param <V> The value type of the stored values
+    * @param <C> The converted type after the value is applied from the converter
+    * @param <R> The type of the result of the reducer
+    * @return the EntryReduceCommand created
+    */
+   <K, V, C, R> EntryReduceCommand<K, V, C, R> buildEntryReduceCommand(Set<Integer> segments,
+                                                KeyValueFilter<? super K, ? super V> filter,
+                                                Converter<? super K, ? super V, ? extends C> converter,
+                                                EntryReducer<? super K, ? super C, R> reducer, Set<Flag> flags);
+
    /**
     * Builds {@link org.infinispan.iteration.impl.EntryResponseCommand} use to respond with retrieved entries for
     * given segments
@@ -6,6 +6,8 @@
 import org.infinispan.commands.remote.GetKeysInGroupCommand;
 import org.infinispan.context.InvocationContextFactory;
 import org.infinispan.distribution.group.GroupManager;
+import org.infinispan.iteration.EntryReducer;
+import org.infinispan.iteration.impl.EntryReduceCommand;
 import org.infinispan.iteration.impl.EntryRequestCommand;
 import org.infinispan.iteration.impl.EntryResponseCommand;
 import org.infinispan.iteration.impl.EntryRetriever;
@@ -15,6 +17,7 @@
 import org.infinispan.commands.module.ModuleCommandInitializer;
 import org.infinispan.commands.read.DistributedExecuteCommand;
 import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetCacheEntryCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
@@ -22,7 +25,9 @@
 import org.infinispan.commands.read.ReduceCommand;
 import org.infinispan.commands.read.SizeCommand;
 import org.infinispan.commands.read.ValuesCommand;
+import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
+import org.infinispan.commands.remote.GetSegmentSizesCommand;
 import org.infinispan.commands.remote.MultipleRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
 import org.infinispan.commands.remote.recovery.CompleteTransactionCommand;
@@ -74,6 +79,7 @@
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.statetransfer.StateTransferManager;
+import org.infinispan.stats.impl.ClusterSizeCollector;
 import org.infinispan.transaction.impl.RemoteTransaction;
 import org.infinispan.transaction.impl.TransactionTable;
 import org.infinispan.transaction.xa.DldGlobalTransaction;
@@ -144,6 +150,7 @@ public class CommandsFactoryImpl implements CommandsFactory {
    private EntryRetriever entryRetriever;
    private GroupManager groupManager;
    private PartitionHandlingManager partitionHandlingManager;
+   private ClusterSizeCollector clusterSizeCollector;
 
    private Map<Byte, ModuleCommandInitializer> moduleCommandInitializers;
 
@@ -156,7 +163,8 @@ public void setupDependencies(DataContainer container, CacheNotifier notifier, C
                                  LockManager lockManager, InternalEntryFactory entryFactory, MapReduceManager mapReduceManager, 
                                  StateTransferManager stm, BackupSender backupSender, CancellationService cancellationService,
                                  TimeService timeService, XSiteStateProvider xSiteStateProvider, XSiteStateConsumer xSiteStateConsumer,
-                                 XSiteStateTransferManager xSiteStateTransferManager, EntryRetriever entryRetriever, GroupManager groupManager, PartitionHandlingManager partitionHandlingManager) {
+                                 XSiteStateTransferManager xSiteStateTransferManager, EntryRetriever entryRetriever, GroupManager groupManager, PartitionHandlingManager partitionHandlingManager,
+                                 ClusterSizeCollector clusterSizeCollector) {
       this.dataContainer = container;
       this.notifier = notifier;
       this.cache = cache;
@@ -182,6 +190,7 @@ public void setupDependencies(DataContainer container, CacheNotifier notifier, C
       this.partitionHandlingManager = partitionHandlingManager;
       this.entryRetriever = entryRetriever;
       this.groupManager = groupManager;
+      this.clusterSizeCollector = clusterSizeCollector;
    }
 
    @Start(priority = 1)
@@ -224,7 +233,7 @@ public ReplaceCommand buildReplaceCommand(Object key, Object oldValue, Object ne
 
    @Override
    public SizeCommand buildSizeCommand(Set<Flag> flags) {
-      return new SizeCommand(cache, flags);
+      return new SizeCommand(cache, flags, clusterSizeCollector);
    }
 
    @Override
@@ -312,6 +321,16 @@ public ClusteredGetCommand buildClusteredGetCommand(Object key, Set<Flag> flags,
             configuration.dataContainer().keyEquivalence());
    }
 
+   @Override
+   public ClusteredGetAllCommand buildClusteredGetAllCommand(List<Object> keys, Set<Flag> flags, GlobalTransaction gtx) {
+      return new ClusteredGetAllCommand(cacheName, keys, flags, gtx);
+   }
+
+   @Override
+   public GetSegmentSizesCommand buildGetSegmentSizesCommand() {
+      return new GetSegmentSizesCommand(cacheName);
+   }
+
    /**
     * @param isRemote true if the command is deserialized and is executed remote.
     */
@@ -475,6 +494,10 @@ public void initializeReplicableCommand(ReplicableCommand c, boolean isRemote) {
             EntryRequestCommand entryRequestCommand = (EntryRequestCommand) c;
             entryRequestCommand.init(entryRetriever);
             break;
+         case EntryReduceCommand.COMMAND_ID:
+            EntryReduceCommand entryReduceCommand = (EntryReduceCommand) c;
+            entryReduceCommand.init(entryRetriever);
+            break;
          case EntryResponseCommand.COMMAND_ID:
             EntryResponseCommand entryResponseCommand = (EntryResponseCommand) c;
             entryResponseCommand.init(entryRetriever);
@@ -483,6 +506,15 @@ public void initializeReplicableCommand(ReplicableCommand c, boolean isRemote) {
             GetKeysInGroupCommand getKeysInGroupCommand = (GetKeysInGroupCommand) c;
             getKeysInGroupCommand.setGroupManager(groupManager);
             break;
+         case GetAllCommand.COMMAND_ID:
+            ((GetAllCommand) c).init(entryFactory);
+            break;
+         case ClusteredGetAllCommand.COMMAND_ID:
+            ((ClusteredGetAllCommand) c).init(icf, this, entryFactory, interceptorChain);
+            break;
+         case GetSegmentSizesCommand.COMMAND_ID:
+            ((GetSegmentSizesCommand) c).init(dataContainer);
+            break;
          default:
             ModuleCommandInitializer mci = moduleCommandInitializers.get(c.getCommandId());
             if (mci != null) {
@@ -618,6 +650,15 @@ public <K, V, C> EntryRequestCommand<K, V, C> buildEntryRequestCommand(UUID iden
                                               keysToFilter, filter, converter, flags);
    }
 
+   @Override
+   public <K, V, C, R> EntryReduceCommand<K, V, C, R> buildEntryReduceCommand(Set<Integer> segments,
+                                                                        KeyValueFilter<? super K, ? super V> filter,
+                                                                        Converter<? super K, ? super V, ? extends C> converter,
+                                                                        EntryReducer<? super K, ? super C, R> reducer,
+                                                                        Set<Flag> flags) {
+      return new EntryReduceCommand<>(cacheName, segments, filter, converter, reducer, flags);
+   }
+
    @Override
    public <K, C> EntryResponseCommand<K, C> buildEntryResponseCommand(UUID identifier, Set<Integer> completedSegments,
                                                                 Set<Integer> inDoubtSegments,
@@ -636,4 +677,9 @@ public GetCacheEntryCommand buildGetCacheEntryCommand(Object key, Set<Flag> expl
       return new GetCacheEntryCommand(key, explicitFlags, entryFactory);
    }
 
+   @Override
+   public GetAllCommand buildGetAllCommand(Collection<?> keys, Set<Flag> flags, boolean returnEntries) {
+      return new GetAllCommand(keys, flags, returnEntries, entryFactory);
+   }
+
 }
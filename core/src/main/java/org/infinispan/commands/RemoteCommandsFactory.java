@@ -4,13 +4,16 @@
 import org.infinispan.commands.module.ExtendedModuleCommandFactory;
 import org.infinispan.commands.module.ModuleCommandFactory;
 import org.infinispan.commands.read.DistributedExecuteCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetCacheEntryCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.MapCombineCommand;
 import org.infinispan.commands.read.ReduceCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commands.remote.GetKeysInGroupCommand;
+import org.infinispan.commands.remote.GetSegmentSizesCommand;
 import org.infinispan.commands.remote.MultipleRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
 import org.infinispan.commands.remote.recovery.CompleteTransactionCommand;
@@ -30,6 +33,7 @@
 import org.infinispan.commands.write.*;
 import org.infinispan.commons.CacheException;
 import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.iteration.impl.EntryReduceCommand;
 import org.infinispan.iteration.impl.EntryRequestCommand;
 import org.infinispan.iteration.impl.EntryResponseCommand;
 import org.infinispan.factories.GlobalComponentRegistry;
@@ -131,6 +135,9 @@ public ReplicableCommand fromStream(byte id, Object[] parameters, byte type) {
             case GetCacheEntryCommand.COMMAND_ID:
                command = new GetCacheEntryCommand();
                break;
+            case GetAllCommand.COMMAND_ID:
+               command = new GetAllCommand();
+               break;
             default:
                throw new CacheException("Unknown command id " + id + "!");
          }
@@ -200,6 +207,12 @@ public CacheRpcCommand fromStream(byte id, Object[] parameters, byte type, Strin
             case ClusteredGetCommand.COMMAND_ID:
                command = new ClusteredGetCommand(cacheName);
                break;
+            case ClusteredGetAllCommand.COMMAND_ID:
+               command = new ClusteredGetAllCommand(cacheName);
+               break;
+            case GetSegmentSizesCommand.COMMAND_ID:
+               command = new GetSegmentSizesCommand(cacheName);
+               break;
             case StateRequestCommand.COMMAND_ID:
                command = new StateRequestCommand(cacheName);
                break;
@@ -257,6 +270,9 @@ public CacheRpcCommand fromStream(byte id, Object[] parameters, byte type, Strin
             case EntryResponseCommand.COMMAND_ID:
                command = new EntryResponseCommand(cacheName);
                break;
+            case EntryReduceCommand.COMMAND_ID:
+               command = new EntryReduceCommand(cacheName);
+               break;
             default:
                throw new CacheException("Unknown command id " + id + "!");
          }
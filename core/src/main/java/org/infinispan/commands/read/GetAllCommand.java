@@ -0,0 +1,159 @@
+package org.infinispan.commands.read;
+
+import static org.infinispan.commons.util.Util.toStr;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.infinispan.commands.AbstractFlagAffectedCommand;
+import org.infinispan.commands.Visitor;
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.context.Flag;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.lifecycle.ComponentStatus;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Retrieves multiple keys in a single invocation of the interceptor chain. Implements
+ * {@link org.infinispan.AdvancedCache#getAll(java.util.Set)}.
+ * <p/>
+ * The result is a map containing only the keys that have a value, mapped either to the value or, when
+ * {@link #isReturnEntries()} is set, to a copy of the {@link CacheEntry}.
+ *
+ * @since 7.2
+ */
+public class GetAllCommand extends AbstractFlagAffectedCommand {
+
+   public static final byte COMMAND_ID = 44;
+   private static final Log log = LogFactory.getLog(GetAllCommand.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private List<Object> keys;
+   private boolean returnEntries;
+
+   private InternalEntryFactory entryFactory;
+   private Map<Object, InternalCacheEntry> remotelyFetched;
+
+   public GetAllCommand(Collection<?> keys, Set<Flag> flags, boolean returnEntries, InternalEntryFactory entryFactory) {
+      this.keys = new ArrayList<Object>(keys);
+      this.flags = flags;
+      this.returnEntries = returnEntries;
+      this.entryFactory = entryFactory;
+   }
+
+   public GetAllCommand() {
+   }
+
+   public void init(InternalEntryFactory entryFactory) {
+      this.entryFactory = entryFactory;
+   }
+
+   @Override
+   public Object acceptVisitor(InvocationContext ctx, Visitor visitor) throws Throwable {
+      return visitor.visitGetAllCommand(ctx, this);
+   }
+
+   @Override
+   public Map<Object, Object> perform(InvocationContext ctx) throws Throwable {
+      Map<Object, Object> result = new LinkedHashMap<Object, Object>(keys.size());
+      for (Object key : keys) {
+         CacheEntry entry = ctx.lookupEntry(key);
+         if (entry == null || entry.isNull() || entry.isRemoved()) {
+            if (trace) {
+               log.tracef("Entry for key %s not found", toStr(key));
+            }
+            continue;
+         }
+         result.put(key, returnEntries ? entryFactory.copy(entry) : entry.getValue());
+      }
+      return result;
+   }
+
+   public List<Object> getKeys() {
+      return keys;
+   }
+
+   public void setKeys(List<Object> keys) {
+      this.keys = keys;
+   }
+
+   public boolean isReturnEntries() {
+      return returnEntries;
+   }
+
+   /**
+    * Records a value that had to be fetched from a remote owner, so that interceptors running after the remote lookup
+    * (e.g. the compatibility mode converters) know it was not produced by the local chain.
+    */
+   public void addRemotelyFetchedValue(InternalCacheEntry ice) {
+      if (remotelyFetched == null) {
+         remotelyFetched = new HashMap<Object, InternalCacheEntry>();
+      }
+      remotelyFetched.put(ice.getKey(), ice);
+   }
+
+   /**
+    * @return the entries fetched from remote owners, keyed by their key, or {@code null} if no remote lookup happened
+    */
+   public Map<Object, InternalCacheEntry> getRemotelyFetched() {
+      return remotelyFetched;
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public Object[] getParameters() {
+      return new Object[]{keys, Flag.copyWithoutRemotableFlags(flags), returnEntries};
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public void setParameters(int commandId, Object[] parameters) {
+      if (commandId != COMMAND_ID) throw new IllegalStateException("Invalid method id");
+      keys = (List<Object>) parameters[0];
+      flags = (Set<Flag>) parameters[1];
+      returnEntries = (Boolean) parameters[2];
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return true;
+   }
+
+   @Override
+   public boolean canBlock() {
+      return false;
+   }
+
+   @Override
+   public boolean shouldInvoke(InvocationContext ctx) {
+      return true;
+   }
+
+   @Override
+   public boolean ignoreCommandOnStatus(ComponentStatus status) {
+      return false;
+   }
+
+   @Override
+   public String toString() {
+      return new StringBuilder()
+            .append("GetAllCommand{keys=")
+            .append(toStr(keys))
+            .append(", returnEntries=").append(returnEntries)
+            .append(", flags=").append(flags)
+            .append("}")
+            .toString();
+   }
+}
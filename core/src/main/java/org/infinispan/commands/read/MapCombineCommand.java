@@ -34,6 +34,7 @@
    private UUID uuid;
    private String intermediateCacheName;
    private int maxCollectorSize;
+   private int spillThreshold = Integer.MAX_VALUE;
 
    public MapCombineCommand() {
       super(null); // For command id uniqueness test
@@ -118,6 +119,27 @@ public int getMaxCollectorSize() {
       return maxCollectorSize;
    }
 
+   /**
+    * Limits the number of intermediate values kept in memory when the reduce phase is not distributed.
+    * <p>
+    * Without a distributed reduce phase all intermediate keys/values of a node are returned to the
+    * master node at once. When, even after applying the combiner, more than the given number of
+    * values are collected, they are spilled to a local temporary file and merged back once the map
+    * phase is over. Intermediate keys/values must therefore be marshallable.
+    *
+    * @param threshold
+    *           the number of intermediate values that triggers a spill, Integer.MAX_VALUE to never spill
+    */
+   public void setSpillThreshold(int threshold) {
+      if (threshold <= 0)
+         throw new IllegalArgumentException("Invalid threshold " + threshold);
+      spillThreshold = threshold;
+   }
+
+   public int getSpillThreshold() {
+      return spillThreshold;
+   }
+
    public Set<KIn> getKeys() {
       return keys;
    }
@@ -155,7 +177,7 @@ public UUID getUUID() {
    @Override
    public Object[] getParameters() {
       return new Object[] { taskId, keys, mapper, combiner, reducePhaseDistributed,
-            useIntermediateSharedCache, uuid, intermediateCacheName, maxCollectorSize};
+            useIntermediateSharedCache, uuid, intermediateCacheName, maxCollectorSize, spillThreshold};
    }
 
    @SuppressWarnings("unchecked")
@@ -173,6 +195,7 @@ public void setParameters(int commandId, Object[] args) {
       uuid = (UUID) args[i++];
       intermediateCacheName = (String) args[i++]; 
       maxCollectorSize = (Integer) args[i++];
+      spillThreshold = (Integer) args[i++];
    }
 
    @Override
@@ -9,6 +9,7 @@
 import org.infinispan.context.InvocationContext;
 import org.infinispan.filter.AcceptAllKeyValueFilter;
 import org.infinispan.filter.NullValueConverter;
+import org.infinispan.stats.impl.ClusterSizeCollector;
 
 import java.util.HashSet;
 import java.util.Map;
@@ -24,10 +25,16 @@
  */
 public class SizeCommand extends AbstractLocalCommand implements VisitableCommand {
    private final Cache<Object, ?> cache;
+   private final ClusterSizeCollector clusterSizeCollector;
 
    public SizeCommand(Cache<Object, ?> cache, Set<Flag> flags) {
+      this(cache, flags, null);
+   }
+
+   public SizeCommand(Cache<Object, ?> cache, Set<Flag> flags, ClusterSizeCollector clusterSizeCollector) {
       setFlags(flags);
       this.cache = cache;
+      this.clusterSizeCollector = clusterSizeCollector;
    }
 
    @Override
@@ -39,6 +46,13 @@ public Object acceptVisitor(InvocationContext ctx, Visitor visitor) throws Throw
    public Integer perform(InvocationContext ctx) throws Throwable {
       int size = 0;
       Map<Object, CacheEntry> contextEntries = ctx.getLookedUpEntries();
+      if (clusterSizeCollector != null && contextEntries.isEmpty()) {
+         // Add up the segment sizes instead of iterating over the entries
+         long clusterSize = clusterSizeCollector.size(flags);
+         if (clusterSize >= 0) {
+            return (int) Math.min(clusterSize, Integer.MAX_VALUE);
+         }
+      }
       // Keeps track of keys that were found in the context, which means to not count them later
       Set<Object> keys = new HashSet<>();
       try (CloseableIterable<CacheEntry<Object, Void>> iterator = cache.getAdvancedCache().withFlags(
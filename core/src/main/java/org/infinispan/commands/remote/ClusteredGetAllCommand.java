@@ -0,0 +1,162 @@
+package org.infinispan.commands.remote;
+
+import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.LocalFlagAffectedCommand;
+import org.infinispan.commands.read.GetAllCommand;
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.InternalCacheValue;
+import org.infinispan.container.entries.MVCCEntry;
+import org.infinispan.context.Flag;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.context.InvocationContextFactory;
+import org.infinispan.interceptors.InterceptorChain;
+import org.infinispan.transaction.xa.GlobalTransaction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Issues a remote get for a batch of keys owned by the target node. Like {@link ClusteredGetCommand} this is not a
+ * {@link org.infinispan.commands.VisitableCommand}; the target executes a local {@link GetAllCommand} and replies with
+ * a list of {@link InternalCacheValue}s in the same order as the requested keys, using {@code null} for missing keys.
+ *
+ * @since 7.2
+ */
+public class ClusteredGetAllCommand extends BaseRpcCommand implements LocalFlagAffectedCommand {
+
+   public static final byte COMMAND_ID = 46;
+
+   private List<Object> keys;
+   private Set<Flag> flags;
+   private GlobalTransaction gtx;
+
+   private InvocationContextFactory icf;
+   private CommandsFactory commandsFactory;
+   private InterceptorChain invoker;
+   private InternalEntryFactory entryFactory;
+
+   private ClusteredGetAllCommand() {
+      super(null); // For command id uniqueness test
+   }
+
+   public ClusteredGetAllCommand(String cacheName) {
+      super(cacheName);
+   }
+
+   public ClusteredGetAllCommand(String cacheName, List<Object> keys, Set<Flag> flags, GlobalTransaction gtx) {
+      super(cacheName);
+      this.keys = keys;
+      this.flags = flags;
+      this.gtx = gtx;
+   }
+
+   public void init(InvocationContextFactory icf, CommandsFactory commandsFactory, InternalEntryFactory entryFactory,
+                    InterceptorChain interceptorChain) {
+      this.icf = icf;
+      this.commandsFactory = commandsFactory;
+      this.entryFactory = entryFactory;
+      this.invoker = interceptorChain;
+   }
+
+   @Override
+   public List<InternalCacheValue> perform(InvocationContext context) throws Throwable {
+      // make sure the local command doesn't perform a remote call, our caller already picked this node as the owner
+      Set<Flag> commandFlags = EnumSet.of(Flag.SKIP_REMOTE_LOOKUP, Flag.CACHE_MODE_LOCAL);
+      if (this.flags != null) commandFlags.addAll(this.flags);
+      GetAllCommand command = commandsFactory.buildGetAllCommand(keys, commandFlags, true);
+      InvocationContext invocationContext = icf.createRemoteInvocationContextForCommand(command, getOrigin());
+      @SuppressWarnings("unchecked")
+      Map<Object, CacheEntry> entries = (Map<Object, CacheEntry>) invoker.invoke(invocationContext, command);
+
+      List<InternalCacheValue> values = new ArrayList<InternalCacheValue>(keys.size());
+      for (Object key : keys) {
+         CacheEntry entry = entries.get(key);
+         if (entry == null) {
+            values.add(null);
+         } else if (entry instanceof MVCCEntry) {
+            //this might happen if the value was fetched from a cache loader
+            values.add(entryFactory.createValue(entry));
+         } else {
+            values.add(((InternalCacheEntry) entry).toInternalCacheValue());
+         }
+      }
+      return values;
+   }
+
+   public List<Object> getKeys() {
+      return keys;
+   }
+
+   public GlobalTransaction getGlobalTransaction() {
+      return gtx;
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public Object[] getParameters() {
+      return new Object[]{keys, Flag.copyWithoutRemotableFlags(flags), gtx};
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public void setParameters(int commandId, Object[] args) {
+      int i = 0;
+      keys = (List<Object>) args[i++];
+      flags = (Set<Flag>) args[i++];
+      gtx = (GlobalTransaction) args[i];
+   }
+
+   @Override
+   public Set<Flag> getFlags() {
+      return flags;
+   }
+
+   @Override
+   public void setFlags(Set<Flag> flags) {
+      this.flags = flags;
+   }
+
+   @Override
+   public void setFlags(Flag... flags) {
+      if (flags == null || flags.length == 0) return;
+      if (this.flags == null)
+         this.flags = EnumSet.copyOf(Arrays.asList(flags));
+      else
+         this.flags.addAll(Arrays.asList(flags));
+   }
+
+   @Override
+   public boolean hasFlag(Flag flag) {
+      return flags != null && flags.contains(flag);
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return true;
+   }
+
+   @Override
+   public boolean canBlock() {
+      return false;
+   }
+
+   @Override
+   public String toString() {
+      return new StringBuilder()
+            .append("ClusteredGetAllCommand{keys=")
+            .append(keys)
+            .append(", flags=").append(flags)
+            .append("}")
+            .toString();
+   }
+}
@@ -0,0 +1,76 @@
+package org.infinispan.commands.remote;
+
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
+import org.infinispan.context.InvocationContext;
+
+/**
+ * Reads the number of entries and the estimated size in bytes of every segment of the target's data container, so
+ * that cluster wide sizes can be computed without iterating the entries.
+ * <p/>
+ * The reply is an array with the number of entries of each segment, followed by the estimated size in bytes of each
+ * segment, or {@code null} if the target's data container is not a {@link SegmentedDataContainer}.
+ *
+ * @since 7.2
+ */
+public class GetSegmentSizesCommand extends BaseRpcCommand {
+
+   public static final byte COMMAND_ID = 47;
+
+   private DataContainer dataContainer;
+
+   private GetSegmentSizesCommand() {
+      super(null); // For command id uniqueness test
+   }
+
+   public GetSegmentSizesCommand(String cacheName) {
+      super(cacheName);
+   }
+
+   public void init(DataContainer dataContainer) {
+      this.dataContainer = dataContainer;
+   }
+
+   @Override
+   public long[] perform(InvocationContext ctx) throws Throwable {
+      return segmentSizes(dataContainer);
+   }
+
+   /**
+    * @return the number of entries of each segment followed by the size in bytes of each segment, or {@code null} if
+    * the data container is not segmented
+    */
+   public static long[] segmentSizes(DataContainer dataContainer) {
+      if (!(dataContainer instanceof SegmentedDataContainer)) {
+         return null;
+      }
+      SegmentedDataContainer container = (SegmentedDataContainer) dataContainer;
+      int numSegments = container.getNumSegments();
+      long[] sizes = new long[2 * numSegments];
+      for (int i = 0; i < numSegments; i++) {
+         sizes[i] = container.segmentSize(i);
+         sizes[numSegments + i] = container.segmentSizeInBytes(i);
+      }
+      return sizes;
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public Object[] getParameters() {
+      return new Object[0];
+   }
+
+   @Override
+   public void setParameters(int commandId, Object[] parameters) {
+      // No parameters
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return true;
+   }
+}
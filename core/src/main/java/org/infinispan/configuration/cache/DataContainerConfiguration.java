@@ -21,21 +21,33 @@ public class DataContainerConfiguration extends AbstractTypedPropertiesConfigura
          .<Equivalence> builder("keyEquivalence", AnyEquivalence.getInstance()).immutable().build();
    public static final AttributeDefinition<Equivalence> VALUE_EQUIVALENCE = AttributeDefinition
          .<Equivalence> builder("valueEquivalence", AnyEquivalence.getInstance()).immutable().build();
+   public static final AttributeDefinition<Boolean> OFF_HEAP = AttributeDefinition
+         .builder("offHeap", false).immutable().build();
+   public static final AttributeDefinition<Boolean> COMPACT = AttributeDefinition
+         .builder("compact", false).immutable().build();
+   public static final AttributeDefinition<Boolean> SEGMENTED = AttributeDefinition
+         .builder("segmented", false).immutable().build();
 
    static public AttributeSet attributeDefinitionSet() {
       return new AttributeSet(DataContainerConfiguration.class, AbstractTypedPropertiesConfiguration.attributeSet(),
-            DATA_CONTAINER, KEY_EQUIVALENCE, VALUE_EQUIVALENCE);
+            DATA_CONTAINER, KEY_EQUIVALENCE, VALUE_EQUIVALENCE, OFF_HEAP, COMPACT, SEGMENTED);
    }
 
    private final Attribute<DataContainer> dataContainer;
    private final Attribute<Equivalence> keyEquivalence;
    private final Attribute<Equivalence> valueEquivalence;
+   private final Attribute<Boolean> offHeap;
+   private final Attribute<Boolean> compact;
+   private final Attribute<Boolean> segmented;
 
    DataContainerConfiguration(AttributeSet attributes) {
       super(attributes);
       dataContainer = attributes.attribute(DATA_CONTAINER);
       keyEquivalence = attributes.attribute(KEY_EQUIVALENCE);
       valueEquivalence = attributes.attribute(VALUE_EQUIVALENCE);
+      offHeap = attributes.attribute(OFF_HEAP);
+      compact = attributes.attribute(COMPACT);
+      segmented = attributes.attribute(SEGMENTED);
    }
 
    /**
@@ -57,6 +69,33 @@ public <V> Equivalence<V> valueEquivalence() {
       return (Equivalence<V>) valueEquivalence.get();
    }
 
+   /**
+    * Whether entries are stored outside of the Java heap
+    *
+    * @return true if the off-heap data container is in use
+    */
+   public boolean offHeap() {
+      return offHeap.get();
+   }
+
+   /**
+    * Whether each entry is packed into a single byte array, for caches storing only byte array keys and values
+    *
+    * @return true if the compact data container is in use
+    */
+   public boolean compact() {
+      return compact.get();
+   }
+
+   /**
+    * Whether entries are partitioned by the segment of their key, so that a single segment can be iterated or dropped
+    *
+    * @return true if the segmented data container is in use
+    */
+   public boolean segmented() {
+      return segmented.get();
+   }
+
    public AttributeSet attributes() {
       return attributes;
    }
@@ -1,8 +1,11 @@
 package org.infinispan.configuration.cache;
 
 import static org.infinispan.commons.configuration.AbstractTypedPropertiesConfiguration.PROPERTIES;
+import static org.infinispan.configuration.cache.DataContainerConfiguration.COMPACT;
 import static org.infinispan.configuration.cache.DataContainerConfiguration.DATA_CONTAINER;
 import static org.infinispan.configuration.cache.DataContainerConfiguration.KEY_EQUIVALENCE;
+import static org.infinispan.configuration.cache.DataContainerConfiguration.OFF_HEAP;
+import static org.infinispan.configuration.cache.DataContainerConfiguration.SEGMENTED;
 import static org.infinispan.configuration.cache.DataContainerConfiguration.VALUE_EQUIVALENCE;
 
 import java.util.Properties;
@@ -13,6 +16,8 @@
 import org.infinispan.commons.util.TypedProperties;
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.container.DataContainer;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
 
 /**
  * Controls the data container for the cache.
@@ -22,6 +27,8 @@
  */
 public class DataContainerConfigurationBuilder extends AbstractConfigurationChildBuilder implements Builder<DataContainerConfiguration> {
 
+   private static final Log log = LogFactory.getLog(DataContainerConfigurationBuilder.class, Log.class);
+
    private AttributeSet attributes;
 
    DataContainerConfigurationBuilder(ConfigurationBuilder builder) {
@@ -94,8 +101,70 @@ public <V> DataContainerConfigurationBuilder valueEquivalence(Equivalence<V> val
       return this;
    }
 
+   /**
+    * Store marshalled keys, values and metadata in memory allocated outside of the Java heap. This keeps the
+    * heap footprint independent of the number of entries, at the cost of marshalling on every access. Ignored if a
+    * custom data container is specified via {@link #dataContainer(DataContainer)}.
+    *
+    * @param offHeap whether the off-heap data container should be used
+    * @return this configuration builder
+    */
+   public DataContainerConfigurationBuilder offHeap(boolean offHeap) {
+      attributes.attribute(OFF_HEAP).set(offHeap);
+      return this;
+   }
+
+   /**
+    * Pack each entry, with its metadata, into a single byte array kept in an open addressing table. This greatly
+    * reduces the per-entry overhead, but requires all the values to be byte arrays and all the keys to be byte arrays
+    * or strings, as with the caches accessed only through the Hot Rod and Memcached servers. Ignored if a custom data
+    * container is specified via {@link #dataContainer(DataContainer)}.
+    *
+    * @param compact whether the compact data container should be used
+    * @return this configuration builder
+    */
+   public DataContainerConfigurationBuilder compact(boolean compact) {
+      attributes.attribute(COMPACT).set(compact);
+      return this;
+   }
+
+   /**
+    * Partition the entries by the segment of their key, so that state transfer and distributed iteration only visit
+    * the entries of the segments they need, and the entries of a segment can be counted or dropped without scanning
+    * the whole container. Only supported by unbounded distributed and replicated caches. Ignored if a custom data
+    * container is specified via {@link #dataContainer(DataContainer)}.
+    *
+    * @param segmented whether the segmented data container should be used
+    * @return this configuration builder
+    */
+   public DataContainerConfigurationBuilder segmented(boolean segmented) {
+      attributes.attribute(SEGMENTED).set(segmented);
+      return this;
+   }
+
    @Override
    public void validate() {
+      if (attributes.attribute(COMPACT).get()) {
+         if (attributes.attribute(OFF_HEAP).get())
+            throw log.compactDataContainerNotAllowedWith("an off-heap data container");
+         if (compatibility().create().enabled())
+            throw log.compactDataContainerNotAllowedWith("compatibility mode");
+         if (storeAsBinary().create().enabled())
+            throw log.compactDataContainerNotAllowedWith("store as binary");
+      }
+      if (attributes.attribute(SEGMENTED).get()) {
+         CacheMode cacheMode = clustering().cacheMode();
+         if (!cacheMode.isDistributed() && !cacheMode.isReplicated())
+            throw log.segmentedDataContainerNotAllowedWith("cache mode " + cacheMode);
+         if (attributes.attribute(OFF_HEAP).get())
+            throw log.segmentedDataContainerNotAllowedWith("an off-heap data container");
+         if (attributes.attribute(COMPACT).get())
+            throw log.segmentedDataContainerNotAllowedWith("a compact data container");
+         if (eviction().strategy().isEnabled() || eviction().create().maxEntries() > 0)
+            throw log.segmentedDataContainerNotAllowedWith("eviction");
+         if (storeAsBinary().create().enabled())
+            throw log.segmentedDataContainerNotAllowedWith("store as binary");
+      }
    }
 
    @Override
@@ -5,6 +5,7 @@
 import org.infinispan.commons.configuration.attributes.Attribute;
 import org.infinispan.commons.configuration.attributes.AttributeDefinition;
 import org.infinispan.commons.configuration.attributes.AttributeSet;
+import org.infinispan.eviction.EvictionStrategy;
 
 /**
  * Configures the L1 cache behavior in 'distributed' caches instances. In any other cache modes,
@@ -16,14 +17,19 @@ public class L1Configuration {
    public static final AttributeDefinition<Integer> INVALIDATION_THRESHOLD = AttributeDefinition.builder("invalidationThreshold", 0).immutable().build();
    public static final AttributeDefinition<Long> LIFESPAN = AttributeDefinition.builder("lifespan", TimeUnit.MINUTES.toMillis(10)).immutable().build();
    public static final AttributeDefinition<Long> CLEANUP_TASK_FREQUENCY = AttributeDefinition.builder("cleanupTaskFrequency", TimeUnit.MINUTES.toMillis(1)).immutable().build();
+   public static final AttributeDefinition<Integer> MAX_ENTRIES = AttributeDefinition.builder("maxEntries", -1).immutable().build();
+   public static final AttributeDefinition<EvictionStrategy> EVICTION_STRATEGY = AttributeDefinition.builder("evictionStrategy", EvictionStrategy.LRU).immutable().build();
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(L1Configuration.class, ENABLED, INVALIDATION_THRESHOLD, LIFESPAN, CLEANUP_TASK_FREQUENCY);
+      return new AttributeSet(L1Configuration.class, ENABLED, INVALIDATION_THRESHOLD, LIFESPAN, CLEANUP_TASK_FREQUENCY,
+                              MAX_ENTRIES, EVICTION_STRATEGY);
    }
 
    private final Attribute<Boolean> enabled;
    private final Attribute<Integer> invalidationThreshold;
    private final Attribute<Long> lifespan;
    private final Attribute<Long> cleanupTaskFrequency;
+   private final Attribute<Integer> maxEntries;
+   private final Attribute<EvictionStrategy> evictionStrategy;
    private final AttributeSet attributes;
 
    L1Configuration(AttributeSet attributes) {
@@ -32,6 +38,8 @@ static AttributeSet attributeDefinitionSet() {
       invalidationThreshold = attributes.attribute(INVALIDATION_THRESHOLD);
       lifespan = attributes.attribute(LIFESPAN);
       cleanupTaskFrequency = attributes.attribute(CLEANUP_TASK_FREQUENCY);
+      maxEntries = attributes.attribute(MAX_ENTRIES);
+      evictionStrategy = attributes.attribute(EVICTION_STRATEGY);
    }
 
    public boolean enabled() {
@@ -71,6 +79,21 @@ public long lifespan() {
       return lifespan.get();
    }
 
+   /**
+    * Maximum number of entries in the L1 cache. If positive, the L1 entries are kept apart from the entries owned by
+    * the node, and they are not counted by {@link EvictionConfiguration#maxEntries()}. Default -1, unbounded.
+    */
+   public int maxEntries() {
+      return maxEntries.get();
+   }
+
+   /**
+    * The eviction strategy of the L1 cache when {@link #maxEntries()} is positive. Default LRU.
+    */
+   public EvictionStrategy evictionStrategy() {
+      return evictionStrategy.get();
+   }
+
    public AttributeSet attributes() {
       return attributes;
    }
@@ -7,6 +7,7 @@
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.commons.configuration.attributes.AttributeSet;
 import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 /**
@@ -75,6 +76,24 @@ public L1ConfigurationBuilder cleanupTaskFrequency(long frequencyMillis, TimeUni
       return cleanupTaskFrequency(unit.toMillis(frequencyMillis));
    }
 
+   /**
+    * Maximum number of entries in the L1 cache. If positive, the L1 entries are kept apart from the entries owned by
+    * the node, and evicted independently of them. A negative value means the L1 entries share the data container
+    * with the owned entries.
+    */
+   public L1ConfigurationBuilder maxEntries(int maxEntries) {
+      attributes.attribute(MAX_ENTRIES).set(maxEntries);
+      return this;
+   }
+
+   /**
+    * Eviction strategy of the L1 cache, when {@link #maxEntries(int)} is positive. Only LRU and LIRS are supported.
+    */
+   public L1ConfigurationBuilder evictionStrategy(EvictionStrategy evictionStrategy) {
+      attributes.attribute(EVICTION_STRATEGY).set(evictionStrategy);
+      return this;
+   }
+
    public L1ConfigurationBuilder enable() {
       attributes.attribute(ENABLED).set(true);
       return this;
@@ -99,6 +118,21 @@ public void validate() {
          if (attributes.attribute(LIFESPAN).get() < 1)
             throw log.l1InvalidLifespan();
 
+         if (attributes.attribute(MAX_ENTRIES).get() > 0) {
+            EvictionStrategy strategy = attributes.attribute(EVICTION_STRATEGY).get();
+            if (strategy != EvictionStrategy.LRU && strategy != EvictionStrategy.LIRS)
+               throw log.l1InvalidEvictionStrategy(strategy);
+            DataContainerConfiguration dataContainer = dataContainer().create();
+            if (dataContainer.dataContainer() != null)
+               throw log.boundedL1NotAllowedWith("a custom data container");
+            if (dataContainer.offHeap())
+               throw log.boundedL1NotAllowedWith("an off-heap data container");
+            if (dataContainer.compact())
+               throw log.boundedL1NotAllowedWith("a compact data container");
+            if (dataContainer.segmented())
+               throw log.boundedL1NotAllowedWith("a segmented data container");
+         }
+
       }
    }
 
@@ -19,9 +19,10 @@ public class LockingConfiguration {
    public static final AttributeDefinition<Long> LOCK_ACQUISITION_TIMEOUT  = AttributeDefinition.builder("lockAcquisitionTimeout", TimeUnit.SECONDS.toMillis(10)).build();
    public static final AttributeDefinition<Boolean> USE_LOCK_STRIPING = AttributeDefinition.builder("useLockStriping", false).immutable().build();
    public static final AttributeDefinition<Boolean> WRITE_SKEW_CHECK = AttributeDefinition.builder("writeSkewCheck", false).immutable().build();
+   public static final AttributeDefinition<Boolean> USE_LOCK_FREE_CONTAINER = AttributeDefinition.builder("useLockFreeContainer", false).immutable().build();
 
    static final AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(LockingConfiguration.class, CONCURRENCY_LEVEL, ISOLATION_LEVEL, LOCK_ACQUISITION_TIMEOUT, USE_LOCK_STRIPING, WRITE_SKEW_CHECK);
+      return new AttributeSet(LockingConfiguration.class, CONCURRENCY_LEVEL, ISOLATION_LEVEL, LOCK_ACQUISITION_TIMEOUT, USE_LOCK_STRIPING, WRITE_SKEW_CHECK, USE_LOCK_FREE_CONTAINER);
    }
 
    private final Attribute<Integer> concurrencyLevel;
@@ -29,6 +30,7 @@ static final AttributeSet attributeDefinitionSet() {
    private final Attribute<Long> lockAcquisitionTimeout;
    private final Attribute<Boolean> useLockStriping;
    private final Attribute<Boolean> writeSkewCheck;
+   private final Attribute<Boolean> useLockFreeContainer;
 
    private final AttributeSet attributes;
 
@@ -40,6 +42,7 @@ static final AttributeSet attributeDefinitionSet() {
       lockAcquisitionTimeout = attributes.attribute(LOCK_ACQUISITION_TIMEOUT);
       useLockStriping = attributes.attribute(USE_LOCK_STRIPING);
       writeSkewCheck = attributes.attribute(WRITE_SKEW_CHECK);
+      useLockFreeContainer = attributes.attribute(USE_LOCK_FREE_CONTAINER);
    }
 
    /**
@@ -104,6 +107,14 @@ public boolean writeSkewCheck() {
       return writeSkewCheck.get();
    }
 
+   /**
+    * If true, non-transactional caches that don't use lock striping lock each key with a compare-and-set instead
+    * of creating a lock for it. Only applies to non-transactional caches with lock striping disabled.
+    */
+   public boolean useLockFreeContainer() {
+      return useLockFreeContainer.get();
+   }
+
    public AttributeSet attributes() {
       return attributes;
    }
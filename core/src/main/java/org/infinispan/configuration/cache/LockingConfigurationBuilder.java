@@ -100,6 +100,16 @@ public LockingConfigurationBuilder writeSkewCheck(boolean b) {
       return this;
    }
 
+   /**
+    * If true, non-transactional caches that don't use lock striping lock each key with a compare-and-set instead
+    * of creating a lock for it. The waiters of a contended key are queued and acquire it in FIFO order. Disabled by
+    * default.
+    */
+   public LockingConfigurationBuilder useLockFreeContainer(boolean b) {
+      attributes.attribute(USE_LOCK_FREE_CONTAINER).set(b);
+      return this;
+   }
+
    @Override
    public void validate() {
       if (attributes.attribute(WRITE_SKEW_CHECK).get()) {
@@ -60,6 +60,16 @@ public StateTransferConfigurationBuilder chunkSize(int i) {
       return this;
    }
 
+   /**
+    * The maximum number of chunks a node sends to another node without waiting for them to be applied. Increasing it
+    * lets the sender keep reading entries while the receiver is still applying the previous chunks. With the default
+    * value of 1 each chunk is sent only after the previous one was applied.
+    */
+   public StateTransferConfigurationBuilder maxInFlightChunks(int i) {
+      attributes.attribute(MAX_IN_FLIGHT_CHUNKS).set(i);
+      return this;
+   }
+
    /**
     * This is the maximum amount of time - in milliseconds - to wait for state from neighboring
     * caches, before throwing an exception and aborting startup.
@@ -82,6 +92,9 @@ public void validate() {
       if (attributes.attribute(CHUNK_SIZE).get() <= 0) {
          throw new CacheConfigurationException("chunkSize can not be <= 0");
       }
+      if (attributes.attribute(MAX_IN_FLIGHT_CHUNKS).get() <= 0) {
+         throw new CacheConfigurationException("maxInFlightChunks can not be <= 0");
+      }
 
       Attribute<Boolean> awaitInitialTransfer = attributes.attribute(AWAIT_INITIAL_TRANSFER);
       if (awaitInitialTransfer.isModified() && awaitInitialTransfer.get()
@@ -29,6 +29,7 @@ public enum Attribute {
     CHUNK_SIZE("chunk-size"),
     CLASS("class"),
     CLUSTER("cluster"),
+    COMPACT("compact"),
     COMPLETED_TX_TIMEOUT("complete-timeout"),
     CONCURRENCY_LEVEL("concurrency-level"),
     CONSISTENT_HASH_FACTORY("consistent-hash-factory"),
@@ -51,10 +52,13 @@ public enum Attribute {
     JMX_DOMAIN("domain"),
     KEEP_ALIVE_TIME("keepalive-time"),
     KEY_EQUIVALENCE("key-equivalence"),
+    L1_EVICTION_STRATEGY("l1-eviction-strategy"),
     L1_LIFESPAN("l1-lifespan"),
+    L1_MAX_ENTRIES("l1-max-entries"),
     LIFESPAN("lifespan"),
     LISTENER_EXECUTOR("listener-executor"),
     LOCATION("location"),
+    LOCK_FREE("lock-free"),
     LOCK_TIMEOUT("lock-timeout"),
     LOCKING("locking"),
     MACHINE_ID("machine"),
@@ -62,6 +66,7 @@ public enum Attribute {
     MARSHALLER_CLASS("marshaller"),
     MAX_ENTRIES("max-entries"),
     MAX_IDLE("max-idle"),
+    MAX_IN_FLIGHT_CHUNKS("max-in-flight-chunks"),
     MAX_RETRIES("max-retries"),
     MAX_THREADS("max-threads"),
     MBEAN_SERVER_LOOKUP("mbean-server-lookup"),
@@ -70,6 +75,7 @@ public enum Attribute {
     MODIFICATION_QUEUE_SIZE("modification-queue-size"),
     MODULE("module"),
     NAME("name"),
+    OFF_HEAP("off-heap"),
     ON_REHASH("onRehash"),
     OWNERS("owners"),
     PATH("path"),
@@ -94,6 +100,7 @@ public enum Attribute {
     REMOTE_TIMEOUT("remote-timeout"),
     REPLICATION_QUEUE_EXECUTOR("replication-queue-executor"),
     ROLES("roles"),
+    SEGMENTED("segmented"),
     SEGMENTS("segments"),
     SHARED("shared"),
     SHUTDOWN_HOOK("shutdown-hook"),
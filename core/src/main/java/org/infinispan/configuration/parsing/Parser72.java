@@ -1141,6 +1141,15 @@ private void parseDataContainer(final XMLExtendedStreamReader reader, final Conf
             case VALUE_EQUIVALENCE:
                builder.dataContainer().valueEquivalence(Util.<Equivalence>getInstance(value, holder.getClassLoader()));
                break;
+            case OFF_HEAP:
+               builder.dataContainer().offHeap(Boolean.parseBoolean(value));
+               break;
+            case COMPACT:
+               builder.dataContainer().compact(Boolean.parseBoolean(value));
+               break;
+            case SEGMENTED:
+               builder.dataContainer().segmented(Boolean.parseBoolean(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1289,6 +1298,10 @@ protected void parseLocking(XMLExtendedStreamReader reader, ConfigurationBuilder
                builder.locking().writeSkewCheck(Boolean.valueOf(value));
                break;
             }
+            case LOCK_FREE: {
+               builder.locking().useLockFreeContainer(Boolean.parseBoolean(value));
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -1501,6 +1514,10 @@ private void parseStateTransfer(XMLExtendedStreamReader reader, ConfigurationBui
                builder.clustering().stateTransfer().chunkSize(Integer.parseInt(value));
                break;
             }
+            case MAX_IN_FLIGHT_CHUNKS: {
+               builder.clustering().stateTransfer().maxInFlightChunks(Integer.parseInt(value));
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -1538,6 +1555,14 @@ private void parseDistributedCache(XMLExtendedStreamReader reader, Configuration
                builder.clustering().l1().cleanupTaskFrequency(Long.parseLong(value));
                break;
             }
+            case L1_MAX_ENTRIES: {
+               builder.clustering().l1().maxEntries(Integer.parseInt(value));
+               break;
+            }
+            case L1_EVICTION_STRATEGY: {
+               builder.clustering().l1().evictionStrategy(EvictionStrategy.valueOf(value));
+               break;
+            }
             case CAPACITY_FACTOR: {
                builder.clustering().hash().capacityFactor(Float.parseFloat(value));
                break;
@@ -61,6 +61,10 @@
 
    private final ConcurrentMap<K, InternalCacheEntry<K, V>> entries;
    private final ExtendedMap<K, V> extendedMap;
+   private final Equivalence<? super K> keyEquivalence;
+   private ExpirationTimerWheel<K> expirationWheel;
+   // The L1 entries, when they are bounded apart from the owned entries
+   private ConcurrentMap<K, InternalCacheEntry<K, V>> l1Entries;
    protected InternalEntryFactory entryFactory;
    private EvictionManager evictionManager;
    private PassivationManager passivator;
@@ -72,6 +76,7 @@ public DefaultDataContainer(int concurrencyLevel) {
       // If no comparing implementations passed, could fallback on JDK CHM
       entries = CollectionFactory.makeConcurrentParallelMap(128, concurrencyLevel);
       extendedMap = new EquivalentConcurrentExtendedMap();
+      keyEquivalence = AnyEquivalence.getInstance();
    }
 
    public DefaultDataContainer(int concurrencyLevel,
@@ -79,6 +84,7 @@ public DefaultDataContainer(int concurrencyLevel,
       // If at least one comparing implementation give, use ComparingCHMv8
       entries = CollectionFactory.makeConcurrentParallelMap(128, concurrencyLevel, keyEq, AnyEquivalence.getInstance());
       extendedMap = new EquivalentConcurrentExtendedMap();
+      keyEquivalence = keyEq;
    }
 
    protected DefaultDataContainer(int concurrencyLevel, int maxEntries,
@@ -112,6 +118,7 @@ protected DefaultDataContainer(int concurrencyLevel, int maxEntries,
       entries = new BoundedEquivalentConcurrentHashMapV8<K, InternalCacheEntry<K, V>>(
             (long) maxEntries, Eviction.LRU, evictionListener, keyEquivalence, AnyEquivalence.getInstance());
       extendedMap = new BoundedEquivalentConcurrentExtendedMap();
+      this.keyEquivalence = keyEquivalence;
    }
 
    @Inject
@@ -123,6 +130,20 @@ public void initialize(EvictionManager evictionManager, PassivationManager passi
       this.activator = activator;
       this.pm = clm;
       this.timeService = timeService;
+      this.expirationWheel = new ExpirationTimerWheel<K>(keyEquivalence, ExpirationTimerWheel.DEFAULT_TICK_MILLIS,
+                                                         timeService.wallClockTime());
+   }
+
+   /**
+    * Keeps the L1 entries apart from the owned entries, in a map bounded to the given number of entries. The evicted
+    * L1 entries are simply dropped, they are neither passivated nor notified, and they don't make room for owned
+    * entries.
+    */
+   public void boundL1Entries(int maxEntries, EvictionStrategy strategy) {
+      l1Entries = new BoundedEquivalentConcurrentHashMapV8<K, InternalCacheEntry<K, V>>(
+            (long) maxEntries, strategy == EvictionStrategy.LIRS ? Eviction.LIRS : Eviction.LRU,
+            BoundedEquivalentConcurrentHashMapV8.<K, InternalCacheEntry<K, V>>getNullEvictionListener(),
+            keyEquivalence, AnyEquivalence.getInstance());
    }
 
    public static <K, V> DataContainer<K, V> boundedDataContainer(int concurrencyLevel, int maxEntries,
@@ -143,20 +164,33 @@ public static DataContainer unBoundedDataContainer(int concurrencyLevel) {
 
    @Override
    public InternalCacheEntry<K, V> peek(Object key) {
-      if (entries instanceof PeekableMap) {
-         return ((PeekableMap<K, InternalCacheEntry<K, V>>)entries).peek(key);
+      InternalCacheEntry<K, V> e = peek(entries, key);
+      if (e == null && l1Entries != null) {
+         e = peek(l1Entries, key);
       }
-      return entries.get(key);
+      return e;
+   }
+
+   private InternalCacheEntry<K, V> peek(ConcurrentMap<K, InternalCacheEntry<K, V>> map, Object key) {
+      if (map instanceof PeekableMap) {
+         return ((PeekableMap<K, InternalCacheEntry<K, V>>)map).peek(key);
+      }
+      return map.get(key);
    }
 
    @Override
    public InternalCacheEntry<K, V> get(Object k) {
-      InternalCacheEntry<K, V> e = entries.get(k);
+      ConcurrentMap<K, InternalCacheEntry<K, V>> map = entries;
+      InternalCacheEntry<K, V> e = map.get(k);
+      if (e == null && l1Entries != null) {
+         map = l1Entries;
+         e = map.get(k);
+      }
       if (e != null && e.canExpire()) {
          long currentTimeMillis = timeService.wallClockTime();
          if (e.isExpired(currentTimeMillis)) {
             // We can only remove the same value - in case if a concurrent write updates it
-            entries.remove(k, e);
+            map.remove(k, e);
             e = null;
          } else {
             e.touch(currentTimeMillis);
@@ -172,7 +206,7 @@ public void put(K k, V v, Metadata metadata) {
          metadata = ((L1Metadata) metadata).metadata();
          l1Entry = true;
       }
-      InternalCacheEntry<K, V> e = entries.get(k);
+      InternalCacheEntry<K, V> e = l1Entry && l1Entries != null ? peek(k) : entries.get(k);
 
       if (trace) {
          log.tracef("Creating new ICE for writing. Existing=%s, metadata=%s, new value=%s", e, metadata, v);
@@ -189,7 +223,23 @@ public void put(K k, V v, Metadata metadata) {
       if (trace)
          log.tracef("Store %s in container", e);
 
+      if (l1Entries != null) {
+         if (l1Entry && !entries.containsKey(k)) {
+            l1Entries.put(k, e);
+            scheduleExpiration(e);
+            return;
+         }
+         // The key is owned now
+         l1Entries.remove(k);
+      }
       extendedMap.putAndActivate(e);
+      scheduleExpiration(e);
+   }
+
+   private void scheduleExpiration(InternalCacheEntry<K, V> e) {
+      if (e.canExpire() && expirationWheel != null) {
+         expirationWheel.schedule(e.getKey(), e.getExpiryTime());
+      }
    }
 
    @Override
@@ -197,6 +247,7 @@ public boolean containsKey(Object k) {
       InternalCacheEntry<K, V> ice = peek(k);
       if (ice != null && ice.canExpire() && ice.isExpired(timeService.wallClockTime())) {
          entries.remove(k);
+         if (l1Entries != null) l1Entries.remove(k);
          ice = null;
       }
       return ice != null;
@@ -205,22 +256,34 @@ public boolean containsKey(Object k) {
    @Override
    public InternalCacheEntry<K, V> remove(Object k) {
       InternalCacheEntry<K, V> e = extendedMap.removeAndActivate(k);
+      if (e == null && l1Entries != null) {
+         e = l1Entries.remove(k);
+      }
       return e == null || (e.canExpire() && e.isExpired(timeService.wallClockTime())) ? null : e;
    }
 
    @Override
    public int size() {
-      return entries.size();
+      return l1Entries == null ? entries.size() : entries.size() + l1Entries.size();
    }
 
    @Override
    public void clear() {
       log.tracef("Clearing data container");
       entries.clear();
+      if (l1Entries != null) {
+         l1Entries.clear();
+      }
+      if (expirationWheel != null) {
+         expirationWheel.clear();
+      }
    }
 
    @Override
    public Set<K> keySet() {
+      if (l1Entries != null) {
+         return new KeySet();
+      }
       return Collections.unmodifiableSet(entries.keySet());
    }
 
@@ -234,30 +297,78 @@ public Set<InternalCacheEntry<K, V>> entrySet() {
       return new EntrySet();
    }
 
+   /**
+    * Removes the expired entries. Only the keys indexed with an expiration time that is due are visited, unless the
+    * container was not initialized with a {@link TimeService}.
+    */
    @Override
    public void purgeExpired() {
-      long currentTimeMillis = timeService.wallClockTime();
+      final long currentTimeMillis = timeService.wallClockTime();
+      if (expirationWheel != null) {
+         expirationWheel.advance(currentTimeMillis, new ExpirationTimerWheel.DueKeyVisitor<K>() {
+            @Override
+            public void visit(K key) {
+               ConcurrentMap<K, InternalCacheEntry<K, V>> map = entries;
+               // Don't record an access in the eviction order of a bounded map
+               InternalCacheEntry<K, V> e = peek(map, key);
+               if (e == null && l1Entries != null) {
+                  map = l1Entries;
+                  e = peek(map, key);
+               }
+               if (e == null || !e.canExpire()) {
+                  return;
+               }
+               if (e.isExpired(currentTimeMillis)) {
+                  // Only remove the visited entry, in case a concurrent write replaced it
+                  map.remove(key, e);
+               } else {
+                  // The entry was touched or written again since it was indexed
+                  expirationWheel.schedule(key, e.getExpiryTime());
+               }
+            }
+         });
+         return;
+      }
       for (Iterator<InternalCacheEntry<K, V>> purgeCandidates = entries.values().iterator(); purgeCandidates.hasNext();) {
          InternalCacheEntry e = purgeCandidates.next();
          if (e.isExpired(currentTimeMillis)) {
             purgeCandidates.remove();
          }
       }
+      if (l1Entries != null) {
+         for (Iterator<InternalCacheEntry<K, V>> purgeCandidates = l1Entries.values().iterator(); purgeCandidates.hasNext();) {
+            if (purgeCandidates.next().isExpired(currentTimeMillis)) {
+               purgeCandidates.remove();
+            }
+         }
+      }
    }
 
    @Override
    public void evict(K key) {
       extendedMap.evict(key);
+      if (l1Entries != null) {
+         l1Entries.remove(key);
+      }
    }
 
    @Override
    public InternalCacheEntry<K, V> compute(K key, ComputeAction<K, V> action) {
+      if (l1Entries != null) {
+         // Drop the L1 copy, the action computes the owned entry
+         l1Entries.remove(key);
+      }
       return extendedMap.compute(key, action);
    }
 
    @Override
    public Iterator<InternalCacheEntry<K, V>> iterator() {
-      return new EntryIterator(entries.values().iterator());
+      return new EntryIterator(entryIterator());
+   }
+
+   private Iterator<InternalCacheEntry<K, V>> entryIterator() {
+      Iterator<InternalCacheEntry<K, V>> it = entries.values().iterator();
+      return l1Entries == null ? it : new ConcatIterator<InternalCacheEntry<K, V>>(it, l1Entries.values().iterator());
    }
 
    private final class DefaultEvictionListener implements EvictionListener<K, InternalCacheEntry<K, V>> {
@@ -334,7 +445,7 @@ public boolean contains(Object o) {
 
          @SuppressWarnings("rawtypes")
          Map.Entry e = (Map.Entry) o;
-         InternalCacheEntry ice = entries.get(e.getKey());
+         InternalCacheEntry ice = peek(e.getKey());
          if (ice == null) {
             return false;
          }
@@ -343,12 +454,12 @@ public boolean contains(Object o) {
 
       @Override
       public Iterator<InternalCacheEntry<K, V>> iterator() {
-         return new ImmutableEntryIterator(entries.values().iterator());
+         return new ImmutableEntryIterator(entryIterator());
       }
 
       @Override
       public int size() {
-         return entries.size();
+         return DefaultDataContainer.this.size();
       }
 
       @Override
@@ -364,12 +475,76 @@ public String toString() {
    private class Values extends AbstractCollection<V> {
       @Override
       public Iterator<V> iterator() {
-         return new ValueIterator(entries.values().iterator());
+         return new ValueIterator(entryIterator());
+      }
+
+      @Override
+      public int size() {
+         return DefaultDataContainer.this.size();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set, when the L1 entries are kept apart
+    */
+   private class KeySet extends AbstractSet<K> {
+      @Override
+      public boolean contains(Object o) {
+         return entries.containsKey(o) || l1Entries.containsKey(o);
+      }
+
+      @Override
+      public Iterator<K> iterator() {
+         final Iterator<InternalCacheEntry<K, V>> it = entryIterator();
+         return new Iterator<K>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public K next() {
+               return it.next().getKey();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
       }
 
       @Override
       public int size() {
-         return entries.size();
+         return DefaultDataContainer.this.size();
+      }
+   }
+
+   private static class ConcatIterator<E> implements Iterator<E> {
+      private final Iterator<E> second;
+      private Iterator<E> current;
+
+      ConcatIterator(Iterator<E> first, Iterator<E> second) {
+         this.current = first;
+         this.second = second;
+      }
+
+      @Override
+      public boolean hasNext() {
+         if (current.hasNext()) return true;
+         current = second;
+         return current.hasNext();
+      }
+
+      @Override
+      public E next() {
+         hasNext();
+         return current.next();
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
       }
    }
 
@@ -413,6 +588,13 @@ public void apply(K key, InternalCacheEntry<K, V> value) {
             }
          }
       });
+      if (l1Entries != null) {
+         for (InternalCacheEntry<K, V> e : l1Entries.values()) {
+            if (filter.accept(e.getKey())) {
+               action.apply(e.getKey(), e);
+            }
+         }
+      }
       //TODO figure out the way how to do interruption better (during iteration)
       if(Thread.currentThread().isInterrupted()){
          throw new InterruptedException();
@@ -436,6 +618,13 @@ public void apply(K key, InternalCacheEntry<K, V> value) {
             }
          }
       });
+      if (l1Entries != null) {
+         for (InternalCacheEntry<K, V> e : l1Entries.values()) {
+            if (filter.accept(e.getKey(), e.getValue(), e.getMetadata())) {
+               action.apply(e.getKey(), e);
+            }
+         }
+      }
       //TODO figure out the way how to do interruption better (during iteration)
       if(Thread.currentThread().isInterrupted()){
          throw new InterruptedException();
@@ -484,6 +673,7 @@ public InternalCacheEntry<K, V> apply(K key, InternalCacheEntry<K, V> oldEntry)
                      activator.onUpdate(key, oldEntry == null);
                      if (trace)
                         log.tracef("Store %s in container", newEntry);
+                     scheduleExpiration(newEntry);
                      return newEntry;
                   }
                });
@@ -546,6 +736,7 @@ public InternalCacheEntry<K, V> apply(K key, InternalCacheEntry<K, V> oldEntry)
                      activator.onUpdate(key, oldEntry == null);
                      if (trace)
                         log.tracef("Store %s in container", newEntry);
+                     scheduleExpiration(newEntry);
                      return newEntry;
                   }
                });
@@ -0,0 +1,351 @@
+package org.infinispan.container;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.commons.util.concurrent.ParallelIterableMap.KeyValueAction;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.eviction.ActivationManager;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.filter.KeyFilter;
+import org.infinispan.filter.KeyValueFilter;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.util.TimeService;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * A {@link SegmentedDataContainer} which keeps the entries of each segment in an unbounded
+ * {@link DefaultDataContainer} of its own.
+ * <p/>
+ * The segment of a key is computed with a consistent hash created from the cache configuration when the container is
+ * created. It doesn't matter that its members are not the actual members of the cache, as the segment of a key only
+ * depends on the hash function, the number of segments and the key grouping.
+ *
+ * @since 7.2
+ */
+@ThreadSafe
+public class DefaultSegmentedDataContainer<K, V> implements SegmentedDataContainer<K, V> {
+
+   private static final Log log = LogFactory.getLog(DefaultSegmentedDataContainer.class);
+
+   private final ConsistentHash segmentMapper;
+   private final DefaultDataContainer<K, V>[] segments;
+   // A moving average of the size of the written entries, times 16 to keep the precision.
+   // Concurrent updates may be lost, it's only an estimate.
+   private volatile long scaledAverageEntrySize;
+   // Set once an entry that can't be sized is written, the estimate is unknown until the container is cleared
+   private volatile boolean unsizedEntries;
+
+   @SuppressWarnings("unchecked")
+   public DefaultSegmentedDataContainer(int concurrencyLevel, Equivalence<? super K> keyEquivalence,
+                                        ConsistentHash segmentMapper) {
+      this.segmentMapper = segmentMapper;
+      segments = new DefaultDataContainer[segmentMapper.getNumSegments()];
+      for (int i = 0; i < segments.length; i++) {
+         segments[i] = new DefaultDataContainer<K, V>(concurrencyLevel, keyEquivalence);
+      }
+   }
+
+   @Inject
+   public void initialize(EvictionManager evictionManager, PassivationManager passivator,
+                          InternalEntryFactory entryFactory, ActivationManager activator, PersistenceManager clm,
+                          TimeService timeService) {
+      for (DefaultDataContainer<K, V> segment : segments) {
+         segment.initialize(evictionManager, passivator, entryFactory, activator, clm, timeService);
+      }
+   }
+
+   @Override
+   public int getNumSegments() {
+      return segments.length;
+   }
+
+   @Override
+   public int getSegment(Object key) {
+      return segmentMapper.getSegment(key);
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> segmentIterator(int segment) {
+      return segments[segment].iterator();
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> segmentIterator(Set<Integer> segmentIds) {
+      final Iterator<Integer> it = segmentIds.iterator();
+      return new SegmentsIterator<InternalCacheEntry<K, V>>() {
+         @Override
+         Iterator<InternalCacheEntry<K, V>> nextIterator() {
+            return it.hasNext() ? segmentIterator(it.next()) : null;
+         }
+      };
+   }
+
+   @Override
+   public int segmentSize(int segment) {
+      return segments[segment].size();
+   }
+
+   @Override
+   public long segmentSizeInBytes(int segment) {
+      if (unsizedEntries) {
+         return -1;
+      }
+      // Not the actual size of the entries in the segment, but the global average times the number of entries
+      return segments[segment].size() * (scaledAverageEntrySize >> 4);
+   }
+
+   @Override
+   public void clearSegment(int segment) {
+      log.tracef("Clearing segment %d of the data container", segment);
+      segments[segment].clear();
+   }
+
+   private DefaultDataContainer<K, V> segmentFor(Object key) {
+      return segments[segmentMapper.getSegment(key)];
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> get(Object k) {
+      return segmentFor(k).get(k);
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> peek(Object k) {
+      return segmentFor(k).peek(k);
+   }
+
+   @Override
+   public void put(K k, V v, Metadata metadata) {
+      segmentFor(k).put(k, v, metadata);
+      long keySize = estimateSize(k);
+      long valueSize = estimateSize(v);
+      if (keySize < 0 || valueSize < 0) {
+         if (!unsizedEntries) {
+            unsizedEntries = true;
+         }
+         return;
+      }
+      long scaledAverage = scaledAverageEntrySize;
+      long updated = scaledAverage + keySize + valueSize - (scaledAverage >> 4);
+      // Once the average is stable, don't write it again
+      if (updated != scaledAverage) {
+         scaledAverageEntrySize = updated;
+      }
+   }
+
+   private static long estimateSize(Object o) {
+      if (o instanceof byte[]) {
+         return ((byte[]) o).length;
+      } else if (o instanceof String) {
+         return 2L * ((String) o).length();
+      }
+      return -1;
+   }
+
+   @Override
+   public boolean containsKey(Object k) {
+      return segmentFor(k).containsKey(k);
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> remove(Object k) {
+      return segmentFor(k).remove(k);
+   }
+
+   @Override
+   public int size() {
+      int size = 0;
+      for (DefaultDataContainer<K, V> segment : segments) {
+         size += segment.size();
+      }
+      return size;
+   }
+
+   @Override
+   public void clear() {
+      log.tracef("Clearing data container");
+      for (DefaultDataContainer<K, V> segment : segments) {
+         segment.clear();
+      }
+      unsizedEntries = false;
+   }
+
+   @Override
+   public Set<K> keySet() {
+      return new KeySet();
+   }
+
+   @Override
+   public Collection<V> values() {
+      return new Values();
+   }
+
+   @Override
+   public Set<InternalCacheEntry<K, V>> entrySet() {
+      return new EntrySet();
+   }
+
+   @Override
+   public void purgeExpired() {
+      for (DefaultDataContainer<K, V> segment : segments) {
+         segment.purgeExpired();
+      }
+   }
+
+   @Override
+   public void evict(K key) {
+      segmentFor(key).evict(key);
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> compute(K key, ComputeAction<K, V> action) {
+      return segmentFor(key).compute(key, action);
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> iterator() {
+      return new AllSegmentsIterator<InternalCacheEntry<K, V>>() {
+         @Override
+         Iterator<InternalCacheEntry<K, V>> iterator(DefaultDataContainer<K, V> segment) {
+            return segment.iterator();
+         }
+      };
+   }
+
+   @Override
+   public void executeTask(KeyFilter<? super K> filter, KeyValueAction<? super K, InternalCacheEntry<K, V>> action)
+         throws InterruptedException {
+      for (DefaultDataContainer<K, V> segment : segments) {
+         segment.executeTask(filter, action);
+      }
+   }
+
+   @Override
+   public void executeTask(KeyValueFilter<? super K, ? super V> filter,
+                           KeyValueAction<? super K, InternalCacheEntry<K, V>> action) throws InterruptedException {
+      for (DefaultDataContainer<K, V> segment : segments) {
+         segment.executeTask(filter, action);
+      }
+   }
+
+   /**
+    * Iterates over some segments, one after the other.
+    */
+   private abstract static class SegmentsIterator<T> implements Iterator<T> {
+      private Iterator<T> current;
+
+      /**
+       * @return an iterator over the next segment, or {@code null} if there are no more segments
+       */
+      abstract Iterator<T> nextIterator();
+
+      @Override
+      public boolean hasNext() {
+         while (current == null || !current.hasNext()) {
+            Iterator<T> next = nextIterator();
+            if (next == null)
+               return false;
+            current = next;
+         }
+         return true;
+      }
+
+      @Override
+      public T next() {
+         if (!hasNext())
+            throw new NoSuchElementException();
+         return current.next();
+      }
+
+      @Override
+      public void remove() {
+         if (current == null)
+            throw new IllegalStateException();
+         current.remove();
+      }
+   }
+
+   private abstract class AllSegmentsIterator<T> extends SegmentsIterator<T> {
+      private int nextSegment;
+
+      abstract Iterator<T> iterator(DefaultDataContainer<K, V> segment);
+
+      @Override
+      Iterator<T> nextIterator() {
+         return nextSegment < segments.length ? iterator(segments[nextSegment++]) : null;
+      }
+   }
+
+   private class KeySet extends AbstractSet<K> {
+      @Override
+      public Iterator<K> iterator() {
+         return new AllSegmentsIterator<K>() {
+            @Override
+            Iterator<K> iterator(DefaultDataContainer<K, V> segment) {
+               return segment.keySet().iterator();
+            }
+         };
+      }
+
+      @Override
+      public boolean contains(Object o) {
+         return segmentFor(o).keySet().contains(o);
+      }
+
+      @Override
+      public int size() {
+         return DefaultSegmentedDataContainer.this.size();
+      }
+   }
+
+   private class Values extends AbstractCollection<V> {
+      @Override
+      public Iterator<V> iterator() {
+         return new AllSegmentsIterator<V>() {
+            @Override
+            Iterator<V> iterator(DefaultDataContainer<K, V> segment) {
+               return segment.values().iterator();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return DefaultSegmentedDataContainer.this.size();
+      }
+   }
+
+   private class EntrySet extends AbstractSet<InternalCacheEntry<K, V>> {
+      @Override
+      public Iterator<InternalCacheEntry<K, V>> iterator() {
+         return DefaultSegmentedDataContainer.this.iterator();
+      }
+
+      @Override
+      public boolean contains(Object o) {
+         if (!(o instanceof Map.Entry)) {
+            return false;
+         }
+         return segmentFor(((Map.Entry) o).getKey()).entrySet().contains(o);
+      }
+
+      @Override
+      public int size() {
+         return DefaultSegmentedDataContainer.this.size();
+      }
+   }
+}
@@ -0,0 +1,273 @@
+package org.infinispan.container;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.commons.util.CollectionFactory;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A hierarchical timing wheel indexing the keys of a data container by the expiration time of their entries, so that
+ * the expiration reaper only visits the keys that are due instead of every entry in the container.
+ * <p/>
+ * The first level has a slot per tick for the next 256 ticks, and each of the following levels has 64 slots, each
+ * spanning all the slots of the previous level. When the first level wraps around, the keys in the next slot of the
+ * second level are moved down to the first level, and so on. Keys expiring beyond the last level wait in an overflow
+ * slot. The occupied slots of the first level are tracked in a bitmap, so advancing the wheel skips the empty ticks
+ * and only stops at the occupied slots and when the first level wraps around.
+ * <p/>
+ * The index is lazy: a key is scheduled again whenever its entry is written, and it is neither unscheduled when the
+ * entry is removed nor rescheduled when the entry is touched. The visitor of a due key must check the entry currently
+ * in the container, and {@link #schedule(Object, long) schedule} it again if it hasn't expired yet.
+ *
+ * @since 7.2
+ */
+@ThreadSafe
+final class ExpirationTimerWheel<K> {
+
+   /**
+    * Receives the keys whose expiration time is due.
+    */
+   interface DueKeyVisitor<K> {
+      void visit(K key);
+   }
+
+   /**
+    * A tick of a millisecond keeps the purge exact, and the first level spans 256 milliseconds and the last 18 hours.
+    */
+   static final long DEFAULT_TICK_MILLIS = 1;
+
+   private static final int FIRST_LEVEL_BITS = 8;
+   private static final int LEVEL_BITS = 6;
+   private static final int LEVELS = 4;
+   private static final int FIRST_LEVEL_SLOTS = 1 << FIRST_LEVEL_BITS;
+   private static final int FIRST_LEVEL_MASK = FIRST_LEVEL_SLOTS - 1;
+   private static final int LEVEL_SLOTS = 1 << LEVEL_BITS;
+   private static final int OVERFLOW_SLOT = FIRST_LEVEL_SLOTS + (LEVELS - 1) * LEVEL_SLOTS;
+   private static final long SPAN_TICKS = 1L << (FIRST_LEVEL_BITS + (LEVELS - 1) * LEVEL_BITS);
+
+   private final long tickMillis;
+   private final Equivalence<? super K> keyEquivalence;
+   // The keys and their expiration times, the maps are created on first use
+   private final AtomicReferenceArray<ConcurrentMap<K, Long>> slots =
+         new AtomicReferenceArray<ConcurrentMap<K, Long>>(OVERFLOW_SLOT + 1);
+   // A bit per first level slot, set after a key is added to the slot and cleared before the slot is drained
+   private final AtomicLongArray occupied = new AtomicLongArray(FIRST_LEVEL_SLOTS / 64);
+   // Only advanced by the reaper, while holding the monitor
+   private volatile long currentTick;
+
+   ExpirationTimerWheel(Equivalence<? super K> keyEquivalence, long tickMillis, long now) {
+      this.keyEquivalence = keyEquivalence;
+      this.tickMillis = tickMillis;
+      this.currentTick = now / tickMillis;
+   }
+
+   /**
+    * Schedules the key to be visited after its expiration time.
+    */
+   void schedule(K key, long expiryTime) {
+      // An entry expires when the time is strictly greater than its expiration time
+      long dueTick = expiryTime / tickMillis + 1;
+      long current;
+      do {
+         current = currentTick;
+         int index = slotIndex(dueTick, current);
+         slot(index).put(key, expiryTime);
+         if (index < FIRST_LEVEL_SLOTS) {
+            setOccupied(index);
+         }
+         // If the reaper moved on meanwhile, the slot might already have been visited
+      } while (current != currentTick);
+   }
+
+   /**
+    * Advances the wheel up to the given time, passing the keys that are due to the visitor.
+    */
+   synchronized void advance(long now, DueKeyVisitor<K> visitor) {
+      long targetTick = now / tickMillis;
+      if (targetTick - currentTick >= SPAN_TICKS) {
+         // The wheel was not advanced for a long time, or the clock jumped: visit every key
+         currentTick = targetTick;
+         clearOccupied();
+         for (int i = 0; i < slots.length(); i++) {
+            // Detach the slot, so the keys scheduled again by the visitor are not visited twice
+            ConcurrentMap<K, Long> slot = slots.getAndSet(i, null);
+            if (slot != null) {
+               for (K key : slot.keySet()) {
+                  visitor.visit(key);
+               }
+            }
+         }
+         return;
+      }
+
+      while (currentTick < targetTick) {
+         long tick = currentTick + 1;
+         if ((tick & FIRST_LEVEL_MASK) == 0) {
+            currentTick = tick;
+            cascade(tick, 1);
+            drain(0, visitor);
+            continue;
+         }
+         // Jump to the next occupied slot, without going past the wrap around of the first level or the target
+         long last = Math.min(tick | FIRST_LEVEL_MASK, targetTick);
+         int index = nextOccupied((int) (tick & FIRST_LEVEL_MASK), (int) (last & FIRST_LEVEL_MASK));
+         if (index < 0) {
+            currentTick = last;
+         } else {
+            currentTick = (tick & ~FIRST_LEVEL_MASK) | index;
+            drain(index, visitor);
+         }
+      }
+   }
+
+   /**
+    * Removes all the keys.
+    */
+   void clear() {
+      clearOccupied();
+      for (int i = 0; i < slots.length(); i++) {
+         ConcurrentMap<K, Long> slot = slots.get(i);
+         if (slot != null) slot.clear();
+      }
+   }
+
+   /**
+    * @return the number of keys in the wheel, including stale ones
+    */
+   int size() {
+      int size = 0;
+      for (int i = 0; i < slots.length(); i++) {
+         ConcurrentMap<K, Long> slot = slots.get(i);
+         if (slot != null) size += slot.size();
+      }
+      return size;
+   }
+
+   /**
+    * Moves the keys of the slot of the given level at the given tick to the lower levels, after cascading the higher
+    * levels if they wrap around too.
+    */
+   private void cascade(long tick, int level) {
+      int shift = FIRST_LEVEL_BITS + (level - 1) * LEVEL_BITS;
+      int index = (int) ((tick >>> shift) & (LEVEL_SLOTS - 1));
+      if (index == 0) {
+         if (level < LEVELS - 1) {
+            cascade(tick, level + 1);
+         } else {
+            reschedule(OVERFLOW_SLOT);
+         }
+      }
+      reschedule(FIRST_LEVEL_SLOTS + (level - 1) * LEVEL_SLOTS + index);
+   }
+
+   private void reschedule(int slotIndex) {
+      ConcurrentMap<K, Long> slot = slots.get(slotIndex);
+      if (slot == null || slot.isEmpty()) return;
+      // The keys that still belong in this slot (e.g. the overflow slot) are put back in the same map, so iterate
+      // over a snapshot: the map iterator could return them again, and never reach the end.
+      List<Map.Entry<K, Long>> entries = new ArrayList<Map.Entry<K, Long>>(slot.size());
+      for (Map.Entry<K, Long> entry : slot.entrySet()) {
+         entries.add(new AbstractMap.SimpleImmutableEntry<K, Long>(entry.getKey(), entry.getValue()));
+      }
+      for (Map.Entry<K, Long> entry : entries) {
+         K key = entry.getKey();
+         Long expiryTime = entry.getValue();
+         if (slot.remove(key, expiryTime)) {
+            schedule(key, expiryTime);
+         }
+      }
+   }
+
+   private void drain(int slotIndex, DueKeyVisitor<K> visitor) {
+      // A key scheduled concurrently is either seen below, or it sets the bit again
+      clearOccupied(slotIndex);
+      ConcurrentMap<K, Long> slot = slots.get(slotIndex);
+      if (slot == null) return;
+      for (Iterator<Map.Entry<K, Long>> it = slot.entrySet().iterator(); it.hasNext(); ) {
+         Map.Entry<K, Long> entry = it.next();
+         K key = entry.getKey();
+         if (slot.remove(key, entry.getValue())) {
+            visitor.visit(key);
+         }
+      }
+   }
+
+   /**
+    * @return the first occupied slot of the first level between {@code from} and {@code to}, both inclusive, or -1
+    */
+   private int nextOccupied(int from, int to) {
+      for (int word = from >>> 6; word <= to >>> 6; word++) {
+         long bits = occupied.get(word);
+         if (word == from >>> 6) bits &= -1L << (from & 63);
+         if (word == to >>> 6) bits &= -1L >>> (63 - (to & 63));
+         if (bits != 0) return (word << 6) + Long.numberOfTrailingZeros(bits);
+      }
+      return -1;
+   }
+
+   private void setOccupied(int slotIndex) {
+      int word = slotIndex >>> 6;
+      long bit = 1L << (slotIndex & 63);
+      long bits;
+      do {
+         bits = occupied.get(word);
+         if ((bits & bit) != 0) return;
+      } while (!occupied.compareAndSet(word, bits, bits | bit));
+   }
+
+   private void clearOccupied(int slotIndex) {
+      int word = slotIndex >>> 6;
+      long bit = 1L << (slotIndex & 63);
+      long bits;
+      do {
+         bits = occupied.get(word);
+         if ((bits & bit) == 0) return;
+      } while (!occupied.compareAndSet(word, bits, bits & ~bit));
+   }
+
+   private void clearOccupied() {
+      for (int i = 0; i < occupied.length(); i++) {
+         occupied.set(i, 0);
+      }
+   }
+
+   private int slotIndex(long dueTick, long current) {
+      long delta = dueTick - current;
+      if (delta <= 0) {
+         // Already due, the next tick will visit it
+         dueTick = current + 1;
+         delta = 1;
+      }
+      if (delta < FIRST_LEVEL_SLOTS) {
+         return (int) (dueTick & (FIRST_LEVEL_SLOTS - 1));
+      }
+      int shift = FIRST_LEVEL_BITS;
+      for (int level = 1; level < LEVELS; level++, shift += LEVEL_BITS) {
+         if (delta < 1L << (shift + LEVEL_BITS)) {
+            return FIRST_LEVEL_SLOTS + (level - 1) * LEVEL_SLOTS + (int) ((dueTick >>> shift) & (LEVEL_SLOTS - 1));
+         }
+      }
+      return OVERFLOW_SLOT;
+   }
+
+   private ConcurrentMap<K, Long> slot(int index) {
+      ConcurrentMap<K, Long> slot = slots.get(index);
+      if (slot == null) {
+         slot = CollectionFactory.makeConcurrentMap(keyEquivalence, AnyEquivalence.<Long>getInstance());
+         if (!slots.compareAndSet(index, null, slot)) {
+            slot = slots.get(index);
+         }
+      }
+      return slot;
+   }
+}
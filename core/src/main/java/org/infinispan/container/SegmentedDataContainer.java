@@ -0,0 +1,72 @@
+package org.infinispan.container;
+
+import java.util.Iterator;
+import java.util.Set;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+
+/**
+ * A {@link DataContainer} which partitions its entries by the consistent hash segment of their keys, so that the
+ * entries of a single segment can be iterated, counted or dropped without scanning the whole container.
+ * <p/>
+ * The segment of a key is the same in every cache topology, so the segments of this container always match the
+ * segments of the current {@link org.infinispan.distribution.ch.ConsistentHash}.
+ *
+ * @since 7.2
+ */
+public interface SegmentedDataContainer<K, V> extends DataContainer<K, V> {
+
+   /**
+    * @return the number of segments, the same as the number of segments of the consistent hash
+    */
+   int getNumSegments();
+
+   /**
+    * @param key a key, not necessarily present in the container
+    * @return the segment the key belongs to
+    */
+   int getSegment(Object key);
+
+   /**
+    * Returns an iterator over the entries of a single segment. As with {@link #iterator()}, the iterator is weakly
+    * consistent and may return expired entries.
+    *
+    * @param segment the segment id
+    * @return an iterator over the entries of the segment
+    */
+   Iterator<InternalCacheEntry<K, V>> segmentIterator(int segment);
+
+   /**
+    * Returns an iterator over the entries of several segments, one segment after the other.
+    *
+    * @param segmentIds the segment ids
+    * @return an iterator over the entries of the segments
+    */
+   Iterator<InternalCacheEntry<K, V>> segmentIterator(Set<Integer> segmentIds);
+
+   /**
+    * @param segment the segment id
+    * @return the number of entries in the segment, including the expired ones
+    */
+   int segmentSize(int segment);
+
+   /**
+    * Estimates the memory used by the keys and values of a segment. The estimate is the number of entries in the
+    * segment times the moving average size of all the entries written to the container, so it doesn't follow the
+    * actual sizes of the entries of a single segment. Only {@code byte[]} and {@code String} keys and values can be
+    * sized, as stored by the remote protocols.
+    *
+    * @param segment the segment id
+    * @return the estimated size in bytes of the keys and values in the segment, or -1 if the container holds keys or
+    * values that can't be sized
+    */
+   long segmentSizeInBytes(int segment);
+
+   /**
+    * Removes all the entries of a segment. As with {@link #clear()}, no listeners are notified and the entries are not
+    * removed from the cache stores.
+    *
+    * @param segment the segment id
+    */
+   void clearSegment(int segment);
+}
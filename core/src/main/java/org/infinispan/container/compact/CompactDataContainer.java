@@ -0,0 +1,1005 @@
+package org.infinispan.container.compact;
+
+import java.nio.charset.Charset;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.commons.util.concurrent.ParallelIterableMap.KeyValueAction;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.entries.ExpiryHelper;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.L1InternalCacheEntry;
+import org.infinispan.container.entries.metadata.L1MetadataInternalCacheEntry;
+import org.infinispan.container.versioning.EntryVersion;
+import org.infinispan.container.versioning.NumericVersion;
+import org.infinispan.eviction.ActivationManager;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.filter.KeyFilter;
+import org.infinispan.filter.KeyValueFilter;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.metadata.impl.L1Metadata;
+import org.infinispan.util.CoreImmutables;
+import org.infinispan.util.TimeService;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * A {@link DataContainer} for caches whose values are all {@code byte[]} and whose keys are {@code byte[]} or
+ * {@link String}, like the caches accessed through the Hot Rod and Memcached servers. String keys are stored in their
+ * UTF-8 encoding, and never match a {@code byte[]} key with the same bytes.
+ * <p/>
+ * Each entry is packed into a single {@code byte[]} slab holding a small header, the expiration timestamps and the
+ * numeric version (only those the entry actually has), followed by the key and the value. There is no entry object, no
+ * metadata object and no hash table node per entry: the slabs are kept in open addressing tables, one per segment,
+ * next to an array of precomputed hashes. Metadata other than {@link EmbeddedMetadata} with an optional
+ * {@link NumericVersion} is kept as is in a side array, which is only allocated once such an entry is stored.
+ * <p/>
+ * Every {@link InternalCacheEntry} returned by this container is built from the slab, so modifying it does not change
+ * the stored entry. Iteration is weakly consistent.
+ * <p/>
+ * When bounded, the container evicts with the CLOCK algorithm: reading an entry sets a reference bit in its slab, and
+ * the eviction hand clears the bits of the entries it passes until it finds one that was not read since. All the
+ * eviction strategies are approximated this way.
+ *
+ * @since 7.2
+ */
+@ThreadSafe
+public class CompactDataContainer<K, V> implements DataContainer<K, V> {
+
+   private static final Log log = LogFactory.getLog(CompactDataContainer.class, Log.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   // Slab layout: [flags][key length][created, lifespan][last used, max idle][version][key][value]
+   private static final int FLAGS_OFFSET = 0;
+   private static final int KEY_LENGTH_OFFSET = 1;
+   private static final int HEADER_SIZE = 5;
+
+   private static final byte FLAG_MORTAL = 1;
+   private static final byte FLAG_TRANSIENT = 1 << 1;
+   private static final byte FLAG_VERSION = 1 << 2;
+   private static final byte FLAG_L1 = 1 << 3;
+   private static final byte FLAG_CUSTOM_METADATA = 1 << 4;
+   private static final byte FLAG_REFERENCED = 1 << 5;
+   private static final byte FLAG_STRING_KEY = 1 << 6;
+
+   private static final Charset UTF8 = Charset.forName("UTF-8");
+
+   private static final int INITIAL_SEGMENT_CAPACITY = 16;
+   private static final int MAXIMUM_SEGMENT_CAPACITY = 1 << 30;
+   private static final int MAXIMUM_SEGMENTS = 1 << 16;
+   private static final float LOAD_FACTOR = 0.75f;
+
+   // Marks a removed slot, so that the probing goes on past it
+   private static final byte[] REMOVED = new byte[0];
+
+   private final Segment[] segments;
+   private final int segmentShift;
+   private final long maxEntries;
+   private final AtomicInteger size = new AtomicInteger();
+   private final AtomicInteger evictionSegment = new AtomicInteger();
+
+   private InternalEntryFactory entryFactory;
+   private EvictionManager evictionManager;
+   private PassivationManager passivator;
+   private ActivationManager activator;
+   private TimeService timeService;
+
+   public CompactDataContainer(int concurrencyLevel) {
+      this(concurrencyLevel, -1, EvictionStrategy.NONE);
+   }
+
+   @SuppressWarnings("unchecked")
+   public CompactDataContainer(int concurrencyLevel, long maxEntries, EvictionStrategy strategy) {
+      switch (strategy) {
+         case NONE:
+            maxEntries = -1;
+            break;
+         case FIFO:
+         case UNORDERED:
+         case LRU:
+         case LIRS:
+            // all approximated with CLOCK
+            break;
+         default:
+            throw new IllegalArgumentException("No such eviction strategy " + strategy);
+      }
+      this.maxEntries = maxEntries;
+      int shift = 0;
+      int count = 1;
+      while (count < concurrencyLevel && count < MAXIMUM_SEGMENTS) {
+         count <<= 1;
+         shift++;
+      }
+      segmentShift = 32 - shift;
+      segments = new CompactDataContainer.Segment[count];
+      for (int i = 0; i < count; i++)
+         segments[i] = new Segment();
+   }
+
+   @Inject
+   public void initialize(EvictionManager evictionManager, PassivationManager passivator,
+                          InternalEntryFactory entryFactory, ActivationManager activator, TimeService timeService) {
+      this.evictionManager = evictionManager;
+      this.passivator = passivator;
+      this.entryFactory = entryFactory;
+      this.activator = activator;
+      this.timeService = timeService;
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> get(Object k) {
+      byte[] key = keyBytes(k);
+      if (key == null)
+         return null;
+      int hash = hash(key);
+      Segment segment = segmentFor(hash);
+      long now = -1;
+      segment.readLock().lock();
+      try {
+         int slot = segment.find(hash, key, k instanceof String);
+         if (slot < 0)
+            return null;
+         byte[] slab = segment.slabs[slot];
+         if (canExpire(slab)) {
+            now = timeService.wallClockTime();
+            if (!isExpired(slab, now) && !isTransient(slab)) {
+               reference(slab);
+               return toInternalCacheEntry(slab, segment.metadata(slot), k);
+            }
+         } else {
+            reference(slab);
+            return toInternalCacheEntry(slab, segment.metadata(slot), k);
+         }
+      } finally {
+         segment.readLock().unlock();
+      }
+      // Expired, or the last used timestamp must be updated
+      segment.writeLock().lock();
+      try {
+         int slot = segment.find(hash, key, k instanceof String);
+         if (slot < 0)
+            return null;
+         byte[] slab = segment.slabs[slot];
+         if (canExpire(slab) && isExpired(slab, now)) {
+            segment.remove(slot);
+            return null;
+         }
+         if (isTransient(slab))
+            putLong(slab, lastUsedOffset(slab), now);
+         reference(slab);
+         return toInternalCacheEntry(slab, segment.metadata(slot), k);
+      } finally {
+         segment.writeLock().unlock();
+      }
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> peek(Object k) {
+      byte[] key = keyBytes(k);
+      if (key == null)
+         return null;
+      int hash = hash(key);
+      Segment segment = segmentFor(hash);
+      segment.readLock().lock();
+      try {
+         int slot = segment.find(hash, key, k instanceof String);
+         return slot < 0 ? null : toInternalCacheEntry(segment.slabs[slot], segment.metadata(slot), k);
+      } finally {
+         segment.readLock().unlock();
+      }
+   }
+
+   @Override
+   public void put(K k, V v, Metadata metadata) {
+      InternalCacheEntry<K, V> e;
+      if (metadata instanceof L1Metadata) {
+         e = entryFactory.createL1(k, v, ((L1Metadata) metadata).metadata());
+      } else {
+         e = entryFactory.create(k, v, metadata);
+      }
+      if (trace)
+         log.tracef("Store %s in container", e);
+
+      // Pack the slab outside of the lock
+      byte[] slab = toSlab(e);
+      byte[] key = keyBytes(k);
+      int hash = hash(key);
+      Segment segment = segmentFor(hash);
+      Metadata customMetadata = isCompactMetadata(e.getMetadata()) ? null : e.getMetadata();
+      boolean created;
+      segment.writeLock().lock();
+      try {
+         created = segment.put(hash, key, k instanceof String, slab, customMetadata);
+         activator.onUpdate(k, created);
+      } finally {
+         segment.writeLock().unlock();
+      }
+      if (created)
+         evictIfNeeded();
+   }
+
+   @Override
+   public boolean containsKey(Object k) {
+      byte[] key = keyBytes(k);
+      if (key == null)
+         return false;
+      int hash = hash(key);
+      Segment segment = segmentFor(hash);
+      long now;
+      segment.readLock().lock();
+      try {
+         int slot = segment.find(hash, key, k instanceof String);
+         if (slot < 0)
+            return false;
+         byte[] slab = segment.slabs[slot];
+         if (!canExpire(slab))
+            return true;
+         now = timeService.wallClockTime();
+         if (!isExpired(slab, now))
+            return true;
+      } finally {
+         segment.readLock().unlock();
+      }
+      removeIfExpired(segment, hash, key, k instanceof String, now);
+      return false;
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> remove(Object k) {
+      byte[] key = keyBytes(k);
+      if (key == null) {
+         activator.onRemove(k, true);
+         return null;
+      }
+      int hash = hash(key);
+      Segment segment = segmentFor(hash);
+      segment.writeLock().lock();
+      try {
+         int slot = segment.find(hash, key, k instanceof String);
+         activator.onRemove(k, slot < 0);
+         if (slot < 0)
+            return null;
+         byte[] slab = segment.slabs[slot];
+         InternalCacheEntry<K, V> removed = null;
+         if (!canExpire(slab) || !isExpired(slab, timeService.wallClockTime()))
+            removed = toInternalCacheEntry(slab, segment.metadata(slot), k);
+         segment.remove(slot);
+         return removed;
+      } finally {
+         segment.writeLock().unlock();
+      }
+   }
+
+   @Override
+   public int size() {
+      return size.get();
+   }
+
+   @Override
+   public void clear() {
+      log.tracef("Clearing data container");
+      for (Segment segment : segments) {
+         segment.writeLock().lock();
+         try {
+            segment.clear();
+         } finally {
+            segment.writeLock().unlock();
+         }
+      }
+   }
+
+   @Override
+   public Set<K> keySet() {
+      return new KeySet();
+   }
+
+   @Override
+   public Collection<V> values() {
+      return new Values();
+   }
+
+   @Override
+   public Set<InternalCacheEntry<K, V>> entrySet() {
+      return new EntrySet();
+   }
+
+   @Override
+   public void purgeExpired() {
+      long currentTimeMillis = timeService.wallClockTime();
+      for (Segment segment : segments) {
+         segment.writeLock().lock();
+         try {
+            byte[][] slabs = segment.slabs;
+            for (int i = 0; i < slabs.length; i++) {
+               byte[] slab = slabs[i];
+               if (slab != null && slab != REMOVED && canExpire(slab) && isExpired(slab, currentTimeMillis))
+                  segment.remove(i);
+            }
+         } finally {
+            segment.writeLock().unlock();
+         }
+      }
+   }
+
+   @Override
+   public void evict(K k) {
+      byte[] key = keyBytes(k);
+      if (key == null)
+         return;
+      int hash = hash(key);
+      Segment segment = segmentFor(hash);
+      segment.writeLock().lock();
+      try {
+         int slot = segment.find(hash, key, k instanceof String);
+         if (slot >= 0) {
+            passivator.passivate(toInternalCacheEntry(segment.slabs[slot], segment.metadata(slot), k));
+            segment.remove(slot);
+         }
+      } finally {
+         segment.writeLock().unlock();
+      }
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> compute(K k, ComputeAction<K, V> action) {
+      byte[] key = keyBytes(k);
+      if (key == null)
+         throw log.compactDataContainerRequiresByteArrays(k.getClass().getName(), null);
+      int hash = hash(key);
+      Segment segment = segmentFor(hash);
+      boolean created = false;
+      segment.writeLock().lock();
+      try {
+         int slot = segment.find(hash, key, k instanceof String);
+         InternalCacheEntry<K, V> oldEntry = slot < 0 ? null
+               : toInternalCacheEntry(segment.slabs[slot], segment.metadata(slot), k);
+         InternalCacheEntry<K, V> newEntry = action.compute(k, oldEntry, entryFactory);
+         if (newEntry == null) {
+            if (oldEntry != null) {
+               activator.onRemove(k, false);
+               segment.remove(slot);
+            }
+            return null;
+         }
+         if (newEntry != oldEntry) {
+            activator.onUpdate(k, oldEntry == null);
+            if (trace)
+               log.tracef("Store %s in container", newEntry);
+         }
+         // The old entry is built from the slab, so it is written back even if it was returned unchanged as the
+         // action may have modified it in place.
+         Metadata metadata = newEntry.getMetadata();
+         created = segment.put(hash, key, k instanceof String, toSlab(newEntry),
+                               isCompactMetadata(metadata) ? null : metadata);
+         return newEntry;
+      } finally {
+         segment.writeLock().unlock();
+         if (created)
+            evictIfNeeded();
+      }
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> iterator() {
+      return new EntryIterator();
+   }
+
+   @Override
+   public void executeTask(KeyFilter<? super K> filter,
+                           KeyValueAction<? super K, InternalCacheEntry<K, V>> action)
+         throws InterruptedException {
+      if (filter == null)
+         throw new IllegalArgumentException("No filter specified");
+      if (action == null)
+         throw new IllegalArgumentException("No action specified");
+
+      for (Iterator<InternalCacheEntry<K, V>> it = iterator(); it.hasNext(); ) {
+         InternalCacheEntry<K, V> entry = it.next();
+         if (filter.accept(entry.getKey())) {
+            action.apply(entry.getKey(), entry);
+         }
+         if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+         }
+      }
+   }
+
+   @Override
+   public void executeTask(KeyValueFilter<? super K, ? super V> filter,
+                           KeyValueAction<? super K, InternalCacheEntry<K, V>> action)
+         throws InterruptedException {
+      if (filter == null)
+         throw new IllegalArgumentException("No filter specified");
+      if (action == null)
+         throw new IllegalArgumentException("No action specified");
+
+      for (Iterator<InternalCacheEntry<K, V>> it = iterator(); it.hasNext(); ) {
+         InternalCacheEntry<K, V> entry = it.next();
+         if (filter.accept(entry.getKey(), entry.getValue(), entry.getMetadata())) {
+            action.apply(entry.getKey(), entry);
+         }
+         if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+         }
+      }
+   }
+
+   private void removeIfExpired(Segment segment, int hash, byte[] key, boolean stringKey, long now) {
+      segment.writeLock().lock();
+      try {
+         int slot = segment.find(hash, key, stringKey);
+         // Only remove the entry if it was not updated concurrently
+         if (slot >= 0 && canExpire(segment.slabs[slot]) && isExpired(segment.slabs[slot], now))
+            segment.remove(slot);
+      } finally {
+         segment.writeLock().unlock();
+      }
+   }
+
+   /**
+    * Evicts entries until the container is within its bounds. Must not be called while holding a segment lock.
+    */
+   private void evictIfNeeded() {
+      while (maxEntries > 0 && size.get() > maxEntries) {
+         InternalCacheEntry<K, V> evicted = null;
+         // The hand moves to the next segment when it finds no candidate, clearing the reference bits it passes, so
+         // the second round is guaranteed to find one
+         for (int attempt = 0; evicted == null && attempt <= 2 * segments.length; attempt++) {
+            int hand = evictionSegment.get();
+            Segment segment = segments[hand & (segments.length - 1)];
+            segment.writeLock().lock();
+            try {
+               evicted = segment.evictNext();
+            } finally {
+               segment.writeLock().unlock();
+            }
+            if (evicted == null)
+               evictionSegment.compareAndSet(hand, hand + 1);
+         }
+         if (evicted == null)
+            return;
+         if (trace)
+            log.tracef("Evicted %s", evicted.getKey());
+         evictionManager.onEntryEviction(
+               Collections.<K, InternalCacheEntry<K, V>>singletonMap(evicted.getKey(), evicted));
+      }
+   }
+
+   private Segment segmentFor(int hash) {
+      return segments[segmentShift == 32 ? 0 : hash >>> segmentShift];
+   }
+
+   /**
+    * @return the bytes a key is stored as, or {@code null} if the key can't be stored in this container
+    */
+   private static byte[] keyBytes(Object k) {
+      if (k instanceof byte[])
+         return (byte[]) k;
+      if (k instanceof String)
+         return ((String) k).getBytes(UTF8);
+      return null;
+   }
+
+   private static int hash(byte[] key) {
+      // The segment is picked with the high bits and the slot with the low bits, so spread the hash over both
+      int h = Arrays.hashCode(key) * 0x9E3779B9;
+      return h ^ (h >>> 16);
+   }
+
+   /**
+    * @return whether the metadata can be packed into the slab: embedded metadata with no version or a numeric one
+    */
+   private static boolean isCompactMetadata(Metadata metadata) {
+      if (!(metadata instanceof EmbeddedMetadata))
+         return false;
+      EntryVersion version = metadata.version();
+      return version == null || version instanceof NumericVersion;
+   }
+
+   private byte[] toSlab(InternalCacheEntry<K, V> entry) {
+      Object k = entry.getKey();
+      Object v = entry.getValue();
+      byte[] key = keyBytes(k);
+      if (key == null || !(v instanceof byte[]))
+         throw log.compactDataContainerRequiresByteArrays(k.getClass().getName(),
+                                                          v == null ? null : v.getClass().getName());
+      byte[] value = (byte[]) v;
+      Metadata metadata = entry.getMetadata();
+
+      byte flags = 0;
+      int length = HEADER_SIZE + key.length + value.length;
+      if (entry.getLifespan() > -1) {
+         flags |= FLAG_MORTAL;
+         length += 16;
+      }
+      if (entry.getMaxIdle() > -1) {
+         flags |= FLAG_TRANSIENT;
+         length += 16;
+      }
+      if (!isCompactMetadata(metadata)) {
+         flags |= FLAG_CUSTOM_METADATA;
+      } else if (metadata.version() != null) {
+         flags |= FLAG_VERSION;
+         length += 8;
+      }
+      if (entry.isL1Entry())
+         flags |= FLAG_L1;
+      if (k instanceof String)
+         flags |= FLAG_STRING_KEY;
+      // New entries get a second chance, as if they had just been read
+      flags |= FLAG_REFERENCED;
+
+      byte[] slab = new byte[length];
+      slab[FLAGS_OFFSET] = flags;
+      putInt(slab, KEY_LENGTH_OFFSET, key.length);
+      int offset = HEADER_SIZE;
+      if ((flags & FLAG_MORTAL) != 0) {
+         putLong(slab, offset, entry.getCreated());
+         putLong(slab, offset + 8, entry.getLifespan());
+         offset += 16;
+      }
+      if ((flags & FLAG_TRANSIENT) != 0) {
+         putLong(slab, offset, entry.getLastUsed());
+         putLong(slab, offset + 8, entry.getMaxIdle());
+         offset += 16;
+      }
+      if ((flags & FLAG_VERSION) != 0) {
+         putLong(slab, offset, ((NumericVersion) metadata.version()).getVersion());
+         offset += 8;
+      }
+      System.arraycopy(key, 0, slab, offset, key.length);
+      System.arraycopy(value, 0, slab, offset + key.length, value.length);
+      return slab;
+   }
+
+   /**
+    * Must be called while holding the segment lock, as the last used timestamp may be updated concurrently.
+    */
+   @SuppressWarnings("unchecked")
+   private InternalCacheEntry<K, V> toInternalCacheEntry(byte[] slab, Metadata customMetadata, Object key) {
+      byte flags = slab[FLAGS_OFFSET];
+      int keyLength = getInt(slab, KEY_LENGTH_OFFSET);
+      int offset = HEADER_SIZE;
+      long created = -1;
+      long lifespan = -1;
+      long lastUsed = -1;
+      long maxIdle = -1;
+      if ((flags & FLAG_MORTAL) != 0) {
+         created = getLong(slab, offset);
+         lifespan = getLong(slab, offset + 8);
+         offset += 16;
+      }
+      if ((flags & FLAG_TRANSIENT) != 0) {
+         lastUsed = getLong(slab, offset);
+         maxIdle = getLong(slab, offset + 8);
+         offset += 16;
+      }
+      NumericVersion version = null;
+      if ((flags & FLAG_VERSION) != 0) {
+         version = new NumericVersion(getLong(slab, offset));
+         offset += 8;
+      }
+      if (key == null) {
+         key = (flags & FLAG_STRING_KEY) != 0 ? new String(slab, offset, keyLength, UTF8)
+               : Arrays.copyOfRange(slab, offset, offset + keyLength);
+      }
+      offset += keyLength;
+      byte[] value = Arrays.copyOfRange(slab, offset, slab.length);
+
+      Metadata metadata = customMetadata;
+      if ((flags & FLAG_CUSTOM_METADATA) == 0)
+         metadata = new EmbeddedMetadata.Builder().lifespan(lifespan).maxIdle(maxIdle).version(version).build();
+
+      if ((flags & FLAG_L1) != 0) {
+         return (flags & (FLAG_CUSTOM_METADATA | FLAG_VERSION)) != 0
+               ? new L1MetadataInternalCacheEntry(key, value, metadata, created)
+               : new L1InternalCacheEntry(key, value, lifespan, created);
+      }
+      return entryFactory.create((K) key, (V) value, metadata, created, lifespan, lastUsed, maxIdle);
+   }
+
+   private static boolean keyMatches(byte[] slab, byte[] key, boolean stringKey) {
+      if (((slab[FLAGS_OFFSET] & FLAG_STRING_KEY) != 0) != stringKey)
+         return false;
+      int keyLength = getInt(slab, KEY_LENGTH_OFFSET);
+      if (keyLength != key.length)
+         return false;
+      int offset = keyOffset(slab);
+      for (int i = 0; i < keyLength; i++) {
+         if (slab[offset + i] != key[i])
+            return false;
+      }
+      return true;
+   }
+
+   private static int keyOffset(byte[] slab) {
+      byte flags = slab[FLAGS_OFFSET];
+      int offset = HEADER_SIZE;
+      if ((flags & FLAG_MORTAL) != 0)
+         offset += 16;
+      if ((flags & FLAG_TRANSIENT) != 0)
+         offset += 16;
+      if ((flags & FLAG_VERSION) != 0)
+         offset += 8;
+      return offset;
+   }
+
+   private static int lastUsedOffset(byte[] slab) {
+      return (slab[FLAGS_OFFSET] & FLAG_MORTAL) != 0 ? HEADER_SIZE + 16 : HEADER_SIZE;
+   }
+
+   private static boolean canExpire(byte[] slab) {
+      return (slab[FLAGS_OFFSET] & (FLAG_MORTAL | FLAG_TRANSIENT)) != 0;
+   }
+
+   private static boolean isTransient(byte[] slab) {
+      return (slab[FLAGS_OFFSET] & FLAG_TRANSIENT) != 0;
+   }
+
+   private static boolean isExpired(byte[] slab, long now) {
+      byte flags = slab[FLAGS_OFFSET];
+      long created = -1;
+      long lifespan = -1;
+      long lastUsed = -1;
+      long maxIdle = -1;
+      int offset = HEADER_SIZE;
+      if ((flags & FLAG_MORTAL) != 0) {
+         created = getLong(slab, offset);
+         lifespan = getLong(slab, offset + 8);
+         offset += 16;
+      }
+      if ((flags & FLAG_TRANSIENT) != 0) {
+         lastUsed = getLong(slab, offset);
+         maxIdle = getLong(slab, offset + 8);
+      }
+      return ExpiryHelper.isExpiredTransientMortal(maxIdle, lastUsed, lifespan, created, now);
+   }
+
+   /**
+    * Sets the reference bit read by the CLOCK hand. May be called while only holding the read lock: the other bits
+    * never change once the slab is stored, and the bit is only cleared while holding the write lock.
+    */
+   private void reference(byte[] slab) {
+      if (maxEntries > 0)
+         slab[FLAGS_OFFSET] |= FLAG_REFERENCED;
+   }
+
+   private static void putInt(byte[] bytes, int offset, int value) {
+      bytes[offset] = (byte) (value >>> 24);
+      bytes[offset + 1] = (byte) (value >>> 16);
+      bytes[offset + 2] = (byte) (value >>> 8);
+      bytes[offset + 3] = (byte) value;
+   }
+
+   private static int getInt(byte[] bytes, int offset) {
+      return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16 | (bytes[offset + 2] & 0xFF) << 8
+            | bytes[offset + 3] & 0xFF;
+   }
+
+   private static void putLong(byte[] bytes, int offset, long value) {
+      putInt(bytes, offset, (int) (value >>> 32));
+      putInt(bytes, offset + 4, (int) value);
+   }
+
+   private static long getLong(byte[] bytes, int offset) {
+      return (long) getInt(bytes, offset) << 32 | getInt(bytes, offset + 4) & 0xFFFFFFFFL;
+   }
+
+   /**
+    * An open addressing table with linear probing. All the methods must be called while holding the segment lock, the
+    * write lock for those that modify the table.
+    */
+   private final class Segment extends ReentrantReadWriteLock {
+      int[] hashes = new int[INITIAL_SEGMENT_CAPACITY];
+      byte[][] slabs = new byte[INITIAL_SEGMENT_CAPACITY][];
+      // Only allocated once an entry with custom metadata is stored
+      Metadata[] metadata;
+      int count;
+      // Live and removed slots, the probing stops at the first free slot
+      int used;
+      int clockHand;
+
+      int find(int hash, byte[] key, boolean stringKey) {
+         int mask = slabs.length - 1;
+         for (int i = hash & mask; ; i = (i + 1) & mask) {
+            byte[] slab = slabs[i];
+            if (slab == null)
+               return -1;
+            if (slab != REMOVED && hashes[i] == hash && keyMatches(slab, key, stringKey))
+               return i;
+         }
+      }
+
+      Metadata metadata(int slot) {
+         return metadata == null ? null : metadata[slot];
+      }
+
+      /**
+       * @return {@code true} if the key was not present
+       */
+      boolean put(int hash, byte[] key, boolean stringKey, byte[] slab, Metadata customMetadata) {
+         int mask = slabs.length - 1;
+         int free = -1;
+         int i = hash & mask;
+         for (; ; i = (i + 1) & mask) {
+            byte[] current = slabs[i];
+            if (current == null)
+               break;
+            if (current == REMOVED) {
+               if (free < 0)
+                  free = i;
+            } else if (hashes[i] == hash && keyMatches(current, key, stringKey)) {
+               slabs[i] = slab;
+               setMetadata(i, customMetadata);
+               return false;
+            }
+         }
+         if (free < 0) {
+            free = i;
+            used++;
+         }
+         hashes[free] = hash;
+         slabs[free] = slab;
+         setMetadata(free, customMetadata);
+         count++;
+         size.incrementAndGet();
+         if (used > slabs.length * LOAD_FACTOR)
+            rehash();
+         return true;
+      }
+
+      void remove(int slot) {
+         slabs[slot] = REMOVED;
+         if (metadata != null)
+            metadata[slot] = null;
+         count--;
+         size.decrementAndGet();
+      }
+
+      void clear() {
+         size.addAndGet(-count);
+         hashes = new int[INITIAL_SEGMENT_CAPACITY];
+         slabs = new byte[INITIAL_SEGMENT_CAPACITY][];
+         metadata = null;
+         count = 0;
+         used = 0;
+         clockHand = 0;
+      }
+
+      /**
+       * Moves the CLOCK hand over at most one full turn and evicts the first entry which was not referenced since the
+       * last time the hand passed over it.
+       *
+       * @return the evicted entry, or {@code null} if all the entries were referenced
+       */
+      InternalCacheEntry<K, V> evictNext() {
+         if (count == 0)
+            return null;
+         int mask = slabs.length - 1;
+         for (int n = 0; n < slabs.length; n++) {
+            int i = clockHand;
+            clockHand = (clockHand + 1) & mask;
+            byte[] slab = slabs[i];
+            if (slab == null || slab == REMOVED)
+               continue;
+            if ((slab[FLAGS_OFFSET] & FLAG_REFERENCED) != 0) {
+               slab[FLAGS_OFFSET] &= ~FLAG_REFERENCED;
+               continue;
+            }
+            InternalCacheEntry<K, V> evicted = toInternalCacheEntry(slab, metadata(i), null);
+            passivator.passivate(evicted);
+            remove(i);
+            return evicted;
+         }
+         return null;
+      }
+
+      private void setMetadata(int slot, Metadata customMetadata) {
+         if (customMetadata != null && metadata == null)
+            metadata = new Metadata[slabs.length];
+         if (metadata != null)
+            metadata[slot] = customMetadata;
+      }
+
+      /**
+       * Grows the table if it is more than half full with live entries, otherwise only drops the removed slots.
+       */
+      private void rehash() {
+         int capacity = slabs.length;
+         if (count > capacity / 2 && capacity < MAXIMUM_SEGMENT_CAPACITY)
+            capacity <<= 1;
+         int[] oldHashes = hashes;
+         byte[][] oldSlabs = slabs;
+         Metadata[] oldMetadata = metadata;
+         hashes = new int[capacity];
+         slabs = new byte[capacity][];
+         metadata = oldMetadata == null ? null : new Metadata[capacity];
+         int mask = capacity - 1;
+         for (int i = 0; i < oldSlabs.length; i++) {
+            byte[] slab = oldSlabs[i];
+            if (slab == null || slab == REMOVED)
+               continue;
+            // The hashes are kept, so the keys don't need to be hashed again
+            int j = oldHashes[i] & mask;
+            while (slabs[j] != null)
+               j = (j + 1) & mask;
+            hashes[j] = oldHashes[i];
+            slabs[j] = slab;
+            if (oldMetadata != null)
+               metadata[j] = oldMetadata[i];
+         }
+         used = count;
+         clockHand = 0;
+         if (trace)
+            log.tracef("Rehashed data container segment to %d slots", capacity);
+      }
+   }
+
+   /**
+    * Iterates segment by segment, building the entries of a single segment at a time.
+    */
+   private class EntryIterator implements Iterator<InternalCacheEntry<K, V>> {
+      private final List<InternalCacheEntry<K, V>> current = new ArrayList<InternalCacheEntry<K, V>>();
+      private int nextSegment;
+      private int position;
+
+      @Override
+      public boolean hasNext() {
+         while (position >= current.size()) {
+            if (!advance())
+               return false;
+         }
+         return true;
+      }
+
+      @Override
+      public InternalCacheEntry<K, V> next() {
+         if (!hasNext())
+            throw new NoSuchElementException();
+         return current.get(position++);
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+
+      private boolean advance() {
+         current.clear();
+         position = 0;
+         if (nextSegment >= segments.length)
+            return false;
+         Segment segment = segments[nextSegment++];
+         segment.readLock().lock();
+         try {
+            byte[][] slabs = segment.slabs;
+            for (int i = 0; i < slabs.length; i++) {
+               byte[] slab = slabs[i];
+               if (slab != null && slab != REMOVED)
+                  current.add(toInternalCacheEntry(slab, segment.metadata(i), null));
+            }
+         } finally {
+            segment.readLock().unlock();
+         }
+         return true;
+      }
+   }
+
+   private class KeySet extends AbstractSet<K> {
+      @Override
+      public Iterator<K> iterator() {
+         final Iterator<InternalCacheEntry<K, V>> it = new EntryIterator();
+         return new Iterator<K>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public K next() {
+               return it.next().getKey();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public boolean contains(Object o) {
+         return peek(o) != null;
+      }
+
+      @Override
+      public int size() {
+         return size.get();
+      }
+   }
+
+   private class Values extends AbstractCollection<V> {
+      @Override
+      public Iterator<V> iterator() {
+         final Iterator<InternalCacheEntry<K, V>> it = new EntryIterator();
+         return new Iterator<V>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public V next() {
+               return it.next().getValue();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return size.get();
+      }
+   }
+
+   private class EntrySet extends AbstractSet<InternalCacheEntry<K, V>> {
+      @Override
+      public Iterator<InternalCacheEntry<K, V>> iterator() {
+         final Iterator<InternalCacheEntry<K, V>> it = new EntryIterator();
+         return new Iterator<InternalCacheEntry<K, V>>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public InternalCacheEntry<K, V> next() {
+               return CoreImmutables.immutableInternalCacheEntry(it.next());
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public boolean contains(Object o) {
+         if (!(o instanceof Map.Entry)) {
+            return false;
+         }
+         Map.Entry e = (Map.Entry) o;
+         InternalCacheEntry<K, V> ice = peek(e.getKey());
+         return ice != null && e.getValue() instanceof byte[]
+               && Arrays.equals((byte[]) ice.getValue(), (byte[]) e.getValue());
+      }
+
+      @Override
+      public int size() {
+         return size.get();
+      }
+   }
+}
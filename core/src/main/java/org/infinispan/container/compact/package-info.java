@@ -0,0 +1,4 @@
+/**
+ * A data container which packs each entry of a server cache, with its metadata, into a single byte array.
+ */
+package org.infinispan.container.compact;
@@ -0,0 +1,1051 @@
+package org.infinispan.container.offheap;
+
+import static org.infinispan.factories.KnownComponentNames.CACHE_MARSHALLER;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.commons.logging.Log;
+import org.infinispan.commons.logging.LogFactory;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.util.concurrent.ParallelIterableMap.KeyValueAction;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.entries.ExpiryHelper;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.L1InternalCacheEntry;
+import org.infinispan.container.entries.metadata.L1MetadataInternalCacheEntry;
+import org.infinispan.eviction.ActivationManager;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.factories.annotations.ComponentName;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.filter.KeyFilter;
+import org.infinispan.filter.KeyValueFilter;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.metadata.impl.L1Metadata;
+import org.infinispan.util.CoreImmutables;
+import org.infinispan.util.TimeService;
+
+/**
+ * A {@link DataContainer} which keeps marshalled keys, values and metadata in memory allocated outside of the Java heap.
+ * <p/>
+ * Entries are kept in a chained hash table whose bucket array and entries are both allocated off-heap, so the heap
+ * footprint of the container does not depend on the number of entries stored. Each entry is a single contiguous block
+ * holding the expiration timestamps in a fixed size header followed by the marshalled key, metadata and value. The
+ * timestamps are kept unmarshalled so that expiration checks and {@link #purgeExpired()} do not need to unmarshall
+ * anything.
+ * <p/>
+ * Concurrency is controlled with striped read/write locks, one stripe covering a fixed subset of the buckets. When the
+ * container is bounded, entries are also linked in an off-heap list which is used to choose the eviction candidates.
+ * New entries are linked at the head of the list, and reads only set a reference bit in the entry without any lock.
+ * The eviction gives a second chance to the referenced entries at the tail, moving them back to the head, so the order
+ * approximates LRU without serializing the readers.
+ * <p/>
+ * Every {@link InternalCacheEntry} returned by this container is a snapshot built from the off-heap representation,
+ * so modifying it does not change the stored entry. Iteration is weakly consistent, but it doesn't return an entry
+ * twice even if the table is resized meanwhile.
+ *
+ * @since 7.2
+ */
+@ThreadSafe
+public class OffHeapDataContainer<K, V> implements DataContainer<K, V> {
+
+   private static final Log log = LogFactory.getLog(OffHeapDataContainer.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   // Entry layout
+   private static final int NEXT_OFFSET = 0;
+   private static final int LRU_PREVIOUS_OFFSET = 8;
+   private static final int LRU_NEXT_OFFSET = 16;
+   private static final int CREATED_OFFSET = 24;
+   private static final int LAST_USED_OFFSET = 32;
+   private static final int LIFESPAN_OFFSET = 40;
+   private static final int MAX_IDLE_OFFSET = 48;
+   private static final int HASH_OFFSET = 56;
+   private static final int KEY_LENGTH_OFFSET = 60;
+   private static final int METADATA_LENGTH_OFFSET = 64;
+   private static final int VALUE_LENGTH_OFFSET = 68;
+   private static final int FLAGS_OFFSET = 72;
+   private static final int HEADER_SIZE = 73;
+
+   private static final byte FLAG_L1 = 1;
+   private static final byte FLAG_REFERENCED = 1 << 1;
+
+   private static final int INITIAL_BUCKETS = 1024;
+   private static final int MAXIMUM_BUCKETS = 1 << 30;
+   private static final float LOAD_FACTOR = 0.75f;
+   private static final byte[] EMPTY_BYTES = new byte[0];
+
+   private final OffHeapMemory memory = new OffHeapMemory();
+   private final ReentrantReadWriteLock[] locks;
+   private final Equivalence<? super K> keyEquivalence;
+   private final long maxEntries;
+   private final AtomicInteger size = new AtomicInteger();
+
+   // Insertion order with second chances, only maintained for bounded containers. Most recently linked entry first.
+   private final ReentrantLock lruLock = new ReentrantLock();
+   private long lruHead;
+   private long lruTail;
+
+   // Only modified while holding all the stripe locks
+   private volatile long buckets;
+   private volatile int bucketCount;
+
+   private InternalEntryFactory entryFactory;
+   private EvictionManager evictionManager;
+   private PassivationManager passivator;
+   private ActivationManager activator;
+   private TimeService timeService;
+   private StreamingMarshaller marshaller;
+
+   public OffHeapDataContainer(int concurrencyLevel, Equivalence<? super K> keyEquivalence) {
+      this(concurrencyLevel, -1, EvictionStrategy.NONE, keyEquivalence);
+   }
+
+   public OffHeapDataContainer(int concurrencyLevel, long maxEntries, EvictionStrategy strategy,
+                               Equivalence<? super K> keyEquivalence) {
+      switch (strategy) {
+         case NONE:
+            maxEntries = -1;
+            break;
+         case FIFO:
+         case UNORDERED:
+         case LRU:
+         case LIRS:
+            // LIRS is approximated with the second chance list as well
+            break;
+         default:
+            throw new IllegalArgumentException("No such eviction strategy " + strategy);
+      }
+      this.maxEntries = maxEntries;
+      if (keyEquivalence == null) {
+         keyEquivalence = AnyEquivalence.getInstance();
+      }
+      this.keyEquivalence = keyEquivalence;
+      int stripes = 1;
+      while (stripes < concurrencyLevel && stripes < INITIAL_BUCKETS)
+         stripes <<= 1;
+      locks = new ReentrantReadWriteLock[stripes];
+      for (int i = 0; i < stripes; i++)
+         locks[i] = new ReentrantReadWriteLock();
+      allocateBuckets(INITIAL_BUCKETS);
+   }
+
+   @Inject
+   public void initialize(EvictionManager evictionManager, PassivationManager passivator,
+                          InternalEntryFactory entryFactory, ActivationManager activator, TimeService timeService,
+                          @ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller) {
+      this.evictionManager = evictionManager;
+      this.passivator = passivator;
+      this.entryFactory = entryFactory;
+      this.activator = activator;
+      this.timeService = timeService;
+      this.marshaller = marshaller;
+   }
+
+   @Start(priority = 1)
+   public void start() {
+      lockAll();
+      try {
+         if (buckets == 0)
+            allocateBuckets(INITIAL_BUCKETS);
+      } finally {
+         unlockAll();
+      }
+   }
+
+   @Stop(priority = 1000)
+   public void stop() {
+      clear();
+      lockAll();
+      try {
+         if (buckets != 0) {
+            memory.free(buckets, (long) bucketCount * 8);
+            buckets = 0;
+         }
+      } finally {
+         unlockAll();
+      }
+   }
+
+   /**
+    * @return the number of bytes currently allocated off-heap by this container
+    */
+   public long getAllocatedMemory() {
+      return memory.allocatedBytes();
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> get(Object k) {
+      byte[] keyBytes = marshall(k);
+      int hash = hash(k);
+      byte[] record = null;
+      long now = -1;
+      ReentrantReadWriteLock lock = lockFor(hash);
+      lock.readLock().lock();
+      try {
+         long address = find(bucketFor(hash), hash, k, keyBytes);
+         if (address == 0)
+            return null;
+         if (canExpire(address)) {
+            now = timeService.wallClockTime();
+            if (!isExpired(address, now)) {
+               touch(address, now);
+               record = snapshot(address);
+            }
+         } else {
+            record = snapshot(address);
+         }
+         if (record != null)
+            reference(address);
+      } finally {
+         lock.readLock().unlock();
+      }
+      if (record == null) {
+         removeIfExpired(k, keyBytes, hash, now);
+         return null;
+      }
+      return toInternalCacheEntry(record, (K) k);
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> peek(Object k) {
+      byte[] keyBytes = marshall(k);
+      int hash = hash(k);
+      byte[] record;
+      ReentrantReadWriteLock lock = lockFor(hash);
+      lock.readLock().lock();
+      try {
+         long address = find(bucketFor(hash), hash, k, keyBytes);
+         if (address == 0)
+            return null;
+         record = snapshot(address);
+      } finally {
+         lock.readLock().unlock();
+      }
+      return toInternalCacheEntry(record, (K) k);
+   }
+
+   @Override
+   public void put(K k, V v, Metadata metadata) {
+      InternalCacheEntry<K, V> e;
+      if (metadata instanceof L1Metadata) {
+         e = entryFactory.createL1(k, v, ((L1Metadata) metadata).metadata());
+      } else {
+         e = entryFactory.create(k, v, metadata);
+      }
+      if (trace)
+         log.tracef("Store %s in container", e);
+
+      byte[] keyBytes = marshall(k);
+      int hash = hash(k);
+      // Marshall and copy outside of the lock
+      long address = allocateEntry(e, hash, keyBytes);
+      ReentrantReadWriteLock lock = lockFor(hash);
+      lock.writeLock().lock();
+      try {
+         long previous = replace(bucketFor(hash), hash, k, keyBytes, address);
+         activator.onUpdate(k, previous == 0);
+      } finally {
+         lock.writeLock().unlock();
+      }
+      afterInsert();
+   }
+
+   @Override
+   public boolean containsKey(Object k) {
+      byte[] keyBytes = marshall(k);
+      int hash = hash(k);
+      long now = -1;
+      ReentrantReadWriteLock lock = lockFor(hash);
+      lock.readLock().lock();
+      try {
+         long address = find(bucketFor(hash), hash, k, keyBytes);
+         if (address == 0)
+            return false;
+         if (!canExpire(address))
+            return true;
+         now = timeService.wallClockTime();
+         if (!isExpired(address, now))
+            return true;
+      } finally {
+         lock.readLock().unlock();
+      }
+      removeIfExpired(k, keyBytes, hash, now);
+      return false;
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> remove(Object k) {
+      byte[] keyBytes = marshall(k);
+      int hash = hash(k);
+      byte[] record = null;
+      ReentrantReadWriteLock lock = lockFor(hash);
+      lock.writeLock().lock();
+      try {
+         long bucket = bucketFor(hash);
+         long address = find(bucket, hash, k, keyBytes);
+         activator.onRemove(k, address == 0);
+         if (address == 0)
+            return null;
+         if (!canExpire(address) || !isExpired(address, timeService.wallClockTime()))
+            record = snapshot(address);
+         unlink(bucket, address);
+         release(address);
+      } finally {
+         lock.writeLock().unlock();
+      }
+      return record == null ? null : toInternalCacheEntry(record, (K) k);
+   }
+
+   @Override
+   public int size() {
+      return size.get();
+   }
+
+   @Override
+   public void clear() {
+      log.tracef("Clearing data container");
+      lockAll();
+      try {
+         long table = buckets;
+         if (table == 0)
+            return;
+         for (int i = 0; i < bucketCount; i++) {
+            long bucket = table + (long) i * 8;
+            long address = OffHeapMemory.getLong(bucket);
+            while (address != 0) {
+               long next = OffHeapMemory.getLong(address + NEXT_OFFSET);
+               memory.free(address, entrySize(address));
+               address = next;
+            }
+            OffHeapMemory.putLong(bucket, 0);
+         }
+         lruLock.lock();
+         try {
+            lruHead = 0;
+            lruTail = 0;
+         } finally {
+            lruLock.unlock();
+         }
+         size.set(0);
+      } finally {
+         unlockAll();
+      }
+   }
+
+   @Override
+   public Set<K> keySet() {
+      return new KeySet();
+   }
+
+   @Override
+   public Collection<V> values() {
+      return new Values();
+   }
+
+   @Override
+   public Set<InternalCacheEntry<K, V>> entrySet() {
+      return new EntrySet();
+   }
+
+   @Override
+   public void purgeExpired() {
+      long currentTimeMillis = timeService.wallClockTime();
+      for (int i = 0; i < bucketCount; i++) {
+         ReentrantReadWriteLock lock = locks[i & (locks.length - 1)];
+         lock.writeLock().lock();
+         try {
+            // the table might have been resized or released in the meantime
+            if (i >= bucketCount || buckets == 0)
+               break;
+            long bucket = buckets + (long) i * 8;
+            long address = OffHeapMemory.getLong(bucket);
+            while (address != 0) {
+               long next = OffHeapMemory.getLong(address + NEXT_OFFSET);
+               if (canExpire(address) && isExpired(address, currentTimeMillis)) {
+                  unlink(bucket, address);
+                  release(address);
+               }
+               address = next;
+            }
+         } finally {
+            lock.writeLock().unlock();
+         }
+      }
+   }
+
+   @Override
+   public void evict(K key) {
+      byte[] keyBytes = marshall(key);
+      int hash = hash(key);
+      ReentrantReadWriteLock lock = lockFor(hash);
+      lock.writeLock().lock();
+      try {
+         long bucket = bucketFor(hash);
+         long address = find(bucket, hash, key, keyBytes);
+         if (address != 0) {
+            passivator.passivate(toInternalCacheEntry(snapshot(address), key));
+            unlink(bucket, address);
+            release(address);
+         }
+      } finally {
+         lock.writeLock().unlock();
+      }
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> compute(K key, ComputeAction<K, V> action) {
+      byte[] keyBytes = marshall(key);
+      int hash = hash(key);
+      boolean inserted = false;
+      ReentrantReadWriteLock lock = lockFor(hash);
+      lock.writeLock().lock();
+      try {
+         long bucket = bucketFor(hash);
+         long address = find(bucket, hash, key, keyBytes);
+         InternalCacheEntry<K, V> oldEntry = address == 0 ? null : toInternalCacheEntry(snapshot(address), key);
+         InternalCacheEntry<K, V> newEntry = action.compute(key, oldEntry, entryFactory);
+         if (newEntry == null) {
+            if (oldEntry != null) {
+               activator.onRemove(key, false);
+               unlink(bucket, address);
+               release(address);
+            }
+            return null;
+         }
+         if (newEntry != oldEntry) {
+            activator.onUpdate(key, oldEntry == null);
+            if (trace)
+               log.tracef("Store %s in container", newEntry);
+         }
+         // The old entry is only a snapshot, so it is written back even if it was returned unchanged as the action may
+         // have modified it in place.
+         inserted = replace(bucket, hash, key, keyBytes, allocateEntry(newEntry, hash, keyBytes)) == 0;
+         return newEntry;
+      } finally {
+         lock.writeLock().unlock();
+         if (inserted)
+            afterInsert();
+      }
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> iterator() {
+      return new EntryIterator();
+   }
+
+   @Override
+   public void executeTask(KeyFilter<? super K> filter, KeyValueAction<? super K, InternalCacheEntry<K, V>> action)
+         throws InterruptedException {
+      if (filter == null)
+         throw new IllegalArgumentException("No filter specified");
+      if (action == null)
+         throw new IllegalArgumentException("No action specified");
+
+      for (Iterator<InternalCacheEntry<K, V>> it = iterator(); it.hasNext(); ) {
+         InternalCacheEntry<K, V> entry = it.next();
+         if (filter.accept(entry.getKey())) {
+            action.apply(entry.getKey(), entry);
+         }
+         if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+         }
+      }
+   }
+
+   @Override
+   public void executeTask(KeyValueFilter<? super K, ? super V> filter, KeyValueAction<? super K, InternalCacheEntry<K, V>> action)
+         throws InterruptedException {
+      if (filter == null)
+         throw new IllegalArgumentException("No filter specified");
+      if (action == null)
+         throw new IllegalArgumentException("No action specified");
+
+      for (Iterator<InternalCacheEntry<K, V>> it = iterator(); it.hasNext(); ) {
+         InternalCacheEntry<K, V> entry = it.next();
+         if (filter.accept(entry.getKey(), entry.getValue(), entry.getMetadata())) {
+            action.apply(entry.getKey(), entry);
+         }
+         if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+         }
+      }
+   }
+
+   private void removeIfExpired(Object k, byte[] keyBytes, int hash, long now) {
+      ReentrantReadWriteLock lock = lockFor(hash);
+      lock.writeLock().lock();
+      try {
+         long bucket = bucketFor(hash);
+         long address = find(bucket, hash, k, keyBytes);
+         // Only remove the entry if it was not updated concurrently
+         if (address != 0 && canExpire(address) && isExpired(address, now)) {
+            unlink(bucket, address);
+            release(address);
+         }
+      } finally {
+         lock.writeLock().unlock();
+      }
+   }
+
+   /**
+    * Grows the table and evicts entries as needed after an entry was added. Must not be called while holding a
+    * stripe lock.
+    */
+   private void afterInsert() {
+      if (size.get() > bucketCount * LOAD_FACTOR && bucketCount < MAXIMUM_BUCKETS) {
+         resize();
+      }
+      while (maxEntries > 0 && size.get() > maxEntries) {
+         if (!evictEldest())
+            break;
+      }
+   }
+
+   private boolean evictEldest() {
+      long candidate;
+      int hash;
+      byte[] keyBytes;
+      // Entries are unlinked from the LRU list before they are released, so the tail is live while holding lruLock
+      lruLock.lock();
+      try {
+         candidate = lruTail;
+         if (candidate == 0)
+            return false;
+         // Move the referenced entries back to the head, clearing their reference bit. After a full pass over the
+         // list, the tail is the entry that was linked first or not read since its last second chance.
+         for (int i = size.get(); i > 0 && isReferenced(candidate) && candidate != lruHead; i--) {
+            setFlags(candidate, (byte) (OffHeapMemory.getByte(candidate + FLAGS_OFFSET) & ~FLAG_REFERENCED));
+            unlinkLru(candidate);
+            linkFirst(candidate);
+            candidate = lruTail;
+         }
+         hash = OffHeapMemory.getInt(candidate + HASH_OFFSET);
+         keyBytes = OffHeapMemory.getBytes(candidate + HEADER_SIZE, OffHeapMemory.getInt(candidate + KEY_LENGTH_OFFSET));
+      } finally {
+         lruLock.unlock();
+      }
+
+      InternalCacheEntry<K, V> evicted = null;
+      ReentrantReadWriteLock lock = lockFor(hash);
+      lock.writeLock().lock();
+      try {
+         // The candidate may have been released concurrently and its memory reused by another entry, so only evict
+         // it if its key still maps to the same address. Otherwise the caller retries with the new tail.
+         long bucket = bucketFor(hash);
+         long address = OffHeapMemory.getLong(bucket);
+         while (address != 0 && !(OffHeapMemory.getInt(address + HASH_OFFSET) == hash
+               && OffHeapMemory.getInt(address + KEY_LENGTH_OFFSET) == keyBytes.length
+               && OffHeapMemory.equalBytes(address + HEADER_SIZE, keyBytes)))
+            address = OffHeapMemory.getLong(address + NEXT_OFFSET);
+         if (address != 0 && address == candidate) {
+            evicted = toInternalCacheEntry(snapshot(address), null);
+            passivator.passivate(evicted);
+            unlink(bucket, address);
+            release(address);
+         }
+      } finally {
+         lock.writeLock().unlock();
+      }
+      if (evicted != null) {
+         if (trace)
+            log.tracef("Evicted %s", evicted.getKey());
+         evictionManager.onEntryEviction(Collections.<K, InternalCacheEntry<K, V>>singletonMap(evicted.getKey(), evicted));
+      }
+      return true;
+   }
+
+   private void resize() {
+      lockAll();
+      try {
+         int oldCount = bucketCount;
+         long oldBuckets = buckets;
+         if (oldBuckets == 0 || size.get() <= oldCount * LOAD_FACTOR || oldCount >= MAXIMUM_BUCKETS)
+            return;
+         int newCount = oldCount << 1;
+         long newBuckets = memory.allocateZeroed((long) newCount * 8);
+         for (int i = 0; i < oldCount; i++) {
+            long address = OffHeapMemory.getLong(oldBuckets + (long) i * 8);
+            while (address != 0) {
+               long next = OffHeapMemory.getLong(address + NEXT_OFFSET);
+               long bucket = newBuckets + (long) (OffHeapMemory.getInt(address + HASH_OFFSET) & (newCount - 1)) * 8;
+               OffHeapMemory.putLong(address + NEXT_OFFSET, OffHeapMemory.getLong(bucket));
+               OffHeapMemory.putLong(bucket, address);
+               address = next;
+            }
+         }
+         buckets = newBuckets;
+         bucketCount = newCount;
+         memory.free(oldBuckets, (long) oldCount * 8);
+         if (trace)
+            log.tracef("Resized data container table to %d buckets", newCount);
+      } finally {
+         unlockAll();
+      }
+   }
+
+   private void allocateBuckets(int count) {
+      buckets = memory.allocateZeroed((long) count * 8);
+      bucketCount = count;
+   }
+
+   private void lockAll() {
+      for (ReentrantReadWriteLock lock : locks)
+         lock.writeLock().lock();
+   }
+
+   private void unlockAll() {
+      for (int i = locks.length - 1; i >= 0; i--)
+         locks[i].writeLock().unlock();
+   }
+
+   private ReentrantReadWriteLock lockFor(int hash) {
+      return locks[hash & (locks.length - 1)];
+   }
+
+   /**
+    * Must be called while holding the stripe lock for the hash.
+    */
+   private long bucketFor(int hash) {
+      return buckets + (long) (hash & (bucketCount - 1)) * 8;
+   }
+
+   private int hash(Object key) {
+      int h = keyEquivalence.hashCode(key);
+      return h ^ (h >>> 16);
+   }
+
+   private long find(long bucket, int hash, Object key, byte[] keyBytes) {
+      long address = OffHeapMemory.getLong(bucket);
+      while (address != 0) {
+         if (OffHeapMemory.getInt(address + HASH_OFFSET) == hash && keyMatches(address, key, keyBytes))
+            return address;
+         address = OffHeapMemory.getLong(address + NEXT_OFFSET);
+      }
+      return 0;
+   }
+
+   private boolean keyMatches(long address, Object key, byte[] keyBytes) {
+      int keyLength = OffHeapMemory.getInt(address + KEY_LENGTH_OFFSET);
+      if (keyLength == keyBytes.length && OffHeapMemory.equalBytes(address + HEADER_SIZE, keyBytes))
+         return true;
+      // Equal keys do not necessarily have the same marshalled form
+      K storedKey = (K) unmarshall(OffHeapMemory.getBytes(address + HEADER_SIZE, keyLength));
+      return keyEquivalence.equals(storedKey, key);
+   }
+
+   /**
+    * Links the new entry into the bucket, replacing and releasing the entry previously stored under the same key.
+    *
+    * @return the address of the replaced entry, or 0 if there was none
+    */
+   private long replace(long bucket, int hash, Object key, byte[] keyBytes, long address) {
+      long previous = find(bucket, hash, key, keyBytes);
+      if (previous != 0) {
+         unlink(bucket, previous);
+         release(previous);
+      }
+      OffHeapMemory.putLong(address + NEXT_OFFSET, OffHeapMemory.getLong(bucket));
+      OffHeapMemory.putLong(bucket, address);
+      size.incrementAndGet();
+      lruAdd(address);
+      return previous;
+   }
+
+   private void unlink(long bucket, long address) {
+      long next = OffHeapMemory.getLong(address + NEXT_OFFSET);
+      long current = OffHeapMemory.getLong(bucket);
+      if (current == address) {
+         OffHeapMemory.putLong(bucket, next);
+         return;
+      }
+      while (current != 0) {
+         long currentNext = OffHeapMemory.getLong(current + NEXT_OFFSET);
+         if (currentNext == address) {
+            OffHeapMemory.putLong(current + NEXT_OFFSET, next);
+            return;
+         }
+         current = currentNext;
+      }
+   }
+
+   /**
+    * Releases an entry which has already been unlinked from its bucket.
+    */
+   private void release(long address) {
+      lruRemove(address);
+      size.decrementAndGet();
+      memory.free(address, entrySize(address));
+   }
+
+   private void lruAdd(long address) {
+      if (maxEntries <= 0)
+         return;
+      lruLock.lock();
+      try {
+         linkFirst(address);
+      } finally {
+         lruLock.unlock();
+      }
+   }
+
+   /**
+    * Sets the reference bit read by the eviction. Readers only hold the stripe read lock, and the bit is cleared while
+    * holding the lruLock, so an update may be lost, which only makes the eviction order less accurate. The other flags
+    * never change once the entry is stored.
+    */
+   private void reference(long address) {
+      if (maxEntries <= 0)
+         return;
+      byte flags = OffHeapMemory.getByte(address + FLAGS_OFFSET);
+      if ((flags & FLAG_REFERENCED) == 0)
+         setFlags(address, (byte) (flags | FLAG_REFERENCED));
+   }
+
+   private static boolean isReferenced(long address) {
+      return (OffHeapMemory.getByte(address + FLAGS_OFFSET) & FLAG_REFERENCED) != 0;
+   }
+
+   private static void setFlags(long address, byte flags) {
+      OffHeapMemory.putByte(address + FLAGS_OFFSET, flags);
+   }
+
+   private void lruRemove(long address) {
+      if (maxEntries <= 0)
+         return;
+      lruLock.lock();
+      try {
+         unlinkLru(address);
+      } finally {
+         lruLock.unlock();
+      }
+   }
+
+   private void linkFirst(long address) {
+      OffHeapMemory.putLong(address + LRU_PREVIOUS_OFFSET, 0);
+      OffHeapMemory.putLong(address + LRU_NEXT_OFFSET, lruHead);
+      if (lruHead != 0)
+         OffHeapMemory.putLong(lruHead + LRU_PREVIOUS_OFFSET, address);
+      lruHead = address;
+      if (lruTail == 0)
+         lruTail = address;
+   }
+
+   private void unlinkLru(long address) {
+      long previous = OffHeapMemory.getLong(address + LRU_PREVIOUS_OFFSET);
+      long next = OffHeapMemory.getLong(address + LRU_NEXT_OFFSET);
+      if (previous != 0)
+         OffHeapMemory.putLong(previous + LRU_NEXT_OFFSET, next);
+      else
+         lruHead = next;
+      if (next != 0)
+         OffHeapMemory.putLong(next + LRU_PREVIOUS_OFFSET, previous);
+      else
+         lruTail = previous;
+   }
+
+   private long allocateEntry(InternalCacheEntry<K, V> entry, int hash, byte[] keyBytes) {
+      Metadata metadata = entry.getMetadata();
+      byte[] metadataBytes = isStoreMetadata(metadata) ? marshall(metadata) : EMPTY_BYTES;
+      byte[] valueBytes = marshall(entry.getValue());
+      long address = memory.allocate(HEADER_SIZE + keyBytes.length + metadataBytes.length + valueBytes.length);
+      OffHeapMemory.putLong(address + NEXT_OFFSET, 0);
+      OffHeapMemory.putLong(address + LRU_PREVIOUS_OFFSET, 0);
+      OffHeapMemory.putLong(address + LRU_NEXT_OFFSET, 0);
+      OffHeapMemory.putLong(address + CREATED_OFFSET, entry.getCreated());
+      OffHeapMemory.putLong(address + LAST_USED_OFFSET, entry.getLastUsed());
+      OffHeapMemory.putLong(address + LIFESPAN_OFFSET, entry.getLifespan());
+      OffHeapMemory.putLong(address + MAX_IDLE_OFFSET, entry.getMaxIdle());
+      OffHeapMemory.putInt(address + HASH_OFFSET, hash);
+      OffHeapMemory.putInt(address + KEY_LENGTH_OFFSET, keyBytes.length);
+      OffHeapMemory.putInt(address + METADATA_LENGTH_OFFSET, metadataBytes.length);
+      OffHeapMemory.putInt(address + VALUE_LENGTH_OFFSET, valueBytes.length);
+      OffHeapMemory.putByte(address + FLAGS_OFFSET, entry.isL1Entry() ? FLAG_L1 : 0);
+      long offset = address + HEADER_SIZE;
+      OffHeapMemory.putBytes(offset, keyBytes);
+      offset += keyBytes.length;
+      OffHeapMemory.putBytes(offset, metadataBytes);
+      offset += metadataBytes.length;
+      OffHeapMemory.putBytes(offset, valueBytes);
+      return address;
+   }
+
+   private static long entrySize(long address) {
+      return HEADER_SIZE + (long) OffHeapMemory.getInt(address + KEY_LENGTH_OFFSET)
+            + OffHeapMemory.getInt(address + METADATA_LENGTH_OFFSET)
+            + OffHeapMemory.getInt(address + VALUE_LENGTH_OFFSET);
+   }
+
+   private static boolean canExpire(long address) {
+      return OffHeapMemory.getLong(address + LIFESPAN_OFFSET) > -1 || OffHeapMemory.getLong(address + MAX_IDLE_OFFSET) > -1;
+   }
+
+   /**
+    * Updates the last used time of an entry. Readers only hold the stripe read lock, so the time is advanced with a
+    * compare-and-swap and never moves backwards.
+    */
+   private static void touch(long address, long now) {
+      long lastUsed;
+      do {
+         lastUsed = OffHeapMemory.getLongVolatile(address + LAST_USED_OFFSET);
+      } while (lastUsed < now && !OffHeapMemory.compareAndSwapLong(address + LAST_USED_OFFSET, lastUsed, now));
+   }
+
+   private static boolean isExpired(long address, long now) {
+      return ExpiryHelper.isExpiredTransientMortal(OffHeapMemory.getLong(address + MAX_IDLE_OFFSET),
+            OffHeapMemory.getLongVolatile(address + LAST_USED_OFFSET), OffHeapMemory.getLong(address + LIFESPAN_OFFSET),
+            OffHeapMemory.getLong(address + CREATED_OFFSET), now);
+   }
+
+   /**
+    * Copies the entry to the heap so that it can be unmarshalled once the stripe lock has been released.
+    */
+   private static byte[] snapshot(long address) {
+      byte[] record = OffHeapMemory.getBytes(address, (int) entrySize(address));
+      // The last used time may be updated by concurrent readers while copying, so read it atomically
+      ByteBuffer.wrap(record).order(ByteOrder.nativeOrder())
+            .putLong(LAST_USED_OFFSET, OffHeapMemory.getLongVolatile(address + LAST_USED_OFFSET));
+      return record;
+   }
+
+   private InternalCacheEntry<K, V> toInternalCacheEntry(byte[] record, K key) {
+      ByteBuffer buffer = ByteBuffer.wrap(record).order(ByteOrder.nativeOrder());
+      long created = buffer.getLong(CREATED_OFFSET);
+      long lastUsed = buffer.getLong(LAST_USED_OFFSET);
+      long lifespan = buffer.getLong(LIFESPAN_OFFSET);
+      long maxIdle = buffer.getLong(MAX_IDLE_OFFSET);
+      int keyLength = buffer.getInt(KEY_LENGTH_OFFSET);
+      int metadataLength = buffer.getInt(METADATA_LENGTH_OFFSET);
+      int valueLength = buffer.getInt(VALUE_LENGTH_OFFSET);
+      byte flags = buffer.get(FLAGS_OFFSET);
+
+      int offset = HEADER_SIZE;
+      if (key == null)
+         key = (K) unmarshall(record, offset, keyLength);
+      offset += keyLength;
+      Metadata metadata = metadataLength > 0 ? (Metadata) unmarshall(record, offset, metadataLength)
+            : new EmbeddedMetadata.Builder().lifespan(lifespan).maxIdle(maxIdle).build();
+      offset += metadataLength;
+      V value = (V) unmarshall(record, offset, valueLength);
+
+      if ((flags & FLAG_L1) != 0) {
+         return metadataLength > 0 ? new L1MetadataInternalCacheEntry(key, value, metadata, created)
+               : new L1InternalCacheEntry(key, value, lifespan, created);
+      }
+      return entryFactory.create(key, value, metadata, created, lifespan, lastUsed, maxIdle);
+   }
+
+   private static boolean isStoreMetadata(Metadata metadata) {
+      return metadata != null && (metadata.version() != null || !(metadata instanceof EmbeddedMetadata));
+   }
+
+   private byte[] marshall(Object o) {
+      try {
+         return marshaller.objectToByteBuffer(o);
+      } catch (IOException e) {
+         throw new CacheException("Unable to marshall " + o, e);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException(e);
+      }
+   }
+
+   private Object unmarshall(byte[] bytes) {
+      return unmarshall(bytes, 0, bytes.length);
+   }
+
+   private Object unmarshall(byte[] bytes, int offset, int length) {
+      try {
+         return marshaller.objectFromByteBuffer(bytes, offset, length);
+      } catch (IOException e) {
+         throw new CacheException("Unable to unmarshall entry stored off-heap", e);
+      } catch (ClassNotFoundException e) {
+         throw new CacheException("Unable to unmarshall entry stored off-heap", e);
+      }
+   }
+
+   /**
+    * Iterates bucket by bucket, copying the entries of a single bucket to the heap at a time.
+    * <p/>
+    * A resize doubles the table, moving the entries of bucket {@code i} to the buckets {@code i} and
+    * {@code i + oldCount}. So the iterator walks the buckets of the table size it started with, and for each of them
+    * visits all the buckets of the current table that it was split into. All of them are covered by the same stripe
+    * lock, so no entry is returned twice or skipped because of a concurrent resize.
+    */
+   private class EntryIterator implements Iterator<InternalCacheEntry<K, V>> {
+      private final List<byte[]> current = new ArrayList<byte[]>();
+      private final int initialCount = bucketCount;
+      private int nextBucket;
+      private int position;
+
+      @Override
+      public boolean hasNext() {
+         while (position >= current.size()) {
+            if (!advance())
+               return false;
+         }
+         return true;
+      }
+
+      @Override
+      public InternalCacheEntry<K, V> next() {
+         if (!hasNext())
+            throw new NoSuchElementException();
+         return toInternalCacheEntry(current.get(position++), null);
+      }
+
+      @Override
+      public void remove() {
+         throw new UnsupportedOperationException();
+      }
+
+      private boolean advance() {
+         current.clear();
+         position = 0;
+         if (nextBucket >= initialCount)
+            return false;
+         int index = nextBucket++;
+         // The stripes never outnumber the buckets, so the split buckets share the stripe of the initial one
+         ReentrantReadWriteLock lock = locks[index & (locks.length - 1)];
+         lock.readLock().lock();
+         try {
+            if (buckets != 0) {
+               for (int bucket = index; bucket < bucketCount; bucket += initialCount) {
+                  long address = OffHeapMemory.getLong(buckets + (long) bucket * 8);
+                  while (address != 0) {
+                     current.add(snapshot(address));
+                     address = OffHeapMemory.getLong(address + NEXT_OFFSET);
+                  }
+               }
+            }
+         } finally {
+            lock.readLock().unlock();
+         }
+         return true;
+      }
+   }
+
+   private class KeySet extends AbstractSet<K> {
+      @Override
+      public Iterator<K> iterator() {
+         final Iterator<InternalCacheEntry<K, V>> it = new EntryIterator();
+         return new Iterator<K>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public K next() {
+               return it.next().getKey();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public boolean contains(Object o) {
+         return peek(o) != null;
+      }
+
+      @Override
+      public int size() {
+         return size.get();
+      }
+   }
+
+   private class Values extends AbstractCollection<V> {
+      @Override
+      public Iterator<V> iterator() {
+         final Iterator<InternalCacheEntry<K, V>> it = new EntryIterator();
+         return new Iterator<V>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public V next() {
+               return it.next().getValue();
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public int size() {
+         return size.get();
+      }
+   }
+
+   private class EntrySet extends AbstractSet<InternalCacheEntry<K, V>> {
+      @Override
+      public Iterator<InternalCacheEntry<K, V>> iterator() {
+         final Iterator<InternalCacheEntry<K, V>> it = new EntryIterator();
+         return new Iterator<InternalCacheEntry<K, V>>() {
+            @Override
+            public boolean hasNext() {
+               return it.hasNext();
+            }
+
+            @Override
+            public InternalCacheEntry<K, V> next() {
+               return CoreImmutables.immutableInternalCacheEntry(it.next());
+            }
+
+            @Override
+            public void remove() {
+               throw new UnsupportedOperationException();
+            }
+         };
+      }
+
+      @Override
+      public boolean contains(Object o) {
+         if (!(o instanceof Map.Entry)) {
+            return false;
+         }
+         Map.Entry e = (Map.Entry) o;
+         InternalCacheEntry ice = peek(e.getKey());
+         return ice != null && ice.getValue().equals(e.getValue());
+      }
+
+      @Override
+      public int size() {
+         return size.get();
+      }
+   }
+}
@@ -0,0 +1,122 @@
+package org.infinispan.container.offheap;
+
+import java.lang.reflect.Field;
+import java.security.AccessController;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+import sun.misc.Unsafe;
+
+/**
+ * Thin wrapper around {@link sun.misc.Unsafe} used to allocate, access and release memory outside of the Java heap.
+ * <p/>
+ * Addresses handed out by this class are raw native pointers: there are no bounds checks, so callers must only access
+ * memory they allocated themselves and must release it exactly once.
+ *
+ * @since 7.2
+ */
+final class OffHeapMemory {
+
+   private static final Unsafe UNSAFE = getUnsafe();
+   private static final long BYTE_ARRAY_BASE_OFFSET = UNSAFE.arrayBaseOffset(byte[].class);
+
+   private final AtomicLong allocated = new AtomicLong();
+
+   long allocate(long size) {
+      long address = UNSAFE.allocateMemory(size);
+      allocated.addAndGet(size);
+      return address;
+   }
+
+   long allocateZeroed(long size) {
+      long address = allocate(size);
+      UNSAFE.setMemory(address, size, (byte) 0);
+      return address;
+   }
+
+   void free(long address, long size) {
+      UNSAFE.freeMemory(address);
+      allocated.addAndGet(-size);
+   }
+
+   /**
+    * @return the number of bytes currently allocated through this instance
+    */
+   long allocatedBytes() {
+      return allocated.get();
+   }
+
+   static long getLong(long address) {
+      return UNSAFE.getLong(address);
+   }
+
+   static void putLong(long address, long value) {
+      UNSAFE.putLong(address, value);
+   }
+
+   static long getLongVolatile(long address) {
+      return UNSAFE.getLongVolatile(null, address);
+   }
+
+   /**
+    * Atomically replaces the long at the given address, which must be 8-byte aligned.
+    */
+   static boolean compareAndSwapLong(long address, long expected, long value) {
+      return UNSAFE.compareAndSwapLong(null, address, expected, value);
+   }
+
+   static int getInt(long address) {
+      return UNSAFE.getInt(address);
+   }
+
+   static void putInt(long address, int value) {
+      UNSAFE.putInt(address, value);
+   }
+
+   static byte getByte(long address) {
+      return UNSAFE.getByte(address);
+   }
+
+   static void putByte(long address, byte value) {
+      UNSAFE.putByte(address, value);
+   }
+
+   static void putBytes(long address, byte[] bytes) {
+      UNSAFE.copyMemory(bytes, BYTE_ARRAY_BASE_OFFSET, null, address, bytes.length);
+   }
+
+   static byte[] getBytes(long address, int length) {
+      byte[] bytes = new byte[length];
+      UNSAFE.copyMemory(null, address, bytes, BYTE_ARRAY_BASE_OFFSET, length);
+      return bytes;
+   }
+
+   static boolean equalBytes(long address, byte[] bytes) {
+      for (int i = 0; i < bytes.length; i++) {
+         if (UNSAFE.getByte(address + i) != bytes[i])
+            return false;
+      }
+      return true;
+   }
+
+   private static Unsafe getUnsafe() {
+      try {
+         return Unsafe.getUnsafe();
+      } catch (SecurityException tryReflectionInstead) {
+         // ignore
+      }
+      try {
+         return AccessController.doPrivileged(new PrivilegedExceptionAction<Unsafe>() {
+            @Override
+            public Unsafe run() throws Exception {
+               Field f = Unsafe.class.getDeclaredField("theUnsafe");
+               f.setAccessible(true);
+               return (Unsafe) f.get(null);
+            }
+         });
+      } catch (PrivilegedActionException e) {
+         throw new IllegalStateException("Could not access sun.misc.Unsafe", e.getCause());
+      }
+   }
+}
@@ -0,0 +1,4 @@
+/**
+ * A data container which stores marshalled entries in memory allocated outside of the Java heap.
+ */
+package org.infinispan.container.offheap;
@@ -85,4 +85,20 @@ public interface InvocationContext extends EntryLookup, Cloneable {
    boolean replaceValue(Object key, InternalCacheEntry cacheEntry);
 
    boolean isEntryRemovedInContext(Object key);
+
+   /**
+    * Returns true if the interceptors may return an {@link org.infinispan.interceptors.base.InvocationStage} instead
+    * of blocking the invoking thread while waiting for a remote invocation.
+    *
+    * @since 7.2
+    */
+   boolean isNonBlocking();
+
+   /**
+    * Allows the interceptors to return an {@link org.infinispan.interceptors.base.InvocationStage}. Only set by the
+    * cache when all the interceptors are {@link org.infinispan.interceptors.base.StageAwareInterceptor}s.
+    *
+    * @since 7.2
+    */
+   void setNonBlocking(boolean nonBlocking);
 }
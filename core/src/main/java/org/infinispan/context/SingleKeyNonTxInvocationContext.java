@@ -35,6 +35,8 @@ public final class SingleKeyNonTxInvocationContext implements InvocationContext
    //(verify if this is worth it by looking at object alignment - would need a different implementation as pointing to null wouldn't help)
    private Address origin;
 
+   private boolean nonBlocking;
+
    public SingleKeyNonTxInvocationContext(final boolean originLocal, final Equivalence keyEquivalence) {
       this.isOriginLocal = originLocal;
       this.keyEquivalence = keyEquivalence;
@@ -50,6 +52,16 @@ public boolean isInTxScope() {
       return false;
    }
 
+   @Override
+   public boolean isNonBlocking() {
+      return nonBlocking;
+   }
+
+   @Override
+   public void setNonBlocking(boolean nonBlocking) {
+      this.nonBlocking = nonBlocking;
+   }
+
    @Override
    public Object getLockOwner() {
       return Thread.currentThread();
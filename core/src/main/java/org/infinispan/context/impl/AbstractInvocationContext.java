@@ -18,6 +18,7 @@ public abstract class AbstractInvocationContext implements InvocationContext {
    private Address origin;
    // Class loader associated with this invocation which supports AdvancedCache.with() functionality
    private ClassLoader classLoader;
+   private boolean nonBlocking;
 
    @Override
    public final Address getOrigin() {
@@ -37,6 +38,16 @@ public final void setOriginLocal(boolean originLocal) {
       this.isOriginLocal = originLocal;
    }
 
+   @Override
+   public boolean isNonBlocking() {
+      return nonBlocking;
+   }
+
+   @Override
+   public void setNonBlocking(boolean nonBlocking) {
+      this.nonBlocking = nonBlocking;
+   }
+
    @Override
    public boolean hasLockedKey(Object key) {
       return getLockedKeys().contains(key);
@@ -101,6 +101,16 @@ public void addLockedKey(Object key) {
       throw newUnsupportedMethod();
    }
 
+   @Override
+   public boolean isNonBlocking() {
+      return false;
+   }
+
+   @Override
+   public void setNonBlocking(boolean nonBlocking) {
+      throw newUnsupportedMethod();
+   }
+
    @Override
    public void clearLockedKeys() {
       throw newUnsupportedMethod();
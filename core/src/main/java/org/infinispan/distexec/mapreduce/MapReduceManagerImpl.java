@@ -7,8 +7,10 @@
 import org.infinispan.commands.read.ReduceCommand;
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.marshall.AbstractExternalizer;
+import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.Util;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.ParallelIterableMap.KeyValueAction;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.DataContainer;
@@ -22,6 +24,14 @@
 import org.infinispan.filter.CompositeKeyFilter;
 import org.infinispan.filter.KeyFilter;
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
+import org.infinispan.jmx.JmxStatisticsExposer;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.DisplayType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.persistence.PrimaryOwnerFilter;
 import org.infinispan.persistence.spi.AdvancedCacheLoader;
@@ -35,19 +45,30 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.infinispan.factories.KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR;
+import static org.infinispan.factories.KnownComponentNames.CACHE_MARSHALLER;
 
 /**
  * Default implementation of {@link MapReduceManager}.
@@ -58,7 +79,8 @@
  * @author Vladimir Blagojevic
  * @since 5.2
  */
-public class MapReduceManagerImpl implements MapReduceManager {
+@MBean(objectName = "MapReduceManager", description = "Executes the map, combine and reduce phases of MapReduceTasks on this node.")
+public class MapReduceManagerImpl implements MapReduceManager, JmxStatisticsExposer {
 
    private static final Log log = LogFactory.getLog(MapReduceManagerImpl.class);
    private ClusteringDependentLogic cdl;
@@ -66,21 +88,37 @@ public class MapReduceManagerImpl implements MapReduceManager {
    private PersistenceManager persistenceManager;
    private ExecutorService executorService;
    private TimeService timeService;
+   private StreamingMarshaller marshaller;
    private int chunkSize;
 
+   private boolean statisticsEnabled = false;
+   private final AtomicLong mapPhases = new AtomicLong(0);
+   private final AtomicLong mapTime = new AtomicLong(0);
+   private final AtomicLong combines = new AtomicLong(0);
+   private final AtomicLong combineTime = new AtomicLong(0);
+   private final AtomicLong migrations = new AtomicLong(0);
+   private final AtomicLong migrationTime = new AtomicLong(0);
+   private final AtomicLong reducePhases = new AtomicLong(0);
+   private final AtomicLong reduceTime = new AtomicLong(0);
+   private final AtomicLong spills = new AtomicLong(0);
+   private final AtomicLong spilledValues = new AtomicLong(0);
+
    MapReduceManagerImpl() {
    }
 
    @Inject
    public void init(EmbeddedCacheManager cacheManager, PersistenceManager persistenceManager,
             @ComponentName(ASYNC_TRANSPORT_EXECUTOR) ExecutorService asyncTransportExecutor,
-            ClusteringDependentLogic cdl, TimeService timeService, Configuration configuration) {
+            ClusteringDependentLogic cdl, TimeService timeService, Configuration configuration,
+            @ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller) {
       this.cacheManager = cacheManager;
       this.persistenceManager = persistenceManager;
       this.cdl = cdl;
       this.executorService = asyncTransportExecutor;
       this.timeService = timeService;
+      this.marshaller = marshaller;
       this.chunkSize = configuration.clustering().stateTransfer().chunkSize();
+      this.statisticsEnabled = configuration.jmxStatistics().enabled();
    }
 
    @Override
@@ -92,6 +130,10 @@ public ExecutorService getExecutorService() {
    public <KIn, VIn, KOut, VOut> Map<KOut, List<VOut>> mapAndCombineForLocalReduction(
             MapCombineCommand<KIn, VIn, KOut, VOut> mcc) throws InterruptedException {
       CollectableCollector<KOut, VOut> collector = map(mcc);
+      if (collector.collectedValues() instanceof SpilledValues) {
+         // spilled values are combined one partition at a time while they are read
+         return collector.collectedValues();
+      }
       combine(mcc, collector);
       return collector.collectedValues();
    }
@@ -134,7 +176,7 @@ protected <KOut, VOut> void reduce(ReduceCommand<KOut, VOut> reduceCommand, fina
          final boolean sharedTmpCacheUsed = reduceCommand.isUseIntermediateSharedCache();
          MapReduceTaskLifecycleService taskLifecycleService = MapReduceTaskLifecycleService.getInstance();
          log.tracef("For m/r task %s invoking %s at %s", taskId, reduceCommand, cdl.getAddress());
-         long start = log.isTraceEnabled() ? timeService.time() : 0;
+         long start = startTime();
          try {
             Cache<IntermediateKey<KOut>, List<VOut>> cache = cacheManager.getCache(reduceCommand.getCacheName());
             taskLifecycleService.onPreExecute(reducer, cache);
@@ -164,6 +206,7 @@ public void apply(IntermediateKey<KOut> k, InternalCacheEntry<IntermediateKey<KO
                log.tracef("Reduce for task %s took %s milliseconds", reduceCommand.getTaskId(),
                      timeService.timeDuration(start, TimeUnit.MILLISECONDS));
             }
+            recordTime(reducePhases, reduceTime, start);
             taskLifecycleService.onPostExecute(reducer);
          }
       }
@@ -180,11 +223,13 @@ protected <KIn, VIn, KOut, VOut> CollectableCollector<KOut, VOut> map(
 
       // hook map function into lifecycle and execute it
       MapReduceTaskLifecycleService taskLifecycleService = MapReduceTaskLifecycleService.getInstance();
-      final CollectableCollector<KOut, VOut> collector = new SynchronizedCollector<KOut, VOut>(
-            new DefaultCollector<KIn, VIn, KOut, VOut>(mcc, maxCSize));
+      final SpillingCollector<KIn, VIn, KOut, VOut> spillingCollector = new SpillingCollector<KIn, VIn, KOut, VOut>(
+            mcc, new DefaultCollector<KIn, VIn, KOut, VOut>(mcc, maxCSize));
+      final CollectableCollector<KOut, VOut> collector = new SynchronizedCollector<KOut, VOut>(spillingCollector);
       DataContainer<KIn, VIn> dc = cache.getAdvancedCache().getDataContainer();
       log.tracef("For m/r task %s invoking %s with input keys %s",  mcc.getTaskId(), mcc, keys);
-      long start = log.isTraceEnabled() ? timeService.time() : 0;
+      long start = startTime();
+      boolean mapped = false;
       try {
          taskLifecycleService.onPreExecute(mapper, cache);
          //User specified input taks keys, most likely a short list of input keys (<10^3), iterate serially
@@ -213,11 +258,16 @@ public void apply(KIn key , InternalCacheEntry<KIn, VIn> v) {
                persistenceManager.processOnAllStores(keyFilter, new MapReduceCacheLoaderTask<KIn, VIn, KOut, VOut>(mapper, collector),
                      true, false);
          }
+         mapped = true;
       } finally {
+         if (!mapped) {
+            spillingCollector.discard();
+         }
          if (log.isTraceEnabled()) {
             log.tracef("Map phase for task %s took %s milliseconds",
                        mcc.getTaskId(), timeService.timeDuration(start, TimeUnit.MILLISECONDS));
          }
+         recordTime(mapPhases, mapTime, start);
          taskLifecycleService.onPostExecute(mapper);
       }
       return collector;
@@ -236,7 +286,7 @@ protected <KIn, VIn, KOut, VOut> Set<KOut> mapAndCombine(final MapCombineCommand
       MapReduceTaskLifecycleService taskLifecycleService = MapReduceTaskLifecycleService.getInstance();
       DataContainer<KIn, VIn>  dc = cache.getAdvancedCache().getDataContainer();
       log.tracef("For m/r task %s invoking %s with input keys %s", mcc.getTaskId(), mcc, mcc.getKeys());
-      long start = log.isTraceEnabled() ? timeService.time() : 0;
+      long start = startTime();
       final Set<KOut> intermediateKeys = new HashSet<KOut>();
       try {
          taskLifecycleService.onPreExecute(mapper, cache);
@@ -279,6 +329,7 @@ protected <KIn, VIn, KOut, VOut> Set<KOut> mapAndCombine(final MapCombineCommand
             log.tracef("Map phase for task %s took %s milliseconds", mcc.getTaskId(),
                   timeService.timeDuration(start, TimeUnit.MILLISECONDS));
          }
+         recordTime(mapPhases, mapTime, start);
          taskLifecycleService.onPostExecute(mapper);
       }
       return intermediateKeys;
@@ -291,7 +342,7 @@ protected <KIn, VIn, KOut, VOut> void combine(MapCombineCommand<KIn, VIn, KOut,
          Cache<?, ?> cache = cacheManager.getCache(mcc.getCacheName());
          log.tracef("For m/r task %s invoking combiner %s at %s", mcc.getTaskId(), mcc, cdl.getAddress());
          MapReduceTaskLifecycleService taskLifecycleService = MapReduceTaskLifecycleService.getInstance();
-         long start = log.isTraceEnabled() ? timeService.time() : 0;
+         long start = startTime();
          try {
             taskLifecycleService.onPreExecute(combiner, cache);
             for (Entry<KOut, List<VOut>> e : c.collectedValues().entrySet()) {
@@ -306,6 +357,7 @@ protected <KIn, VIn, KOut, VOut> void combine(MapCombineCommand<KIn, VIn, KOut,
                log.tracef("Combine for task %s took %s milliseconds", mcc.getTaskId(),
                      timeService.timeDuration(start, TimeUnit.MILLISECONDS));
             }
+            recordTime(combines, combineTime, start);
             taskLifecycleService.onPostExecute(combiner);
          }
       }
@@ -325,8 +377,10 @@ private <KIn, VIn, KOut, VOut> Set<KOut> migrateIntermediateKeysAndValues(
       Set<KOut> mapPhaseKeys = new HashSet<KOut>();
       DistributionManager dm = tmpCache.getAdvancedCache().getDistributionManager();
       Map<Address, List<KOut>> keysToNodes = mapKeysToNodes(dm, taskId, collectedValues.keySet());
-      long start = log.isTraceEnabled() ? timeService.time() : 0;
+      long start = startTime();
       tmpCache = tmpCache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES);
+      // the chunks are sent to all the reducing nodes at once, and the migration only waits for them at the end
+      List<NotifyingFuture<DeltaList<VOut>>> futures = new ArrayList<NotifyingFuture<DeltaList<VOut>>>();
       try {
          for (Entry<Address, List<KOut>> entry : keysToNodes.entrySet()) {
             List<KOut> keysHashedToAddress = entry.getValue();
@@ -338,7 +392,7 @@ private <KIn, VIn, KOut, VOut> Set<KOut> migrateIntermediateKeysAndValues(
                   for (int i = 0; i < values.size(); i += entryTransferCount) {
                      List<VOut> chunk = values.subList(i, Math.min(values.size(), i + entryTransferCount));
                      DeltaList<VOut> delta = new DeltaList<VOut>(chunk);
-                     tmpCache.put(new IntermediateKey<KOut>(taskId, key), delta);
+                     futures.add(tmpCache.putAsync(new IntermediateKey<KOut>(taskId, key), delta));
                   }
                   mapPhaseKeys.add(key);
                }
@@ -346,11 +400,22 @@ private <KIn, VIn, KOut, VOut> Set<KOut> migrateIntermediateKeysAndValues(
                throw new CacheException("Could not move intermediate keys/values for M/R task " + taskId, e);
             }
          }
+         for (NotifyingFuture<DeltaList<VOut>> future : futures) {
+            try {
+               future.get();
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               throw new CacheException("Interrupted while moving intermediate keys/values for M/R task " + taskId, e);
+            } catch (ExecutionException e) {
+               throw new CacheException("Could not move intermediate keys/values for M/R task " + taskId, e.getCause());
+            }
+         }
       } finally {
          if (log.isTraceEnabled()) {
             log.tracef("Migrating keys for task %s took %s milliseconds (Migrated %s keys)",
                   mcc.getTaskId(), timeService.timeDuration(start, TimeUnit.MILLISECONDS), mapPhaseKeys.size());
          }
+         recordTime(migrations, migrationTime, start);
       }
       return mapPhaseKeys;
    }
@@ -382,6 +447,104 @@ protected <KIn> Set<KIn> filterLocalPrimaryOwner(Set<KIn> nodeLocalKeys, Distrib
       return selectedKeys;
    }
 
+   private long startTime() {
+      return statisticsEnabled || log.isTraceEnabled() ? timeService.time() : 0;
+   }
+
+   private void recordTime(AtomicLong count, AtomicLong totalTime, long start) {
+      if (statisticsEnabled) {
+         count.incrementAndGet();
+         totalTime.addAndGet(timeService.timeDuration(start, TimeUnit.NANOSECONDS));
+      }
+   }
+
+   private static long averageMillis(AtomicLong count, AtomicLong totalTime) {
+      long n = count.get();
+      return n == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalTime.get() / n);
+   }
+
+   // -------------------------------------------- JMX information -----------------------------------------------
+
+   @ManagedOperation(description = "Resets statistics gathered by this component", displayName = "Reset statistics")
+   @Override
+   public void resetStatistics() {
+      mapPhases.set(0);
+      mapTime.set(0);
+      combines.set(0);
+      combineTime.set(0);
+      migrations.set(0);
+      migrationTime.set(0);
+      reducePhases.set(0);
+      reduceTime.set(0);
+      spills.set(0);
+      spilledValues.set(0);
+   }
+
+   @ManagedAttribute(description = "Enables or disables the gathering of statistics by this component", displayName = "Statistics enabled", dataType = DataType.TRAIT, writable = true)
+   public boolean isStatisticsEnabled() {
+      return statisticsEnabled;
+   }
+
+   @Override
+   public boolean getStatisticsEnabled() {
+      return isStatisticsEnabled();
+   }
+
+   @Override
+   public void setStatisticsEnabled(boolean statisticsEnabled) {
+      this.statisticsEnabled = statisticsEnabled;
+   }
+
+   @ManagedAttribute(description = "Number of map phases executed on this node", displayName = "Number of map phases", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getMapPhases() {
+      return statisticsEnabled ? mapPhases.get() : -1;
+   }
+
+   @ManagedAttribute(description = "Average time spent in a map phase, including the combining and migration done while mapping, in milliseconds", displayName = "Average map phase time", units = Units.MILLISECONDS, displayType = DisplayType.SUMMARY)
+   public long getAverageMapTime() {
+      return statisticsEnabled ? averageMillis(mapPhases, mapTime) : -1;
+   }
+
+   @ManagedAttribute(description = "Number of combiner invocations on collected intermediate values", displayName = "Number of combines", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getCombines() {
+      return statisticsEnabled ? combines.get() : -1;
+   }
+
+   @ManagedAttribute(description = "Average time spent combining collected intermediate values, in milliseconds", displayName = "Average combine time", units = Units.MILLISECONDS, displayType = DisplayType.SUMMARY)
+   public long getAverageCombineTime() {
+      return statisticsEnabled ? averageMillis(combines, combineTime) : -1;
+   }
+
+   @ManagedAttribute(description = "Number of batches of intermediate values migrated to the reducing nodes", displayName = "Number of migrations", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getMigrations() {
+      return statisticsEnabled ? migrations.get() : -1;
+   }
+
+   @ManagedAttribute(description = "Average time spent migrating a batch of intermediate values, in milliseconds", displayName = "Average migration time", units = Units.MILLISECONDS, displayType = DisplayType.SUMMARY)
+   public long getAverageMigrationTime() {
+      return statisticsEnabled ? averageMillis(migrations, migrationTime) : -1;
+   }
+
+   @ManagedAttribute(description = "Number of reduce phases executed on this node", displayName = "Number of reduce phases", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getReducePhases() {
+      return statisticsEnabled ? reducePhases.get() : -1;
+   }
+
+   @ManagedAttribute(description = "Average time spent in a reduce phase, in milliseconds", displayName = "Average reduce phase time", units = Units.MILLISECONDS, displayType = DisplayType.SUMMARY)
+   public long getAverageReduceTime() {
+      return statisticsEnabled ? averageMillis(reducePhases, reduceTime) : -1;
+   }
+
+   @ManagedAttribute(description = "Number of times intermediate values were spilled to disk", displayName = "Number of spills", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getSpills() {
+      return statisticsEnabled ? spills.get() : -1;
+   }
+
+   @ManagedAttribute(description = "Number of intermediate values spilled to disk", displayName = "Number of spilled values", measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getSpilledValues() {
+      return statisticsEnabled ? spilledValues.get() : -1;
+   }
+
    private abstract class DataContainerTask<K,V> implements KeyValueAction<K, InternalCacheEntry<K,V>> {
 
       @SuppressWarnings("unchecked")
@@ -551,12 +714,14 @@ public boolean accept(IntermediateKey<T> key) {
       private Map<KOut, List<VOut>> store;
       private final AtomicInteger emitCount;
       private final int maxCollectorSize;
+      private int combineThreshold;
       private MapCombineCommand<K, V, KOut, VOut> mcc;
 
       public DefaultCollector(MapCombineCommand<K, V, KOut, VOut> mcc, int maxCollectorSize) {
          store = new HashMap<KOut, List<VOut>>(1024, 0.75f);
          emitCount = new AtomicInteger();
          this.maxCollectorSize = maxCollectorSize;
+         this.combineThreshold = maxCollectorSize;
          this.mcc = mcc;
       }
 
@@ -568,9 +733,10 @@ public void emit(KOut key, VOut value) {
             store.put(key, list);
          }
          list.add(value);
-         emitCount.incrementAndGet();
-         if (isOverflown() && mcc.hasCombiner()) {
+         if (emitCount.incrementAndGet() > combineThreshold && mcc.hasCombiner()) {
             combine(mcc, this);
+            // mostly distinct keys can't be combined, so wait for the collector to double before trying again
+            combineThreshold = (int) Math.min(Integer.MAX_VALUE, Math.max(maxCollectorSize, 2L * emitCount.get()));
          }
       }
 
@@ -592,12 +758,17 @@ public Map<KOut, List<VOut>> collectedValues() {
       public void reset(){
          store.clear();
          emitCount.set(0);
+         combineThreshold = maxCollectorSize;
       }
 
       public boolean isEmpty() {
          return store.isEmpty();
       }
 
+      public int size() {
+         return emitCount.get();
+      }
+
       public void emit(Map<KOut, List<VOut>> combined) {
          for (Entry<KOut, List<VOut>> e : combined.entrySet()) {
             KOut k = e.getKey();
@@ -613,6 +784,305 @@ public boolean isOverflown() {
       }
    }
 
+   /**
+    * Collector of a map phase whose output is returned to the master node. Once the delegate holds more
+    * values than the spill threshold of the task, even after combining, its values are written to a
+    * temporary file and the delegate is emptied. Not thread safe.
+    * <p>
+    * When the collected values are requested at the end of the map phase, the spilled runs and the values
+    * still held by the delegate are redistributed by key hash into one partition file per run, so that a
+    * single partition holds about as many values as the spill threshold. The returned
+    * {@link SpilledValues} then reads, and combines, one partition at a time.
+    */
+   private final class SpillingCollector<K, V, KOut, VOut> implements CollectableCollector<KOut, VOut> {
+
+      private final MapCombineCommand<K, V, KOut, VOut> mcc;
+      private final DefaultCollector<K, V, KOut, VOut> delegate;
+      private final List<File> spillFiles = new ArrayList<File>();
+      private SpilledValues<K, V, KOut, VOut> spilled;
+
+      public SpillingCollector(MapCombineCommand<K, V, KOut, VOut> mcc, DefaultCollector<K, V, KOut, VOut> delegate) {
+         this.mcc = mcc;
+         this.delegate = delegate;
+      }
+
+      @Override
+      public void emit(KOut key, VOut value) {
+         delegate.emit(key, value);
+         if (delegate.size() > mcc.getSpillThreshold()) {
+            spill();
+         }
+      }
+
+      @Override
+      public void emitReduced(KOut key, VOut value) {
+         delegate.emitReduced(key, value);
+      }
+
+      @Override
+      public Map<KOut, List<VOut>> collectedValues() {
+         if (spilled == null && !spillFiles.isEmpty()) {
+            spilled = partition();
+         }
+         return spilled != null ? spilled : delegate.collectedValues();
+      }
+
+      public void discard() {
+         deleteFiles(spillFiles, mcc);
+         spillFiles.clear();
+      }
+
+      private void spill() {
+         Map<KOut, List<VOut>> values = delegate.collectedValues();
+         try {
+            File file = File.createTempFile("mapreduce-" + mcc.getTaskId() + "-", ".spill");
+            spillFiles.add(file);
+            SpillWriter writer = new SpillWriter(file);
+            try {
+               for (Entry<KOut, List<VOut>> e : values.entrySet()) {
+                  writer.write(e.getKey(), e.getValue());
+               }
+            } finally {
+               writer.close();
+            }
+            log.tracef("For m/r task %s spilled %s intermediate values to %s", mcc.getTaskId(), delegate.size(), file);
+         } catch (IOException e) {
+            discard();
+            throw new CacheException("Could not spill intermediate keys/values for M/R task " + mcc.getTaskId(), e);
+         }
+         if (statisticsEnabled) {
+            spills.incrementAndGet();
+            spilledValues.addAndGet(delegate.size());
+         }
+         delegate.reset();
+      }
+
+      private SpilledValues<K, V, KOut, VOut> partition() {
+         int numPartitions = spillFiles.size() + 1;
+         List<File> partitions = new ArrayList<File>(numPartitions);
+         SpillWriter[] writers = new SpillWriter[numPartitions];
+         try {
+            try {
+               for (int i = 0; i < numPartitions; i++) {
+                  File file = File.createTempFile("mapreduce-" + mcc.getTaskId() + "-", ".partition");
+                  partitions.add(file);
+                  writers[i] = new SpillWriter(file);
+               }
+               for (File file : spillFiles) {
+                  SpillReader reader = new SpillReader(file);
+                  try {
+                     while (reader.hasNext()) {
+                        KOut key = reader.readKey();
+                        writers[partitionOf(key, numPartitions)].write(key, reader.<VOut>readValues());
+                     }
+                  } finally {
+                     reader.close();
+                  }
+               }
+               for (Entry<KOut, List<VOut>> e : delegate.collectedValues().entrySet()) {
+                  writers[partitionOf(e.getKey(), numPartitions)].write(e.getKey(), e.getValue());
+               }
+            } finally {
+               for (SpillWriter writer : writers) {
+                  if (writer != null) {
+                     writer.close();
+                  }
+               }
+            }
+         } catch (IOException | ClassNotFoundException e) {
+            deleteFiles(partitions, mcc);
+            throw new CacheException("Could not read spilled intermediate keys/values for M/R task " + mcc.getTaskId(), e);
+         } finally {
+            discard();
+            delegate.reset();
+         }
+         return new SpilledValues<K, V, KOut, VOut>(mcc, partitions);
+      }
+   }
+
+   /**
+    * The intermediate values of a map phase that spilled, split into partitions of distinct keys. Only one
+    * partition is held in memory at a time: it is read, and combined, when the iteration reaches it, and its
+    * file is deleted once it has been read. The values can therefore only be iterated once, either by the
+    * master node merging its local map response or by {@link SpilledValuesExternalizer} sending a remote one.
+    */
+   private final class SpilledValues<K, V, KOut, VOut> extends AbstractMap<KOut, List<VOut>> {
+
+      private final MapCombineCommand<K, V, KOut, VOut> mcc;
+      private final List<File> partitions;
+      private boolean consumed;
+
+      SpilledValues(MapCombineCommand<K, V, KOut, VOut> mcc, List<File> partitions) {
+         this.mcc = mcc;
+         this.partitions = partitions;
+      }
+
+      @Override
+      public Set<Entry<KOut, List<VOut>>> entrySet() {
+         return new AbstractSet<Entry<KOut, List<VOut>>>() {
+            @Override
+            public Iterator<Entry<KOut, List<VOut>>> iterator() {
+               if (consumed) {
+                  throw new IllegalStateException("Spilled intermediate keys/values of M/R task " + mcc.getTaskId()
+                        + " were already read");
+               }
+               consumed = true;
+               return new PartitionIterator();
+            }
+
+            @Override
+            public int size() {
+               throw new UnsupportedOperationException("The number of spilled intermediate keys is not known");
+            }
+         };
+      }
+
+      @Override
+      public boolean isEmpty() {
+         // only created once at least one run was spilled
+         return false;
+      }
+
+      @Override
+      public String toString() {
+         return "SpilledValues{taskId=" + mcc.getTaskId() + ", partitions=" + partitions.size() + "}";
+      }
+
+      private class PartitionIterator implements Iterator<Entry<KOut, List<VOut>>> {
+         private int nextPartition;
+         private Iterator<Entry<KOut, List<VOut>>> current = Collections.<Entry<KOut, List<VOut>>>emptyIterator();
+
+         @Override
+         public boolean hasNext() {
+            while (!current.hasNext() && nextPartition < partitions.size()) {
+               current = readPartition(partitions.get(nextPartition++));
+            }
+            return current.hasNext();
+         }
+
+         @Override
+         public Entry<KOut, List<VOut>> next() {
+            if (!hasNext()) {
+               throw new NoSuchElementException();
+            }
+            return current.next();
+         }
+
+         @Override
+         public void remove() {
+            throw new UnsupportedOperationException();
+         }
+
+         private Iterator<Entry<KOut, List<VOut>>> readPartition(File file) {
+            DefaultCollector<K, V, KOut, VOut> collector = new DefaultCollector<K, V, KOut, VOut>(mcc, Integer.MAX_VALUE);
+            try {
+               SpillReader reader = new SpillReader(file);
+               try {
+                  while (reader.hasNext()) {
+                     KOut key = reader.readKey();
+                     for (VOut value : reader.<VOut>readValues()) {
+                        collector.emit(key, value);
+                     }
+                  }
+               } finally {
+                  reader.close();
+               }
+            } catch (IOException | ClassNotFoundException e) {
+               deleteFiles(partitions, mcc);
+               throw new CacheException("Could not read spilled intermediate keys/values for M/R task " + mcc.getTaskId(), e);
+            }
+            deleteFiles(Collections.singletonList(file), mcc);
+            combine(mcc, collector);
+            return collector.collectedValues().entrySet().iterator();
+         }
+      }
+   }
+
+   private static int partitionOf(Object key, int numPartitions) {
+      return (key.hashCode() & Integer.MAX_VALUE) % numPartitions;
+   }
+
+   private static void deleteFiles(List<File> files, MapCombineCommand<?, ?, ?, ?> mcc) {
+      for (File file : files) {
+         if (file.exists() && !file.delete()) {
+            log.tracef("Could not delete spill file %s of m/r task %s", file, mcc.getTaskId());
+         }
+      }
+   }
+
+   /**
+    * Writes intermediate keys and their values to a spill or partition file, each entry preceded by a marker
+    * so that the number of entries doesn't need to be known upfront.
+    */
+   private final class SpillWriter implements Closeable {
+      private final OutputStream os;
+      private final ObjectOutput output;
+
+      SpillWriter(File file) throws IOException {
+         os = new BufferedOutputStream(new FileOutputStream(file));
+         try {
+            output = marshaller.startObjectOutput(os, true, 1024);
+         } catch (IOException | RuntimeException e) {
+            os.close();
+            throw e;
+         }
+      }
+
+      <K, V> void write(K key, List<V> values) throws IOException {
+         output.writeBoolean(true);
+         output.writeObject(key);
+         output.writeObject(values);
+      }
+
+      @Override
+      public void close() throws IOException {
+         try {
+            output.writeBoolean(false);
+         } finally {
+            marshaller.finishObjectOutput(output);
+            os.close();
+         }
+      }
+   }
+
+   private final class SpillReader implements Closeable {
+      private final InputStream is;
+      private final ObjectInput input;
+
+      SpillReader(File file) throws IOException {
+         is = new BufferedInputStream(new FileInputStream(file));
+         try {
+            input = marshaller.startObjectInput(is, true);
+         } catch (IOException | RuntimeException e) {
+            is.close();
+            throw e;
+         }
+      }
+
+      boolean hasNext() throws IOException {
+         return input.readBoolean();
+      }
+
+      @SuppressWarnings("unchecked")
+      <K> K readKey() throws IOException, ClassNotFoundException {
+         return (K) input.readObject();
+      }
+
+      @SuppressWarnings("unchecked")
+      <V> List<V> readValues() throws IOException, ClassNotFoundException {
+         return (List<V>) input.readObject();
+      }
+
+      @Override
+      public void close() throws IOException {
+         try {
+            marshaller.finishObjectInput(input);
+         } finally {
+            is.close();
+         }
+      }
+   }
+
    private interface CollectableCollector<K,V> extends Collector<K, V>{
       Map<K, List<V>> collectedValues();
       void emitReduced(K key, V value);
@@ -744,6 +1214,49 @@ public Set<Class<? extends DeltaAwareList>> getTypeClasses() {
       }
    }
 
+   /**
+    * Sends the spilled intermediate values of a map phase one partition at a time, and reads them back as a
+    * plain map on the master node.
+    */
+   @SuppressWarnings("rawtypes")
+   public static class SpilledValuesExternalizer extends AbstractExternalizer<Map> {
+
+      private static final long serialVersionUID = -3186214931513766482L;
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public void writeObject(ObjectOutput output, Map values) throws IOException {
+         for (Entry<Object, Object> e : ((Map<Object, Object>) values).entrySet()) {
+            output.writeBoolean(true);
+            output.writeObject(e.getKey());
+            output.writeObject(e.getValue());
+         }
+         output.writeBoolean(false);
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public Map readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+         // the partitions hold distinct keys
+         Map<Object, Object> values = new HashMap<Object, Object>();
+         while (input.readBoolean()) {
+            values.put(input.readObject(), input.readObject());
+         }
+         return values;
+      }
+
+      @Override
+      public Integer getId() {
+         return Ids.SPILLED_MAPREDUCE_VALUES;
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public Set<Class<? extends Map>> getTypeClasses() {
+         return Util.<Class<? extends Map>>asSet(SpilledValues.class);
+      }
+   }
+
    /**
     * IntermediateCompositeKey
     */
@@ -13,11 +13,13 @@
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -164,6 +166,8 @@
    protected String intermediateCacheConfigurationName = DEFAULT_TMP_CACHE_CONFIGURATION_NAME;
    private StateTransferManager stateTransferManager;
    private static final int MAX_COLLECTOR_SIZE = 1000;
+   private static final int DEFAULT_SPILL_THRESHOLD = 100000;
+   private int spillThreshold;
 
    /**
     * Create a new MapReduceTask given a master cache node. All distributed task executions will be
@@ -309,6 +313,28 @@ public MapReduceTask<KIn, VIn, KOut, VOut> combinedWith(Reducer<KOut, VOut> comb
       return this;
    }
 
+   /**
+    * Limits the number of intermediate values a node keeps in memory during the map phase of a task
+    * whose reduce phase is not distributed. Once a node has collected more values than the given
+    * threshold, even after applying the combiner, the values are spilled to a local temporary file
+    * and merged back at the end of the map phase. Intermediate keys/values must therefore be
+    * marshallable.
+    * <p>
+    * The default threshold is 100000 values for clustered caches, while tasks on local caches never
+    * spill unless a threshold is given.
+    *
+    * @param threshold
+    *           the number of intermediate values that triggers a spill, Integer.MAX_VALUE to never spill
+    * @return this MapReduceTask itself
+    * @since 7.2
+    */
+   public MapReduceTask<KIn, VIn, KOut, VOut> spillThreshold(int threshold) {
+      if (threshold <= 0)
+         throw new IllegalArgumentException("Invalid spill threshold " + threshold);
+      this.spillThreshold = threshold;
+      return this;
+   }
+
    /**
     * See {@link #timeout(TimeUnit)}.
     *
@@ -619,6 +645,7 @@ protected void executeMapPhaseWithLocalReduction(Map<KOut, VOut> reducedResult)
       MapCombineCommand<KIn, VIn, KOut, VOut> cmd = null;
       Map<KOut, List<VOut>> mapPhasesResult = new HashMap<KOut, List<VOut>>();
       List<MapTaskPart<Map<KOut, List<VOut>>>> futures = new ArrayList<MapTaskPart<Map<KOut, List<VOut>>>>();
+      BlockingQueue<TaskPart<Map<KOut, List<VOut>>>> completedParts = new LinkedBlockingQueue<TaskPart<Map<KOut, List<VOut>>>>();
       Address localAddress = clusteringDependentLogic.getAddress();
       if (inputTaskKeysEmpty()) {
          List<Address> targets;
@@ -636,6 +663,7 @@ protected void executeMapPhaseWithLocalReduction(Map<KOut, VOut> reducedResult)
                      false, false);
             }
             MapTaskPart<Map<KOut, List<VOut>>> part = createTaskMapPart(cmd, target, false);
+            part.setCompletionQueue(completedParts);
             part.execute();
             futures.add(part);
          }
@@ -652,27 +680,54 @@ protected void executeMapPhaseWithLocalReduction(Map<KOut, VOut> reducedResult)
                      false, false);
             }
             MapTaskPart<Map<KOut, List<VOut>>> part = createTaskMapPart(cmd, address, false);
+            part.setCompletionQueue(completedParts);
             part.execute();
             futures.add(part);
          }
       }
+      // hook into lifecycle
+      MapReduceTaskLifecycleService taskLifecycleService = MapReduceTaskLifecycleService
+               .getInstance();
+      // merge the responses in the order the nodes complete their map phase, and combine them on
+      // arrival so that only one intermediate value per key is retained
+      Reducer<KOut, VOut> localCombiner = combiner != null ? clone(combiner) : null;
       try {
-         for (MapTaskPart<Map<KOut, List<VOut>>> mapTaskPart : futures) {
+         if (localCombiner != null) {
+            taskLifecycleService.onPreExecute(localCombiner, cache);
+         }
+         // a timeout of 0 waits indefinitely, like the map phase RPCs
+         long timeoutNanos = timeout(TimeUnit.NANOSECONDS);
+         long deadline = System.nanoTime() + timeoutNanos;
+         for (int i = 0; i < futures.size(); i++) {
+            TaskPart<Map<KOut, List<VOut>>> mapTaskPart;
+            if (timeoutNanos > 0) {
+               mapTaskPart = completedParts.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+               if (mapTaskPart == null) {
+                  throw new MapReduceException("Map phase failed ", new TimeoutException(
+                        "Timed out waiting for " + (futures.size() - i) + " map phase responses"));
+               }
+            } else {
+               mapTaskPart = completedParts.take();
+            }
             Map<KOut, List<VOut>> result = null;
             try {
                result = mapTaskPart.get();
             } catch (ExecutionException ee) {
                throw new MapReduceException("Map phase failed ", ee.getCause());
             }
-            mergeResponse(mapPhasesResult, result);
+            if (localCombiner != null) {
+               combineResponse(mapPhasesResult, result, localCombiner);
+            } else {
+               mergeResponse(mapPhasesResult, result);
+            }
          }
       } finally {
          cancellableTasks.clear();
+         if (localCombiner != null) {
+            taskLifecycleService.onPostExecute(localCombiner);
+         }
       }
 
-      // hook into lifecycle
-      MapReduceTaskLifecycleService taskLifecycleService = MapReduceTaskLifecycleService
-               .getInstance();
       log.tracef("For m/r task %s invoking %s locally", taskId, reducer);
       try {
          taskLifecycleService.onPreExecute(reducer, cache);
@@ -755,6 +810,25 @@ private <K, V> void mergeResponse(Map<K, List<V>> result, Map<K, List<V>> m) {
       }
    }
 
+   private void combineResponse(Map<KOut, List<VOut>> result, Map<KOut, List<VOut>> m,
+         Reducer<KOut, VOut> combiner) {
+      for (Entry<KOut, List<VOut>> entry : m.entrySet()) {
+         KOut key = entry.getKey();
+         List<VOut> list = result.get(key);
+         if (list != null) {
+            list.addAll(entry.getValue());
+         } else {
+            list = new ArrayList<VOut>(entry.getValue());
+            result.put(key, list);
+         }
+         if (list.size() > 1) {
+            VOut combined = combiner.reduce(key, list.iterator());
+            list.clear();
+            list.add(combined);
+         }
+      }
+   }
+
    private MapCombineCommand<KIn, VIn, KOut, VOut> buildMapCombineCommand(
             String taskId, Mapper<KIn, VIn, KOut, VOut> m, Reducer<KOut, VOut> r, String intermediateCacheName,
             Collection<KIn> keys, boolean reducePhaseDistributed, boolean useIntermediateSharedCache){
@@ -765,6 +839,11 @@ private MapCombineCommand<KIn, VIn, KOut, VOut> buildMapCombineCommand(
       c.setUseIntermediateSharedCache(useIntermediateSharedCache);
       c.setIntermediateCacheName(intermediateCacheName);
       c.setMaxCollectorSize(MAX_COLLECTOR_SIZE);
+      if (spillThreshold > 0) {
+         c.setSpillThreshold(spillThreshold);
+      } else if (!isLocalOnly) {
+         c.setSpillThreshold(DEFAULT_SPILL_THRESHOLD);
+      }
       return c;
    }
 
@@ -1013,6 +1092,7 @@ public boolean isCancelled() {
 
       private Future<V> f;
       private final Address executionTarget;
+      private volatile BlockingQueue<TaskPart<V>> completionQueue;
 
       public TaskPart(Address executionTarget) {
          this.executionTarget = executionTarget;
@@ -1058,6 +1138,21 @@ protected boolean locallyExecuted(){
 
       public abstract void execute();
 
+      /**
+       * Sets the queue this part adds itself to once its result is available, so that results can be
+       * processed in the order parts complete. Must be invoked before {@link #execute()}.
+       */
+      public void setCompletionQueue(BlockingQueue<TaskPart<V>> completionQueue) {
+         this.completionQueue = completionQueue;
+      }
+
+      protected void completed() {
+         BlockingQueue<TaskPart<V>> queue = completionQueue;
+         if (queue != null) {
+            queue.add(this);
+         }
+      }
+
       @SuppressWarnings("unchecked")
       private V retrieveResult(Object response) throws ExecutionException {
          if (response == null) {
@@ -1086,10 +1181,12 @@ public V get(long timeout, TimeUnit unit) throws InterruptedException, Execution
 
       @Override
       public void notifyDone(V result) {
+         completed();
       }
 
       @Override
       public void notifyException(Throwable exception) {
+         completed();
       }
 
       @Override
@@ -1136,7 +1233,12 @@ public void execute() {
                   }
                };
             }
-            FutureTask<V> futureTask = new FutureTask<V>((Callable<V>) callable);
+            FutureTask<V> futureTask = new FutureTask<V>((Callable<V>) callable) {
+               @Override
+               protected void done() {
+                  completed();
+               }
+            };
             setFuture(futureTask);
             mapReduceManager.getExecutorService().submit(futureTask);
          } else {
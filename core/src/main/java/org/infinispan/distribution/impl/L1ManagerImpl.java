@@ -25,13 +25,17 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -53,6 +57,8 @@ public class L1ManagerImpl implements L1Manager, RemoteValueRetrievedListener {
    // TODO replace this with a custom, expirable collection
    private final ConcurrentMap<Object, ConcurrentMap<Address, Long>> requestors;
    private final ConcurrentMap<Object, L1WriteSynchronizer> synchronizers;
+   // The invalidations not sent yet, by origin
+   private final Map<Address, InvalidationBatch> pendingInvalidations = new HashMap<Address, InvalidationBatch>();
    private ScheduledExecutorService scheduledExecutor;
    private ScheduledFuture<?> scheduledRequestorsCleanupTask;
    private TimeService timeService;
@@ -146,32 +152,72 @@ public Future<Object> flushCache(Collection<Object> keys, Address origin, boolea
       int nodes = invalidationAddresses.size();
 
       if (nodes > 0) {
-         InvalidateCommand ic = commandsFactory.buildInvalidateFromL1Command(origin, InfinispanCollections.<Flag>emptySet(), keys);
-         final SingleRpcCommand rpcCommand = commandsFactory.buildSingleRpcCommand(ic);
-
          // No need to invalidate at all if there is no one to invalidate!
-         boolean multicast = isUseMulticast(nodes);
-         if (trace) log.tracef("Invalidating keys %s on nodes %s. Use multicast? %s", keys, invalidationAddresses, multicast);
+         return addToInvalidationBatch(keys, origin, invalidationAddresses);
+      } else {
+         if (trace) log.tracef("No L1 caches to invalidate for keys %s", keys);
+         return null;
+      }
+   }
+
+   /**
+    * Adds the keys to the batch waiting to be sent for the same origin, or starts a new batch if there is none.
+    * A batch is sent as soon as the executor runs it, so the invalidations are only coalesced while the executor is
+    * busy, and never delayed on purpose.
+    */
+   private Future<Object> addToInvalidationBatch(Collection<Object> keys, Address origin,
+                                                 Collection<Address> invalidationAddresses) {
+      InvalidationBatch batch;
+      boolean newBatch = false;
+      synchronized (pendingInvalidations) {
+         batch = pendingInvalidations.get(origin);
+         if (batch == null) {
+            batch = new InvalidationBatch(origin);
+            pendingInvalidations.put(origin, batch);
+            newBatch = true;
+         }
+         batch.keys.addAll(keys);
+         batch.addresses.addAll(invalidationAddresses);
+      }
+      if (newBatch) {
+         asyncTransportExecutor.execute(batch.future);
+      } else if (trace) {
+         log.tracef("Coalesced the invalidation of keys %s with a pending L1 invalidation", keys);
+      }
+      return batch.future;
+   }
+
+   private class InvalidationBatch implements Callable<Object> {
+      private final Address origin;
+      // Guarded by pendingInvalidations
+      private final Set<Object> keys = new HashSet<Object>();
+      private final Set<Address> addresses = new HashSet<Address>(2);
+      private final FutureTask<Object> future = new FutureTask<Object>(this);
+
+      InvalidationBatch(Address origin) {
+         this.origin = origin;
+      }
+
+      @Override
+      public Object call() throws Exception {
+         Collection<Object> batchKeys;
+         Collection<Address> batchAddresses;
+         synchronized (pendingInvalidations) {
+            pendingInvalidations.remove(origin);
+            batchKeys = new ArrayList<Object>(keys);
+            batchAddresses = new ArrayList<Address>(addresses);
+         }
+
+         InvalidateCommand ic = commandsFactory.buildInvalidateFromL1Command(origin, InfinispanCollections.<Flag>emptySet(), batchKeys);
+         SingleRpcCommand rpcCommand = commandsFactory.buildSingleRpcCommand(ic);
+         boolean multicast = isUseMulticast(batchAddresses.size());
+         if (trace) log.tracef("Invalidating keys %s on nodes %s. Use multicast? %s", batchKeys, batchAddresses, multicast);
 
-         Runnable toExecute;
          if (multicast) {
-            toExecute = new Runnable() {
-               @Override
-               public void run() {
-                  rpcManager.invokeRemotely(null, rpcCommand, syncIgnoreLeaversRpcOptions);
-               }
-            };
+            rpcManager.invokeRemotely(null, rpcCommand, syncIgnoreLeaversRpcOptions);
          } else {
-            toExecute = new Runnable() {
-               @Override
-               public void run() {
-                  rpcManager.invokeRemotely(invalidationAddresses, rpcCommand, syncIgnoreLeaversRpcOptions);
-               }
-            };
+            rpcManager.invokeRemotely(batchAddresses, rpcCommand, syncIgnoreLeaversRpcOptions);
          }
-         return (Future<Object>) asyncTransportExecutor.submit(toExecute);
-      } else {
-         if (trace) log.tracef("No L1 caches to invalidate for keys %s", keys);
          return null;
       }
    }
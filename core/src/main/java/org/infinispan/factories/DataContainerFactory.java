@@ -1,13 +1,26 @@
 package org.infinispan.factories;
 
+import java.util.Collections;
+
 import org.infinispan.commons.equivalence.AnyEquivalence;
 import org.infinispan.commons.equivalence.Equivalence;
 import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.configuration.cache.HashConfiguration;
+import org.infinispan.configuration.cache.L1Configuration;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.container.DefaultSegmentedDataContainer;
+import org.infinispan.container.compact.CompactDataContainer;
+import org.infinispan.container.offheap.OffHeapDataContainer;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.distribution.group.GroupManager;
+import org.infinispan.distribution.group.GroupingConsistentHash;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
 import org.infinispan.factories.annotations.DefaultFactoryFor;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.Transport;
+import org.infinispan.statetransfer.StateTransferManagerImpl;
 
 /**
  * Constructs the data container
@@ -30,10 +43,22 @@ public <T> T construct(Class<T> componentType) {
          int level = configuration.locking().concurrencyLevel();
          Equivalence keyEquivalence = configuration.dataContainer().keyEquivalence();
 
+         if (configuration.dataContainer().offHeap()) {
+            return (T) new OffHeapDataContainer(level, configuration.eviction().maxEntries(), st, keyEquivalence);
+         }
+         if (configuration.dataContainer().compact()) {
+            return (T) new CompactDataContainer(level, configuration.eviction().maxEntries(), st);
+         }
+         if (configuration.dataContainer().segmented()) {
+            return (T) new DefaultSegmentedDataContainer(level, keyEquivalence, createSegmentMapper());
+         }
+
+         DataContainer dataContainer;
          switch (st) {
             case NONE:
-               return (T) DefaultDataContainer.unBoundedDataContainer(
+               dataContainer = DefaultDataContainer.unBoundedDataContainer(
                      level, keyEquivalence);
+               break;
             case UNORDERED:
             case LRU:
             case FIFO:
@@ -41,18 +66,41 @@ public <T> T construct(Class<T> componentType) {
                int maxEntries = configuration.eviction().maxEntries();
                //handle case when < 0 value signifies unbounded container 
                if(maxEntries < 0) {
-                   return (T) DefaultDataContainer.unBoundedDataContainer(
+                   dataContainer = DefaultDataContainer.unBoundedDataContainer(
                          level, keyEquivalence);
+                   break;
                }
 
                EvictionThreadPolicy policy = configuration.eviction().threadPolicy();
 
-               return (T) DefaultDataContainer.boundedDataContainer(
+               dataContainer = DefaultDataContainer.boundedDataContainer(
                   level, maxEntries, st, policy, keyEquivalence);
+               break;
             default:
                throw new CacheConfigurationException("Unknown eviction strategy "
                         + configuration.eviction().strategy());
          }
+
+         L1Configuration l1 = configuration.clustering().l1();
+         if (l1.enabled() && l1.maxEntries() > 0) {
+            ((DefaultDataContainer) dataContainer).boundL1Entries(l1.maxEntries(), l1.evictionStrategy());
+         }
+         return (T) dataContainer;
       }
    }
+
+   /**
+    * The segment of a key doesn't depend on the members, so a consistent hash with only the local node maps the keys
+    * to the same segments as every consistent hash the cache will install.
+    */
+   @SuppressWarnings("unchecked")
+   private ConsistentHash createSegmentMapper() {
+      HashConfiguration hash = configuration.clustering().hash();
+      Transport transport = globalComponentRegistry.getComponent(Transport.class);
+      ConsistentHash ch = StateTransferManagerImpl.pickConsistentHashFactory(globalConfiguration, configuration)
+            .create(hash.hash(), hash.numOwners(), hash.numSegments(),
+                    Collections.<Address>singletonList(transport.getAddress()), null);
+      GroupManager groupManager = componentRegistry.getComponent(GroupManager.class);
+      return groupManager == null ? ch : new GroupingConsistentHash(ch, groupManager);
+   }
 }
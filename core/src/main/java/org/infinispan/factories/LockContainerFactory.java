@@ -2,6 +2,7 @@
 
 import org.infinispan.factories.annotations.DefaultFactoryFor;
 import org.infinispan.util.concurrent.locks.containers.LockContainer;
+import org.infinispan.util.concurrent.locks.containers.LockFreePerEntryLockContainer;
 import org.infinispan.util.concurrent.locks.containers.OwnableReentrantPerEntryLockContainer;
 import org.infinispan.util.concurrent.locks.containers.OwnableReentrantStripedLockContainer;
 import org.infinispan.util.concurrent.locks.containers.ReentrantPerEntryLockContainer;
@@ -25,8 +26,11 @@ public <T> T construct(Class<T> componentType) {
                                                                  configuration.dataContainer().keyEquivalence())
                   : new OwnableReentrantStripedLockContainer(configuration.locking().concurrencyLevel(),
                                                              configuration.dataContainer().keyEquivalence()) :
-            notTransactional ? new ReentrantPerEntryLockContainer(configuration.locking().concurrencyLevel(),
-                                                                  configuration.dataContainer().keyEquivalence())
+            notTransactional ? configuration.locking().useLockFreeContainer() ?
+                  new LockFreePerEntryLockContainer(configuration.locking().concurrencyLevel(),
+                                                    configuration.dataContainer().keyEquivalence())
+                  : new ReentrantPerEntryLockContainer(configuration.locking().concurrencyLevel(),
+                                                       configuration.dataContainer().keyEquivalence())
                   : new OwnableReentrantPerEntryLockContainer(configuration.locking().concurrencyLevel(),
                                                               configuration.dataContainer().keyEquivalence());
       return (T) lockContainer;
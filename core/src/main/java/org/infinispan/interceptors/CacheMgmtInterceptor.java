@@ -2,20 +2,26 @@
 
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.read.AbstractDataCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetCacheEntryCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.write.EvictCommand;
+import org.infinispan.commands.write.InvalidateL1Command;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commands.write.RemoveCommand;
 import org.infinispan.commands.write.ReplaceCommand;
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
+import org.infinispan.interceptors.base.InvocationStage;
 import org.infinispan.interceptors.base.JmxStatsCommandInterceptor;
+import org.infinispan.interceptors.base.StageAwareInterceptor;
+import org.infinispan.interceptors.locking.ClusteringDependentLogic;
 import org.infinispan.jmx.annotations.DisplayType;
 import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.jmx.annotations.ManagedAttribute;
@@ -40,7 +46,7 @@
  * @since 4.0
  */
 @MBean(objectName = "Statistics", description = "General statistics such as timings, hit/miss ratio, etc.")
-public class CacheMgmtInterceptor extends JmxStatsCommandInterceptor {
+public class CacheMgmtInterceptor extends JmxStatsCommandInterceptor implements StageAwareInterceptor {
    private final LongAdder hitTimes = new LongAdder();
    private final LongAdder missTimes = new LongAdder();
    private final LongAdder storeTimes = new LongAdder();
@@ -53,9 +59,14 @@ public class CacheMgmtInterceptor extends JmxStatsCommandInterceptor {
    private final AtomicLong resetNanoseconds = new AtomicLong(0);
    private final LongAdder removeHits = new LongAdder();
    private final LongAdder removeMisses = new LongAdder();
+   private final LongAdder l1Hits = new LongAdder();
+   private final LongAdder l1Misses = new LongAdder();
+   private final LongAdder l1Invalidations = new LongAdder();
 
    private DataContainer dataContainer;
    private TimeService timeService;
+   private ClusteringDependentLogic clusteringDependentLogic;
+   private boolean l1Enabled;
 
    private static final Log log = LogFactory.getLog(CacheMgmtInterceptor.class);
 
@@ -66,13 +77,16 @@ protected Log getLog() {
 
    @Inject
    @SuppressWarnings("unused")
-   public void setDependencies(DataContainer dataContainer, TimeService timeService) {
+   public void setDependencies(DataContainer dataContainer, TimeService timeService,
+                               ClusteringDependentLogic clusteringDependentLogic) {
       this.dataContainer = dataContainer;
       this.timeService = timeService;
+      this.clusteringDependentLogic = clusteringDependentLogic;
    }
 
    @Start
    public void start() {
+      l1Enabled = cacheConfiguration.clustering().l1().enabled();
       startNanoseconds.set(timeService.time());
       resetNanoseconds.set(startNanoseconds.get());
    }
@@ -86,6 +100,15 @@ public Object visitEvictCommand(InvocationContext ctx, EvictCommand command) thr
       return returnValue;
    }
 
+   @Override
+   public Object visitInvalidateL1Command(InvocationContext ctx, InvalidateL1Command command) throws Throwable {
+      Object returnValue = invokeNextInterceptor(ctx, command);
+      if (getStatisticsEnabled(command))
+         l1Invalidations.add(command.getKeys().length);
+
+      return returnValue;
+   }
+
    @Override
    public final Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand command) throws Throwable {
       return visitDataReadCommand(ctx, command);
@@ -94,11 +117,44 @@ public final Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCo
    public final Object visitGetCacheEntryCommand(InvocationContext ctx, GetCacheEntryCommand command) throws Throwable {
       return visitDataReadCommand(ctx, command);
    }
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      long start = 0;
+      boolean statisticsEnabled = getStatisticsEnabled(command);
+      if (statisticsEnabled) {
+         start = timeService.time();
+         if (l1Enabled && ctx.isOriginLocal()) {
+            for (Object key : command.getKeys()) {
+               recordL1Access(key);
+            }
+         }
+      }
+
+      Map<?, ?> retval = (Map<?, ?>) invokeNextInterceptor(ctx, command);
+
+      if (statisticsEnabled && ctx.isOriginLocal()) {
+         long intervalMilliseconds = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
+         int requests = command.getKeys().size();
+         int found = retval.size();
+         // split the invocation time between hits and misses proportionally to the number of keys
+         long hitMilliseconds = requests == 0 ? 0 : intervalMilliseconds * found / requests;
+         hits.add(found);
+         hitTimes.add(hitMilliseconds);
+         misses.add(requests - found);
+         missTimes.add(intervalMilliseconds - hitMilliseconds);
+      }
+
+      return retval;
+   }
+
    private Object visitDataReadCommand(InvocationContext ctx, AbstractDataCommand command) throws Throwable {
       long start = 0;
       boolean statisticsEnabled = getStatisticsEnabled(command);
-      if (statisticsEnabled)
+      if (statisticsEnabled) {
          start = timeService.time();
+         if (l1Enabled && ctx.isOriginLocal())
+            recordL1Access(command.getKey());
+      }
 
       Object retval = invokeNextInterceptor(ctx, command);
 
@@ -118,6 +174,20 @@ private Object visitDataReadCommand(InvocationContext ctx, AbstractDataCommand c
       return retval;
    }
 
+   /**
+    * A read of a key owned by another node is an L1 hit if the L1 cache has a valid entry for it before the read.
+    */
+   private void recordL1Access(Object key) {
+      if (clusteringDependentLogic.localNodeIsOwner(key))
+         return;
+      InternalCacheEntry ice = dataContainer.peek(key);
+      if (ice != null && ice.isL1Entry() && !ice.isExpired(timeService.wallClockTime())) {
+         l1Hits.increment();
+      } else {
+         l1Misses.increment();
+      }
+   }
+
    @Override
    public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) throws Throwable {
       long start = 0;
@@ -150,32 +220,63 @@ public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command)
       return updateStoreStatistics(ctx, command);
    }
 
-   private Object updateStoreStatistics(InvocationContext ctx, WriteCommand command) throws Throwable {
+   private Object updateStoreStatistics(final InvocationContext ctx, final WriteCommand command) throws Throwable {
       long start = 0;
-      boolean statisticsEnabled = getStatisticsEnabled(command);
+      final boolean statisticsEnabled = getStatisticsEnabled(command);
       if (statisticsEnabled)
          start = timeService.time();
 
       Object retval = invokeNextInterceptor(ctx, command);
 
+      if (retval instanceof InvocationStage) {
+         final long startTime = start;
+         return ((InvocationStage) retval).thenHandle(new InvocationStage.Handler() {
+            @Override
+            public Object handle(Object result, Throwable throwable) throws Throwable {
+               if (throwable != null) throw throwable;
+               recordStore(ctx, command, statisticsEnabled, startTime);
+               return result;
+            }
+         });
+      }
+      recordStore(ctx, command, statisticsEnabled, start);
+      return retval;
+   }
+
+   private void recordStore(InvocationContext ctx, WriteCommand command, boolean statisticsEnabled, long start) {
       if (statisticsEnabled && ctx.isOriginLocal() && command.isSuccessful()) {
          long intervalMilliseconds = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
          storeTimes.add(intervalMilliseconds);
          stores.increment();
       }
-
-      return retval;
    }
 
    @Override
-   public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
+   public Object visitRemoveCommand(final InvocationContext ctx, final RemoveCommand command) throws Throwable {
       long start = 0;
-      boolean statisticsEnabled = getStatisticsEnabled(command);
+      final boolean statisticsEnabled = getStatisticsEnabled(command);
       if (statisticsEnabled)
          start = timeService.time();
 
       Object retval = invokeNextInterceptor(ctx, command);
 
+      if (retval instanceof InvocationStage) {
+         final long startTime = start;
+         return ((InvocationStage) retval).thenHandle(new InvocationStage.Handler() {
+            @Override
+            public Object handle(Object result, Throwable throwable) throws Throwable {
+               if (throwable != null) throw throwable;
+               recordRemove(ctx, command, statisticsEnabled, startTime, result);
+               return result;
+            }
+         });
+      }
+      recordRemove(ctx, command, statisticsEnabled, start, retval);
+      return retval;
+   }
+
+   private void recordRemove(InvocationContext ctx, RemoveCommand command, boolean statisticsEnabled, long start,
+                             Object retval) {
       if (statisticsEnabled && ctx.isOriginLocal()) {
          if (command.isConditional()) {
             if (command.isSuccessful())
@@ -189,8 +290,6 @@ public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) t
                increaseRemoveHits(start);
          }
       }
-
-      return retval;
    }
 
    private void increaseRemoveHits(long start) {
@@ -335,6 +434,64 @@ public long getAverageRemoveTime() {
       return (removeTimes.sum()) / removes;
    }
 
+   @ManagedAttribute(
+         description = "Number of reads of keys owned by other nodes found in the L1 cache",
+         displayName = "Number of L1 hits",
+         measurementType = MeasurementType.TRENDSUP,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getL1Hits() {
+      return l1Hits.sum();
+   }
+
+   @ManagedAttribute(
+         description = "Number of reads of keys owned by other nodes not found in the L1 cache",
+         displayName = "Number of L1 misses",
+         measurementType = MeasurementType.TRENDSUP,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getL1Misses() {
+      return l1Misses.sum();
+   }
+
+   @ManagedAttribute(
+         description = "Percentage hit/(hit+miss) ratio for the L1 cache",
+         displayName = "L1 hit ratio",
+         units = Units.PERCENTAGE,
+         displayType = DisplayType.SUMMARY
+   )
+   @SuppressWarnings("unused")
+   public double getL1HitRatio() {
+      long hitsL = l1Hits.sum();
+      double total = hitsL + l1Misses.sum();
+      if (total <= 0)
+         return 0;
+      return (hitsL / total);
+   }
+
+   @ManagedAttribute(
+         description = "Number of keys invalidated in the L1 cache by their owners",
+         displayName = "Number of L1 invalidations",
+         measurementType = MeasurementType.TRENDSUP,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getL1Invalidations() {
+      return l1Invalidations.sum();
+   }
+
+   @ManagedAttribute(
+         description = "Average number of keys invalidated in the L1 cache per second since the statistics were reset",
+         displayName = "L1 invalidation rate",
+         displayType = DisplayType.SUMMARY
+   )
+   @SuppressWarnings("unused")
+   public double getL1InvalidationRate() {
+      long seconds = getTimeSinceReset();
+      if (seconds == 0)
+         return 0;
+      return (double) l1Invalidations.sum() / seconds;
+   }
+
    @ManagedAttribute(
          description = "Number of entries currently in the cache",
          displayName = "Number of current cache entries",
@@ -382,6 +539,9 @@ public void resetStatistics() {
       removeHits.reset();
       removeTimes.reset();
       removeMisses.reset();
+      l1Hits.reset();
+      l1Misses.reset();
+      l1Invalidations.reset();
       resetNanoseconds.set(timeService.time());
    }
 
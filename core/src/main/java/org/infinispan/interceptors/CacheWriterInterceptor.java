@@ -27,6 +27,8 @@
 import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.manager.PersistenceManager.AccessMode;
+import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.marshall.core.MarshalledEntryImpl;
 import org.infinispan.metadata.EmbeddedMetadata;
 import org.infinispan.metadata.Metadata;
@@ -39,6 +41,9 @@
 import javax.transaction.Transaction;
 import javax.transaction.TransactionManager;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
@@ -192,11 +197,13 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) t
       if (!isStoreEnabled(command) || ctx.isInTxScope()) return returnValue;
 
       Map<Object, Object> map = command.getMap();
+      StoreBatch batch = new StoreBatch();
       for (Object key : map.keySet()) {
          if (isProperWriter(ctx, command, key)) {
-            storeEntry(ctx, key, command);
+            batchEntry(batch, ctx, key, command);
          }
       }
+      batch.flush();
       if (getStatisticsEnabled()) cacheStores.getAndAdd(map.size());
       return returnValue;
    }
@@ -216,6 +223,7 @@ protected final void store(TxInvocationContext ctx) throws Throwable {
             cacheCommand.acceptVisitor(ctx, modsBuilder);
          }
       }
+      modsBuilder.flush();
       if (getStatisticsEnabled() && modsBuilder.putCount > 0) {
          cacheStores.getAndAdd(modsBuilder.putCount);
       }
@@ -243,12 +251,20 @@ protected boolean isProperWriter(InvocationContext ctx, FlagAffectedCommand comm
    public class Updater extends AbstractVisitor {
 
       protected final boolean generateStatistics;
+      protected final StoreBatch batch = new StoreBatch();
       int putCount;
 
       public Updater(boolean generateStatistics) {
          this.generateStatistics = generateStatistics;
       }
 
+      /**
+       * Writes the modifications collected so far to the stores.
+       */
+      public void flush() {
+         batch.flush();
+      }
+
       @Override
       public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command) throws Throwable {
          return visitSingleStore(ctx, command, command.getKey());
@@ -269,7 +285,7 @@ public Object visitApplyDeltaCommand(InvocationContext ctx, ApplyDeltaCommand co
                ice = entryFactory.create(entry);
             }
             MarshalledEntryImpl marshalledEntry = new MarshalledEntryImpl(ice.getKey(), ice.getValue(), internalMetadata(ice), marshaller);
-            persistenceManager.writeToAllStores(marshalledEntry, command.hasFlag(Flag.SKIP_SHARED_CACHE_STORE) ? PRIVATE : BOTH);
+            batch.write(marshalledEntry, command.hasFlag(Flag.SKIP_SHARED_CACHE_STORE) ? PRIVATE : BOTH);
          }
          return null;
       }
@@ -291,13 +307,14 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) t
       public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
          Object key = command.getKey();
          if (isProperWriter(ctx, command, key)) {
-            persistenceManager.deleteFromAllStores(key, BOTH);
+            batch.delete(key, BOTH);
          }
          return null;
       }
 
       @Override
       public Object visitClearCommand(InvocationContext ctx, ClearCommand command) throws Throwable {
+         batch.flush();
          persistenceManager.clearAllStores(ctx.isOriginLocal() ? PRIVATE : BOTH);
          return null;
       }
@@ -307,7 +324,7 @@ protected Object visitSingleStore(InvocationContext ctx, FlagAffectedCommand com
             if (generateStatistics) putCount++;
             InternalCacheValue sv = getStoredValue(key, ctx);
             MarshalledEntryImpl me = new MarshalledEntryImpl(key, sv.getValue(), internalMetadata(sv), marshaller);
-            persistenceManager.writeToAllStores(me, command.hasFlag(Flag.SKIP_SHARED_CACHE_STORE) ? PRIVATE : BOTH);
+            batch.write(me, command.hasFlag(Flag.SKIP_SHARED_CACHE_STORE) ? PRIVATE : BOTH);
          }
          return null;
       }
@@ -338,6 +355,64 @@ void storeEntry(InvocationContext ctx, Object key, FlagAffectedCommand command)
       if (getLog().isTraceEnabled()) getLog().tracef("Stored entry %s under key %s", sv, key);
    }
 
+   void batchEntry(StoreBatch batch, InvocationContext ctx, Object key, FlagAffectedCommand command) {
+      InternalCacheValue sv = getStoredValue(key, ctx);
+      batch.write(new MarshalledEntryImpl(key, sv.getValue(), internalMetadata(sv), marshaller),
+                  skipSharedStores(ctx, key, command) ? PRIVATE : BOTH);
+      if (getLog().isTraceEnabled()) getLog().tracef("Batched entry %s under key %s", sv, key);
+   }
+
+   /**
+    * Collects the entries written or removed by a multi-key operation, so that they reach the stores with one
+    * {@link PersistenceManager#writeBatchToAllStores(Iterable, AccessMode)} and one
+    * {@link PersistenceManager#deleteBatchFromAllStores(Iterable, AccessMode)} call per access mode.
+    * <p/>
+    * Only the last modification of a key is kept. If a key is modified again with a different access mode, the
+    * pending modifications are flushed first so the stores see the same sequence of updates.
+    */
+   protected class StoreBatch {
+      // a null value means the key was removed
+      private final Map<Object, MarshalledEntry> pending = new LinkedHashMap<Object, MarshalledEntry>();
+      private final Map<Object, AccessMode> modes = new HashMap<Object, AccessMode>();
+
+      public void write(MarshalledEntry entry, AccessMode mode) {
+         add(entry.getKey(), entry, mode);
+      }
+
+      public void delete(Object key, AccessMode mode) {
+         add(key, null, mode);
+      }
+
+      private void add(Object key, MarshalledEntry entry, AccessMode mode) {
+         AccessMode previous = modes.get(key);
+         if (previous != null && previous != mode) {
+            flush();
+         }
+         modes.put(key, mode);
+         pending.put(key, entry);
+      }
+
+      public void flush() {
+         if (pending.isEmpty()) return;
+         for (AccessMode mode : AccessMode.values()) {
+            List<MarshalledEntry> writes = new ArrayList<MarshalledEntry>();
+            List<Object> deletes = new ArrayList<Object>();
+            for (Map.Entry<Object, MarshalledEntry> e : pending.entrySet()) {
+               if (modes.get(e.getKey()) != mode) continue;
+               if (e.getValue() != null) {
+                  writes.add(e.getValue());
+               } else {
+                  deletes.add(e.getKey());
+               }
+            }
+            if (!writes.isEmpty()) persistenceManager.writeBatchToAllStores(writes, mode);
+            if (!deletes.isEmpty()) persistenceManager.deleteBatchFromAllStores(deletes, mode);
+         }
+         pending.clear();
+         modes.clear();
+      }
+   }
+
    protected boolean skipSharedStores(InvocationContext ctx, Object key, FlagAffectedCommand command) {
       return !ctx.isOriginLocal() || command.hasFlag(Flag.SKIP_SHARED_CACHE_STORE);
    }
@@ -4,6 +4,7 @@
 import org.infinispan.commands.VisitableCommand;
 import org.infinispan.commands.control.LockControlCommand;
 import org.infinispan.commands.read.AbstractDataCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetCacheEntryCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.tx.CommitCommand;
@@ -14,10 +15,13 @@
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.base.StageAwareInterceptor;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.Map;
+
 /**
  * Always at the end of the chain, directly in front of the cache. Simply calls into the cache using reflection. If the
  * call resulted in a modification, add the Modification to the end of the modification list keyed by the current
@@ -27,7 +31,7 @@
  * @author Mircea.Markus@jboss.com
  * @since 4.0
  */
-public class CallInterceptor extends CommandInterceptor {
+public class CallInterceptor extends CommandInterceptor implements StageAwareInterceptor {
 
    private static final Log log = LogFactory.getLog(CallInterceptor.class);
    private static final boolean trace = log.isTraceEnabled();
@@ -87,6 +91,18 @@ public Object visitGetCacheEntryCommand(InvocationContext ctx, GetCacheEntryComm
       return ret;
    }
 
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      if (trace) log.trace("Executing command: " + command + ".");
+      Map<Object, Object> ret = command.perform(ctx);
+      for (Map.Entry<Object, Object> entry : ret.entrySet()) {
+         Object value = command.isReturnEntries() ? ((CacheEntry) entry.getValue()).getValue() : entry.getValue();
+         notifier.notifyCacheEntryVisited(entry.getKey(), value, true, ctx, command);
+         notifier.notifyCacheEntryVisited(entry.getKey(), value, false, ctx, command);
+      }
+      return ret;
+   }
+
    private void notifyCacheEntryVisit(InvocationContext ctx, AbstractDataCommand command, Object value) {
       Object key = command.getKey();
       notifier.notifyCacheEntryVisited(key, value, true, ctx, command);
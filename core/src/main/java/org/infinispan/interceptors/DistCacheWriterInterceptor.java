@@ -85,6 +85,7 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) t
       if (!isStoreEnabled(command) || ctx.isInTxScope()) return returnValue;
 
       Map<Object, Object> map = command.getMap();
+      StoreBatch batch = new StoreBatch();
       int count = 0;
       for (Object key : map.keySet()) {
          // In non-tx mode, a node may receive the same forwarded PutMapCommand many times - but each time
@@ -93,10 +94,11 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) t
             continue;
 
          if (isProperWriter(ctx, command, key)) {
-            storeEntry(ctx, key, command);
+            batchEntry(batch, ctx, key, command);
             count++;
          }
       }
+      batch.flush();
       if (getStatisticsEnabled()) cacheStores.getAndAdd(count);
       return returnValue;
    }
@@ -5,6 +5,7 @@
 import org.infinispan.commands.DataCommand;
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.read.AbstractDataCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetCacheEntryCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.remote.GetKeysInGroupCommand;
@@ -32,12 +33,15 @@
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.distribution.group.GroupFilter;
 import org.infinispan.distribution.group.GroupManager;
+import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.filter.CollectionKeyFilter;
 import org.infinispan.filter.CompositeKeyFilter;
 import org.infinispan.filter.KeyFilter;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.base.InvocationStage;
+import org.infinispan.interceptors.base.StageAwareInterceptor;
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.statetransfer.OutdatedTopologyException;
@@ -51,8 +55,10 @@
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import static org.infinispan.commons.util.Util.toStr;
+import static org.infinispan.factories.KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR;
 
 /**
  * Interceptor in charge with wrapping entries and add them in caller's context.
@@ -61,7 +67,7 @@
  * @author Pedro Ruivo
  * @since 5.1
  */
-public class EntryWrappingInterceptor extends CommandInterceptor {
+public class EntryWrappingInterceptor extends CommandInterceptor implements StageAwareInterceptor {
 
    private EntryFactory entryFactory;
    protected DataContainer<Object, Object> dataContainer;
@@ -74,6 +80,7 @@ public class EntryWrappingInterceptor extends CommandInterceptor {
    private StateTransferLock stateTransferLock;
    private XSiteStateConsumer xSiteStateConsumer;
    private GroupManager groupManager;
+   private ExecutorService asyncExecutor;
 
    private static final Log log = LogFactory.getLog(EntryWrappingInterceptor.class);
    private static final boolean trace = log.isTraceEnabled();
@@ -86,7 +93,8 @@ protected Log getLog() {
    @Inject
    public void init(EntryFactory entryFactory, DataContainer dataContainer, ClusteringDependentLogic cdl,
                     CommandsFactory commandFactory, StateConsumer stateConsumer, StateTransferLock stateTransferLock,
-                    XSiteStateConsumer xSiteStateConsumer, GroupManager groupManager) {
+                    XSiteStateConsumer xSiteStateConsumer, GroupManager groupManager,
+                    @ComponentName(ASYNC_TRANSPORT_EXECUTOR) ExecutorService asyncExecutor) {
       this.entryFactory = entryFactory;
       this.dataContainer = dataContainer;
       this.cdl = cdl;
@@ -95,6 +103,7 @@ public void init(EntryFactory entryFactory, DataContainer dataContainer, Cluster
       this.stateTransferLock = stateTransferLock;
       this.xSiteStateConsumer = xSiteStateConsumer;
       this.groupManager = groupManager;
+      this.asyncExecutor = asyncExecutor;
    }
 
    @Start
@@ -133,6 +142,28 @@ public final Object visitGetCacheEntryCommand(InvocationContext ctx, GetCacheEnt
       return visitDataReadCommand(ctx, command);
    }
 
+   @Override
+   public final Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      try {
+         for (Object key : command.getKeys()) {
+            entryFactory.wrapEntryForReading(ctx, key, null);
+         }
+         return invokeNextInterceptor(ctx, command);
+      } finally {
+         //needed because entries might be added in L1
+         if (!ctx.isInTxScope())
+            commitContextEntries(ctx, command, null);
+         else {
+            for (Object key : command.getKeys()) {
+               CacheEntry entry = ctx.lookupEntry(key);
+               if (entry != null) {
+                  entry.setSkipLookup(true);
+               }
+            }
+         }
+      }
+   }
+
    private final Object visitDataReadCommand(InvocationContext ctx, AbstractDataCommand command) throws Throwable {
       try {
          entryFactory.wrapEntryForReading(ctx, command.getKey(), null);
@@ -382,9 +413,25 @@ private void stopStateTransferIfNeeded(InvocationContext context, FlagAffectedCo
       }
    }
 
-   private Object invokeNextAndApplyChanges(InvocationContext ctx, FlagAffectedCommand command, Metadata metadata) throws Throwable {
+   private Object invokeNextAndApplyChanges(final InvocationContext ctx, final FlagAffectedCommand command,
+                                            final Metadata metadata) throws Throwable {
       final Object result = invokeNextInterceptor(ctx, command);
 
+      if (result instanceof InvocationStage) {
+         // Acquiring the topology lock could block the thread completing the stage
+         return ((InvocationStage) result).thenHandleAsync(new InvocationStage.Handler() {
+            @Override
+            public Object handle(Object stageResult, Throwable throwable) throws Throwable {
+               if (throwable != null) throw throwable;
+               return applyChanges(ctx, command, metadata, stageResult);
+            }
+         }, asyncExecutor);
+      }
+      return applyChanges(ctx, command, metadata, result);
+   }
+
+   private Object applyChanges(InvocationContext ctx, FlagAffectedCommand command, Metadata metadata,
+                               Object result) {
       if (!ctx.isInTxScope()) {
          stateTransferLock.acquireSharedTopologyLock();
          try {
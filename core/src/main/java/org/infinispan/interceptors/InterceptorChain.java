@@ -13,6 +13,7 @@
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.base.StageAwareInterceptor;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -345,6 +346,21 @@ public Object invoke(InvocationContext ctx, VisitableCommand command) {
       }
    }
 
+   /**
+    * @return true if all the interceptors accept an {@link org.infinispan.interceptors.base.InvocationStage} as the result of the next interceptor, so
+    *         that commands can be invoked in non-blocking mode.
+    * @see org.infinispan.context.InvocationContext#setNonBlocking(boolean)
+    */
+   public boolean isStageAware() {
+      CommandInterceptor it = firstInChain;
+      while (it != null) {
+         if (!(it instanceof StageAwareInterceptor))
+            return false;
+         it = it.getNext();
+      }
+      return true;
+   }
+
    /**
     * @return the first interceptor in the chain.
     */
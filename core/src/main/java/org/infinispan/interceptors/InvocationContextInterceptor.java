@@ -15,6 +15,8 @@
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.interceptors.base.CommandInterceptor;
+import org.infinispan.interceptors.base.InvocationStage;
+import org.infinispan.interceptors.base.StageAwareInterceptor;
 import org.infinispan.lifecycle.ComponentStatus;
 import org.infinispan.manager.CacheContainer;
 import org.infinispan.statetransfer.OutdatedTopologyException;
@@ -32,7 +34,7 @@
  * @author Mircea.Markus@jboss.com
  * @author Galder Zamarreño
  */
-public class InvocationContextInterceptor extends CommandInterceptor {
+public class InvocationContextInterceptor extends CommandInterceptor implements StageAwareInterceptor {
 
    private TransactionManager tm;
    private ComponentRegistry componentRegistry;
@@ -77,7 +79,7 @@ public Object visitLockControlCommand(TxInvocationContext ctx, LockControlComman
       return retval == null ? false : retval;
    }
 
-   private Object handleAll(InvocationContext ctx, VisitableCommand command) throws Throwable {
+   private Object handleAll(final InvocationContext ctx, final VisitableCommand command) throws Throwable {
       try {
          ComponentStatus status = componentRegistry.getStatus();
          if (command.ignoreCommandOnStatus(status)) {
@@ -99,37 +101,18 @@ private Object handleAll(InvocationContext ctx, VisitableCommand command) throws
             if (ctx == null) throw new IllegalStateException("Null context not allowed!!");
 
             try {
-               return invokeNextInterceptor(ctx, command);
-            } catch (InvalidCacheUsageException ex) {
-               throw ex; // Propagate back client usage errors regardless of flag
-            } catch (Throwable th) {
-               // Only check for fail silently if there's a failure :)
-               boolean suppressExceptions = (command instanceof FlagAffectedCommand)
-                     && ((FlagAffectedCommand) command).hasFlag(Flag.FAIL_SILENTLY);
-               // If we are shutting down there is every possibility that the invocation fails.
-               suppressExceptions = suppressExceptions || shuttingDown;
-               if (suppressExceptions) {
-                  if (shuttingDown)
-                     log.trace("Exception while executing code, but we're shutting down so failing silently.", th);
-                  else
-                     log.trace("Exception while executing code, failing silently...", th);
-                  return null;
-               } else {
-                  if (th instanceof WriteSkewException) {
-                     // We log this as DEBUG rather than ERROR - see ISPN-2076
-                     log.debug("Exception executing call", th);
-                  } else if (th instanceof OutdatedTopologyException) {
-                     log.outdatedTopology(th);
-                  } else {
-                     log.executionError(th);
-                  }
-                  if (ctx.isInTxScope() && ctx.isOriginLocal()) {
-                     if (trace) log.trace("Transaction marked for rollback as exception was received.");
-                     markTxForRollbackAndRethrow(ctx, th);
-                     throw new IllegalStateException("This should not be reached");
-                  }
-                  throw th;
+               Object retval = invokeNextInterceptor(ctx, command);
+               if (retval instanceof InvocationStage) {
+                  return ((InvocationStage) retval).thenHandle(new InvocationStage.Handler() {
+                     @Override
+                     public Object handle(Object result, Throwable throwable) throws Throwable {
+                        return throwable == null ? result : handleException(ctx, command, throwable);
+                     }
+                  });
                }
+               return retval;
+            } catch (Throwable th) {
+               return handleException(ctx, command, th);
             }
          } finally {
             LogFactory.popNDC(trace);
@@ -139,6 +122,39 @@ private Object handleAll(InvocationContext ctx, VisitableCommand command) throws
       }
    }
 
+   private Object handleException(InvocationContext ctx, VisitableCommand command, Throwable th) throws Throwable {
+      if (th instanceof InvalidCacheUsageException) {
+         throw th; // Propagate back client usage errors regardless of flag
+      }
+      // Only check for fail silently if there's a failure :)
+      boolean suppressExceptions = (command instanceof FlagAffectedCommand)
+            && ((FlagAffectedCommand) command).hasFlag(Flag.FAIL_SILENTLY);
+      // If we are shutting down there is every possibility that the invocation fails.
+      suppressExceptions = suppressExceptions || shuttingDown;
+      if (suppressExceptions) {
+         if (shuttingDown)
+            log.trace("Exception while executing code, but we're shutting down so failing silently.", th);
+         else
+            log.trace("Exception while executing code, failing silently...", th);
+         return null;
+      } else {
+         if (th instanceof WriteSkewException) {
+            // We log this as DEBUG rather than ERROR - see ISPN-2076
+            log.debug("Exception executing call", th);
+         } else if (th instanceof OutdatedTopologyException) {
+            log.outdatedTopology(th);
+         } else {
+            log.executionError(th);
+         }
+         if (ctx.isInTxScope() && ctx.isOriginLocal()) {
+            if (trace) log.trace("Transaction marked for rollback as exception was received.");
+            markTxForRollbackAndRethrow(ctx, th);
+            throw new IllegalStateException("This should not be reached");
+         }
+         throw th;
+      }
+   }
+
    private String getCacheNamePrefix() {
       String cacheName = componentRegistry.getCacheName();
       String prefix = "Cache '" + cacheName + "'";
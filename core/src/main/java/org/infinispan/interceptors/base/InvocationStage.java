@@ -0,0 +1,116 @@
+package org.infinispan.interceptors.base;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.infinispan.commons.util.concurrent.CompletableNotifyingFuture;
+import org.infinispan.commons.util.concurrent.FutureListener;
+
+/**
+ * The pending result of a command, returned instead of the actual result by an interceptor that is waiting for a
+ * remote invocation and doesn't want to block the invoking thread.
+ * <p/>
+ * Only returned when the {@link org.infinispan.context.InvocationContext#isNonBlocking()} flag is set, in which case
+ * every interceptor in the chain is a {@link StageAwareInterceptor}. An interceptor that needs to do something with
+ * the result of the next interceptor must check whether it is an {@code InvocationStage}, and if it is, it must
+ * return the stage created by {@link #thenHandle(Handler)} instead.
+ * <p/>
+ * The handlers are invoked by the thread completing the stage, usually a transport thread, so they must not block.
+ * Handlers that may block must be registered with {@link #thenHandleAsync(Handler, Executor)}.
+ *
+ * @since 7.2
+ */
+public class InvocationStage extends CompletableNotifyingFuture<Object> {
+
+   /**
+    * Continues the invocation once the previous stage is completed.
+    */
+   public interface Handler {
+      /**
+       * @param result    the result of the previous stage, if it was successful
+       * @param throwable the exception of the previous stage, or {@code null} if it was successful
+       * @return the result of this stage, which can be another {@code InvocationStage}
+       * @throws Throwable to complete this stage exceptionally
+       */
+      Object handle(Object result, Throwable throwable) throws Throwable;
+   }
+
+   /**
+    * @return a new stage, completed with the result of {@code handler} once this stage is completed
+    */
+   public InvocationStage thenHandle(final Handler handler) {
+      final InvocationStage next = new InvocationStage();
+      attachListener(new FutureListener<Object>() {
+         @Override
+         public void futureDone(Future<Object> future) {
+            handle(future, handler, next);
+         }
+      });
+      return next;
+   }
+
+   /**
+    * Like {@link #thenHandle(Handler)}, but {@code handler} is invoked by {@code executor} instead of the thread
+    * completing this stage, so it may block.
+    */
+   public InvocationStage thenHandleAsync(final Handler handler, final Executor executor) {
+      final InvocationStage next = new InvocationStage();
+      attachListener(new FutureListener<Object>() {
+         @Override
+         public void futureDone(final Future<Object> future) {
+            try {
+               executor.execute(new Runnable() {
+                  @Override
+                  public void run() {
+                     handle(future, handler, next);
+                  }
+               });
+            } catch (RejectedExecutionException e) {
+               next.completeExceptionally(e);
+            }
+         }
+      });
+      return next;
+   }
+
+   private static void handle(Future<Object> future, Handler handler, InvocationStage next) {
+      Object result = null;
+      Throwable throwable = null;
+      try {
+         result = future.get();
+      } catch (ExecutionException e) {
+         throwable = e.getCause();
+      } catch (Throwable t) {
+         throwable = t;
+      }
+      try {
+         next.completeWith(handler.handle(result, throwable));
+      } catch (Throwable t) {
+         next.completeExceptionally(t);
+      }
+   }
+
+   /**
+    * Completes this stage with {@code result}, or with the result of {@code result} if it is another stage.
+    */
+   public void completeWith(Object result) {
+      if (result instanceof InvocationStage) {
+         ((InvocationStage) result).attachListener(new FutureListener<Object>() {
+            @Override
+            public void futureDone(Future<Object> future) {
+               try {
+                  complete(future.get());
+               } catch (ExecutionException e) {
+                  completeExceptionally(e.getCause());
+               } catch (Throwable t) {
+                  completeExceptionally(t);
+               }
+            }
+         });
+      } else {
+         complete(result);
+      }
+   }
+}
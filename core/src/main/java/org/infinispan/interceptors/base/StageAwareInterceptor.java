@@ -0,0 +1,12 @@
+package org.infinispan.interceptors.base;
+
+/**
+ * Marks an interceptor that accepts an {@link InvocationStage} as the result of the next interceptor, and doesn't
+ * touch the invocation context or the command after returning it.
+ * <p/>
+ * Commands are only invoked in non-blocking mode if all the interceptors in the chain implement this interface.
+ *
+ * @since 7.2
+ */
+public interface StageAwareInterceptor {
+}
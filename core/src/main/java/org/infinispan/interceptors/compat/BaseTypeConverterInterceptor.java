@@ -2,6 +2,7 @@
 
 import org.infinispan.commands.MetadataAwareCommand;
 import org.infinispan.commands.read.EntryRetrievalCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetCacheEntryCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
@@ -12,6 +13,7 @@
 import org.infinispan.compat.TypeConverter;
 import org.infinispan.container.InternalEntryFactory;
 import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.versioning.VersionGenerator;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
@@ -19,8 +21,15 @@
 import org.infinispan.filter.Converter;
 import org.infinispan.interceptors.base.CommandInterceptor;
 import org.infinispan.iteration.EntryIterable;
+import org.infinispan.iteration.EntryReducer;
+import org.infinispan.iteration.impl.LocalEntryRetriever;
 import org.infinispan.metadata.Metadata;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -104,6 +113,41 @@ public Object visitGetCacheEntryCommand(InvocationContext ctx, GetCacheEntryComm
       return null;
    }
 
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      TypeConverter<Object, Object, Object, Object> converter =
+            determineTypeConverter(command.getFlags());
+      Map<Object, Object> originalKeys = null;
+      if (ctx.isOriginLocal()) {
+         List<Object> boxedKeys = new ArrayList<Object>(command.getKeys().size());
+         originalKeys = new HashMap<Object, Object>(command.getKeys().size());
+         for (Object key : command.getKeys()) {
+            Object boxedKey = converter.boxKey(key);
+            boxedKeys.add(boxedKey);
+            originalKeys.put(boxedKey, key);
+         }
+         command.setKeys(boxedKeys);
+      }
+      @SuppressWarnings("unchecked")
+      Map<Object, Object> ret = (Map<Object, Object>) invokeNextInterceptor(ctx, command);
+      Map<Object, InternalCacheEntry> remotelyFetched = command.getRemotelyFetched();
+      Map<Object, Object> converted = new LinkedHashMap<Object, Object>(ret.size());
+      for (Map.Entry<Object, Object> entry : ret.entrySet()) {
+         Object key = originalKeys != null ? originalKeys.get(entry.getKey()) : entry.getKey();
+         // values fetched from a remote node have already been unboxed by the remote node
+         boolean unbox = remotelyFetched == null || !remotelyFetched.containsKey(entry.getKey());
+         if (command.isReturnEntries()) {
+            CacheEntry cacheEntry = (CacheEntry) entry.getValue();
+            Object value = unbox ? converter.unboxValue(cacheEntry.getValue()) : cacheEntry.getValue();
+            // Create a copy of the entry to avoid modifying the internal entry
+            converted.put(key, entryFactory.create(cacheEntry.getKey(), value, cacheEntry.getMetadata(),
+                                                   cacheEntry.getLifespan(), cacheEntry.getMaxIdle()));
+         } else {
+            converted.put(key, unbox ? converter.unboxValue(entry.getValue()) : entry.getValue());
+         }
+      }
+      return converted;
+   }
 
    @Override
    public Object visitReplaceCommand(InvocationContext ctx, ReplaceCommand command) throws Throwable {
@@ -205,6 +249,18 @@ private TypeConverterEntryIterable(EntryIterable iterable, TypeConverter<Object,
       public CloseableIterable<CacheEntry> converter(Converter converter) {
          return new TypeConverterCloseableIterable(entryIterable.converter(converter), this.converter, entryFactory);
       }
+
+      // The keys and values are unboxed on this node, so they are reduced while iterating over them
+      @Override
+      public Object reduce(EntryReducer reducer) {
+         return LocalEntryRetriever.reduce(iterator(), reducer);
+      }
+
+      @Override
+      public Object reduce(Converter converter, EntryReducer reducer) {
+         CloseableIterator iterator = converter(converter).iterator();
+         return LocalEntryRetriever.reduce(iterator, reducer);
+      }
    }
 
    private static class TypeConverterIterator<K, V> implements CloseableIterator<CacheEntry<K, V>> {
@@ -1,12 +1,16 @@
 package org.infinispan.interceptors.distribution;
 
 import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commands.remote.GetKeysInGroupCommand;
 import org.infinispan.commands.write.DataWriteCommand;
 import org.infinispan.commands.write.ValueMatcher;
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NotifyingFutureImpl;
+import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.entries.InternalCacheValue;
@@ -14,9 +18,11 @@
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.distribution.DistributionManager;
 import org.infinispan.distribution.RemoteValueRetrievedListener;
+import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.distribution.group.GroupManager;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.interceptors.ClusteringInterceptor;
+import org.infinispan.interceptors.base.InvocationStage;
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
 import org.infinispan.remoting.RemoteException;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
@@ -41,9 +47,12 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Base class for distribution of entries across a cluster.
@@ -184,6 +193,96 @@ private InternalCacheEntry invokeClusterGetCommandRemotely(List<Address> targets
       return null;
    }
 
+   /**
+    * Retrieves multiple keys from remote sources, sending a single {@link ClusteredGetAllCommand} to the primary owner of
+    * each group of keys. The commands for the different owners are sent in parallel.
+    * <p/>
+    * Keys that can't be resolved by the batched request (the primary owner left, it returned a {@code null} value
+    * while a rebalance is in progress, or the local node is the primary owner) are retrieved one by one with
+    * {@link #retrieveFromRemoteSource(Object, InvocationContext, boolean, FlagAffectedCommand, boolean)}, which knows
+    * how to deal with topology changes.
+    *
+    * @return the entries found, keys without a value are not included
+    */
+   protected final Map<Object, InternalCacheEntry> retrieveFromRemoteSources(Collection<?> keys, InvocationContext ctx,
+                                                                            FlagAffectedCommand command) throws Throwable {
+      GlobalTransaction gtx = ctx.isInTxScope() ? ((TxInvocationContext) ctx).getGlobalTransaction() : null;
+      CacheTopology cacheTopology = stateTransferManager.getCacheTopology();
+      ConsistentHash readCH = cacheTopology.getReadConsistentHash();
+      Address localAddress = rpcManager.getAddress();
+
+      Map<Object, InternalCacheEntry> result = new HashMap<>(keys.size());
+      List<Object> retryKeys = new ArrayList<>();
+      Map<Address, List<Object>> keysByOwner = new HashMap<>();
+      for (Object key : keys) {
+         Address owner = readCH.locatePrimaryOwner(key);
+         if (localAddress.equals(owner)) {
+            retryKeys.add(key);
+            continue;
+         }
+         List<Object> ownerKeys = keysByOwner.get(owner);
+         if (ownerKeys == null) {
+            ownerKeys = new ArrayList<>();
+            keysByOwner.put(owner, ownerKeys);
+         }
+         ownerKeys.add(key);
+      }
+
+      if (!keysByOwner.isEmpty()) {
+         RpcOptions options = rpcManager.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS,
+                                                              DeliverOrder.NONE).build();
+         Map<Address, NotifyingNotifiableFuture<Map<Address, Response>>> futures = new HashMap<>(keysByOwner.size());
+         for (Map.Entry<Address, List<Object>> e : keysByOwner.entrySet()) {
+            ClusteredGetAllCommand get = cf.buildClusteredGetAllCommand(e.getValue(), command.getFlags(), gtx);
+            NotifyingNotifiableFuture<Map<Address, Response>> future = new NotifyingFutureImpl<>();
+            rpcManager.invokeRemotelyInFuture(future, Collections.singletonList(e.getKey()), get, options);
+            futures.put(e.getKey(), future);
+         }
+         boolean rebalanceInProgress = cacheTopology.getPendingCH() != null;
+         for (Map.Entry<Address, NotifyingNotifiableFuture<Map<Address, Response>>> e : futures.entrySet()) {
+            List<Object> ownerKeys = keysByOwner.get(e.getKey());
+            Response response;
+            try {
+               response = e.getValue().get().get(e.getKey());
+            } catch (ExecutionException ee) {
+               throw ee.getCause();
+            }
+            if (!(response instanceof SuccessfulResponse)) {
+               if (trace) log.tracef("Unsuccessful response %s from %s, retrying keys %s one by one", response,
+                                     e.getKey(), ownerKeys);
+               retryKeys.addAll(ownerKeys);
+               continue;
+            }
+            @SuppressWarnings("unchecked")
+            List<InternalCacheValue> values = (List<InternalCacheValue>) ((SuccessfulResponse) response).getResponseValue();
+            for (int i = 0; i < ownerKeys.size(); i++) {
+               Object key = ownerKeys.get(i);
+               InternalCacheValue value = values.get(i);
+               if (value != null) {
+                  InternalCacheEntry ice = value.toInternalCacheEntry(key);
+                  if (rvrl != null) {
+                     rvrl.remoteValueFound(ice);
+                  }
+                  result.put(key, ice);
+               } else if (rebalanceInProgress) {
+                  // the new owners might already have the value
+                  retryKeys.add(key);
+               } else if (rvrl != null) {
+                  rvrl.remoteValueNotFound(key);
+               }
+            }
+         }
+      }
+
+      for (Object key : retryKeys) {
+         InternalCacheEntry ice = retrieveFromRemoteSource(key, ctx, false, command, false);
+         if (ice != null) {
+            result.put(key, ice);
+         }
+      }
+      return result;
+   }
+
    protected final Object handleNonTxWriteCommand(InvocationContext ctx, DataWriteCommand command) throws Throwable {
       if (ctx.isInTxScope()) {
          throw new CacheException("Attempted execution of non-transactional write command in a transactional invocation context");
@@ -268,30 +367,16 @@ protected final Object handleNonTxWriteCommand(InvocationContext ctx, DataWriteC
             log.tracef("I'm not the primary owner, so sending the command to the primary owner(%s) in order to be forwarded", primaryOwner);
             boolean isSyncForwarding = isSync || isNeedReliableReturnValues(command);
 
+            if (isSyncForwarding && ctx.isNonBlocking()) {
+               return forwardToPrimaryOwnerNonBlocking(primaryOwner, command, valueMatcher);
+            }
+
             Map<Address, Response> addressResponseMap;
             try {
                addressResponseMap = rpcManager.invokeRemotely(Collections.singletonList(primaryOwner), command,
                      rpcManager.getDefaultRpcOptions(isSyncForwarding));
-            } catch (RemoteException e) {
-               Throwable ce = e;
-               while (ce instanceof RemoteException) {
-                  ce = ce.getCause();
-               }
-               if (ce instanceof OutdatedTopologyException) {
-                  // If the primary owner throws an OutdatedTopologyException, it must be because the command succeeded there
-                  if (trace) log.tracef("Changing the value matching policy from %s to %s (original value was %s)",
-                        command.getValueMatcher(), valueMatcher.matcherForRetry(), valueMatcher);
-                  command.setValueMatcher(valueMatcher.matcherForRetry());
-               }
-               throw e;
-            } catch (SuspectException e) {
-               // If the primary owner became suspected, we don't know if it was able to replicate it's data properly
-               // to all backup owners and notify all listeners, thus we need to retry with new matcher in case if
-               // it had updated the backup owners
-               if (trace) log.tracef("Primary owner suspected - Changing the value matching policy from %s to %s " +
-                                           "(original value was %s)", command.getValueMatcher(),
-                                     valueMatcher.matcherForRetry(), valueMatcher);
-               command.setValueMatcher(valueMatcher.matcherForRetry());
+            } catch (RemoteException | SuspectException e) {
+               updateValueMatcherAfterForwardFailure(command, valueMatcher, e);
                throw e;
             }
             if (!isSyncForwarding) return localResult;
@@ -303,6 +388,55 @@ protected final Object handleNonTxWriteCommand(InvocationContext ctx, DataWriteC
       }
    }
 
+   /**
+    * Forwards the command to the primary owner and returns an {@link InvocationStage} completed with its result, without
+    * waiting for the response.
+    */
+   private InvocationStage forwardToPrimaryOwnerNonBlocking(final Address primaryOwner, final DataWriteCommand command,
+                                                            final ValueMatcher valueMatcher) {
+      final InvocationStage stage = new InvocationStage();
+      rpcManager.invokeRemotelyAsync(Collections.singletonList(primaryOwner), command, rpcManager.getDefaultRpcOptions(true))
+            .attachListener(new FutureListener<Map<Address, Response>>() {
+               @Override
+               public void futureDone(Future<Map<Address, Response>> future) {
+                  try {
+                     Object primaryResult = getResponseFromPrimaryOwner(primaryOwner, future.get());
+                     command.updateStatusFromRemoteResponse(primaryResult);
+                     stage.complete(primaryResult);
+                  } catch (ExecutionException e) {
+                     updateValueMatcherAfterForwardFailure(command, valueMatcher, e.getCause());
+                     stage.completeExceptionally(e.getCause());
+                  } catch (Throwable t) {
+                     stage.completeExceptionally(t);
+                  }
+               }
+            });
+      return stage;
+   }
+
+   private void updateValueMatcherAfterForwardFailure(DataWriteCommand command, ValueMatcher valueMatcher, Throwable t) {
+      if (t instanceof RemoteException) {
+         Throwable ce = t;
+         while (ce instanceof RemoteException) {
+            ce = ce.getCause();
+         }
+         if (ce instanceof OutdatedTopologyException) {
+            // If the primary owner throws an OutdatedTopologyException, it must be because the command succeeded there
+            if (trace) log.tracef("Changing the value matching policy from %s to %s (original value was %s)",
+                  command.getValueMatcher(), valueMatcher.matcherForRetry(), valueMatcher);
+            command.setValueMatcher(valueMatcher.matcherForRetry());
+         }
+      } else if (t instanceof SuspectException) {
+         // If the primary owner became suspected, we don't know if it was able to replicate it's data properly
+         // to all backup owners and notify all listeners, thus we need to retry with new matcher in case if
+         // it had updated the backup owners
+         if (trace) log.tracef("Primary owner suspected - Changing the value matching policy from %s to %s " +
+                                     "(original value was %s)", command.getValueMatcher(),
+                               valueMatcher.matcherForRetry(), valueMatcher);
+         command.setValueMatcher(valueMatcher.matcherForRetry());
+      }
+   }
+
    private RpcOptions determineRpcOptionsForBackupReplication(RpcManager rpc, boolean isSync, List<Address> recipients) {
       RpcOptions options;
       if (isSync) {
@@ -5,6 +5,7 @@
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.LocalFlagAffectedCommand;
 import org.infinispan.commands.read.AbstractDataCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetCacheEntryCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.write.DataWriteCommand;
@@ -30,7 +31,9 @@
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
@@ -117,6 +120,47 @@ private Object visitDataReadCommand(InvocationContext ctx, AbstractDataCommand c
       return performCommandWithL1WriteIfAble(ctx, command, false, true);
    }
 
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      if (!ctx.isOriginLocal()) {
+         // Remember the requestor of every key we return, so that we can invalidate its L1 later
+         for (Object key : command.getKeys()) {
+            l1Manager.addRequestor(key, ctx.getOrigin());
+         }
+         return invokeNextInterceptor(ctx, command);
+      }
+      // Register a synchronizer for every key that will be retrieved remotely, so that the value is stored in L1.
+      // Unlike single key reads we don't wait for concurrent requests of the same key, the keys they are
+      // retrieving are simply part of the batched remote get as well.
+      Map<Object, L1WriteSynchronizer> registered = new HashMap<Object, L1WriteSynchronizer>();
+      for (Object key : command.getKeys()) {
+         if (skipL1Lookup(command, key) || ctx.lookupEntry(key) != null) {
+            continue;
+         }
+         L1WriteSynchronizer l1WriteSync = new L1WriteSynchronizer(dataContainer, l1Lifespan, stateTransferLock, cdl);
+         if (concurrentWrites.putIfAbsent(key, l1WriteSync) == null) {
+            l1Manager.registerL1WriteSynchronizer(key, l1WriteSync);
+            registered.put(key, l1WriteSync);
+         }
+      }
+      if (registered.isEmpty()) {
+         return invokeNextInterceptor(ctx, command);
+      }
+      try {
+         return invokeNextInterceptor(ctx, command);
+      } catch (Throwable t) {
+         for (L1WriteSynchronizer l1WriteSync : registered.values()) {
+            l1WriteSync.retrievalEncounteredException(t);
+         }
+         throw t;
+      } finally {
+         for (Map.Entry<Object, L1WriteSynchronizer> e : registered.entrySet()) {
+            l1Manager.unregisterL1WriteSynchronizer(e.getKey(), e.getValue());
+            concurrentWrites.remove(e.getKey());
+         }
+      }
+   }
+
    protected Object performCommandWithL1WriteIfAble(InvocationContext ctx, DataCommand command,
                                                 boolean shouldAlwaysRunNextInterceptor, boolean registerL1) throws Throwable {
       Object returnValue;
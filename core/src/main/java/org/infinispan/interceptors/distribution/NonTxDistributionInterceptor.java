@@ -2,6 +2,7 @@
 
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.read.AbstractDataCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetCacheEntryCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.RemoteFetchingCommand;
@@ -11,9 +12,12 @@
 import org.infinispan.commands.write.RemoveCommand;
 import org.infinispan.commands.write.ReplaceCommand;
 import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.interceptors.base.StageAwareInterceptor;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.jgroups.SuspectException;
 import org.infinispan.util.logging.Log;
@@ -36,7 +40,7 @@
  * @author Mircea Markus
  * @since 5.2
  */
-public class NonTxDistributionInterceptor extends BaseDistributionInterceptor {
+public class NonTxDistributionInterceptor extends BaseDistributionInterceptor implements StageAwareInterceptor {
 
    private static Log log = LogFactory.getLog(NonTxDistributionInterceptor.class);
    private static final boolean trace = log.isTraceEnabled();
@@ -82,6 +86,61 @@ private <T extends AbstractDataCommand & RemoteFetchingCommand> Object visitRemo
       return returnValue;
    }
 
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      try {
+         @SuppressWarnings("unchecked")
+         Map<Object, Object> result = (Map<Object, Object>) invokeNextInterceptor(ctx, command);
+         if (!ctx.isOriginLocal() || command.hasFlag(Flag.CACHE_MODE_LOCAL)
+               || command.hasFlag(Flag.SKIP_REMOTE_LOOKUP) || command.hasFlag(Flag.IGNORE_RETURN_VALUES)) {
+            return result;
+         }
+         ConsistentHash readCH = stateTransferManager.getCacheTopology().getReadConsistentHash();
+         Map<Object, InternalCacheEntry> fetched = new HashMap<Object, InternalCacheEntry>();
+         List<Object> remoteKeys = new ArrayList<Object>();
+         for (Object key : command.getKeys()) {
+            if (result.containsKey(key)) continue;
+            CacheEntry entry = ctx.lookupEntry(key);
+            if (entry != null && !entry.isNull()) continue;
+            if (!isValueAvailableLocally(readCH, key)) {
+               remoteKeys.add(key);
+            } else {
+               InternalCacheEntry localEntry = fetchValueLocallyIfAvailable(readCH, key);
+               if (localEntry != null) {
+                  wrapInternalCacheEntry(localEntry, ctx, key, false, command);
+                  fetched.put(key, localEntry);
+               }
+            }
+         }
+         if (!remoteKeys.isEmpty()) {
+            if (trace) log.tracef("Doing a remote get for keys %s", remoteKeys);
+            Map<Object, InternalCacheEntry> remoteEntries = retrieveFromRemoteSources(remoteKeys, ctx, command);
+            for (InternalCacheEntry ice : remoteEntries.values()) {
+               wrapInternalCacheEntry(ice, ctx, ice.getKey(), false, command);
+               command.addRemotelyFetchedValue(ice);
+            }
+            fetched.putAll(remoteEntries);
+         }
+         if (fetched.isEmpty()) {
+            return result;
+         }
+         // Keep the order of the requested keys
+         Map<Object, Object> ordered = new LinkedHashMap<Object, Object>(command.getKeys().size());
+         for (Object key : command.getKeys()) {
+            InternalCacheEntry ice = fetched.get(key);
+            if (ice != null) {
+               ordered.put(key, command.isReturnEntries() ? ice : ice.getValue());
+            } else if (result.containsKey(key)) {
+               ordered.put(key, result.get(key));
+            }
+         }
+         return ordered;
+      } catch (SuspectException e) {
+         //retry
+         return visitGetAllCommand(ctx, command);
+      }
+   }
+
    private Object computeGetReturn(InternalCacheEntry entry, AbstractDataCommand command, boolean returnEntry) {
       if (!returnEntry && entry != null)
          return entry.getValue();
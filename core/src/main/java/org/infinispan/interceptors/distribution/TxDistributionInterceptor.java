@@ -5,6 +5,7 @@
 import org.infinispan.commands.FlagAffectedCommand;
 import org.infinispan.commands.control.LockControlCommand;
 import org.infinispan.commands.read.AbstractDataCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetCacheEntryCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.tx.CommitCommand;
@@ -22,6 +23,7 @@
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.LocalTxInvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
+import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
 import org.infinispan.remoting.rpc.ResponseMode;
@@ -33,8 +35,13 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeoutException;
 
 import static org.infinispan.util.DeltaCompositeKeyUtil.filterDeltaCompositeKey;
@@ -170,6 +177,72 @@ private Object visitGetCommand(InvocationContext ctx, AbstractDataCommand comman
       return returnValue;
    }
 
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      try {
+         @SuppressWarnings("unchecked")
+         Map<Object, Object> result = (Map<Object, Object>) invokeNextInterceptor(ctx, command);
+         if (!ctx.isOriginLocal() || command.hasFlag(Flag.CACHE_MODE_LOCAL)
+               || command.hasFlag(Flag.SKIP_REMOTE_LOOKUP) || command.hasFlag(Flag.IGNORE_RETURN_VALUES)) {
+            return result;
+         }
+         ConsistentHash readCH = dm.getReadConsistentHash();
+         Set<Object> missingKeys = new HashSet<Object>();
+         List<Object> remoteKeys = new ArrayList<Object>();
+         for (Object key : command.getKeys()) {
+            if (result.containsKey(key)) continue;
+            CacheEntry entry = ctx.lookupEntry(key);
+            //if the cache entry has the value lock flag set, skip the remote get.
+            if (entry != null && (entry.skipLookup() || !entry.isNull())) continue;
+            missingKeys.add(key);
+            if (!isValueAvailableLocally(readCH, key)) {
+               remoteKeys.add(key);
+            }
+         }
+         if (!remoteKeys.isEmpty()) {
+            if (trace) log.tracef("Doing a remote get for keys %s", remoteKeys);
+            Map<Object, InternalCacheEntry> remoteEntries = retrieveFromRemoteSources(remoteKeys, ctx, command);
+            for (Map.Entry<Object, InternalCacheEntry> e : remoteEntries.entrySet()) {
+               Object key = e.getKey();
+               InternalCacheEntry ice = e.getValue();
+               if (useClusteredWriteSkewCheck && ctx.isInTxScope()) {
+                  ((TxInvocationContext) ctx).getCacheTransaction().putLookedUpRemoteVersion(key, ice.getMetadata().version());
+               }
+               if (!ctx.replaceValue(key, ice)) {
+                  ctx.putLookedUpEntry(key, ice);
+                  if (ctx.isInTxScope()) {
+                     ((TxInvocationContext) ctx).getCacheTransaction().replaceVersionRead(key, ice.getMetadata().version());
+                  }
+               }
+               command.addRemotelyFetchedValue(ice);
+            }
+         }
+         if (missingKeys.isEmpty()) {
+            return result;
+         }
+         // Keep the order of the requested keys
+         Map<Object, Object> ordered = new LinkedHashMap<Object, Object>(command.getKeys().size());
+         for (Object key : command.getKeys()) {
+            Object value = result.get(key);
+            if (value == null && missingKeys.contains(key)) {
+               InternalCacheEntry ice = command.getRemotelyFetched() == null ? null : command.getRemotelyFetched().get(key);
+               if (ice != null) {
+                  value = command.isReturnEntries() ? ice : ice.getValue();
+               } else if (!ctx.isEntryRemovedInContext(key)) {
+                  value = localGet(ctx, key, false, command, command.isReturnEntries());
+               }
+            }
+            if (value != null) {
+               ordered.put(key, value);
+            }
+         }
+         return ordered;
+      } catch (SuspectException e) {
+         // retry
+         return visitGetAllCommand(ctx, command);
+      }
+   }
+
    protected void lockAndWrap(InvocationContext ctx, Object key, InternalCacheEntry ice, FlagAffectedCommand command) throws InterruptedException {
       boolean skipLocking = hasSkipLocking(command);
       long lockTimeout = getLockAcquisitionTimeout(command, skipLocking);
@@ -5,6 +5,7 @@
 
 import org.infinispan.commands.DataCommand;
 import org.infinispan.commands.FlagAffectedCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetCacheEntryCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.write.DataWriteCommand;
@@ -69,6 +70,16 @@ public Object visitGetCacheEntryCommand(InvocationContext ctx, GetCacheEntryComm
       return visitDataReadCommand(ctx, command);
    }
 
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      try {
+         return invokeNextInterceptor(ctx, command);
+      } finally {
+         //possibly needed because of L1 locks being acquired
+         if (!ctx.isInTxScope()) lockManager.unlockAll(ctx);
+      }
+   }
+
    protected abstract Object visitDataReadCommand(InvocationContext ctx, DataCommand command) throws Throwable;
 
    protected abstract Object visitDataWriteCommand(InvocationContext ctx, DataWriteCommand command) throws Throwable;
@@ -83,6 +94,8 @@ protected Object visitNonTxDataWriteCommand(InvocationContext ctx, DataWriteComm
       } catch (Throwable te) {
          throw cleanLocksAndRethrow(ctx, te);
       } finally {
+         // An InvocationStage is only returned when the command is forwarded to the primary owner, so there's no lock
+         // to keep until the stage is completed
          lockManager.unlockAll(ctx);
       }
    }
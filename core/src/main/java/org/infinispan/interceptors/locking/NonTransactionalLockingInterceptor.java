@@ -6,6 +6,7 @@
 import org.infinispan.commands.write.DataWriteCommand;
 import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.context.InvocationContext;
+import org.infinispan.interceptors.base.StageAwareInterceptor;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -15,7 +16,7 @@
  * @author Mircea Markus
  * @since 5.1
  */
-public class NonTransactionalLockingInterceptor extends AbstractLockingInterceptor {
+public class NonTransactionalLockingInterceptor extends AbstractLockingInterceptor implements StageAwareInterceptor {
 
    private static final Log log = LogFactory.getLog(NonTransactionalLockingInterceptor.class);
 
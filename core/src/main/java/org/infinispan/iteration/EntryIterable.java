@@ -23,4 +23,28 @@
     * @return A CloseableIterator that will use the given converter
     */
    public <C> CloseableIterable<CacheEntry<K, C>> converter(Converter<? super K, ? super V, ? extends C> converter);
+
+   /**
+    * Reduces the entries accepted by the already provided filter to a single result.  Unlike iterating, the entries
+    * are processed in parallel on the nodes that own them, one partial result per segment group and thread, and only
+    * the partial results are returned to this node.  The filter and the reducer must therefore be marshallable in
+    * clustered caches.
+    * @param reducer The reducer to apply to the entries
+    * @param <R> The type of the result
+    * @return The result of combining all the partial results
+    */
+   public <R> R reduce(EntryReducer<? super K, ? super V, R> reducer);
+
+   /**
+    * Same as {@link #reduce(EntryReducer)}, except the value of each entry is first converted with the given
+    * converter, on the node that owns the entry.
+    * @param converter The converter to apply to the values before they are reduced.  Callbacks to to this converter
+    *                  will never provide a key or value that is null.
+    * @param reducer The reducer to apply to the converted entries
+    * @param <C> The type of the converted value
+    * @param <R> The type of the result
+    * @return The result of combining all the partial results
+    */
+   public <C, R> R reduce(Converter<? super K, ? super V, ? extends C> converter,
+                          EntryReducer<? super K, ? super C, R> reducer);
 }
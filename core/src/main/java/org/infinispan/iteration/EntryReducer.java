@@ -0,0 +1,44 @@
+package org.infinispan.iteration;
+
+/**
+ * Reduces the entries of a cache to a single result, so that the entries can be processed where they are stored and
+ * only the partial results are sent back to the caller.
+ * <p>
+ * The entries are partitioned, usually by segment and by thread, and each partition is accumulated into its own
+ * partial result, starting from {@link #identity()}. The partial results are then merged with
+ * {@link #combine(Object, Object)}, in no particular order. Thus {@code combine} must be associative and commutative,
+ * and {@code identity()} must return a new result on each invocation if the result is mutable.
+ * <p>
+ * Instances are invoked concurrently, but never concurrently for the same partial result. In clustered caches the
+ * reducer is sent to the owners of the entries along with the filter and the converter, so it must be marshallable,
+ * and so must the partial results.
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the values, after conversion
+ * @param <R> The type of the result
+ * @since 7.2
+ * @see EntryIterable#reduce(EntryReducer)
+ */
+public interface EntryReducer<K, V, R> {
+   /**
+    * @return the result of reducing no entries at all
+    */
+   public R identity();
+
+   /**
+    * Adds an entry to a partial result.
+    * @param result The partial result, initially created by {@link #identity()}
+    * @param key The key of the entry
+    * @param value The value of the entry, after conversion if a converter was supplied
+    * @return The new partial result, which may be the same instance
+    */
+   public R accumulate(R result, K key, V value);
+
+   /**
+    * Merges two partial results.
+    * @param result A partial result
+    * @param other Another partial result, computed from other entries
+    * @return The merged result, which may be the same instance as one of the arguments
+    */
+   public R combine(R result, R other);
+}
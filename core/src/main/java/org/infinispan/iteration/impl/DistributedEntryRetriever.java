@@ -5,7 +5,9 @@
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.ParallelIterableMap;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
@@ -20,6 +22,7 @@
 import org.infinispan.filter.KeyValueFilter;
 import org.infinispan.filter.KeyValueFilterAsKeyFilter;
 import org.infinispan.filter.KeyValueFilterConverter;
+import org.infinispan.iteration.EntryReducer;
 import org.infinispan.lifecycle.ComponentStatus;
 import org.infinispan.filter.Converter;
 import org.infinispan.notifications.Listener;
@@ -30,18 +33,26 @@
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.remoting.responses.ExceptionResponse;
 import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.responses.SuccessfulResponse;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.rpc.RpcOptions;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.jgroups.SuspectException;
+import org.infinispan.statetransfer.StateTransferLock;
+import org.infinispan.statetransfer.StateTransferManager;
+import org.infinispan.topology.CacheTopology;
 import org.infinispan.util.concurrent.ConcurrentHashSet;
 
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -76,6 +87,8 @@
    private Address localAddress;
    private RpcManager rpcManager;
    private ExecutorService remoteExecutorService;
+   private StateTransferManager stateTransferManager;
+   private StateTransferLock stateTransferLock;
 
    class IterationStatus<C> {
       final DistributedItr<C> ongoingIterator;
@@ -257,12 +270,15 @@ public void handleException(CacheException e) {
    public void initialize(DistributionManager distributionManager,
                           PersistenceManager persistenceManager, CommandsFactory commandsFactory,
                           RpcManager rpcManager,
-                          @ComponentName(REMOTE_COMMAND_EXECUTOR) ExecutorService remoteExecutorService) {
+                          @ComponentName(REMOTE_COMMAND_EXECUTOR) ExecutorService remoteExecutorService,
+                          StateTransferManager stateTransferManager, StateTransferLock stateTransferLock) {
       this.distributionManager = distributionManager;
       this.persistenceManager = persistenceManager;
       this.commandsFactory = commandsFactory;
       this.rpcManager = rpcManager;
       this.remoteExecutorService = remoteExecutorService;
+      this.stateTransferManager = stateTransferManager;
+      this.stateTransferLock = stateTransferLock;
    }
 
    @Start
@@ -379,7 +395,8 @@ public boolean add(CacheEntry<K, C> kcEntry) {
                      PassivationListener<K, V> listener = null;
                      long currentTime = timeService.wallClockTime();
                      try {
-                        for (InternalCacheEntry<K, V> entry : dataContainer) {
+                        for (Iterator<InternalCacheEntry<K, V>> it = localIterator(segmentsToUse); it.hasNext(); ) {
+                           InternalCacheEntry<K, V> entry = it.next();
                            if (!entry.isExpired(currentTime)) {
                               InternalCacheEntry<K, V> clone = entryFactory.create(unwrapMarshalledvalue(entry.getKey()),
                                                                                    unwrapMarshalledvalue(entry.getValue()), entry);
@@ -612,6 +629,207 @@ public void handleException(CacheException e) {
       return itr;
    }
 
+   /**
+    * Each segment is reduced on its primary owner: a single {@link EntryReduceCommand} is sent to every other primary
+    * owner, while this node reduces its own segments.  The segments that a node lost before or while reducing them are
+    * reduced again on their new primary owner, once the next topology is installed.
+    */
+   @Override
+   protected <C, R> R reduceInMemory(KeyValueFilter<? super K, ? super V> filter,
+                                     Converter<? super K, ? super V, ? extends C> converter,
+                                     EntryReducer<? super K, ? super C, R> reducer, Set<Flag> flags) {
+      if (flags != null && flags.contains(Flag.CACHE_MODE_LOCAL)) {
+         log.trace("Skipping distributed reduction and reducing local entries only as CACHE_MODE_LOCAL flag was set");
+         return super.reduceInMemory(filter, converter, reducer, flags);
+      }
+      CacheTopology topology = stateTransferManager.getCacheTopology();
+      ConsistentHash hash = topology.getReadConsistentHash();
+      if (!hash.getMembers().contains(localAddress)) {
+         log.trace("Skipping distributed reduction and reducing local entries since we are not part of the consistent hash");
+         return super.reduceInMemory(filter, converter, reducer, flags);
+      }
+
+      Set<Integer> segmentsToReduce = new HashSet<>();
+      for (int i = 0; i < hash.getNumSegments(); ++i) {
+         segmentsToReduce.add(i);
+      }
+      // A remote node only replies once it reduced all its segments, which can take arbitrarily long, so like the
+      // iteration requests the reduction has no timeout. A node that leaves is still detected through its suspicion.
+      RpcOptions rpcOptions = rpcManager.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS)
+            .timeout(Long.MAX_VALUE, TimeUnit.SECONDS).build();
+      R result = reducer.identity();
+      while (true) {
+         Map<Address, Set<Integer>> routes = new HashMap<>();
+         for (Integer segment : segmentsToReduce) {
+            Address primaryOwner = hash.locatePrimaryOwnerForSegment(segment);
+            Set<Integer> segments = routes.get(primaryOwner);
+            if (segments == null) {
+               segments = new HashSet<>();
+               routes.put(primaryOwner, segments);
+            }
+            segments.add(segment);
+         }
+         if (log.isTraceEnabled()) {
+            log.tracef("Reducing segments %s in topology %d", routes, topology.getTopologyId());
+         }
+
+         Map<Address, NotifyingFuture<Map<Address, Response>>> futures = new HashMap<>();
+         for (Map.Entry<Address, Set<Integer>> route : routes.entrySet()) {
+            if (!localAddress.equals(route.getKey())) {
+               EntryReduceCommand<K, V, C, R> command = commandsFactory.buildEntryReduceCommand(route.getValue(),
+                     filter, converter, reducer, flags);
+               futures.put(route.getKey(), rpcManager.invokeRemotelyAsync(Collections.singleton(route.getKey()),
+                                                                          command, rpcOptions));
+            }
+         }
+
+         Set<Integer> inDoubtSegments = new HashSet<>();
+         Set<Integer> localSegments = routes.get(localAddress);
+         if (localSegments != null) {
+            result = reducer.combine(result, reduceSegments(localSegments, filter, converter, reducer, flags,
+                                                            inDoubtSegments));
+         }
+         for (Map.Entry<Address, NotifyingFuture<Map<Address, Response>>> entry : futures.entrySet()) {
+            Address target = entry.getKey();
+            Response response;
+            try {
+               response = entry.getValue().get().get(target);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               throw new CacheException(e);
+            } catch (ExecutionException e) {
+               if (!(e.getCause() instanceof SuspectException)) {
+                  throw log.exceptionProcessingEntryRetrievalValues(e.getCause());
+               }
+               response = null;
+            }
+            if (response instanceof SuccessfulResponse) {
+               Object[] reply = (Object[]) ((SuccessfulResponse) response).getResponseValue();
+               result = reducer.combine(result, (R) reply[0]);
+               inDoubtSegments.addAll((Set<Integer>) reply[1]);
+            } else if (response instanceof ExceptionResponse) {
+               throw log.exceptionProcessingEntryRetrievalValues(((ExceptionResponse) response).getException());
+            } else {
+               // The node left, its segments have a new primary owner in the next topology
+               inDoubtSegments.addAll(routes.get(target));
+            }
+         }
+
+         if (inDoubtSegments.isEmpty()) {
+            return result;
+         }
+         if (log.isTraceEnabled()) {
+            log.tracef("Segments %s must be reduced again after topology %d", inDoubtSegments, topology.getTopologyId());
+         }
+         try {
+            stateTransferLock.waitForTopology(topology.getTopologyId() + 1, timeout, unit);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CacheException(e);
+         }
+         topology = stateTransferManager.getCacheTopology();
+         hash = topology.getReadConsistentHash();
+         segmentsToReduce = inDoubtSegments;
+      }
+   }
+
+   @Override
+   public <C, R> R reduceSegments(Set<Integer> segments, KeyValueFilter<? super K, ? super V> filter,
+                                  Converter<? super K, ? super V, ? extends C> converter,
+                                  EntryReducer<? super K, ? super C, R> reducer, Set<Flag> flags,
+                                  Set<Integer> inDoubtSegments) {
+      ConsistentHash hash = stateTransferManager.getCacheTopology().getReadConsistentHash();
+      Set<Integer> ownedSegments = new HashSet<>(segments.size());
+      for (Integer segment : segments) {
+         if (localAddress.equals(hash.locatePrimaryOwnerForSegment(segment))) {
+            ownedSegments.add(segment);
+         } else {
+            inDoubtSegments.add(segment);
+         }
+      }
+      if (ownedSegments.isEmpty()) {
+         return reducer.identity();
+      }
+
+      wireReductionDependencies(filter, converter, reducer);
+      EntryFolder<C, R> folder = new EntryFolder<C, R>(filter, converter, reducer);
+      R result;
+      if (dataContainer instanceof SegmentedDataContainer) {
+         result = reduceSegmentGroups((SegmentedDataContainer<K, V>) dataContainer, ownedSegments, folder);
+      } else {
+         result = reduceDataContainer(new SegmentFilter<K>(hash, ownedSegments), folder);
+      }
+
+      // The partial result can't tell which entries came from which segment, so if any segment was lost while we
+      // were reducing it, the whole partial result is dropped and all the segments are reduced again elsewhere
+      hash = stateTransferManager.getCacheTopology().getReadConsistentHash();
+      for (Integer segment : ownedSegments) {
+         if (!localAddress.equals(hash.locatePrimaryOwnerForSegment(segment))) {
+            if (log.isTraceEnabled()) {
+               log.tracef("Segment %s was lost while it was reduced, segments %s are now in doubt", segment,
+                          ownedSegments);
+            }
+            inDoubtSegments.addAll(ownedSegments);
+            return reducer.identity();
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Splits the segments in as many groups as there are processors, and reduces each group in its own task.  This
+    * thread runs the tasks that the executor hasn't started yet, so it never waits for a task that is queued.
+    */
+   private <C, R> R reduceSegmentGroups(final SegmentedDataContainer<K, V> container, Set<Integer> segments,
+                                        final EntryFolder<C, R> folder) {
+      int numGroups = Math.min(segments.size(), Runtime.getRuntime().availableProcessors());
+      List<Set<Integer>> groups = new ArrayList<>(numGroups);
+      for (int i = 0; i < numGroups; ++i) {
+         groups.add(new HashSet<Integer>());
+      }
+      int i = 0;
+      for (Integer segment : segments) {
+         groups.get(i++ % numGroups).add(segment);
+      }
+
+      List<FutureTask<R>> tasks = new ArrayList<>(numGroups);
+      for (final Set<Integer> group : groups) {
+         tasks.add(new FutureTask<R>(new Callable<R>() {
+            @Override
+            public R call() throws Exception {
+               R result = folder.reducer.identity();
+               for (Iterator<InternalCacheEntry<K, V>> it = container.segmentIterator(group); it.hasNext(); ) {
+                  result = folder.fold(result, it.next());
+               }
+               return result;
+            }
+         }));
+      }
+      for (int j = 1; j < tasks.size(); ++j) {
+         try {
+            executorService.execute(tasks.get(j));
+         } catch (RejectedExecutionException e) {
+            // This thread will run it
+            break;
+         }
+      }
+
+      R result = folder.reducer.identity();
+      for (FutureTask<R> task : tasks) {
+         // Does nothing if the task has already been started by the executor
+         task.run();
+         try {
+            result = folder.reducer.combine(result, task.get());
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CacheException(e);
+         } catch (ExecutionException e) {
+            throw log.exceptionProcessingEntryRetrievalValues(e.getCause());
+         }
+      }
+      return result;
+   }
+
    private ConsistentHash getCurrentHash() {
       ConsistentHash hash = currentHash.get();
       if (hash == null) {
@@ -621,6 +839,17 @@ private ConsistentHash getCurrentHash() {
       return hash;
    }
 
+   /**
+    * Only the entries of the given segments are needed, so if the data container is segmented the entries of the other
+    * segments are not even visited.
+    */
+   private Iterator<InternalCacheEntry<K, V>> localIterator(Set<Integer> segments) {
+      if (dataContainer instanceof SegmentedDataContainer) {
+         return ((SegmentedDataContainer<K, V>) dataContainer).segmentIterator(segments);
+      }
+      return dataContainer.iterator();
+   }
+
    private <C> boolean eventuallySendRequest(UUID identifier, IterationStatus<?> status) {
       boolean sent = false;
       while (!sent) {
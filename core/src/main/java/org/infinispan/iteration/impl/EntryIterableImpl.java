@@ -7,6 +7,7 @@
 import org.infinispan.filter.Converter;
 import org.infinispan.filter.KeyValueFilter;
 import org.infinispan.iteration.EntryIterable;
+import org.infinispan.iteration.EntryReducer;
 
 import java.util.EnumSet;
 
@@ -26,4 +27,18 @@ public EntryIterableImpl(EntryRetriever<K, V> entryRetriver, KeyValueFilter<? su
    public <C> CloseableIterable<CacheEntry<K, C>> converter(Converter<? super K, ? super V, ? extends C> converter) {
       return new TrackingEntryIterable<>(entryRetriever, filter, converter, flags, cache);
    }
+
+   @Override
+   public <R> R reduce(EntryReducer<? super K, ? super V, R> reducer) {
+      return this.<V, R>reduce(null, reducer);
+   }
+
+   @Override
+   public <C, R> R reduce(Converter<? super K, ? super V, ? extends C> converter,
+                          EntryReducer<? super K, ? super C, R> reducer) {
+      if (closed.get()) {
+         throw new IllegalStateException("Iterable has been closed - cannot be reused");
+      }
+      return entryRetriever.<C, R>reduceEntries(filter, converter, reducer, flags);
+   }
 }
@@ -0,0 +1,115 @@
+package org.infinispan.iteration.impl;
+
+import org.infinispan.commands.TopologyAffectedCommand;
+import org.infinispan.commands.remote.BaseRpcCommand;
+import org.infinispan.context.Flag;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.filter.Converter;
+import org.infinispan.filter.KeyValueFilter;
+import org.infinispan.iteration.EntryReducer;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Command sent to reduce the entries of the given segments on their primary owner.  The reply is an array holding the
+ * partial result and the set of segments that could not be reduced, because the target isn't their primary owner
+ * anymore.  The partial result never includes any of the entries of those segments.
+ *
+ * @since 7.2
+ */
+public class EntryReduceCommand<K, V, C, R> extends BaseRpcCommand implements TopologyAffectedCommand {
+   public static final byte COMMAND_ID = 48;
+
+   private Set<Integer> segments;
+   private KeyValueFilter<? super K, ? super V> filter;
+   private Converter<? super K, ? super V, ? extends C> converter;
+   private EntryReducer<? super K, ? super C, R> reducer;
+   private Set<Flag> flags;
+   private int topologyId = -1;
+
+   private EntryRetriever<K, V> entryRetrieverManager;
+
+   // Only here for CommandIdUniquenessTest
+   private EntryReduceCommand() {
+      super(null);
+   }
+
+   public EntryReduceCommand(String cacheName) {
+      super(cacheName);
+   }
+
+   public EntryReduceCommand(String cacheName, Set<Integer> segments, KeyValueFilter<? super K, ? super V> filter,
+                             Converter<? super K, ? super V, ? extends C> converter,
+                             EntryReducer<? super K, ? super C, R> reducer, Set<Flag> flags) {
+      super(cacheName);
+      this.segments = segments;
+      this.filter = filter;
+      this.converter = converter;
+      this.reducer = reducer;
+      this.flags = flags;
+   }
+
+   public void init(EntryRetriever<K, V> entryRetrieverManager) {
+      this.entryRetrieverManager = entryRetrieverManager;
+   }
+
+   @Override
+   public Object[] perform(InvocationContext ctx) throws Throwable {
+      Set<Integer> inDoubtSegments = new HashSet<>();
+      R result = entryRetrieverManager.reduceSegments(segments, filter, converter, reducer, flags, inDoubtSegments);
+      return new Object[]{result, inDoubtSegments};
+   }
+
+   public Set<Integer> getSegments() {
+      return segments;
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public Object[] getParameters() {
+      return new Object[]{segments, filter, converter, reducer, topologyId, flags};
+   }
+
+   @Override
+   public void setParameters(int commandId, Object[] parameters) {
+      int i = 0;
+      segments = (Set<Integer>) parameters[i++];
+      filter = (KeyValueFilter<? super K, ? super V>) parameters[i++];
+      converter = (Converter<? super K, ? super V, ? extends C>) parameters[i++];
+      reducer = (EntryReducer<? super K, ? super C, R>) parameters[i++];
+      topologyId = (Integer) parameters[i++];
+      flags = (Set<Flag>) parameters[i++];
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return true;
+   }
+
+   @Override
+   public int getTopologyId() {
+      return topologyId;
+   }
+
+   @Override
+   public void setTopologyId(int topologyId) {
+      this.topologyId = topologyId;
+   }
+
+   @Override
+   public String toString() {
+      return "EntryReduceCommand{" +
+            "segments=" + segments +
+            ", filter=" + filter +
+            ", converter=" + converter +
+            ", reducer=" + reducer +
+            ", topologyId=" + topologyId +
+            ", flags=" + flags +
+            '}';
+   }
+}
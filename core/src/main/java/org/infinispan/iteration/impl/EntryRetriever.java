@@ -6,6 +6,7 @@
 import org.infinispan.context.Flag;
 import org.infinispan.filter.Converter;
 import org.infinispan.filter.KeyValueFilter;
+import org.infinispan.iteration.EntryReducer;
 import org.infinispan.remoting.transport.Address;
 
 import java.util.Collection;
@@ -67,6 +68,40 @@ public <C> CloseableIterator<CacheEntry<K, C>> retrieveEntries(KeyValueFilter<?
                                                        Converter<? super K, ? super V, ? extends C> converter,
                                                        Set<Flag> flags, SegmentListener listener);
 
+   /**
+    * This is invoked locally on the node that requested the reduction.  The entries are reduced in parallel on the
+    * nodes that own them, and this method blocks until all the partial results have been combined.
+    * @param filter An optional filter that will be ran on each key/value to determine if it should be reduced
+    * @param converter An optional converter that will be ran on each key/value before it is reduced
+    * @param reducer The reducer that accumulates the entries into partial results and combines them
+    * @param flags An optional set of flags to modify behavior, as with
+    *              {@link #retrieveEntries(KeyValueFilter, Converter, Set, SegmentListener)}
+    * @param <C> The type of the resulting values from the converter
+    * @param <R> The type of the result
+    * @return The result of combining all the partial results
+    */
+   public <C, R> R reduceEntries(KeyValueFilter<? super K, ? super V> filter,
+                                 Converter<? super K, ? super V, ? extends C> converter,
+                                 EntryReducer<? super K, ? super C, R> reducer, Set<Flag> flags);
+
+   /**
+    * This method is intended to be ran remotely on the primary owner of the segments that are to be reduced.
+    * @param segments The segments to reduce
+    * @param filter The filter to be applied to determine if a value should be reduced
+    * @param converter The converter to run on the values before reducing them
+    * @param reducer The reducer that produces the partial result
+    * @param flags The flags used to modify behavior
+    * @param inDoubtSegments Receives the segments that could not be reduced because this node isn't their primary
+    *                        owner, or lost them while reducing them
+    * @param <C> The type of the resulting values from the converter
+    * @param <R> The type of the result
+    * @return The partial result for the segments that are not in doubt
+    */
+   public <C, R> R reduceSegments(Set<Integer> segments, KeyValueFilter<? super K, ? super V> filter,
+                                  Converter<? super K, ? super V, ? extends C> converter,
+                                  EntryReducer<? super K, ? super C, R> reducer, Set<Flag> flags,
+                                  Set<Integer> inDoubtSegments);
+
    /**
     * This interface describes the call back methods that are invoked when an iteration process completes segments
     * and finally completes.
@@ -17,6 +17,7 @@
 import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
+import org.infinispan.filter.AcceptAllKeyValueFilter;
 import org.infinispan.filter.CollectionKeyFilter;
 import org.infinispan.filter.CompositeKeyFilter;
 import org.infinispan.filter.Converter;
@@ -24,6 +25,7 @@
 import org.infinispan.filter.KeyValueFilter;
 import org.infinispan.filter.KeyValueFilterAsKeyFilter;
 import org.infinispan.filter.KeyValueFilterConverter;
+import org.infinispan.iteration.EntryReducer;
 import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.marshall.core.MarshalledValue;
 import org.infinispan.metadata.InternalMetadata;
@@ -55,6 +57,7 @@
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -173,6 +176,160 @@ public <C> void receiveResponse(UUID identifier, Address origin, Set<Integer> co
       throw new UnsupportedOperationException();
    }
 
+   @Override
+   public <C, R> R reduceEntries(KeyValueFilter<? super K, ? super V> filter,
+                                 Converter<? super K, ? super V, ? extends C> converter,
+                                 EntryReducer<? super K, ? super C, R> reducer, Set<Flag> flags) {
+      if (shouldUseLoader(flags) && cache.getCacheConfiguration().persistence().usingStores()) {
+         // The stores can't be split by segment, so we reduce the entries as we iterate over them
+         if (log.isTraceEnabled()) {
+            log.trace("Reducing the entries while iterating over them, since the stores have to be loaded as well");
+         }
+         return reduce(this.<C>retrieveEntries(filter, converter, flags, null), reducer);
+      }
+      if ((flags == null || !flags.contains(Flag.CACHE_MODE_LOCAL)) && partitionListener.currentMode != AvailabilityMode.AVAILABLE) {
+         throw log.partitionDegraded();
+      }
+      wireReductionDependencies(filter, converter, reducer);
+      return reduceInMemory(filter, converter, reducer, flags);
+   }
+
+   @Override
+   public <C, R> R reduceSegments(Set<Integer> segments, KeyValueFilter<? super K, ? super V> filter,
+                                  Converter<? super K, ? super V, ? extends C> converter,
+                                  EntryReducer<? super K, ? super C, R> reducer, Set<Flag> flags,
+                                  Set<Integer> inDoubtSegments) {
+      if (segments.isEmpty()) {
+         return reducer.identity();
+      }
+      // A local cache isn't split between owners, so this node owns every segment and none of them is in doubt
+      return reduceEntries(filter, converter, reducer, flags);
+   }
+
+   /**
+    * Reduces the entries of the data container only, the stores have already been ruled out.
+    */
+   protected <C, R> R reduceInMemory(KeyValueFilter<? super K, ? super V> filter,
+                                     Converter<? super K, ? super V, ? extends C> converter,
+                                     EntryReducer<? super K, ? super C, R> reducer, Set<Flag> flags) {
+      return reduceDataContainer(new KeyValueFilterAsKeyFilter<K>(AcceptAllKeyValueFilter.getInstance()),
+                                 new EntryFolder<C, R>(filter, converter, reducer));
+   }
+
+   /**
+    * Reduces the entries of the data container whose keys are accepted by the key filter.  The data container hands
+    * its entries out to several threads, and each thread accumulates them into its own partial result.
+    */
+   protected <C, R> R reduceDataContainer(KeyFilter<? super K> keyFilter, final EntryFolder<C, R> folder) {
+      final ConcurrentMap<Thread, PartialResult<R>> partialResults = CollectionFactory.makeConcurrentMap();
+      try {
+         dataContainer.executeTask(keyFilter, new ParallelIterableMap.KeyValueAction<K, InternalCacheEntry<K, V>>() {
+            @Override
+            public void apply(K key, InternalCacheEntry<K, V> entry) {
+               Thread thread = Thread.currentThread();
+               PartialResult<R> partialResult = partialResults.get(thread);
+               if (partialResult == null) {
+                  partialResult = new PartialResult<R>(folder.reducer.identity());
+                  partialResults.put(thread, partialResult);
+               }
+               partialResult.result = folder.fold(partialResult.result, entry);
+            }
+         });
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException(e);
+      }
+      R result = folder.reducer.identity();
+      for (PartialResult<R> partialResult : partialResults.values()) {
+         result = folder.reducer.combine(result, partialResult.result);
+      }
+      return result;
+   }
+
+   protected <C, R> void wireReductionDependencies(KeyValueFilter<? super K, ? super V> filter,
+                                                   Converter<? super K, ? super V, ? extends C> converter,
+                                                   EntryReducer<? super K, ? super C, R> reducer) {
+      wireFilterAndConverterDependencies(filter, converter);
+      cache.getAdvancedCache().getComponentRegistry().wireDependencies(reducer);
+   }
+
+   /**
+    * Reduces all the entries returned by the iterator, and closes it.
+    */
+   public static <K, C, R> R reduce(CloseableIterator<CacheEntry<K, C>> iterator,
+                                    EntryReducer<? super K, ? super C, R> reducer) {
+      try {
+         R result = reducer.identity();
+         while (iterator.hasNext()) {
+            CacheEntry<K, C> entry = iterator.next();
+            result = reducer.accumulate(result, entry.getKey(), entry.getValue());
+         }
+         return result;
+      } finally {
+         iterator.close();
+      }
+   }
+
+   private static class PartialResult<R> {
+      // Only accessed by the thread it belongs to
+      R result;
+
+      PartialResult(R result) {
+         this.result = result;
+      }
+   }
+
+   /**
+    * Applies the filter and the converter to an entry of the data container, and adds it to a partial result.
+    */
+   protected class EntryFolder<C, R> {
+      final KeyValueFilter<? super K, ? super V> filter;
+      final Converter<? super K, ? super V, ? extends C> converter;
+      final EntryReducer<? super K, ? super C, R> reducer;
+      final boolean filterAndConvert;
+      final long currentTime;
+
+      public EntryFolder(KeyValueFilter<? super K, ? super V> filter,
+                         Converter<? super K, ? super V, ? extends C> converter,
+                         EntryReducer<? super K, ? super C, R> reducer) {
+         this.filter = filter;
+         this.reducer = reducer;
+         // perform filtering and conversion in a single step, as when iterating
+         this.filterAndConvert = filter instanceof KeyValueFilterConverter && (filter == converter || converter == null);
+         this.converter = filterAndConvert ? null : converter;
+         this.currentTime = timeService.wallClockTime();
+      }
+
+      public R fold(R result, InternalCacheEntry<K, V> entry) {
+         if (entry.isExpired(currentTime)) {
+            return result;
+         }
+         K key = unwrapMarshalledvalue(entry.getKey());
+         V value = unwrapMarshalledvalue(entry.getValue());
+         C converted;
+         if (filterAndConvert) {
+            converted = ((KeyValueFilterConverter<? super K, ? super V, ? extends C>) filter).filterAndConvert(
+                  key, value, entry.getMetadata());
+            if (converted == null) {
+               return result;
+            }
+         } else {
+            if (filter != null && !filter.accept(key, value, entry.getMetadata())) {
+               return result;
+            }
+            if (converter != null) {
+               converted = converter.convert(key, value, entry.getMetadata());
+               if (converted == null && converter instanceof KeyValueFilterConverter) {  // the converter also acts as a filter here
+                  return result;
+               }
+            } else {
+               converted = (C) value;
+            }
+         }
+         return reducer.accumulate(result, key, converted);
+      }
+   }
+
    @Listener
    protected static class PassivationListener<K, V> {
       Queue<K> activatedKeys = new ConcurrentLinkedQueue<K>();
@@ -7,6 +7,7 @@
 import org.infinispan.filter.Converter;
 import org.infinispan.filter.KeyValueFilter;
 import org.infinispan.iteration.EntryIterable;
+import org.infinispan.iteration.EntryReducer;
 import org.infinispan.transaction.impl.LocalTransaction;
 
 /**
@@ -30,4 +31,19 @@ public <C> CloseableIterable<CacheEntry<K, C>> converter(Converter<? super K, ?
       return new TransactionAwareCloseableIterable<>(entryIterable.converter(converter),
             filter, converter, ctx, cache);
    }
+
+   /**
+    * The entries are reduced while iterating over them, since the values modified by the transaction take precedence
+    * over the ones owned by other nodes.
+    */
+   @Override
+   public <R> R reduce(EntryReducer<? super K, ? super V, R> reducer) {
+      return LocalEntryRetriever.reduce(iterator(), reducer);
+   }
+
+   @Override
+   public <C, R> R reduce(Converter<? super K, ? super V, ? extends C> converter,
+                          EntryReducer<? super K, ? super C, R> reducer) {
+      return LocalEntryRetriever.reduce(this.<C>converter(converter).iterator(), reducer);
+   }
 }
@@ -22,9 +22,11 @@
 import org.infinispan.commons.io.ByteBufferImpl;
 import org.infinispan.commons.io.UnsignedNumeric;
 import org.infinispan.commons.marshall.AdvancedExternalizer;
+import org.infinispan.commons.marshall.GeneratedExternalizer;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.Immutables;
 import org.infinispan.commons.util.InfinispanCollections;
+import org.infinispan.commons.util.ServiceFinder;
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.container.entries.ImmortalCacheEntry;
 import org.infinispan.container.entries.ImmortalCacheValue;
@@ -165,6 +167,7 @@ public void inject(RemoteCommandsFactory cmdFactory, GlobalComponentRegistry gcr
    public void start() {
       loadInternalMarshallables();
       loadForeignMarshallables(gcr.getGlobalConfiguration());
+      loadGeneratedMarshallables(gcr.getGlobalConfiguration());
       started = true;
       if (log.isTraceEnabled()) {
          log.tracef("Constant object table was started and contains these externalizer readers: %s", readers);
@@ -334,6 +337,7 @@ private void loadInternalMarshallables() {
       addInternalExternalizer(new CompositeKeyValueFilter.Externalizer());
       addInternalExternalizer(new MapReduceManagerImpl.DeltaListExternalizer());
       addInternalExternalizer(new MapReduceManagerImpl.DeltaAwareListExternalizer());
+      addInternalExternalizer(new MapReduceManagerImpl.SpilledValuesExternalizer());
       addInternalExternalizer(new CacheStatusResponse.Externalizer());
       addInternalExternalizer(new CacheEventConverterAsConverter.Externalizer());
       addInternalExternalizer(new CacheEventFilterAsKeyValueFilter.Externalizer());
@@ -387,6 +391,20 @@ else if (config.getKey() != null)
       }
    }
 
+   private void loadGeneratedMarshallables(GlobalConfiguration globalCfg) {
+      log.trace("Loading generated externalizers");
+      for (GeneratedExternalizer<?> ext : ServiceFinder.load(GeneratedExternalizer.class, globalCfg.classLoader())) {
+         // Externalizers configured explicitly for the same type take precedence
+         if (writers.keySet().containsAll(ext.getTypeClasses())) {
+            if (log.isTraceEnabled())
+               log.tracef("Ignoring generated externalizer %s, the type already has an externalizer", ext);
+            continue;
+         }
+         int id = checkForeignIdLimit(ext.getId(), ext);
+         updateExtReadersWritersWithTypes(new ForeignExternalizerAdapter(id, ext), generateForeignReaderIndex(id));
+      }
+   }
+
    private void updateExtReadersWriters(ExternalizerAdapter adapter, Class<?> typeClass, int readerIndex) {
       writers.put(typeClass, adapter);
       ExternalizerAdapter prevReader = readers.put(readerIndex, adapter);
@@ -7,6 +7,7 @@
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.context.InvocationContextContainer;
 import org.infinispan.commons.io.ExposedByteArrayOutputStream;
+import org.infinispan.commons.io.ThreadLocalBufferPool;
 import org.infinispan.commons.marshall.AbstractMarshaller;
 import org.infinispan.commons.marshall.NotSerializableException;
 import org.infinispan.commons.marshall.StreamingMarshaller;
@@ -20,6 +21,7 @@
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.OutputStream;
+import java.util.Arrays;
 
 /**
  * A delegate to various other marshallers like {@link JBossMarshaller}. This delegating marshaller adds versioning
@@ -71,25 +73,30 @@ public void stop() {
 
    @Override
    protected ByteBuffer objectToBuffer(Object obj, int estimatedSize) throws IOException, InterruptedException {
-      ExposedByteArrayOutputStream baos = new ExposedByteArrayOutputStream(estimatedSize);
-      ObjectOutput out = startObjectOutput(baos, false, estimatedSize);
+      ExposedByteArrayOutputStream baos = ThreadLocalBufferPool.acquireOutputStream(estimatedSize);
       try {
-         defaultMarshaller.objectToObjectStream(obj, out);
-      } catch (java.io.NotSerializableException nse) {
-         if (log.isDebugEnabled()) log.debug("Object is not serializable", nse);
-         throw new NotSerializableException(nse.getMessage(), nse.getCause());
-      } catch (IOException ioe) {
-         if (ioe.getCause() instanceof InterruptedException) {
-            if (log.isTraceEnabled()) log.trace("Interrupted exception while marshalling", ioe.getCause());
-            throw (InterruptedException) ioe.getCause();
-         } else {
-            log.errorMarshallingObject(ioe, obj);
-            throw ioe;
+         ObjectOutput out = startObjectOutput(baos, false, estimatedSize);
+         try {
+            defaultMarshaller.objectToObjectStream(obj, out);
+         } catch (java.io.NotSerializableException nse) {
+            if (log.isDebugEnabled()) log.debug("Object is not serializable", nse);
+            throw new NotSerializableException(nse.getMessage(), nse.getCause());
+         } catch (IOException ioe) {
+            if (ioe.getCause() instanceof InterruptedException) {
+               if (log.isTraceEnabled()) log.trace("Interrupted exception while marshalling", ioe.getCause());
+               throw (InterruptedException) ioe.getCause();
+            } else {
+               log.errorMarshallingObject(ioe, obj);
+               throw ioe;
+            }
+         } finally {
+            finishObjectOutput(out);
          }
+         // The pooled buffer is reused, so hand out an exact copy, which is also what JGroups sends
+         return new ByteBufferImpl(Arrays.copyOf(baos.getRawBuffer(), baos.size()), 0, baos.size());
       } finally {
-         finishObjectOutput(out);
+         ThreadLocalBufferPool.release(baos);
       }
-      return new ByteBufferImpl(baos.getRawBuffer(), 0, baos.size());
    }
 
    @Override
@@ -9,7 +9,9 @@
 import org.infinispan.commands.read.MapCombineCommand;
 import org.infinispan.commands.read.ReduceCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
+import org.infinispan.commands.remote.GetSegmentSizesCommand;
 import org.infinispan.commands.remote.MultipleRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
 import org.infinispan.commands.remote.recovery.CompleteTransactionCommand;
@@ -26,12 +28,14 @@
 import org.infinispan.commands.tx.totalorder.TotalOrderRollbackCommand;
 import org.infinispan.commands.tx.totalorder.TotalOrderVersionedCommitCommand;
 import org.infinispan.commands.tx.totalorder.TotalOrderVersionedPrepareCommand;
+import org.infinispan.iteration.impl.EntryReduceCommand;
 import org.infinispan.iteration.impl.EntryRequestCommand;
 import org.infinispan.iteration.impl.EntryResponseCommand;
 import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.factories.GlobalComponentRegistry;
 import org.infinispan.factories.KnownComponentNames;
 import org.infinispan.commons.io.ExposedByteArrayOutputStream;
+import org.infinispan.commons.io.ThreadLocalBufferPool;
 import org.infinispan.commons.io.UnsignedNumeric;
 import org.infinispan.lifecycle.ComponentStatus;
 import org.infinispan.commons.marshall.AbstractExternalizer;
@@ -87,7 +91,8 @@ public Set<Class<? extends CacheRpcCommand>> getTypeClasses() {
                TotalOrderVersionedPrepareCommand.class, TotalOrderCommitCommand.class,
                TotalOrderVersionedCommitCommand.class, TotalOrderRollbackCommand.class,
                XSiteStateTransferControlCommand.class, XSiteStatePushCommand.class, SingleXSiteRpcCommand.class,
-               EntryRequestCommand.class, EntryResponseCommand.class);
+               EntryRequestCommand.class, EntryResponseCommand.class, ClusteredGetAllCommand.class,
+               GetSegmentSizesCommand.class, EntryReduceCommand.class);
       // Only interested in cache specific replicable commands
       coreCommands.addAll(gcr.getModuleProperties().moduleCacheRpcCommands());
       return coreCommands;
@@ -105,9 +110,13 @@ public void writeObject(ObjectOutput output, CacheRpcCommand command) throws IOE
       // the command using that cache marshaller and the write the bytes in
       // the original payload.
       ExposedByteArrayOutputStream os = marshallParameters(command, marshaller);
-      UnsignedNumeric.writeUnsignedInt(output, os.size());
-      // Do not rely on the raw buffer's length which is likely to be much longer!
-      output.write(os.getRawBuffer(), 0, os.size());
+      try {
+         UnsignedNumeric.writeUnsignedInt(output, os.size());
+         // Do not rely on the raw buffer's length which is likely to be much longer!
+         output.write(os.getRawBuffer(), 0, os.size());
+      } finally {
+         ThreadLocalBufferPool.release(os);
+      }
       if (command instanceof TopologyAffectedCommand) {
          output.writeInt(((TopologyAffectedCommand) command).getTopologyId());
       }
@@ -117,12 +126,18 @@ private ExposedByteArrayOutputStream marshallParameters(
          CacheRpcCommand cmd, StreamingMarshaller marshaller) throws IOException {
       BufferSizePredictor sizePredictor = marshaller.getBufferSizePredictor(cmd);
       int estimatedSize = sizePredictor.nextSize(cmd);
-      ExposedByteArrayOutputStream baos = new ExposedByteArrayOutputStream(estimatedSize);
-      ObjectOutput output = marshaller.startObjectOutput(baos, true, estimatedSize);
+      // The parameters are copied into the outer stream straight away, so the buffer can be reused
+      ExposedByteArrayOutputStream baos = ThreadLocalBufferPool.acquireOutputStream(estimatedSize);
       try {
-         cmdExt.writeCommandParameters(output, cmd);
-      } finally {
-         marshaller.finishObjectOutput(output);
+         ObjectOutput output = marshaller.startObjectOutput(baos, true, estimatedSize);
+         try {
+            cmdExt.writeCommandParameters(output, cmd);
+         } finally {
+            marshaller.finishObjectOutput(output);
+         }
+      } catch (IOException | RuntimeException | Error e) {
+         ThreadLocalBufferPool.release(baos);
+         throw e;
       }
       return baos;
    }
@@ -135,30 +150,36 @@ public CacheRpcCommand readObject(ObjectInput input) throws IOException, ClassNo
       String cacheName = input.readUTF();
       StreamingMarshaller marshaller = getCacheMarshaller(cacheName);
 
-      byte[] paramsRaw = new byte[UnsignedNumeric.readUnsignedInt(input)];
-      // This is not ideal cos it forces the code to read all parameters into
-      // memory and then splitting them, potentially leading to excessive
-      // buffering. An alternative solution is shown in SharedStreamMultiMarshallerTest
-      // but it requires some special treatment - iow, hacking :)
-      input.readFully(paramsRaw);
-      ByteArrayInputStream is = new ByteArrayInputStream(paramsRaw, 0, paramsRaw.length);
-      ObjectInput paramsInput = marshaller.startObjectInput(is, true);
-      // Not ideal, but the alternative (without changing API), would have been
-      // using thread locals which are expensive to retrieve.
-      // Remember that the aim with externalizers is for them to be stateless.
-      if (paramsInput instanceof ExtendedRiverUnmarshaller)
-         ((ExtendedRiverUnmarshaller) paramsInput).setInfinispanMarshaller(marshaller);
-
+      int paramsLength = UnsignedNumeric.readUnsignedInt(input);
+      // The parameters are fully read before the command is returned, so the buffer can be reused
+      byte[] paramsRaw = ThreadLocalBufferPool.acquireBytes(paramsLength);
       try {
-         Object[] args = cmdExt.readParameters(paramsInput);
-         CacheRpcCommand cacheRpcCommand = cmdExt.fromStream(methodId, args, type, cacheName);
-         if (cacheRpcCommand instanceof TopologyAffectedCommand) {
-            int topologyId = input.readInt();
-            ((TopologyAffectedCommand)cacheRpcCommand).setTopologyId(topologyId);
+         // This is not ideal cos it forces the code to read all parameters into
+         // memory and then splitting them, potentially leading to excessive
+         // buffering. An alternative solution is shown in SharedStreamMultiMarshallerTest
+         // but it requires some special treatment - iow, hacking :)
+         input.readFully(paramsRaw, 0, paramsLength);
+         ByteArrayInputStream is = new ByteArrayInputStream(paramsRaw, 0, paramsLength);
+         ObjectInput paramsInput = marshaller.startObjectInput(is, true);
+         // Not ideal, but the alternative (without changing API), would have been
+         // using thread locals which are expensive to retrieve.
+         // Remember that the aim with externalizers is for them to be stateless.
+         if (paramsInput instanceof ExtendedRiverUnmarshaller)
+            ((ExtendedRiverUnmarshaller) paramsInput).setInfinispanMarshaller(marshaller);
+
+         try {
+            Object[] args = cmdExt.readParameters(paramsInput);
+            CacheRpcCommand cacheRpcCommand = cmdExt.fromStream(methodId, args, type, cacheName);
+            if (cacheRpcCommand instanceof TopologyAffectedCommand) {
+               int topologyId = input.readInt();
+               ((TopologyAffectedCommand)cacheRpcCommand).setTopologyId(topologyId);
+            }
+            return cacheRpcCommand;
+         } finally {
+            marshaller.finishObjectInput(paramsInput);
          }
-         return cacheRpcCommand;
       } finally {
-         marshaller.finishObjectInput(paramsInput);
+         ThreadLocalBufferPool.release(paramsRaw);
       }
    }
 
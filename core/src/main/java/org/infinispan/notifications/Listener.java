@@ -240,4 +240,49 @@
     * @since 7.0
     **/
    boolean includeCurrentState() default false;
+
+   /**
+    * If set to true, the events are queued in a bounded queue for each listener instance, and a single asynchronous
+    * task delivers all the queued events, in order, instead of a task per event. A listener method whose parameter is a
+    * {@link java.util.List} receives each run of consecutive events of its type as a single list, which is only valid
+    * during the invocation.
+    * <p>
+    * Only asynchronous listeners ({@code sync = false}) can be batched.
+    * @return true if the events are delivered in batches
+    * @since 7.2
+    */
+   boolean batch() default false;
+
+   /**
+    * The maximum number of events queued for a {@link #batch()} listener.
+    * @return the capacity of the event queue
+    * @since 7.2
+    */
+   int batchCapacity() default 1024;
+
+   /**
+    * What to do when the event queue of a {@link #batch()} listener is full.
+    * @return the overflow policy
+    * @since 7.2
+    */
+   Overflow overflow() default Overflow.BLOCK;
+
+   /**
+    * Policies for a full event queue.
+    * @since 7.2
+    */
+   enum Overflow {
+      /**
+       * The writer waits until the listener has consumed some events.
+       */
+      BLOCK,
+      /**
+       * The new event is discarded.
+       */
+      DROP_NEWEST,
+      /**
+       * The oldest queued event is discarded.
+       */
+      DROP_OLDEST
+   }
 }
@@ -870,8 +870,7 @@ public CacheInvocationBuilder setIncludeCurrentState(boolean includeCurrentState
 
       @Override
       public CacheEntryListenerInvocation<K, V> build() {
-         ListenerInvocation<Event<K, V>> invocation = new ListenerInvocationImpl(target, method, sync, classLoader,
-                                                                                 subject);
+         ListenerInvocation<Event<K, V>> invocation = new ListenerInvocationImpl(this);
 
          wireFilterAndConverterDependencies(filter, converter);
 
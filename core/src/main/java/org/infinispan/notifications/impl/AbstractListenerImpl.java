@@ -20,6 +20,8 @@
 import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.Collections;
@@ -48,6 +50,8 @@ protected abstract class AbstractInvocationBuilder {
       protected boolean sync;
       protected ClassLoader classLoader;
       protected Subject subject;
+      protected ListenerEventBatcher batcher;
+      protected boolean listParameter;
 
       public Object getTarget() {
          return target;
@@ -69,6 +73,10 @@ public Subject getSubject() {
          return subject;
       }
 
+      public boolean isListParameter() {
+         return listParameter;
+      }
+
       public AbstractInvocationBuilder setTarget(Object target) {
          this.target = target;
          return this;
@@ -94,6 +102,16 @@ public AbstractInvocationBuilder setSubject(Subject subject) {
          return this;
       }
 
+      AbstractInvocationBuilder setBatcher(ListenerEventBatcher batcher) {
+         this.batcher = batcher;
+         return this;
+      }
+
+      AbstractInvocationBuilder setListParameter(boolean listParameter) {
+         this.listParameter = listParameter;
+         return this;
+      }
+
       public abstract L build();
 
    }
@@ -173,6 +191,13 @@ protected boolean validateAndAddListenerInvocation(Object listener, AbstractInvo
       builder.setTarget(listener);
       builder.setSubject(Security.getSubject());
       builder.setSync(l.sync());
+      if (l.batch()) {
+         if (l.sync())
+            throw new IncorrectListenerException(String.format("Listener class %s must be asynchronous to be batched", listener.getClass().getName()));
+         if (l.batchCapacity() < 1)
+            throw new IncorrectListenerException(String.format("Listener class %s must have a positive batch capacity", listener.getClass().getName()));
+         builder.setBatcher(new ListenerEventBatcher(listener, l.batchCapacity(), l.overflow(), asyncProcessor, getLog()));
+      }
       Map<Class<? extends Annotation>, Class<?>> allowedListeners = getAllowedMethodAnnotations(l);
       // now try all methods on the listener for anything that we like.  Note that only PUBLIC methods are scanned.
       for (Method m : listener.getClass().getMethods()) {
@@ -183,9 +208,15 @@ protected boolean validateAndAddListenerInvocation(Object listener, AbstractInvo
                Class<? extends Annotation> key = annotationEntry.getKey();
                Class<?> value = annotationEntry.getValue();
                if (m.isAnnotationPresent(key)) {
-                  testListenerMethodValidity(m, value, key.getName());
+                  boolean listParameter = l.batch() && isListMethod(m);
+                  if (listParameter) {
+                     testBatchListenerMethodValidity(m, value, key.getName());
+                  } else {
+                     testListenerMethodValidity(m, value, key.getName());
+                  }
                   m.setAccessible(true);
                   builder.setMethod(m);
+                  builder.setListParameter(listParameter);
                   addListenerInvocation(key, builder.build());
                   foundMethods = true;
                }
@@ -223,6 +254,23 @@ protected static void testListenerMethodValidity(Method m, Class<?> allowedParam
          throw new IncorrectListenerException("Methods annotated with " + annotationName + " should have a return type of void.");
    }
 
+   private static boolean isListMethod(Method m) {
+      return m.getParameterTypes().length == 1 && m.getParameterTypes()[0] == List.class;
+   }
+
+   private static void testBatchListenerMethodValidity(Method m, Class<?> allowedParameter, String annotationName) {
+      Type parameterType = m.getGenericParameterTypes()[0];
+      if (parameterType instanceof ParameterizedType) {
+         Type elementType = ((ParameterizedType) parameterType).getActualTypeArguments()[0];
+         Class<?> elementClass = elementType instanceof ParameterizedType ?
+               (Class<?>) ((ParameterizedType) elementType).getRawType() : elementType instanceof Class ? (Class<?>) elementType : Object.class;
+         if (!elementClass.isAssignableFrom(allowedParameter))
+            throw new IncorrectListenerException("Methods annotated with " + annotationName + " must accept a List of elements assignable from type " + allowedParameter.getName());
+      }
+      if (!m.getReturnType().equals(void.class))
+         throw new IncorrectListenerException("Methods annotated with " + annotationName + " should have a return type of void.");
+   }
+
    protected abstract Transaction suspendIfNeeded();
 
    protected abstract void resumeIfNeeded(Transaction transaction);
@@ -231,72 +279,47 @@ protected static void testListenerMethodValidity(Method m, Class<?> allowedParam
     * Class that encapsulates a valid invocation for a given registered listener - containing a reference to the method
     * to be invoked as well as the target object.
     */
-   protected class ListenerInvocationImpl<A> implements ListenerInvocation<A> {
+   protected class ListenerInvocationImpl<A> implements ListenerInvocation<A>, ListenerEventBatcher.Delivery {
       public final Object target;
       public final Method method;
       public final boolean sync;
       public final WeakReference<ClassLoader> classLoader;
       public final Subject subject;
+      private final ListenerEventBatcher batcher;
+      private final boolean listParameter;
 
       public ListenerInvocationImpl(Object target, Method method, boolean sync, ClassLoader classLoader, Subject subject) {
+         this(target, method, sync, classLoader, subject, null, false);
+      }
+
+      ListenerInvocationImpl(Object target, Method method, boolean sync, ClassLoader classLoader, Subject subject,
+                             ListenerEventBatcher batcher, boolean listParameter) {
          this.target = target;
          this.method = method;
          this.sync = sync;
          this.classLoader = new WeakReference<ClassLoader>(classLoader);
          this.subject = subject;
+         this.batcher = batcher;
+         this.listParameter = listParameter;
+      }
+
+      public ListenerInvocationImpl(AbstractInvocationBuilder builder) {
+         this(builder.target, builder.method, builder.sync, builder.classLoader, builder.subject, builder.batcher,
+              builder.listParameter);
       }
 
       @Override
       public void invoke(final A event) {
+         if (batcher != null) {
+            batcher.enqueue(this, event);
+            return;
+         }
+
          Runnable r = new Runnable() {
 
             @Override
             public void run() {
-               ClassLoader contextClassLoader = null;
-               Transaction transaction = suspendIfNeeded();
-               if (classLoader != null && classLoader.get() != null) {
-                  contextClassLoader = SecurityActions.setContextClassLoader(classLoader.get());
-               }
-               try {
-                  if (subject != null) {
-                     try {
-                        Security.doAs(subject, new PrivilegedExceptionAction<Void>() {
-                           @Override
-                           public Void run() throws Exception {
-                              method.invoke(target, event);
-                              return null;
-                           }
-                        });
-                     } catch (PrivilegedActionException e) {
-                        Throwable cause = e.getCause();
-                        if (cause instanceof InvocationTargetException) {
-                           throw (InvocationTargetException)cause;
-                        } else if (cause instanceof IllegalAccessException) {
-                           throw (IllegalAccessException)cause;
-                        } else {
-                           throw new InvocationTargetException(cause);
-                        }
-                     }
-                  } else {
-                     method.invoke(target, event);
-                  }
-               } catch (InvocationTargetException exception) {
-                  Throwable cause = getRealException(exception);
-                  if (sync) {
-                     throw getLog().exceptionInvokingListener(
-                           cause.getClass().getName(), method, target, cause);
-                  } else {
-                     getLog().unableToInvokeListenerMethod(method, target, cause);
-                  }
-               } catch (IllegalAccessException exception) {
-                  getLog().unableToInvokeListenerMethodAndRemoveListener(method, target, exception);
-                  removeListener(target);
-               } finally {
-                  if (classLoader != null && classLoader.get() != null) {
-                     SecurityActions.setContextClassLoader(contextClassLoader);
-                  }
-                  resumeIfNeeded(transaction);
-               }
+               deliver(event);
             }
          };
 
@@ -306,6 +329,60 @@ public Void run() throws Exception {
             asyncProcessor.execute(r);
       }
 
+      @Override
+      public void deliver(final Object argument) {
+         ClassLoader contextClassLoader = null;
+         Transaction transaction = suspendIfNeeded();
+         if (classLoader != null && classLoader.get() != null) {
+            contextClassLoader = SecurityActions.setContextClassLoader(classLoader.get());
+         }
+         try {
+            if (subject != null) {
+               try {
+                  Security.doAs(subject, new PrivilegedExceptionAction<Void>() {
+                     @Override
+                     public Void run() throws Exception {
+                        method.invoke(target, argument);
+                        return null;
+                     }
+                  });
+               } catch (PrivilegedActionException e) {
+                  Throwable cause = e.getCause();
+                  if (cause instanceof InvocationTargetException) {
+                     throw (InvocationTargetException)cause;
+                  } else if (cause instanceof IllegalAccessException) {
+                     throw (IllegalAccessException)cause;
+                  } else {
+                     throw new InvocationTargetException(cause);
+                  }
+               }
+            } else {
+               method.invoke(target, argument);
+            }
+         } catch (InvocationTargetException exception) {
+            Throwable cause = getRealException(exception);
+            if (sync) {
+               throw getLog().exceptionInvokingListener(
+                     cause.getClass().getName(), method, target, cause);
+            } else {
+               getLog().unableToInvokeListenerMethod(method, target, cause);
+            }
+         } catch (IllegalAccessException exception) {
+            getLog().unableToInvokeListenerMethodAndRemoveListener(method, target, exception);
+            removeListener(target);
+         } finally {
+            if (classLoader != null && classLoader.get() != null) {
+               SecurityActions.setContextClassLoader(contextClassLoader);
+            }
+            resumeIfNeeded(transaction);
+         }
+      }
+
+      @Override
+      public boolean acceptsList() {
+         return listParameter;
+      }
+
       @Override
       public Object getTarget() {
          return target;
@@ -0,0 +1,228 @@
+package org.infinispan.notifications.impl;
+
+import org.infinispan.notifications.Listener;
+import org.infinispan.util.logging.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Delivers the events of a {@link Listener#batch()} listener asynchronously and in order.
+ * <p/>
+ * The events are queued in a bounded ring buffer, allocated when the listener is registered. The batcher submits
+ * itself to the executor when the first event is queued, and drains the queue until it is empty, so there is a single
+ * task per batch instead of a task per event. Consecutive events for a method accepting a {@link List} are delivered
+ * with a single invocation, reusing the same list.
+ *
+ * @since 7.2
+ */
+final class ListenerEventBatcher implements Runnable {
+
+   /**
+    * A listener method that receives the events queued by the batcher.
+    */
+   interface Delivery {
+      void deliver(Object argument);
+
+      boolean acceptsList();
+   }
+
+   private final Object target;
+   private final Listener.Overflow overflow;
+   private final Executor executor;
+   private final Log log;
+
+   private final ReentrantLock lock = new ReentrantLock();
+   private final Condition notFull = lock.newCondition();
+   // Guarded by lock
+   private final Object[] events;
+   private final Delivery[] deliveries;
+   private int head;
+   private int count;
+   private long dropped;
+   private boolean draining;
+
+   // Only accessed by the thread draining the queue
+   private final Object[] drainEvents;
+   private final Delivery[] drainDeliveries;
+   private final List<Object> batch = new ArrayList<Object>();
+   private volatile Thread drainer;
+
+   ListenerEventBatcher(Object target, int capacity, Listener.Overflow overflow, Executor executor, Log log) {
+      this.target = target;
+      this.overflow = overflow;
+      this.executor = executor;
+      this.log = log;
+      this.events = new Object[capacity];
+      this.deliveries = new Delivery[capacity];
+      this.drainEvents = new Object[capacity];
+      this.drainDeliveries = new Delivery[capacity];
+   }
+
+   void enqueue(Delivery delivery, Object event) {
+      boolean submit = false;
+      lock.lock();
+      try {
+         if (count == events.length) {
+            switch (overflow) {
+               case DROP_NEWEST:
+                  dropped++;
+                  return;
+               case DROP_OLDEST:
+                  events[head] = null;
+                  deliveries[head] = null;
+                  head = (head + 1) % events.length;
+                  count--;
+                  dropped++;
+                  break;
+               default:
+                  if (Thread.currentThread() == drainer) {
+                     // The listener is writing to the cache, waiting for itself would never end
+                     lock.unlock();
+                     try {
+                        delivery.deliver(event);
+                     } finally {
+                        lock.lock();
+                     }
+                     return;
+                  }
+                  while (count == events.length) {
+                     try {
+                        notFull.await();
+                     } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        dropped++;
+                        return;
+                     }
+                  }
+            }
+         }
+         int tail = (head + count) % events.length;
+         events[tail] = event;
+         deliveries[tail] = delivery;
+         count++;
+         if (!draining) {
+            draining = true;
+            submit = true;
+         }
+      } finally {
+         lock.unlock();
+      }
+
+      if (submit) {
+         try {
+            executor.execute(this);
+         } catch (RejectedExecutionException e) {
+            lock.lock();
+            try {
+               draining = false;
+            } finally {
+               lock.unlock();
+            }
+            throw e;
+         }
+      }
+   }
+
+   @Override
+   public void run() {
+      drainer = Thread.currentThread();
+      boolean idle = false;
+      try {
+         int drained;
+         while ((drained = takeAll()) > 0) {
+            deliver(drained);
+         }
+         idle = true;
+      } finally {
+         drainer = null;
+         if (!idle) {
+            // A listener threw an Error, so the next event must start a new drain
+            lock.lock();
+            try {
+               draining = false;
+            } finally {
+               lock.unlock();
+            }
+         }
+      }
+   }
+
+   /**
+    * Moves the queued events to the drain arrays, or marks the batcher as idle if there are none.
+    */
+   private int takeAll() {
+      long droppedEvents;
+      int drained;
+      lock.lock();
+      try {
+         drained = count;
+         if (drained == 0) {
+            draining = false;
+            return 0;
+         }
+         for (int i = 0; i < drained; i++) {
+            int index = (head + i) % events.length;
+            drainEvents[i] = events[index];
+            drainDeliveries[i] = deliveries[index];
+            events[index] = null;
+            deliveries[index] = null;
+         }
+         head = 0;
+         count = 0;
+         droppedEvents = dropped;
+         dropped = 0;
+         notFull.signalAll();
+      } finally {
+         lock.unlock();
+      }
+      if (droppedEvents > 0) {
+         log.droppedListenerEvents(target, droppedEvents);
+      }
+      return drained;
+   }
+
+   private void deliver(int drained) {
+      try {
+         deliverDrained(drained);
+      } finally {
+         Arrays.fill(drainEvents, 0, drained, null);
+         Arrays.fill(drainDeliveries, 0, drained, null);
+      }
+   }
+
+   private void deliverDrained(int drained) {
+      int i = 0;
+      while (i < drained) {
+         Delivery delivery = drainDeliveries[i];
+         try {
+            if (delivery.acceptsList()) {
+               int end = i;
+               while (end < drained && drainDeliveries[end] == delivery) {
+                  batch.add(drainEvents[end++]);
+               }
+               i = end;
+               try {
+                  delivery.deliver(batch);
+               } finally {
+                  batch.clear();
+               }
+            } else {
+               delivery.deliver(drainEvents[i++]);
+            }
+         } catch (RuntimeException e) {
+            log.errorDeliveringListenerEvents(target, e);
+         }
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "ListenerEventBatcher{target=" + target + ", overflow=" + overflow + '}';
+   }
+}
@@ -3,6 +3,7 @@
 import org.infinispan.commands.LocalFlagAffectedCommand;
 import org.infinispan.commands.read.AbstractDataCommand;
 import org.infinispan.commands.read.EntryRetrievalCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetCacheEntryCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.write.ApplyDeltaCommand;
@@ -21,6 +22,7 @@
 import org.infinispan.remoting.RpcException;
 import org.infinispan.remoting.transport.Transport;
 
+import java.util.Map;
 import java.util.Set;
 
 public class PartitionHandlingInterceptor extends CommandInterceptor {
@@ -134,6 +136,33 @@ public final Object visitGetCacheEntryCommand(InvocationContext ctx, GetCacheEnt
       return result;
    }
 
+   @Override
+   public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) throws Throwable {
+      Map<?, ?> result;
+      try {
+         result = (Map<?, ?>) super.visitGetAllCommand(ctx, command);
+      } catch (RpcException e) {
+         if (performPartitionCheck(ctx, command)) {
+            // We must have received an AvailabilityException from one of the owners.
+            // There is no way to verify the cause here, but there isn't any other way to get an invalid get response.
+            throw getLog().degradedModeKeysUnavailable(command.getKeys());
+         } else {
+            throw e;
+         }
+      }
+      if (performPartitionCheck(ctx, command)) {
+         for (Object key : command.getKeys()) {
+            partitionHandlingManager.checkRead(key);
+            // Same as for single key reads, only fail a missing key if _all_ its owners have left the cluster
+            if (!result.containsKey(key) &&
+                  !InfinispanCollections.containsAny(transport.getMembers(), distributionManager.locate(key))) {
+               throw getLog().degradedModeKeyUnavailable(key);
+            }
+         }
+      }
+      return result;
+   }
+
    private Object postOperationPartitionCheck(InvocationContext ctx, AbstractDataCommand command, Object key, Object result) throws Throwable {
       if (performPartitionCheck(ctx, command)) {
          // We do the availability check after the read, because the cache may have entered degraded mode
@@ -12,6 +12,8 @@
 import org.infinispan.metadata.impl.InternalMetadataImpl;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.persistence.spi.AdvancedCacheLoader;
+import org.infinispan.persistence.spi.BatchingCacheWriter;
+import org.infinispan.persistence.spi.CacheWriter;
 import org.infinispan.util.TimeService;
 import org.infinispan.util.concurrent.WithinThreadExecutor;
 import org.infinispan.util.logging.Log;
@@ -72,6 +74,35 @@ public void processEntry(MarshalledEntry<K, V> ce, AdvancedCacheLoader.TaskConte
       return set;
    }
 
+   /**
+    * Writes all the entries using a single {@link BatchingCacheWriter#writeBatch(Iterable)} call if the writer supports
+    * it, otherwise the entries are written one by one.
+    */
+   @SuppressWarnings("unchecked")
+   public static void writeBatch(CacheWriter writer, Iterable<MarshalledEntry> entries) {
+      if (writer instanceof BatchingCacheWriter) {
+         ((BatchingCacheWriter) writer).writeBatch(entries);
+      } else {
+         for (MarshalledEntry entry : entries) {
+            writer.write(entry);
+         }
+      }
+   }
+
+   /**
+    * Deletes all the keys using a single {@link BatchingCacheWriter#deleteBatch(Iterable)} call if the writer supports
+    * it, otherwise the keys are deleted one by one.
+    */
+   public static void deleteBatch(CacheWriter writer, Iterable<Object> keys) {
+      if (writer instanceof BatchingCacheWriter) {
+         ((BatchingCacheWriter) writer).deleteBatch(keys);
+      } else {
+         for (Object key : keys) {
+            writer.delete(key);
+         }
+      }
+   }
+
    public static long getExpiryTime(InternalMetadata internalMetadata) {
       return internalMetadata == null ? -1 : internalMetadata.expiryTime();
    }
@@ -6,7 +6,9 @@
 import org.infinispan.configuration.cache.AsyncStoreConfiguration;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.persistence.PersistenceUtil;
 import org.infinispan.persistence.modifications.Modification;
+import org.infinispan.persistence.modifications.ModificationsList;
 import org.infinispan.persistence.modifications.Remove;
 import org.infinispan.persistence.modifications.Store;
 import org.infinispan.commons.util.CollectionFactory;
@@ -147,19 +149,45 @@ public boolean delete(Object key) {
       return true;
    }
 
+   @Override
+   public void writeBatch(Iterable entries) {
+      List<Modification> mods = new ArrayList<Modification>();
+      for (Object entry : entries) {
+         MarshalledEntry me = (MarshalledEntry) entry;
+         mods.add(new Store(me.getKey(), me));
+      }
+      put(new ModificationsList(mods), mods.size());
+   }
+
+   @Override
+   public void deleteBatch(Iterable keys) {
+      List<Modification> mods = new ArrayList<Modification>();
+      for (Object key : keys) {
+         mods.add(new Remove(key));
+      }
+      put(new ModificationsList(mods), mods.size());
+   }
+
    protected void applyModificationsSync(List<Modification> mods) throws PersistenceException {
+      // the modifications are coalesced by key, so the stores and removes can be applied as two independent batches
+      List<MarshalledEntry> stores = new ArrayList<MarshalledEntry>(mods.size());
+      List<Object> removes = new ArrayList<Object>();
       for (Modification m : mods) {
          switch (m.getType()) {
             case STORE:
-               actual.write(((Store) m).getStoredValue());
+               stores.add(((Store) m).getStoredValue());
                break;
             case REMOVE:
-               actual.delete(((Remove) m).getKey());
+               removes.add(((Remove) m).getKey());
                break;
             default:
                throw new IllegalArgumentException("Unknown modification type " + m.getType());
          }
       }
+      if (!stores.isEmpty())
+         PersistenceUtil.writeBatch(actual, stores);
+      if (!removes.isEmpty())
+         PersistenceUtil.deleteBatch(actual, removes);
    }
 
 
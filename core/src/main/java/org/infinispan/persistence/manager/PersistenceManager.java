@@ -58,6 +58,18 @@ public interface PersistenceManager extends Lifecycle {
 
    void writeToAllStores(MarshalledEntry marshalledEntry, AccessMode modes);
 
+   /**
+    * Writes all the entries to the stores, using a single batch for the writers implementing {@link
+    * org.infinispan.persistence.spi.BatchingCacheWriter}.
+    */
+   void writeBatchToAllStores(Iterable<MarshalledEntry> entries, AccessMode mode);
+
+   /**
+    * Deletes all the keys from the stores, using a single batch for the writers implementing {@link
+    * org.infinispan.persistence.spi.BatchingCacheWriter}.
+    */
+   void deleteBatchFromAllStores(Iterable<Object> keys, AccessMode mode);
+
    /**
     * Returns the store one configured with fetch persistent state, or null if none exist.
     */
@@ -0,0 +1,32 @@
+package org.infinispan.persistence.spi;
+
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.marshall.core.MarshalledEntry;
+
+/**
+ * A {@link CacheWriter} that is able to persist or remove a group of entries with a single operation against the
+ * external storage, e.g. a JDBC batch or a single synchronization of the store file.
+ * <p/>
+ * The {@link org.infinispan.persistence.manager.PersistenceManager} uses these methods for multi-key operations such
+ * as {@link org.infinispan.Cache#putAll(java.util.Map)} and transaction commits. Writers that don't implement this
+ * interface have the entries written or deleted one by one.
+ *
+ * @since 7.2
+ */
+@ThreadSafe
+public interface BatchingCacheWriter<K, V> extends CacheWriter<K, V> {
+
+   /**
+    * Persists all the provided entries to the storage.
+    *
+    * @throws PersistenceException in case of an error, e.g. communicating with the external storage
+    */
+   void writeBatch(Iterable<MarshalledEntry<? extends K, ? extends V>> entries);
+
+   /**
+    * Removes all the provided keys from the storage. Keys that don't exist in the storage are ignored.
+    *
+    * @throws PersistenceException in case of an error, e.g. communicating with the external storage
+    */
+   void deleteBatch(Iterable<Object> keys);
+}
@@ -0,0 +1,427 @@
+package org.infinispan.remoting;
+
+import org.infinispan.Cache;
+import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.remote.MultipleRpcCommand;
+import org.infinispan.commands.write.DataWriteCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commands.write.PutMapCommand;
+import org.infinispan.commands.write.RemoveCommand;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.equivalence.EquivalentHashMap;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.configuration.cache.AsyncConfiguration;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.context.Flag;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.factories.annotations.ComponentName;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.jmx.annotations.DisplayType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.remoting.rpc.ResponseMode;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A replication queue that sends a batch as soon as it is big enough, instead of waiting for a fixed interval.
+ * <p/>
+ * A batch is flushed when it reaches {@link AsyncConfiguration#replQueueMaxElements()} commands, when its estimated
+ * size reaches the maximum number of bytes, or when its oldest command has waited for
+ * {@link AsyncConfiguration#replQueueInterval()} milliseconds, whichever comes first. An unconditional put or remove
+ * replaces the writes to the same key already in the batch, so they are not marshalled and sent.
+ * <p/>
+ * To use it, configure the replication queue with {@code clustering().async().useReplQueue(true).replQueue(new
+ * AdaptiveReplicationQueue())}.
+ *
+ * @since 7.2
+ */
+@MBean(objectName = "ReplicationQueue", description = "Batches asynchronous replication commands")
+public class AdaptiveReplicationQueue implements ReplicationQueue {
+   private static final Log log = LogFactory.getLog(AdaptiveReplicationQueue.class);
+
+   /**
+    * The default maximum estimated size of a batch, in bytes.
+    */
+   public static final long DEFAULT_MAX_BYTES = 1024 * 1024;
+
+   /**
+    * The batch size histogram buckets: 1, 2-3, 4-7, ..., 1024 or more.
+    */
+   private static final int BUCKETS = 11;
+
+   private final long maxBytes;
+
+   private ScheduledExecutorService scheduledExecutor;
+   private RpcManager rpcManager;
+   private Configuration configuration;
+   private CommandsFactory commandsFactory;
+   private StreamingMarshaller marshaller;
+   private String cacheName;
+   private boolean enabled;
+   private boolean trace;
+   private long latencyTarget;
+   private int maxElements;
+
+   // Guarded by this
+   private List<ReplicableCommand> batch = new ArrayList<ReplicableCommand>();
+   private Map<Object, BatchedWrite> lastWrites;
+   private int batchElements;
+   private long batchBytes;
+   private ScheduledFuture<?> scheduledFlush;
+   private long mergedCommands;
+
+   // Guarded by flushLock
+   private final Object flushLock = new Object();
+   private long flushes;
+   private long flushedCommands;
+   private long maxBatchSize;
+   private long sizeFlushes;
+   private long bytesFlushes;
+   private long latencyFlushes;
+
+   private final AtomicLongArray batchSizes = new AtomicLongArray(BUCKETS);
+
+   public AdaptiveReplicationQueue() {
+      this(DEFAULT_MAX_BYTES);
+   }
+
+   /**
+    * @param maxBytes the maximum estimated size of a batch
+    */
+   public AdaptiveReplicationQueue(long maxBytes) {
+      this.maxBytes = maxBytes;
+   }
+
+   @Inject
+   public void injectDependencies(@ComponentName(KnownComponentNames.ASYNC_REPLICATION_QUEUE_EXECUTOR) ScheduledExecutorService executor,
+                                  RpcManager rpcManager, Configuration configuration, CommandsFactory commandsFactory,
+                                  @ComponentName(KnownComponentNames.CACHE_MARSHALLER) StreamingMarshaller marshaller,
+                                  Cache cache) {
+      this.scheduledExecutor = executor;
+      this.rpcManager = rpcManager;
+      this.configuration = configuration;
+      this.commandsFactory = commandsFactory;
+      this.marshaller = marshaller;
+      this.cacheName = cache.getName();
+   }
+
+   @Override
+   @Start
+   public void start() {
+      AsyncConfiguration asyncCfg = configuration.clustering().async();
+      latencyTarget = asyncCfg.replQueueInterval();
+      maxElements = asyncCfg.replQueueMaxElements();
+      enabled = asyncCfg.useReplQueue();
+      lastWrites = new EquivalentHashMap<Object, BatchedWrite>(configuration.dataContainer().keyEquivalence(),
+                                                               AnyEquivalence.<BatchedWrite>getInstance());
+      trace = log.isTraceEnabled();
+      if (trace)
+         log.tracef("Starting adaptive replication queue, with latency target %d, maxElements %d and maxBytes %d",
+                    latencyTarget, maxElements, maxBytes);
+   }
+
+   @Override
+   @Stop(priority = 9)
+   // Stop before transport
+   public void stop() {
+      synchronized (this) {
+         if (scheduledFlush != null) scheduledFlush.cancel(false);
+      }
+      try {
+         flush();
+      } catch (Exception e) {
+         log.debug("Unable to perform final flush before shutting down", e);
+      }
+   }
+
+   @Override
+   public boolean isEnabled() {
+      return enabled;
+   }
+
+   @Override
+   public void add(ReplicableCommand job) {
+      if (job == null)
+         throw new NullPointerException("job is null");
+
+      boolean flushOnSize;
+      boolean flushOnBytes;
+      synchronized (this) {
+         long size = estimateSize(job);
+         if (supersedesPreviousWrites(job)) {
+            Object key = ((DataWriteCommand) job).getKey();
+            BatchedWrite previous = lastWrites.put(key, new BatchedWrite(batch.size(), size));
+            if (previous != null) {
+               batch.set(previous.index, null);
+               batchElements--;
+               batchBytes -= previous.size;
+               mergedCommands++;
+            }
+         } else if (job instanceof DataWriteCommand) {
+            // A later unconditional write can still replace this one
+            lastWrites.put(((DataWriteCommand) job).getKey(), new BatchedWrite(batch.size(), size));
+         }
+         batch.add(job);
+         batchElements++;
+         batchBytes += size;
+
+         if (scheduledFlush == null && latencyTarget > 0 && scheduledExecutor != null) {
+            scheduledFlush = scheduledExecutor.schedule(new Runnable() {
+               @Override
+               public void run() {
+                  LogFactory.pushNDC(cacheName, trace);
+                  try {
+                     flush(FlushCause.LATENCY);
+                  } finally {
+                     LogFactory.popNDC(trace);
+                  }
+               }
+            }, latencyTarget, TimeUnit.MILLISECONDS);
+         }
+         flushOnSize = batchElements >= maxElements;
+         flushOnBytes = batchBytes >= maxBytes;
+      }
+
+      if (flushOnSize) {
+         flush(FlushCause.SIZE);
+      } else if (flushOnBytes) {
+         flush(FlushCause.BYTES);
+      }
+   }
+
+   @Override
+   public int flush() {
+      return flush(FlushCause.EXPLICIT);
+   }
+
+   private int flush(FlushCause cause) {
+      synchronized (flushLock) {
+         List<ReplicableCommand> toReplicate = drainBatch();
+         int toReplicateSize = toReplicate.size();
+         if (trace) log.tracef("flush(): flushing repl queue (num elements=%s, cause=%s)", toReplicateSize, cause);
+         if (toReplicateSize == 0)
+            return 0;
+
+         recordFlush(toReplicateSize, cause);
+         try {
+            MultipleRpcCommand multipleRpcCommand = commandsFactory.buildReplicateCommand(toReplicate);
+            rpcManager.invokeRemotely(null, multipleRpcCommand,
+                                      rpcManager.getRpcOptionsBuilder(ResponseMode.getAsyncResponseMode(configuration))
+                                            .skipReplicationQueue(true).build());
+         } catch (Throwable t) {
+            log.failedReplicatingQueue(toReplicateSize, t);
+         }
+         return toReplicateSize;
+      }
+   }
+
+   private synchronized List<ReplicableCommand> drainBatch() {
+      if (scheduledFlush != null) {
+         scheduledFlush.cancel(false);
+         scheduledFlush = null;
+      }
+      if (batchElements == 0)
+         return new ArrayList<ReplicableCommand>(0);
+
+      List<ReplicableCommand> toReplicate = new ArrayList<ReplicableCommand>(batchElements);
+      for (ReplicableCommand command : batch) {
+         if (command != null)
+            toReplicate.add(command);
+      }
+      batch = new ArrayList<ReplicableCommand>(Math.max(16, batch.size()));
+      lastWrites.clear();
+      batchElements = 0;
+      batchBytes = 0;
+      return toReplicate;
+   }
+
+   private void recordFlush(int size, FlushCause cause) {
+      flushes++;
+      flushedCommands += size;
+      maxBatchSize = Math.max(maxBatchSize, size);
+      if (cause == FlushCause.SIZE) {
+         sizeFlushes++;
+      } else if (cause == FlushCause.BYTES) {
+         bytesFlushes++;
+      } else if (cause == FlushCause.LATENCY) {
+         latencyFlushes++;
+      }
+      int bucket = Math.min(BUCKETS - 1, 31 - Integer.numberOfLeadingZeros(size));
+      batchSizes.incrementAndGet(bucket);
+   }
+
+   /**
+    * An unconditional put or remove makes the previous writes to the same key in the batch useless.
+    */
+   private boolean supersedesPreviousWrites(ReplicableCommand command) {
+      if (!(command instanceof PutKeyValueCommand) && !(command instanceof RemoveCommand))
+         return false;
+      DataWriteCommand write = (DataWriteCommand) command;
+      return !write.isConditional() && !write.hasFlag(Flag.DELTA_WRITE) && !write.hasFlag(Flag.PUT_FOR_EXTERNAL_READ);
+   }
+
+   private long estimateSize(ReplicableCommand command) {
+      if (command instanceof PutKeyValueCommand) {
+         PutKeyValueCommand put = (PutKeyValueCommand) command;
+         return estimateSize(put.getKey()) + estimateSize(put.getValue());
+      } else if (command instanceof DataWriteCommand) {
+         return estimateSize(((DataWriteCommand) command).getKey());
+      } else if (command instanceof PutMapCommand) {
+         long size = 0;
+         for (Map.Entry<Object, Object> entry : ((PutMapCommand) command).getMap().entrySet()) {
+            size += estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+         }
+         return size;
+      } else {
+         return estimateSize((Object) command);
+      }
+   }
+
+   private long estimateSize(Object o) {
+      if (o == null)
+         return 1;
+      if (o instanceof byte[])
+         return ((byte[]) o).length;
+      return marshaller.getBufferSizePredictor(o).nextSize(o);
+   }
+
+   @Override
+   @ManagedAttribute(description = "Number of commands waiting to be replicated", displayName = "Queue depth")
+   public synchronized int getElementsCount() {
+      return batchElements;
+   }
+
+   @ManagedAttribute(description = "Estimated size of the commands waiting to be replicated", displayName = "Queued bytes")
+   public synchronized long getElementsBytes() {
+      return batchBytes;
+   }
+
+   @ManagedAttribute(description = "Number of batches replicated", displayName = "Number of batches",
+                     measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getFlushCount() {
+      synchronized (flushLock) {
+         return flushes;
+      }
+   }
+
+   @ManagedAttribute(description = "Average number of commands in a batch", displayName = "Average batch size",
+                     displayType = DisplayType.SUMMARY)
+   public double getAverageBatchSize() {
+      synchronized (flushLock) {
+         return flushes == 0 ? 0 : (double) flushedCommands / flushes;
+      }
+   }
+
+   @ManagedAttribute(description = "Maximum number of commands in a batch", displayName = "Maximum batch size")
+   public long getMaxBatchSize() {
+      synchronized (flushLock) {
+         return maxBatchSize;
+      }
+   }
+
+   @ManagedAttribute(description = "Number of batches replicated per batch size range", displayName = "Batch size distribution")
+   public String getBatchSizeDistribution() {
+      StringBuilder sb = new StringBuilder("{");
+      for (int i = 0; i < BUCKETS; i++) {
+         if (i > 0) sb.append(", ");
+         int low = 1 << i;
+         if (i == BUCKETS - 1) {
+            sb.append(low).append('+');
+         } else if (low == 1) {
+            sb.append(low);
+         } else {
+            sb.append(low).append('-').append((low << 1) - 1);
+         }
+         sb.append('=').append(batchSizes.get(i));
+      }
+      return sb.append('}').toString();
+   }
+
+   @ManagedAttribute(description = "Number of batches replicated because they reached the maximum number of commands",
+                     displayName = "Batches flushed on size", measurementType = MeasurementType.TRENDSUP)
+   public long getSizeFlushes() {
+      synchronized (flushLock) {
+         return sizeFlushes;
+      }
+   }
+
+   @ManagedAttribute(description = "Number of batches replicated because they reached the maximum size in bytes",
+                     displayName = "Batches flushed on bytes", measurementType = MeasurementType.TRENDSUP)
+   public long getBytesFlushes() {
+      synchronized (flushLock) {
+         return bytesFlushes;
+      }
+   }
+
+   @ManagedAttribute(description = "Number of batches replicated because of the latency target",
+                     displayName = "Batches flushed on latency", measurementType = MeasurementType.TRENDSUP)
+   public long getLatencyFlushes() {
+      synchronized (flushLock) {
+         return latencyFlushes;
+      }
+   }
+
+   @ManagedAttribute(description = "Number of commands replaced by a later write to the same key before replication",
+                     displayName = "Merged commands", measurementType = MeasurementType.TRENDSUP)
+   public synchronized long getMergedCommands() {
+      return mergedCommands;
+   }
+
+   @ManagedOperation(description = "Resets statistics gathered by this component", displayName = "Reset statistics")
+   public void resetStatistics() {
+      synchronized (flushLock) {
+         flushes = 0;
+         flushedCommands = 0;
+         maxBatchSize = 0;
+         sizeFlushes = 0;
+         bytesFlushes = 0;
+         latencyFlushes = 0;
+      }
+      synchronized (this) {
+         mergedCommands = 0;
+      }
+      for (int i = 0; i < BUCKETS; i++) {
+         batchSizes.set(i, 0);
+      }
+   }
+
+   @Override
+   public synchronized void reset() {
+      batch.clear();
+      lastWrites.clear();
+      batchElements = 0;
+      batchBytes = 0;
+   }
+
+   private enum FlushCause {
+      SIZE, BYTES, LATENCY, EXPLICIT
+   }
+
+   /**
+    * The position of the last write to a key in the batch, and its estimated size.
+    */
+   private static final class BatchedWrite {
+      final int index;
+      final long size;
+
+      BatchedWrite(int index, long size) {
+         this.index = index;
+         this.size = size;
+      }
+   }
+}
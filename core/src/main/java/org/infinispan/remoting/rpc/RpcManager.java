@@ -6,6 +6,7 @@
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.Transport;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
 
 import java.util.Collection;
@@ -217,8 +218,26 @@ void invokeRemotelyInFuture(Collection<Address> recipients, ReplicableCommand rp
 
    /**
     * The same as {@link #invokeRemotely(java.util.Collection, org.infinispan.commands.ReplicableCommand, RpcOptions)}
-    * except that the task is passed to the transport executor and a Future is returned.  The transport always deals
-    * with this synchronously.
+    * except that the caller doesn't wait for the responses. No thread is blocked while the responses are pending, if
+    * the transport supports it.
+    * <p/>
+    * The returned future is completed with the map of responses, or with the exception {@code invokeRemotely} would
+    * have thrown. Its listeners may be invoked by a transport thread, so they must not block.
+    *
+    * @param recipients recipients to invoke remote call on. If this is {@code null}, the call is broadcast to the
+    *                   entire cluster.
+    * @param rpc        command to execute remotely.
+    * @param options    it configures the invocation.
+    * @return a future for the map of responses from each member contacted.
+    * @since 7.2
+    */
+   NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients, ReplicableCommand rpc,
+                                                               RpcOptions options);
+
+   /**
+    * The same as {@link #invokeRemotely(java.util.Collection, org.infinispan.commands.ReplicableCommand, RpcOptions)}
+    * except that a Future is returned.  The future is notified by the thread receiving the responses, see
+    * {@link #invokeRemotelyAsync(java.util.Collection, org.infinispan.commands.ReplicableCommand, RpcOptions)}.
     *
     * @param recipients recipients to invoke remote call on. If this is {@code null}, the call is broadcast to the
     *                   entire cluster.
@@ -5,10 +5,13 @@
 import org.infinispan.commands.TopologyAffectedCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.util.concurrent.CompletableNotifyingFuture;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NoOpFuture;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.commons.util.concurrent.NotifyingNotifiableFuture;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.distribution.ch.ConsistentHash;
-import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.jmx.JmxStatisticsExposer;
@@ -36,13 +39,11 @@
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
-import static org.infinispan.factories.KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR;
-
 /**
  * This component really is just a wrapper around a {@link org.infinispan.remoting.transport.Transport} implementation,
  * and is used to set up the transport and provide lifecycle and dependency hooks into external transport
@@ -68,7 +69,6 @@ public class RpcManagerImpl implements RpcManager, JmxStatisticsExposer {
    private boolean statisticsEnabled = false; // by default, don't gather statistics.
    private Configuration configuration;
    private ReplicationQueue replicationQueue;
-   private ExecutorService asyncExecutor;
    private CommandsFactory cf;
    private StateTransferManager stateTransferManager;
    private TimeService timeService;
@@ -76,12 +76,10 @@ public class RpcManagerImpl implements RpcManager, JmxStatisticsExposer {
    @Inject
    public void injectDependencies(Transport t, Configuration cfg,
                                   ReplicationQueue replicationQueue, CommandsFactory cf,
-                                  @ComponentName(ASYNC_TRANSPORT_EXECUTOR) ExecutorService e,
                                   StateTransferManager stateTransferManager, TimeService timeService) {
       this.t = t;
       this.configuration = cfg;
       this.replicationQueue = replicationQueue;
-      this.asyncExecutor = e;
       this.cf = cf;
       this.stateTransferManager = stateTransferManager;
       this.timeService = timeService;
@@ -211,22 +209,9 @@ public void invokeRemotelyInFuture(final Collection<Address> recipients, final R
                                       final long timeout, final boolean ignoreLeavers) {
       if (trace) log.tracef("%s invoking in future call %s to recipient list %s", t.getAddress(), rpc, recipients);
       final ResponseMode responseMode = ignoreLeavers ? ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS : ResponseMode.SYNCHRONOUS;
-      Callable<Object> c = new Callable<Object>() {
-         @Override
-         public Object call() throws Exception {
-            Object result;
-            try {
-               result = invokeRemotely(recipients, rpc, true, usePriorityQueue, timeout, responseMode);
-               future.notifyDone(result);
-               return result;
-            } catch (RuntimeException e) {
-               future.notifyException(e);
-               throw e;
-            }
-         }
-      };
-      // NotifyingNotifiableFuture must be internally synchronized
-      future.setFuture(asyncExecutor.submit(c));
+      RpcOptions options = getRpcOptionsBuilder(responseMode, usePriorityQueue ? DeliverOrder.NONE : DeliverOrder.PER_SENDER)
+            .timeout(timeout, TimeUnit.MILLISECONDS).build();
+      invokeRemotelyInFuture(recipients, rpc, options, future);
    }
 
    @Override
@@ -304,26 +289,118 @@ public Map<Address, Response> invokeRemotely(Collection<Address> recipients, Rep
       }
    }
 
+   @Override
+   public NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients, ReplicableCommand rpc,
+                                                                      RpcOptions options) {
+      if (trace) log.tracef("%s invoking asynchronously %s to recipient list %s with options %s", t.getAddress(), rpc,
+                            recipients, options);
+
+      if (!options.skipReplicationQueue() && useReplicationQueue(options.responseMode().isSynchronous())) {
+         if (trace) {
+            log.tracef("Using replication queue for command [%s]", rpc);
+         }
+         replicationQueue.add(rpc);
+         return new NoOpFuture<Map<Address, Response>>(null);
+      }
+      if (!configuration.clustering().cacheMode().isClustered())
+         throw new IllegalStateException("Trying to invoke a remote command but the cache is not clustered");
+
+      // Set the topology id of the command, in case we don't have it yet
+      if (rpc instanceof TopologyAffectedCommand) {
+         TopologyAffectedCommand topologyAffectedCommand = (TopologyAffectedCommand) rpc;
+         if (topologyAffectedCommand.getTopologyId() == -1) {
+            int currentTopologyId = stateTransferManager.getCacheTopology().getTopologyId();
+            if (trace) log.tracef("Topology id missing on command %s, setting it to %d", rpc, currentTopologyId);
+            topologyAffectedCommand.setTopologyId(currentTopologyId);
+         }
+      }
+
+      if (!(rpc instanceof CacheRpcCommand)) {
+         rpc = cf.buildSingleRpcCommand(rpc);
+      }
+
+      final ReplicableCommand command = rpc;
+      final long startTimeNanos = statisticsEnabled ? timeService.time() : 0;
+      final CompletableNotifyingFuture<Map<Address, Response>> result = new CompletableNotifyingFuture<Map<Address, Response>>();
+      NotifyingFuture<Map<Address, Response>> transportFuture;
+      try {
+         transportFuture = t.invokeRemotelyAsync(recipients, command, options.responseMode(),
+               options.timeUnit().toMillis(options.timeout()), options.responseFilter(), options.deliverOrder(),
+               configuration.clustering().cacheMode().isDistributed());
+      } catch (Throwable th) {
+         recordReplicationTime(startTimeNanos);
+         result.completeExceptionally(asReplicationException(th));
+         return result;
+      }
+      transportFuture.attachListener(new FutureListener<Map<Address, Response>>() {
+         @Override
+         public void futureDone(Future<Map<Address, Response>> future) {
+            Map<Address, Response> responses;
+            try {
+               responses = future.get();
+            } catch (ExecutionException e) {
+               recordReplicationTime(startTimeNanos);
+               result.completeExceptionally(asReplicationException(e.getCause()));
+               return;
+            } catch (Throwable th) {
+               recordReplicationTime(startTimeNanos);
+               result.completeExceptionally(asReplicationException(th));
+               return;
+            }
+            recordReplicationTime(startTimeNanos);
+            if (statisticsEnabled) replicationCount.incrementAndGet();
+            if (trace) log.tracef("Response(s) to %s is %s", command, responses);
+            result.complete(responses);
+         }
+      });
+      return result;
+   }
+
+   private RuntimeException asReplicationException(Throwable th) {
+      if (th instanceof InterruptedException) {
+         return new CacheException("Thread interrupted while invoking RPC", th);
+      } else if (th instanceof CacheException) {
+         log.trace("replication exception: ", th);
+         if (statisticsEnabled) replicationFailures.incrementAndGet();
+         return (CacheException) th;
+      } else {
+         log.unexpectedErrorReplicating(th);
+         if (statisticsEnabled) replicationFailures.incrementAndGet();
+         return new CacheException(th);
+      }
+   }
+
+   private void recordReplicationTime(long startTimeNanos) {
+      if (statisticsEnabled) {
+         long timeTaken = timeService.timeDuration(startTimeNanos, TimeUnit.MILLISECONDS);
+         totalReplicationTime.getAndAdd(timeTaken);
+      }
+   }
+
    @Override
    public void invokeRemotelyInFuture(final NotifyingNotifiableFuture<Map<Address, Response>> future,
                                       final Collection<Address> recipients, final ReplicableCommand rpc,
                                       final RpcOptions options) {
       if (trace) log.tracef("%s invoking in future call %s to recipient list %s with options %s", t.getAddress(),
                             rpc, recipients, options);
-      Callable<Map<Address, Response>> c = new Callable<Map<Address, Response>>() {
+      // The caller's future is only done after it was notified, so get() can't return before notifyDone() is called
+      final CompletableNotifyingFuture<Map<Address, Response>> notified = new CompletableNotifyingFuture<Map<Address, Response>>();
+      // NotifyingNotifiableFuture must be internally synchronized
+      future.setFuture(notified);
+      invokeRemotelyAsync(recipients, rpc, options).attachListener(new FutureListener<Map<Address, Response>>() {
          @Override
-         public Map<Address, Response> call() throws Exception {
+         public void futureDone(Future<Map<Address, Response>> f) {
             try {
-               final Map<Address, Response> result = invokeRemotely(recipients, rpc, options);
+               Map<Address, Response> result = f.get();
                future.notifyDone(result);
-               return result;
-            } catch (RuntimeException e) {
-               future.notifyException(e);
-               throw e;
+               notified.complete(result);
+            } catch (Throwable th) {
+               Throwable cause = th instanceof ExecutionException ? th.getCause() : th;
+               future.notifyException(cause);
+               notified.completeExceptionally(cause);
             }
          }
-      };
-      future.setFuture(asyncExecutor.submit(c));
+      });
    }
 
    @Override
@@ -331,21 +408,24 @@ public void invokeRemotelyInFuture(final Collection<Address> recipients, final R
                                       final RpcOptions options, final NotifyingNotifiableFuture<Object> future) {
       if (trace) log.tracef("%s invoking in future call %s to recipient list %s with options %s", t.getAddress(),
                             rpc, recipients, options);
-      Callable<Object> c = new Callable<Object>() {
+      // The caller's future is only done after it was notified, so get() can't return before notifyDone() is called
+      final CompletableNotifyingFuture<Object> notified = new CompletableNotifyingFuture<Object>();
+      // NotifyingNotifiableFuture must be internally synchronized
+      future.setFuture(notified);
+      invokeRemotelyAsync(recipients, rpc, options).attachListener(new FutureListener<Map<Address, Response>>() {
          @Override
-         public Object call() throws Exception {
-            Object result;
+         public void futureDone(Future<Map<Address, Response>> f) {
             try {
-               result = invokeRemotely(recipients, rpc, options);
+               Object result = f.get();
                future.notifyDone(result);
-               return result;
-            } catch (RuntimeException e) {
-               future.notifyException(e);
-               throw e;
+               notified.complete(result);
+            } catch (Throwable th) {
+               Throwable cause = th instanceof ExecutionException ? th.getCause() : th;
+               future.notifyException(cause);
+               notified.completeExceptionally(cause);
             }
          }
-      };
-      future.setFuture(asyncExecutor.submit(c));
+      });
    }
 
    @Override
@@ -1,6 +1,7 @@
 package org.infinispan.remoting.transport;
 
 import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.factories.scopes.Scope;
@@ -73,6 +74,24 @@ Map<Address, Response> invokeRemotely(Collection<Address> recipients, Replicable
    Map<Address, Response> invokeRemotely(Collection<Address> recipients, ReplicableCommand rpcCommand, ResponseMode mode, long timeout,
                                          ResponseFilter responseFilter, DeliverOrder deliverOrder, boolean anycast) throws Exception;
 
+   /**
+    * Same as {@link #invokeRemotely(java.util.Collection, org.infinispan.commands.ReplicableCommand,
+    * org.infinispan.remoting.rpc.ResponseMode, long, org.infinispan.remoting.rpc.ResponseFilter,
+    * org.infinispan.remoting.inboundhandler.DeliverOrder, boolean)}, but it doesn't block the caller while waiting for
+    * the responses.
+    * <p/>
+    * The returned future is completed with the map of responses, or with the exception {@code invokeRemotely} would
+    * have thrown. Its listeners may be invoked by a transport thread, so they must not block. Implementations that
+    * can't wait for the responses without blocking may block the caller and return an already completed future.
+    *
+    * @return a future for the map of responses from each member contacted.
+    * @throws Exception if the invocation could not be started.
+    * @since 7.2
+    */
+   NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients, ReplicableCommand rpcCommand,
+                                                               ResponseMode mode, long timeout, ResponseFilter responseFilter,
+                                                               DeliverOrder deliverOrder, boolean anycast) throws Exception;
+
    BackupResponse backupRemotely(Collection<XSiteBackup> backups, XSiteReplicateCommand rpcCommand) throws Exception;
 
    /**
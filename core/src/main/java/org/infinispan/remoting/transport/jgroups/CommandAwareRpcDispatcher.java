@@ -5,6 +5,7 @@
 import org.infinispan.commands.ReplicableCommand;
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.util.Util;
+import org.infinispan.commons.util.concurrent.CompletableNotifyingFuture;
 import org.infinispan.context.Flag;
 import org.infinispan.factories.GlobalComponentRegistry;
 import org.infinispan.remoting.RpcException;
@@ -35,13 +36,16 @@
 import org.jgroups.util.NotifyingFuture;
 import org.jgroups.util.Rsp;
 import org.jgroups.util.RspList;
+import org.jgroups.util.TimeScheduler;
 
 import java.io.NotSerializableException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -227,6 +231,36 @@ public RspList<Object> broadcastRemoteCommands(ReplicableCommand command, Respon
                                   ignoreLeavers);
    }
 
+   /**
+    * Sends the command to each of the recipients with a separate unicast, without waiting for the responses.
+    * <p/>
+    * The returned future is completed by the thread receiving the last response, or by the JGroups timer if the
+    * timeout expires first. In the latter case the missing responses are neither received nor suspected.
+    *
+    * @param recipients Guaranteed not to be null or empty.  Must <b>not</b> contain self.
+    */
+   public CompletableNotifyingFuture<RspList<Object>> invokeRemoteCommandsAsync(List<Address> recipients,
+                                                                               ReplicableCommand command,
+                                                                               ResponseMode mode, long timeout,
+                                                                               DeliverOrder deliverOrder) throws Exception {
+      if (trace) log.tracef("Replication task sending %s asynchronously to addresses %s with response mode %s", command, recipients, mode);
+      boolean rsvp = isRsvpCommand(command);
+      Buffer buf = marshallCall(req_marshaller, command);
+      RequestOptions opts = new RequestOptions(mode, timeout);
+      ResponseCollector collector = new ResponseCollector(recipients);
+      try {
+         for (Address dest : recipients) {
+            NotifyingFuture<Object> f = sendMessageWithFuture(constructMessage(buf, dest, mode, rsvp, deliverOrder), opts);
+            collector.watchFuture(f, dest);
+         }
+      } catch (Exception e) {
+         collector.cancel();
+         throw rewrapAsCacheException(e);
+      }
+      collector.scheduleTimeout(getChannel().getProtocolStack().getTransport().getTimer(), timeout);
+      return collector.result;
+   }
+
    private boolean containsOnlyNulls(RspList<Object> l) {
       for (Rsp<Object> r : l.values()) {
          if (r.getValue() != null || !r.wasReceived() || r.wasSuspected()) return false;
@@ -605,5 +639,104 @@ else if (e.getCause() instanceof Exception)
          }
       }
    }
-}
 
+   /**
+    * Collects the responses of the unicasts sent by {@link #invokeRemoteCommandsAsync}, without blocking any thread.
+    */
+   final static class ResponseCollector implements FutureListener<Object>, Runnable {
+      final CompletableNotifyingFuture<RspList<Object>> result = new CompletableNotifyingFuture<>();
+      @GuardedBy("this")
+      private final Map<Future<Object>, Address> futures;
+      @GuardedBy("this")
+      private final RspList<Object> rsps = new RspList<>();
+      @GuardedBy("this")
+      private int expectedResponses;
+      @GuardedBy("this")
+      private boolean completed;
+      private volatile Future<?> timeoutTask;
+
+      ResponseCollector(List<Address> recipients) {
+         futures = new HashMap<>(recipients.size());
+         for (Address dest : recipients) {
+            rsps.addNotReceived(dest);
+         }
+         expectedResponses = recipients.size();
+      }
+
+      void watchFuture(NotifyingFuture<Object> f, Address address) {
+         synchronized (this) {
+            futures.put(f, address);
+         }
+         f.setListener(this);
+      }
+
+      void scheduleTimeout(TimeScheduler timer, long timeout) {
+         Future<?> task = timer.schedule(this, timeout, MILLISECONDS);
+         timeoutTask = task;
+         synchronized (this) {
+            if (!completed) return;
+         }
+         // the responses were received before the timeout was scheduled
+         task.cancel(false);
+      }
+
+      @Override
+      public void futureDone(Future<Object> future) {
+         synchronized (this) {
+            // JGroups' NotifyingFuture.setListener() may notify a listener twice, and the cancelled futures are
+            // removed before they are cancelled.
+            Address sender = futures.remove(future);
+            if (sender == null || completed) return;
+
+            Rsp<Object> rsp = rsps.get(sender);
+            try {
+               Object response = future.get();
+               if (trace) log.tracef("Received response: %s from %s", response, sender);
+               rsp.setValue(response);
+            } catch (InterruptedException e) {
+               // the future is already done, so this shouldn't happen
+               Thread.currentThread().interrupt();
+               rsp.setException(e);
+            } catch (ExecutionException e) {
+               if (e.getCause() instanceof SuspectedException) {
+                  rsp.setSuspected();
+               } else {
+                  rsp.setException(e.getCause());
+               }
+            } catch (CancellationException e) {
+               return;
+            }
+            if (--expectedResponses > 0) return;
+            completed = true;
+         }
+         Future<?> task = timeoutTask;
+         if (task != null) task.cancel(false);
+         result.complete(rsps);
+      }
+
+      /**
+       * Invoked by the timer when the timeout expires.
+       */
+      @Override
+      public void run() {
+         synchronized (this) {
+            if (completed) return;
+            completed = true;
+            if (trace) log.tracef("Timed out waiting for responses from %s", futures.values());
+         }
+         cancel();
+         result.complete(rsps);
+      }
+
+      void cancel() {
+         List<Future<Object>> pending;
+         synchronized (this) {
+            pending = new ArrayList<>(futures.keySet());
+            futures.clear();
+         }
+         for (Future<Object> f : pending) {
+            f.cancel(false);
+         }
+      }
+   }
+}
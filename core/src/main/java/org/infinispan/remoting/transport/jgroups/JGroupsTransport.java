@@ -10,6 +10,10 @@
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.commons.util.TypedProperties;
 import org.infinispan.commons.util.Util;
+import org.infinispan.commons.util.concurrent.CompletableNotifyingFuture;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NoOpFuture;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
 import org.infinispan.configuration.global.TransportConfiguration;
 import org.infinispan.configuration.parsing.XmlConfigHelper;
 import org.infinispan.factories.GlobalComponentRegistry;
@@ -63,6 +67,7 @@
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.locks.Condition;
@@ -583,19 +588,91 @@ public Map<Address, Response> invokeRemotely(Collection<Address> recipients, Rep
             responses = Collections.singletonMap(fromJGroupsAddress(singleJGAddress), singleResponse);
          }
       } else {
-         Map<Address, Response> retval = new HashMap<>(rsps.size());
+         responses = parseResponses(rsps, responseFilter != null, ignoreLeavers);
+      }
+      return responses;
+   }
 
-         boolean noValidResponses = true;
-         for (Rsp<Object> rsp : rsps.values()) {
-            noValidResponses &= parseResponseAndAddToResponseList(rsp.getValue(), rsp.getException(), retval, rsp.wasSuspected(), rsp.wasReceived(), fromJGroupsAddress(rsp.getSender()),
-                                                                  responseFilter != null, ignoreLeavers);
-         }
+   private Map<Address, Response> parseResponses(RspList<Object> rsps, boolean usedResponseFilter,
+                                                 boolean ignoreLeavers) throws Exception {
+      Map<Address, Response> retval = new HashMap<>(rsps.size());
 
-         if (noValidResponses)
-            throw new TimeoutException("Timed out waiting for valid responses!");
-         responses = retval;
+      boolean noValidResponses = true;
+      for (Rsp<Object> rsp : rsps.values()) {
+         noValidResponses &= parseResponseAndAddToResponseList(rsp.getValue(), rsp.getException(), retval, rsp.wasSuspected(), rsp.wasReceived(), fromJGroupsAddress(rsp.getSender()),
+                                                               usedResponseFilter, ignoreLeavers);
       }
-      return responses;
+
+      if (noValidResponses)
+         throw new TimeoutException("Timed out waiting for valid responses!");
+      return retval;
+   }
+
+   /**
+    * Synchronous unicasts without a response filter are sent without blocking the caller. Broadcasts, asynchronous,
+    * total order and filtered invocations use the blocking path on the async transport executor instead, so the
+    * caller can still overlap them with local work.
+    */
+   @Override
+   public NotifyingFuture<Map<Address, Response>> invokeRemotelyAsync(Collection<Address> recipients, ReplicableCommand rpcCommand,
+                                                                      ResponseMode mode, long timeout, ResponseFilter responseFilter,
+                                                                      DeliverOrder deliverOrder, boolean anycast) throws Exception {
+      if (recipients == null || !mode.isSynchronous() || responseFilter != null || deliverOrder == DeliverOrder.TOTAL) {
+         return invokeRemotelyInExecutor(recipients, rpcCommand, mode, timeout, responseFilter, deliverOrder, anycast);
+      }
+
+      if (trace)
+         log.tracef("dests=%s, command=%s, mode=%s, timeout=%s (async)", recipients, rpcCommand, mode, timeout);
+      final boolean ignoreLeavers = mode == ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS || mode == ResponseMode.WAIT_FOR_VALID_RESPONSE;
+      if (!getMembers().containsAll(recipients)) {
+         if (ignoreLeavers) {
+            recipients = new HashSet<>(recipients);
+            recipients.retainAll(getMembers());
+         } else {
+            throw new SuspectException("One or more nodes have left the cluster while replicating command " + rpcCommand);
+         }
+      }
+      List<org.jgroups.Address> jgAddressList = toJGroupsAddressListExcludingSelf(recipients, false);
+      if (jgAddressList.isEmpty()) {
+         return new NoOpFuture<Map<Address, Response>>(InfinispanCollections.<Address, Response>emptyMap());
+      }
+
+      final CompletableNotifyingFuture<Map<Address, Response>> future = new CompletableNotifyingFuture<>();
+      dispatcher.invokeRemoteCommandsAsync(jgAddressList, rpcCommand, toJGroupsMode(mode), timeout, deliverOrder)
+            .attachListener(new FutureListener<RspList<Object>>() {
+               @Override
+               public void futureDone(Future<RspList<Object>> rspsFuture) {
+                  try {
+                     future.complete(parseResponses(rspsFuture.get(), false, ignoreLeavers));
+                  } catch (ExecutionException e) {
+                     future.completeExceptionally(e.getCause());
+                  } catch (Throwable t) {
+                     future.completeExceptionally(t);
+                  }
+               }
+            });
+      return future;
+   }
+
+   private NotifyingFuture<Map<Address, Response>> invokeRemotelyInExecutor(final Collection<Address> recipients,
+                                                                            final ReplicableCommand rpcCommand,
+                                                                            final ResponseMode mode, final long timeout,
+                                                                            final ResponseFilter responseFilter,
+                                                                            final DeliverOrder deliverOrder,
+                                                                            final boolean anycast) {
+      final CompletableNotifyingFuture<Map<Address, Response>> future = new CompletableNotifyingFuture<>();
+      asyncExecutor.execute(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               future.complete(invokeRemotely(recipients, rpcCommand, mode, timeout, responseFilter, deliverOrder,
+                                              anycast));
+            } catch (Throwable t) {
+               future.completeExceptionally(t);
+            }
+         }
+      });
+      return future;
    }
 
    @Override
@@ -596,6 +596,12 @@ public V put(K key, V value, Metadata metadata) {
       return delegate.put(key, value, metadata);
    }
 
+   @Override
+   public void putAll(Map<? extends K, ? extends V> map, Metadata metadata) {
+      authzManager.checkPermission(AuthorizationPermission.WRITE);
+      delegate.putAll(map, metadata);
+   }
+
    @Override
    public void putAll(Map<? extends K, ? extends V> m) {
       authzManager.checkPermission(AuthorizationPermission.WRITE);
@@ -638,6 +644,12 @@ public CacheEntry getCacheEntry(K key) {
       return delegate.getCacheEntry(key);
    }
 
+   @Override
+   public Map<K, V> getAll(Set<?> keys) {
+      authzManager.checkPermission(AuthorizationPermission.READ);
+      return delegate.getAll(keys);
+   }
+
    @Override
    public EntryIterable<K, V> filterEntries(KeyValueFilter<? super K, ? super V> filter) {
       authzManager.checkPermission(AuthorizationPermission.BULK_READ);
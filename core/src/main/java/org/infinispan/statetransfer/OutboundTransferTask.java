@@ -2,10 +2,13 @@
 
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NotifyingFutureImpl;
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.filter.CollectionKeyFilter;
@@ -18,20 +21,28 @@
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.jgroups.SuspectException;
 import org.infinispan.util.ReadOnlyDataContainerBackedKeySet;
+import org.infinispan.util.concurrent.TimeoutException;
 import org.infinispan.util.concurrent.WithinThreadExecutor;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Outbound state transfer task. Pushes data segments to another cluster member on request. Instances of
  * OutboundTransferTask are created and managed by StateTransferManagerImpl. There should be at most
  * one such task per destination at any time.
+ * <p/>
+ * Up to {@code maxInFlightChunks} chunks are sent without waiting for the destination to apply the previous ones. The
+ * last chunk is always sent after all the other chunks were applied, because the destination considers a segment
+ * complete when it receives the last chunk.
  *
  * @author anistor@redhat.com
  * @since 5.2
@@ -52,6 +63,13 @@ public class OutboundTransferTask implements Runnable {
 
    private final int stateTransferChunkSize;
 
+   private final int maxInFlightChunks;
+
+   /**
+    * Holds a permit for each chunk that was sent and not yet applied by the destination.
+    */
+   private final Semaphore inFlightChunks;
+
    private final ConsistentHash readCh;
 
    private final DataContainer<Object, Object> dataContainer;
@@ -83,7 +101,7 @@ public class OutboundTransferTask implements Runnable {
    private InternalEntryFactory entryFactory;
 
    public OutboundTransferTask(Address destination, Set<Integer> segments, int stateTransferChunkSize,
-                               int topologyId, ConsistentHash readCh, StateProviderImpl stateProvider, DataContainer dataContainer,
+                               int maxInFlightChunks, int topologyId, ConsistentHash readCh, StateProviderImpl stateProvider, DataContainer dataContainer,
                                PersistenceManager persistenceManager, RpcManager rpcManager,
                                CommandsFactory commandsFactory, InternalEntryFactory ef, long timeout, String cacheName) {
       if (segments == null || segments.isEmpty()) {
@@ -95,10 +113,15 @@ public OutboundTransferTask(Address destination, Set<Integer> segments, int stat
       if (stateTransferChunkSize <= 0) {
          throw new IllegalArgumentException("stateTransferChunkSize must be greater than 0");
       }
+      if (maxInFlightChunks <= 0) {
+         throw new IllegalArgumentException("maxInFlightChunks must be greater than 0");
+      }
       this.stateProvider = stateProvider;
       this.destination = destination;
       this.segments.addAll(segments);
       this.stateTransferChunkSize = stateTransferChunkSize;
+      this.maxInFlightChunks = maxInFlightChunks;
+      this.inFlightChunks = new Semaphore(maxInFlightChunks);
       this.topologyId = topologyId;
       this.readCh = readCh;
       this.dataContainer = dataContainer;
@@ -142,11 +165,21 @@ public int getTopologyId() {
    public void run() {
       try {
          // send data container entries
-         for (InternalCacheEntry ice : dataContainer) {
-            Object key = ice.getKey();  //todo [anistor] should we check for expired entries?
-            int segmentId = readCh.getSegment(key);
-            if (segments.contains(segmentId)) {
-               sendEntry(ice, segmentId);
+         if (dataContainer instanceof SegmentedDataContainer) {
+            // only visit the entries of the requested segments
+            SegmentedDataContainer<Object, Object> segmentedDataContainer = (SegmentedDataContainer<Object, Object>) dataContainer;
+            for (int segmentId : segments) {
+               for (Iterator<InternalCacheEntry<Object, Object>> it = segmentedDataContainer.segmentIterator(segmentId); it.hasNext(); ) {
+                  sendEntry(it.next(), segmentId);
+               }
+            }
+         } else {
+            for (InternalCacheEntry ice : dataContainer) {
+               Object key = ice.getKey();  //todo [anistor] should we check for expired entries?
+               int segmentId = readCh.getSegment(key);
+               if (segments.contains(segmentId)) {
+                  sendEntry(ice, segmentId);
+               }
             }
          }
 
@@ -189,7 +222,7 @@ public void processEntry(MarshalledEntry me, AdvancedCacheLoader.TaskContext tas
       }
    }
 
-   private void sendEntry(InternalCacheEntry ice, int segmentId) {
+   private void sendEntry(InternalCacheEntry ice, int segmentId) throws InterruptedException {
       // send if we have a full chunk
       if (accumulatedEntries >= stateTransferChunkSize) {
          sendEntries(false);
@@ -205,12 +238,14 @@ private void sendEntry(InternalCacheEntry ice, int segmentId) {
       accumulatedEntries++;
    }
 
-   private void sendEntries(boolean isLast) {
+   private void sendEntries(boolean isLast) throws InterruptedException {
       List<StateChunk> chunks = new ArrayList<StateChunk>();
+      int numEntries = 0;
       for (Map.Entry<Integer, List<InternalCacheEntry>> e : entriesBySegment.entrySet()) {
          List<InternalCacheEntry> entries = e.getValue();
          if (!entries.isEmpty() || isLast) {
             chunks.add(new StateChunk(e.getKey(), new ArrayList<InternalCacheEntry>(entries), isLast));
+            numEntries += entries.size();
             entries.clear();
          }
       }
@@ -234,22 +269,82 @@ private void sendEntries(boolean isLast) {
          }
 
          StateResponseCommand cmd = commandsFactory.buildStateResponseCommand(rpcManager.getAddress(), topologyId, chunks);
-         // send synchronously, in order. it is important that the last chunk is received last in order to correctly detect completion of the stream of chunks
-         try {
-            rpcManager.invokeRemotely(Collections.singleton(destination), cmd, rpcOptions);
-         } catch (SuspectException e) {
-            log.debugf(e, "Node %s left cache %s while we were sending state to it: %s", destination, cacheName, e.getMessage());
-            cancel();
-         } catch (Exception e) {
-            if (isCancelled()) {
-               log.debugf("Stopping cancelled transfer of segments %s of cache %s to node %s", segments, cacheName, destination);
-            } else {
-               log.errorf(e, "Failed to send entries to node %s : %s", destination, e.getMessage());
+         if (isLast || maxInFlightChunks == 1) {
+            // send synchronously, after all the chunks in flight were applied. it is important that the last chunk is
+            // received last in order to correctly detect completion of the stream of chunks
+            acquireInFlightPermits(maxInFlightChunks);
+            try {
+               sendChunk(cmd, numEntries);
+            } finally {
+               inFlightChunks.release(maxInFlightChunks);
             }
+         } else {
+            acquireInFlightPermits(1);
+            sendChunkInFuture(cmd, numEntries);
          }
       }
    }
 
+   private void acquireInFlightPermits(int permits) throws InterruptedException {
+      if (!inFlightChunks.tryAcquire(permits, timeout, TimeUnit.MILLISECONDS)) {
+         throw new TimeoutException("Timed out waiting for node " + destination + " to apply the state of cache " + cacheName);
+      }
+   }
+
+   private void sendChunk(StateResponseCommand cmd, int numEntries) {
+      stateProvider.onChunkSent();
+      boolean applied = false;
+      try {
+         rpcManager.invokeRemotely(Collections.singleton(destination), cmd, rpcOptions);
+         applied = true;
+      } catch (Exception e) {
+         onSendFailure(e);
+      } finally {
+         stateProvider.onChunkCompleted(numEntries, applied);
+      }
+   }
+
+   private void sendChunkInFuture(StateResponseCommand cmd, final int numEntries) {
+      stateProvider.onChunkSent();
+      NotifyingFutureImpl<Object> future = new NotifyingFutureImpl<Object>();
+      future.attachListener(new FutureListener<Object>() {
+         @Override
+         public void futureDone(Future<Object> future) {
+            boolean applied = false;
+            try {
+               future.get();
+               applied = true;
+            } catch (ExecutionException e) {
+               onSendFailure(e.getCause());
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            } finally {
+               stateProvider.onChunkCompleted(numEntries, applied);
+               inFlightChunks.release();
+            }
+         }
+      });
+      try {
+         rpcManager.invokeRemotelyInFuture(Collections.singleton(destination), cmd, rpcOptions, future);
+      } catch (RuntimeException e) {
+         // the listener will not be notified if the command could not be submitted
+         stateProvider.onChunkCompleted(numEntries, false);
+         inFlightChunks.release();
+         throw e;
+      }
+   }
+
+   private void onSendFailure(Throwable t) {
+      if (t instanceof SuspectException) {
+         log.debugf(t, "Node %s left cache %s while we were sending state to it: %s", destination, cacheName, t.getMessage());
+         cancel();
+      } else if (isCancelled()) {
+         log.debugf("Stopping cancelled transfer of segments %s of cache %s to node %s", segments, cacheName, destination);
+      } else {
+         log.errorf(t, "Failed to send entries to node %s : %s", destination, t.getMessage());
+      }
+   }
+
    /**
     * Cancel some of the segments. If all segments get cancelled then the whole task will be cancelled.
     *
@@ -289,6 +384,7 @@ public String toString() {
             ", destination=" + destination +
             ", segments=" + segments +
             ", stateTransferChunkSize=" + stateTransferChunkSize +
+            ", maxInFlightChunks=" + maxInFlightChunks +
             ", timeout=" + timeout +
             ", cacheName='" + cacheName + '\'' +
             '}';
@@ -33,6 +33,27 @@ public interface StateConsumer {
 
    void applyState(Address sender, int topologyId, Collection<StateChunk> stateChunks);
 
+   /**
+    * @return the number of received cache entries applied to the local node
+    */
+   long getEntriesApplied();
+
+   /**
+    * @return the number of received chunks of cache entries that were not yet applied
+    */
+   int getChunksPending();
+
+   /**
+    * @return the number of segments that this node is still waiting to receive
+    */
+   int getSegmentsPending();
+
+   /**
+    * @return the average number of cache entries applied per second during the current rebalance, or during the last
+    *    one if there is no rebalance in progress
+    */
+   double getEntriesAppliedPerSecond();
+
    /**
     * Cancels all incoming state transfers. The already received data is not discarded.
     * This is executed when the cache is shutting down.
@@ -11,6 +11,7 @@
 import org.infinispan.commons.util.concurrent.ParallelIterableMap;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
@@ -45,6 +46,7 @@
 import org.infinispan.transaction.totalorder.TotalOrderManager;
 import org.infinispan.transaction.xa.CacheTransaction;
 import org.infinispan.transaction.xa.GlobalTransaction;
+import org.infinispan.util.TimeService;
 import org.infinispan.util.concurrent.BlockingTaskAwareExecutorService;
 import org.infinispan.util.concurrent.ConcurrentHashSet;
 import org.infinispan.util.logging.Log;
@@ -61,6 +63,7 @@
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.infinispan.context.Flag.*;
 import static org.infinispan.factories.KnownComponentNames.STATE_TRANSFER_EXECUTOR;
@@ -149,6 +152,24 @@ public class StateConsumerImpl implements StateConsumer {
 
    private RpcOptions rpcOptions;
 
+   private TimeService timeService;
+
+   private final AtomicLong entriesApplied = new AtomicLong();
+
+   /**
+    * The number of entries applied since the start of the current (or last) rebalance.
+    */
+   private final AtomicLong rebalanceEntriesApplied = new AtomicLong();
+
+   private final AtomicInteger chunksPending = new AtomicInteger();
+
+   private volatile long rebalanceStartTime;
+
+   /**
+    * The end time of the last rebalance, or 0 if a rebalance is in progress.
+    */
+   private volatile long rebalanceEndTime;
+
    public StateConsumerImpl() {
    }
 
@@ -162,6 +183,11 @@ public void stopApplyingState() {
       commitManager.stopTrack(PUT_FOR_STATE_TRANSFER);
    }
 
+   @Inject
+   public void injectTimeService(TimeService timeService) {
+      this.timeService = timeService;
+   }
+
    @Inject
    public void init(Cache cache,
                     @ComponentName(STATE_TRANSFER_EXECUTOR) ExecutorService executorService,
@@ -258,7 +284,11 @@ public void onTopologyUpdate(final CacheTopology cacheTopology, final boolean is
       if (isRebalance) {
          // Only update the rebalance topology id when starting the rebalance, as we're going to ignore any state
          // response with a smaller topology id
-         stateTransferTopologyId.compareAndSet(NO_REBALANCE_IN_PROGRESS, cacheTopology.getTopologyId());
+         if (stateTransferTopologyId.compareAndSet(NO_REBALANCE_IN_PROGRESS, cacheTopology.getTopologyId())) {
+            rebalanceEntriesApplied.set(0);
+            rebalanceStartTime = timeService.time();
+            rebalanceEndTime = 0;
+         }
          cacheNotifier.notifyDataRehashed(cacheTopology.getCurrentCH(), cacheTopology.getPendingCH(),
                                           cacheTopology.getUnionCH(), cacheTopology.getTopologyId(), true);
       }
@@ -346,6 +376,7 @@ public void onTopologyUpdate(final CacheTopology cacheTopology, final boolean is
                // we have received a topology update without a pending CH, signalling the end of the rebalance
                boolean changed = stateTransferTopologyId.compareAndSet(rebalanceTopologyId, NO_REBALANCE_IN_PROGRESS);
                if (changed) {
+                  rebalanceEndTime = timeService.time();
                   stopApplyingState();
 
                   // if the coordinator changed, we might get two concurrent topology updates,
@@ -470,12 +501,18 @@ public void applyState(final Address sender, int topologyId, Collection<StateChu
       }
       final Set<Integer> mySegments = wCh.getSegmentsForOwner(rpcManager.getAddress());
       final CountDownLatch countDownLatch = new CountDownLatch(stateChunks.size());
+      // apply the chunks of different segments in parallel
       for (final StateChunk stateChunk : stateChunks) {
+         chunksPending.incrementAndGet();
          executorService.submit(new Callable<Void>() {
             @Override
             public Void call() throws Exception {
-               applyChunk(sender, mySegments, stateChunk);
-               countDownLatch.countDown();
+               try {
+                  applyChunk(sender, mySegments, stateChunk);
+               } finally {
+                  chunksPending.decrementAndGet();
+                  countDownLatch.countDown();
+               }
                return null;
             }
          });
@@ -529,6 +566,7 @@ private void doApplyState(Address sender, int segmentId, Collection<InternalCach
 
       // CACHE_MODE_LOCAL avoids handling by StateTransferInterceptor and any potential locks in StateTransferLock
       EnumSet<Flag> flags = EnumSet.of(PUT_FOR_STATE_TRANSFER, CACHE_MODE_LOCAL, IGNORE_RETURN_VALUES, SKIP_REMOTE_LOOKUP, SKIP_SHARED_CACHE_STORE, SKIP_OWNERSHIP_CHECK, SKIP_XSITE_BACKUP);
+      int applied = 0;
       for (InternalCacheEntry e : cacheEntries) {
          try {
             InvocationContext ctx;
@@ -549,6 +587,7 @@ private void doApplyState(Address sender, int segmentId, Collection<InternalCach
             try {
                interceptorChain.invoke(ctx, put);
                success = true;
+               applied++;
             } finally {
                if (ctx.isInTxScope()) {
                   if (success) {
@@ -569,9 +608,40 @@ private void doApplyState(Address sender, int segmentId, Collection<InternalCach
             log.problemApplyingStateForKey(ex.getMessage(), e.getKey(), ex);
          }
       }
+      entriesApplied.addAndGet(applied);
+      rebalanceEntriesApplied.addAndGet(applied);
       log.tracef("Finished applying chunk of segment %d of cache %s", segmentId, cacheName);
    }
 
+   @Override
+   public long getEntriesApplied() {
+      return entriesApplied.get();
+   }
+
+   @Override
+   public int getChunksPending() {
+      return chunksPending.get();
+   }
+
+   @Override
+   public int getSegmentsPending() {
+      synchronized (transferMapsLock) {
+         return transfersBySegment.size();
+      }
+   }
+
+   @Override
+   public double getEntriesAppliedPerSecond() {
+      long startTime = rebalanceStartTime;
+      if (startTime == 0) {
+         return 0;
+      }
+      long endTime = rebalanceEndTime;
+      long elapsedMillis = endTime == 0 ? timeService.timeDuration(startTime, TimeUnit.MILLISECONDS)
+            : timeService.timeDuration(startTime, endTime, TimeUnit.MILLISECONDS);
+      return elapsedMillis == 0 ? 0 : rebalanceEntriesApplied.get() * 1000d / elapsedMillis;
+   }
+
    private void applyTransactions(Address sender, Collection<TransactionInfo> transactions, int topologyId) {
       log.debugf("Applying %d transactions for cache %s transferred from node %s", transactions.size(), cacheName, sender);
       if (isTransactional) {
@@ -912,16 +982,24 @@ private void removeStaleData(final Set<Integer> removedSegments) throws Interrup
       // Keys that we used to own, and need to be removed from the data container AND the cache stores
       final ConcurrentHashSet<Object> keysToRemove = new ConcurrentHashSet<Object>();
 
-      dataContainer.executeTask(KeyFilter.ACCEPT_ALL_FILTER, new ParallelIterableMap.KeyValueAction<Object, InternalCacheEntry<Object, Object>>() {
-         @Override
-         public void apply(Object o, InternalCacheEntry<Object, Object> ice) {
-            Object key = ice.getKey();
-            int keySegment = getSegment(key);
-            if (removedSegments.contains(keySegment)) {
-               keysToRemove.add(key);
-            }
+      if (dataContainer instanceof SegmentedDataContainer) {
+         // only visit the entries of the removed segments
+         SegmentedDataContainer<Object, Object> segmentedDataContainer = (SegmentedDataContainer<Object, Object>) dataContainer;
+         for (Iterator<InternalCacheEntry<Object, Object>> it = segmentedDataContainer.segmentIterator(removedSegments); it.hasNext(); ) {
+            keysToRemove.add(it.next().getKey());
          }
-      });
+      } else {
+         dataContainer.executeTask(KeyFilter.ACCEPT_ALL_FILTER, new ParallelIterableMap.KeyValueAction<Object, InternalCacheEntry<Object, Object>>() {
+            @Override
+            public void apply(Object o, InternalCacheEntry<Object, Object> ice) {
+               Object key = ice.getKey();
+               int keySegment = getSegment(key);
+               if (removedSegments.contains(keySegment)) {
+                  keysToRemove.add(key);
+               }
+            }
+         });
+      }
 
       // gather all keys from cache store that belong to the segments that are being removed/moved to L1
       if (!removedSegments.isEmpty()) {
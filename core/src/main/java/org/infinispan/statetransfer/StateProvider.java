@@ -63,6 +63,16 @@ public interface StateProvider {
     */
    void cancelOutboundTransfer(Address destination, int topologyId, Set<Integer> segments);
 
+   /**
+    * @return the number of cache entries sent to other nodes and applied by them
+    */
+   long getEntriesSent();
+
+   /**
+    * @return the number of chunks of cache entries sent to other nodes and not yet applied by them
+    */
+   int getChunksInFlight();
+
    void start();
 
    /**
@@ -27,6 +27,8 @@
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.infinispan.factories.KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR;
 
@@ -55,6 +57,10 @@ public class StateProviderImpl implements StateProvider {
    private InternalEntryFactory entryFactory;
    private long timeout;
    private int chunkSize;
+   private int maxInFlightChunks;
+
+   private final AtomicLong entriesSent = new AtomicLong();
+   private final AtomicInteger chunksInFlight = new AtomicInteger();
 
    private StateConsumer stateConsumer;
 
@@ -95,6 +101,7 @@ public void init(Cache cache,
       timeout = configuration.clustering().stateTransfer().timeout();
 
       this.chunkSize = configuration.clustering().stateTransfer().chunkSize();
+      this.maxInFlightChunks = configuration.clustering().stateTransfer().maxInFlightChunks();
    }
 
    public boolean isStateTransferInProgress() {
@@ -271,7 +278,7 @@ public void startOutboundTransfer(Address destination, int requestTopologyId, Se
       final CacheTopology cacheTopology = getCacheTopology(requestTopologyId, destination, false);
 
       // the destination node must already have an InboundTransferTask waiting for these segments
-      OutboundTransferTask outboundTransfer = new OutboundTransferTask(destination, segments, chunkSize, requestTopologyId,
+      OutboundTransferTask outboundTransfer = new OutboundTransferTask(destination, segments, chunkSize, maxInFlightChunks, requestTopologyId,
             cacheTopology.getReadConsistentHash(), this, dataContainer, persistenceManager, rpcManager, commandsFactory, entryFactory, timeout, cacheName);
       addTransfer(outboundTransfer);
       outboundTransfer.execute(executorService);
@@ -323,6 +330,27 @@ private void removeTransfer(OutboundTransferTask transferTask) {
       }
    }
 
+   @Override
+   public long getEntriesSent() {
+      return entriesSent.get();
+   }
+
+   @Override
+   public int getChunksInFlight() {
+      return chunksInFlight.get();
+   }
+
+   void onChunkSent() {
+      chunksInFlight.incrementAndGet();
+   }
+
+   void onChunkCompleted(int numEntries, boolean applied) {
+      chunksInFlight.decrementAndGet();
+      if (applied) {
+         entriesSent.addAndGet(numEntries);
+      }
+   }
+
    void onTaskCompletion(OutboundTransferTask transferTask) {
       if (trace) {
          log.tracef("Removing %s outbound transfer of segments %s to %s for cache %s",
@@ -25,8 +25,11 @@
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
+import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.interceptors.base.BaseStateTransferInterceptor;
+import org.infinispan.interceptors.base.InvocationStage;
+import org.infinispan.interceptors.base.StageAwareInterceptor;
 import org.infinispan.remoting.RemoteException;
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.responses.SuccessfulResponse;
@@ -40,6 +43,9 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import static org.infinispan.factories.KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR;
 
 //todo [anistor] command forwarding breaks the rule that we have only one originator for a command. this opens now the possibility to have two threads processing incoming remote commands for the same TX
 /**
@@ -62,13 +68,14 @@
  * @author anistor@redhat.com
  * @since 5.2
  */
-public class StateTransferInterceptor extends BaseStateTransferInterceptor {
+public class StateTransferInterceptor extends BaseStateTransferInterceptor implements StageAwareInterceptor {
 
    private static final Log log = LogFactory.getLog(StateTransferInterceptor.class);
    private static boolean trace = log.isTraceEnabled();
 
    private StateTransferManager stateTransferManager;
    private Transport transport;
+   private ExecutorService asyncExecutor;
 
    private final AffectedKeysVisitor affectedKeysVisitor = new AffectedKeysVisitor();
 
@@ -78,9 +85,11 @@ protected Log getLog() {
    }
 
    @Inject
-   public void init(StateTransferManager stateTransferManager, Transport transport) {
+   public void init(StateTransferManager stateTransferManager, Transport transport,
+                    @ComponentName(ASYNC_TRANSPORT_EXECUTOR) ExecutorService asyncExecutor) {
       this.stateTransferManager = stateTransferManager;
       this.transport = transport;
+      this.asyncExecutor = asyncExecutor;
    }
 
    @Override
@@ -165,7 +174,7 @@ private Object handleTxCommand(TxInvocationContext ctx, TransactionBoundaryComma
     * new owners like we do for tx commands. But we only retry on the originator, and only if the command doesn't have
     * the {@code CACHE_MODE_LOCAL} flag.
     */
-   private Object handleNonTxWriteCommand(InvocationContext ctx, WriteCommand command) throws Throwable {
+   private Object handleNonTxWriteCommand(final InvocationContext ctx, final WriteCommand command) throws Throwable {
       if (trace) log.tracef("handleNonTxWriteCommand for command %s, topology id %d", command, command.getTopologyId());
 
       if (isLocalOnly(ctx, command)) {
@@ -181,28 +190,29 @@ private Object handleNonTxWriteCommand(InvocationContext ctx, WriteCommand comma
 
       int initialViewId = transport.getViewId();
       List<Address> initialViewMembers = transport.getMembers();
-      int commandTopologyId = command.getTopologyId();
+      final int commandTopologyId = command.getTopologyId();
       Object localResult;
       try {
          localResult = invokeNextInterceptor(ctx, command);
+         if (localResult instanceof InvocationStage) {
+            return ((InvocationStage) localResult).thenHandle(new InvocationStage.Handler() {
+               @Override
+               public Object handle(Object result, Throwable throwable) throws Throwable {
+                  if (throwable == null)
+                     return result;
+                  if (!isRetryable(throwable))
+                     throw throwable;
+                  // Waiting for the new topology would block the thread completing the stage
+                  return retryNonTxWriteCommandInExecutor(ctx, command, commandTopologyId);
+               }
+            });
+         }
          return localResult;
       } catch (CacheException e) {
-         Throwable ce = e;
-         while (ce instanceof RemoteException) {
-            ce = ce.getCause();
-         }
-         if (!(ce instanceof OutdatedTopologyException) && !(ce instanceof SuspectException))
+         if (!isRetryable(e))
             throw e;
 
-         // We increment the topology id so that updateTopologyIdAndWaitForTransactionData waits for the next topology.
-         // Without this, we could retry the command too fast and we could get the OutdatedTopologyException again.
-         if (trace) log.tracef("Retrying command because of topology change, current topology is %d: %s", command);
-         int newTopologyId = Math.max(currentTopologyId(), commandTopologyId + 1);
-         command.setTopologyId(newTopologyId);
-         waitForTransactionData(newTopologyId);
-
-         command.setFlags(Flag.COMMAND_RETRY);
-         localResult = handleNonTxWriteCommand(ctx, command);
+         localResult = retryNonTxWriteCommand(ctx, command, commandTopologyId);
       }
 
       // We retry the command every time the topology changes, either in NonTxConcurrentDistributionInterceptor or in
@@ -211,6 +221,44 @@ private Object handleNonTxWriteCommand(InvocationContext ctx, WriteCommand comma
       return localResult;
    }
 
+   private static boolean isRetryable(Throwable t) {
+      if (!(t instanceof CacheException))
+         return false;
+      Throwable ce = t;
+      while (ce instanceof RemoteException) {
+         ce = ce.getCause();
+      }
+      return ce instanceof OutdatedTopologyException || ce instanceof SuspectException;
+   }
+
+   private Object retryNonTxWriteCommand(InvocationContext ctx, WriteCommand command, int commandTopologyId) throws Throwable {
+      // We increment the topology id so that updateTopologyIdAndWaitForTransactionData waits for the next topology.
+      // Without this, we could retry the command too fast and we could get the OutdatedTopologyException again.
+      if (trace) log.tracef("Retrying command because of topology change, current topology is %d: %s", currentTopologyId(), command);
+      int newTopologyId = Math.max(currentTopologyId(), commandTopologyId + 1);
+      command.setTopologyId(newTopologyId);
+      waitForTransactionData(newTopologyId);
+
+      command.setFlags(Flag.COMMAND_RETRY);
+      return handleNonTxWriteCommand(ctx, command);
+   }
+
+   private InvocationStage retryNonTxWriteCommandInExecutor(final InvocationContext ctx, final WriteCommand command,
+                                                            final int commandTopologyId) {
+      final InvocationStage retry = new InvocationStage();
+      asyncExecutor.execute(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               retry.completeWith(retryNonTxWriteCommand(ctx, command, commandTopologyId));
+            } catch (Throwable t) {
+               retry.completeExceptionally(t);
+            }
+         }
+      });
+      return retry;
+   }
+
    @Override
    protected Object handleDefault(InvocationContext ctx, VisitableCommand command) throws Throwable {
       if (command instanceof TopologyAffectedCommand) {
@@ -6,6 +6,7 @@
 import org.infinispan.jmx.annotations.DataType;
 import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.topology.CacheTopology;
@@ -43,6 +44,24 @@ public interface StateTransferManager {
     */
    boolean isStateTransferInProgressForKey(Object key);
 
+   @ManagedAttribute(description = "Number of cache entries sent to other nodes and applied by them", displayName = "Number of outbound entries", measurementType = MeasurementType.TRENDSUP)
+   long getOutboundEntriesSent();
+
+   @ManagedAttribute(description = "Number of chunks of cache entries sent to other nodes and not yet applied by them", displayName = "Number of outbound chunks in flight")
+   int getOutboundChunksInFlight();
+
+   @ManagedAttribute(description = "Number of cache entries received from other nodes and applied locally", displayName = "Number of inbound entries", measurementType = MeasurementType.TRENDSUP)
+   long getInboundEntriesApplied();
+
+   @ManagedAttribute(description = "Number of chunks of cache entries received from other nodes and not yet applied", displayName = "Number of pending inbound chunks")
+   int getInboundChunksPending();
+
+   @ManagedAttribute(description = "Number of segments this node is still waiting to receive", displayName = "Number of pending inbound segments")
+   int getInboundSegmentsPending();
+
+   @ManagedAttribute(description = "Average number of cache entries applied per second during the current rebalance, or during the last one if no rebalance is in progress", displayName = "Inbound entries per second")
+   double getInboundEntriesPerSecond();
+
    CacheTopology getCacheTopology();
 
    void start() throws Exception;
@@ -98,7 +98,7 @@ public void start() throws Exception {
       }
 
       CacheJoinInfo joinInfo = new CacheJoinInfo(
-            pickConsistentHashFactory(),
+            pickConsistentHashFactory(globalConfiguration, configuration),
             configuration.clustering().hash().hash(),
             configuration.clustering().hash().numSegments(),
             configuration.clustering().hash().numOwners(),
@@ -127,7 +127,8 @@ public void rebalance(CacheTopology cacheTopology) {
    /**
     * If no ConsistentHashFactory was explicitly configured we choose a suitable one based on cache mode.
     */
-   private ConsistentHashFactory pickConsistentHashFactory() {
+   public static ConsistentHashFactory pickConsistentHashFactory(GlobalConfiguration globalConfiguration,
+                                                                 Configuration configuration) {
       ConsistentHashFactory factory = configuration.clustering().hash().consistentHashFactory();
       if (factory == null) {
          CacheMode cacheMode = configuration.clustering().cacheMode();
@@ -250,6 +251,36 @@ public boolean isStateTransferInProgressForKey(Object key) {
       return stateConsumer.isStateTransferInProgressForKey(key);
    }
 
+   @Override
+   public long getOutboundEntriesSent() {
+      return stateProvider.getEntriesSent();
+   }
+
+   @Override
+   public int getOutboundChunksInFlight() {
+      return stateProvider.getChunksInFlight();
+   }
+
+   @Override
+   public long getInboundEntriesApplied() {
+      return stateConsumer.getEntriesApplied();
+   }
+
+   @Override
+   public int getInboundChunksPending() {
+      return stateConsumer.getChunksPending();
+   }
+
+   @Override
+   public int getInboundSegmentsPending() {
+      return stateConsumer.getSegmentsPending();
+   }
+
+   @Override
+   public double getInboundEntriesPerSecond() {
+      return stateConsumer.getEntriesAppliedPerSecond();
+   }
+
    @Override
    public CacheTopology getCacheTopology() {
       return stateConsumer.getCacheTopology();
@@ -77,6 +77,7 @@ public class ClusterCacheStatsImpl implements ClusterCacheStats, JmxStatisticsEx
    private static final Log log = LogFactory.getLog(ClusterCacheStatsImpl.class);
    private transient Cache<?, ?> cache;
    private transient DefaultExecutorService des;
+   private transient ClusterSizeCollector clusterSizeCollector;
    private TimeService ts;
    private boolean statisticsEnabled = false;
    private long staleStatsTreshold = DEFAULT_STALE_STATS_THRESHOLD;
@@ -90,6 +91,7 @@ public class ClusterCacheStatsImpl implements ClusterCacheStats, JmxStatisticsEx
    private long hits;
    private long evictions;
    private long numberOfEntries;
+   private long estimatedDataSize;
    private long averageWriteTime;
    private long averageReadTime;
    private long averageRemoveTime;
@@ -111,8 +113,10 @@ public class ClusterCacheStatsImpl implements ClusterCacheStats, JmxStatisticsEx
    long cacheWriterStores;
 
    @Inject
-   public void injectDependencies(Cache<?, ?> cache, TimeService ts, Configuration configuration) {
+   public void injectDependencies(Cache<?, ?> cache, TimeService ts, Configuration configuration,
+                                  ClusterSizeCollector clusterSizeCollector) {
       this.cache = cache;
+      this.clusterSizeCollector = clusterSizeCollector;
       this.ts = ts;
       this.statisticsEnabled = configuration.jmxStatistics().enabled();
    }
@@ -271,6 +275,19 @@ public int getNumberOfEntries() {
       }
    }
 
+   @ManagedAttribute(description = "Cluster wide estimated size in bytes of the keys and values in the cache, " +
+         "or -1 if the data container is not segmented or holds keys or values that can't be sized",
+         displayName = "Cluster wide estimated data size",
+         displayType = DisplayType.SUMMARY)
+   public long getEstimatedDataSize() {
+      if (isStatisticsEnabled()) {
+         fetchClusterWideStatsIfNeeded();
+         return estimatedDataSize;
+      } else {
+         return -1;
+      }
+   }
+
    @ManagedAttribute(description = "Cluster wide read/writes ratio for the cache",
          displayName = "Cluster wide read/write ratio",
          units = Units.PERCENTAGE,
@@ -366,6 +383,7 @@ public void reset() {
       hits = 0;
       evictions = 0;
       numberOfEntries = 0;
+      estimatedDataSize = 0;
       averageWriteTime = 0;
       averageReadTime = 0;
       averageRemoveTime = 0;
@@ -506,6 +524,7 @@ protected synchronized void fetchClusterWideStatsIfNeeded() {
          try {
             responseList = des.submitEverywhere(new DistributedCacheStatsCallable());
             updateFieldsFromResponseMap(responseList);
+            updateFieldsFromSegmentSizes();
          } catch (Exception e) {
             log.warn("Could not execute cluster wide cache stats operation ", e);
          } finally {
@@ -542,6 +561,17 @@ private void updateFieldsFromResponseMap(List<Future<Map<String, Number>>> respo
       cacheWriterStores = addLongAttributes(responseList, CACHE_WRITER_STORES);
    }
 
+   private void updateFieldsFromSegmentSizes() {
+      long[] totals = clusterSizeCollector != null ? clusterSizeCollector.collect() : null;
+      if (totals != null) {
+         // Each entry is counted once, instead of dividing the local sizes by the number of owners
+         numberOfEntries = totals[0];
+         estimatedDataSize = totals[1];
+      } else {
+         estimatedDataSize = -1;
+      }
+   }
+
    private long addLongAttributes(List<Future<Map<String, Number>>> responseList, String attribute) throws Exception {
       long total = 0;
       for (Future<Map<String, Number>> f : responseList) {
@@ -0,0 +1,132 @@
+package org.infinispan.stats.impl;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.remote.GetSegmentSizesCommand;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
+import org.infinispan.context.Flag;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.remoting.inboundhandler.DeliverOrder;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.responses.SuccessfulResponse;
+import org.infinispan.remoting.rpc.ResponseMode;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.statetransfer.StateTransferManager;
+import org.infinispan.topology.CacheTopology;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Computes the number of entries in the cluster, and their estimated size in bytes, from the sizes of the segments of
+ * the {@link SegmentedDataContainer}s. Each segment is counted once, on one of its owners in the current consistent
+ * hash, so the cost depends on the number of segments and members rather than on the number of entries.
+ * <p/>
+ * The segments owned by the local node are counted locally, and a single {@link GetSegmentSizesCommand} is sent to the
+ * primary owners of the other segments. In a replicated cache, no command is sent at all.
+ * <p/>
+ * Like {@link DataContainer#size()}, the segment sizes include the expired entries that the expiration reaper didn't
+ * remove yet.
+ *
+ * @since 7.2
+ */
+public class ClusterSizeCollector {
+
+   private static final Log log = LogFactory.getLog(ClusterSizeCollector.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private DataContainer dataContainer;
+   private StateTransferManager stateTransferManager;
+   private RpcManager rpcManager;
+   private CommandsFactory commandsFactory;
+   private Configuration configuration;
+
+   @Inject
+   public void inject(DataContainer dataContainer, StateTransferManager stateTransferManager, RpcManager rpcManager,
+                      CommandsFactory commandsFactory, Configuration configuration) {
+      this.dataContainer = dataContainer;
+      this.stateTransferManager = stateTransferManager;
+      this.rpcManager = rpcManager;
+      this.commandsFactory = commandsFactory;
+      this.configuration = configuration;
+   }
+
+   /**
+    * Computes the size of the cache, as {@link org.infinispan.Cache#size()} would, if it can be computed from the
+    * segment sizes: the cache stores must be skipped, and the operation must not be restricted to the local node.
+    *
+    * @param flags the flags of the size operation, may be {@code null}
+    * @return the number of entries in the cluster, or -1 if it can't be computed from the segment sizes
+    */
+   public long size(Set<Flag> flags) {
+      if (flags != null && flags.contains(Flag.CACHE_MODE_LOCAL)) {
+         return -1;
+      }
+      if (configuration.persistence().usingStores() && (flags == null || !flags.contains(Flag.SKIP_CACHE_LOAD))) {
+         return -1;
+      }
+      long[] totals = collect();
+      return totals == null ? -1 : totals[0];
+   }
+
+   /**
+    * @return the number of entries in the cluster followed by their estimated size in bytes (-1 if an owner holds keys
+    * or values that can't be sized), or {@code null} if the data container is not segmented, the cache hasn't joined
+    * yet, or an owner didn't reply
+    */
+   public long[] collect() {
+      long[] localSizes = GetSegmentSizesCommand.segmentSizes(dataContainer);
+      CacheTopology cacheTopology = stateTransferManager.getCacheTopology();
+      if (localSizes == null || cacheTopology == null) {
+         return null;
+      }
+      ConsistentHash ch = cacheTopology.getReadConsistentHash();
+      Address self = rpcManager.getAddress();
+      int numSegments = ch.getNumSegments();
+      Address[] counters = new Address[numSegments];
+      Set<Address> targets = new HashSet<Address>();
+      for (int segment = 0; segment < numSegments; segment++) {
+         List<Address> owners = ch.locateOwnersForSegment(segment);
+         counters[segment] = owners.contains(self) ? self : owners.get(0);
+         if (!self.equals(counters[segment])) {
+            targets.add(counters[segment]);
+         }
+      }
+
+      Map<Address, long[]> sizes = new HashMap<Address, long[]>();
+      sizes.put(self, localSizes);
+      if (!targets.isEmpty()) {
+         Map<Address, Response> responses = rpcManager.invokeRemotely(targets,
+               commandsFactory.buildGetSegmentSizesCommand(),
+               rpcManager.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS, DeliverOrder.NONE).build());
+         for (Address target : targets) {
+            Response response = responses.get(target);
+            if (!(response instanceof SuccessfulResponse) || ((SuccessfulResponse) response).getResponseValue() == null) {
+               if (trace) log.tracef("Cannot compute the cluster size, %s replied %s", target, response);
+               return null;
+            }
+            sizes.put(target, (long[]) ((SuccessfulResponse) response).getResponseValue());
+         }
+      }
+
+      long entries = 0;
+      long bytes = 0;
+      for (int segment = 0; segment < numSegments; segment++) {
+         long[] ownerSizes = sizes.get(counters[segment]);
+         entries += ownerSizes[segment];
+         if (bytes >= 0) {
+            long segmentBytes = ownerSizes[numSegments + segment];
+            bytes = segmentBytes < 0 ? -1 : bytes + segmentBytes;
+         }
+      }
+      return new long[]{entries, bytes};
+   }
+}
@@ -115,6 +115,8 @@ public Object getOwner(Object key) {
             // JDK ReentrantLocks can return null e.g. if another thread is in the process of acquiring the lock
             if (owner != null)
                return owner;
+         } else if (l instanceof LockFreePerEntryLockContainer.KeyLock) {
+            return ((LockFreePerEntryLockContainer.KeyLock) l).getOwner();
          }
 
          return ANOTHER_THREAD;
@@ -0,0 +1,375 @@
+package org.infinispan.util.concurrent.locks.containers;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.commons.equivalence.EquivalentHashMap;
+import org.infinispan.commons.util.Util;
+import org.infinispan.commons.util.concurrent.jdk8backported.EquivalentConcurrentHashMapV8;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.infinispan.commons.util.Util.toStr;
+
+/**
+ * A per-entry lock container for non-transactional caches, where the locks are owned by threads.
+ * <p/>
+ * A key is locked by mapping it to the {@link OwnerLock} of the current thread with a single compare-and-set, and
+ * unlocked by removing the mapping, so no lock instance is created or reference counted for each key. A thread that
+ * finds the key locked by another thread joins a queue of waiters for that key, which only exists while the key is
+ * contended. When the key is released it is handed over to the oldest waiter, which is unparked, so the waiters
+ * acquire the key in FIFO order and newcomers can't starve them.
+ * <p/>
+ * A key locked by an invocation is recorded in the {@link org.infinispan.context.InvocationContext}, so an invocation
+ * doesn't lock the same key twice. The owner lock only counts the acquisitions of nested invocations on the same
+ * thread, e.g. a listener writing the key, which is rare.
+ *
+ * @since 7.2
+ */
+public class LockFreePerEntryLockContainer implements LockContainer<LockFreePerEntryLockContainer.KeyLock> {
+
+   private static final Log log = LogFactory.getLog(LockFreePerEntryLockContainer.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private final EquivalentConcurrentHashMapV8<Object, OwnerLock> locks;
+   // The threads waiting for a key, the queue is removed when it becomes empty
+   private final EquivalentConcurrentHashMapV8<Object, Queue<Waiter>> waiters;
+   private final ThreadLocal<OwnerLock> ownerLocks;
+
+   public LockFreePerEntryLockContainer(int concurrencyLevel, final Equivalence<Object> keyEquivalence) {
+      locks = new EquivalentConcurrentHashMapV8<Object, OwnerLock>(
+            16, concurrencyLevel, keyEquivalence, AnyEquivalence.getInstance());
+      waiters = new EquivalentConcurrentHashMapV8<Object, Queue<Waiter>>(
+            16, concurrencyLevel, keyEquivalence, AnyEquivalence.getInstance());
+      ownerLocks = new ThreadLocal<OwnerLock>() {
+         @Override
+         protected OwnerLock initialValue() {
+            return new OwnerLock(Thread.currentThread(), keyEquivalence);
+         }
+      };
+   }
+
+   @Override
+   public boolean ownsLock(Object key, Object ignored) {
+      return locks.get(key) == ownerLocks.get();
+   }
+
+   @Override
+   public boolean isLocked(Object key) {
+      return locks.containsKey(key);
+   }
+
+   @Override
+   public KeyLock getLock(Object key) {
+      OwnerLock current = locks.get(key);
+      return current == null ? null : new KeyLock(key, current.owner);
+   }
+
+   @Override
+   public int getNumLocksHeld() {
+      return locks.size();
+   }
+
+   @Override
+   public int size() {
+      return locks.size();
+   }
+
+   @Override
+   public KeyLock acquireLock(Object lockOwner, Object key, long timeout, TimeUnit unit) throws InterruptedException {
+      OwnerLock lock = ownerLocks.get();
+      return acquire(lock, key, unit.toNanos(timeout)) ? new KeyLock(key, lock.owner) : null;
+   }
+
+   private boolean acquire(OwnerLock lock, Object key, long timeoutNanos) throws InterruptedException {
+      OwnerLock current = locks.putIfAbsent(key, lock);
+      if (current == null) {
+         if (trace) log.tracef("Acquired lock for key %s", toStr(key));
+         return true;
+      }
+      if (current == lock) {
+         lock.reenter(key);
+         return true;
+      }
+      if (timeoutNanos <= 0) {
+         return false;
+      }
+
+      Waiter waiter = new Waiter(lock);
+      enqueue(key, waiter);
+      try {
+         long start = System.nanoTime();
+         while (true) {
+            if (waiter.isGranted()) {
+               awaitHandOver(key, lock);
+               if (trace) log.tracef("Acquired contended lock for key %s", toStr(key));
+               return true;
+            }
+            // The key might have been released before this thread joined the queue
+            if (locks.putIfAbsent(key, lock) == null) {
+               // Nobody can grant a key that is not locked, so this can't fail
+               waiter.cancel();
+               if (trace) log.tracef("Acquired contended lock for key %s", toStr(key));
+               return true;
+            }
+            long remaining = timeoutNanos - (System.nanoTime() - start);
+            if (remaining <= 0) {
+               if (waiter.cancel()) {
+                  if (trace) log.tracef("Timed out attempting to acquire lock for key %s after %s", toStr(key),
+                                        Util.prettyPrintTime(TimeUnit.NANOSECONDS.toMillis(timeoutNanos)));
+                  return false;
+               }
+               // Granted just before the timeout
+               continue;
+            }
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.interrupted()) {
+               if (waiter.cancel())
+                  throw new InterruptedException();
+               // Granted just before the interruption, keep it for the caller
+               Thread.currentThread().interrupt();
+            }
+         }
+      } finally {
+         dequeue(key, waiter);
+      }
+   }
+
+   @Override
+   public void releaseLock(Object lockOwner, Object key) {
+      OwnerLock lock = ownerLocks.get();
+      if (lock.exit(key))
+         return;
+
+      OwnerLock current = locks.get(key);
+      // Like ReentrantLock.unlock(), fail if the lock is held by another thread
+      if (current != lock) {
+         if (current != null)
+            throw new IllegalMonitorStateException("Lock for key " + toStr(key) + " is held by " + current.owner);
+         return;
+      }
+
+      Queue<Waiter> queue = waiters.get(key);
+      if (queue != null) {
+         Waiter waiter;
+         while ((waiter = queue.poll()) != null) {
+            if (waiter.grant()) {
+               locks.replace(key, lock, waiter.lock);
+               LockSupport.unpark(waiter.lock.owner);
+               if (trace) log.tracef("Handed over lock for key %s to %s", toStr(key), waiter.lock.owner);
+               return;
+            }
+         }
+      }
+
+      locks.remove(key, lock);
+      if (trace) log.tracef("Released lock for key %s", toStr(key));
+      // A thread that joined the queue after we looked at it might have parked before the key was removed. This
+      // is rare, so wake up all of them instead of finding one that is still waiting.
+      queue = waiters.get(key);
+      if (queue != null) {
+         for (Waiter waiter : queue) {
+            LockSupport.unpark(waiter.lock.owner);
+         }
+      }
+   }
+
+   private void awaitHandOver(Object key, OwnerLock lock) {
+      // The releasing thread grants the key before it replaces its owner
+      while (locks.get(key) != lock) {
+         Thread.yield();
+      }
+   }
+
+   private void enqueue(Object key, final Waiter waiter) {
+      waiters.compute(key, new EquivalentConcurrentHashMapV8.BiFun<Object, Queue<Waiter>, Queue<Waiter>>() {
+         @Override
+         public Queue<Waiter> apply(Object key, Queue<Waiter> queue) {
+            if (queue == null) {
+               queue = new ConcurrentLinkedQueue<Waiter>();
+            }
+            queue.add(waiter);
+            return queue;
+         }
+      });
+   }
+
+   private void dequeue(Object key, final Waiter waiter) {
+      waiters.computeIfPresent(key, new EquivalentConcurrentHashMapV8.BiFun<Object, Queue<Waiter>, Queue<Waiter>>() {
+         @Override
+         public Queue<Waiter> apply(Object key, Queue<Waiter> queue) {
+            queue.remove(waiter);
+            return queue.isEmpty() ? null : queue;
+         }
+      });
+   }
+
+   @Override
+   public int getLockId(Object key) {
+      OwnerLock lock = locks.get(key);
+      return lock == null ? -1 : System.identityHashCode(lock);
+   }
+
+   @Override
+   public String toString() {
+      return "LockFreePerEntryLockContainer{" +
+            "locks=" + locks +
+            '}';
+   }
+
+   /**
+    * A view of the lock of a key, returned by {@link #acquireLock(Object, Object, long, TimeUnit)} and
+    * {@link #getLock(Object)}. Conditions are not supported.
+    */
+   public final class KeyLock implements Lock {
+      private final Object key;
+      private final Thread owner;
+
+      KeyLock(Object key, Thread owner) {
+         this.key = key;
+         this.owner = owner;
+      }
+
+      /**
+       * @return the thread owning the key when this view was created
+       */
+      public Thread getOwner() {
+         return owner;
+      }
+
+      @Override
+      public void lock() {
+         boolean interrupted = false;
+         while (true) {
+            try {
+               lockInterruptibly();
+               break;
+            } catch (InterruptedException e) {
+               interrupted = true;
+            }
+         }
+         if (interrupted) {
+            Thread.currentThread().interrupt();
+         }
+      }
+
+      @Override
+      public void lockInterruptibly() throws InterruptedException {
+         while (!acquire(ownerLocks.get(), key, Long.MAX_VALUE)) {
+            // Only returns false after a timeout of almost 300 years
+         }
+      }
+
+      @Override
+      public boolean tryLock() {
+         try {
+            return acquire(ownerLocks.get(), key, 0);
+         } catch (InterruptedException e) {
+            // Doesn't wait without a timeout
+            Thread.currentThread().interrupt();
+            return false;
+         }
+      }
+
+      @Override
+      public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+         return acquire(ownerLocks.get(), key, unit.toNanos(time));
+      }
+
+      @Override
+      public void unlock() {
+         releaseLock(null, key);
+      }
+
+      @Override
+      public Condition newCondition() {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public String toString() {
+         return "KeyLock{key=" + toStr(key) + ", owner=" + owner.getName() + '}';
+      }
+   }
+
+   /**
+    * The value mapped to the keys locked by a thread.
+    */
+   static final class OwnerLock {
+      private final Thread owner;
+      private final Equivalence<Object> keyEquivalence;
+      // Only accessed by the owner
+      private Map<Object, Integer> reentered;
+
+      OwnerLock(Thread owner, Equivalence<Object> keyEquivalence) {
+         this.owner = owner;
+         this.keyEquivalence = keyEquivalence;
+      }
+
+      void reenter(Object key) {
+         if (reentered == null)
+            reentered = new EquivalentHashMap<Object, Integer>(keyEquivalence, AnyEquivalence.<Integer>getInstance());
+         Integer count = reentered.get(key);
+         reentered.put(key, count == null ? 1 : count + 1);
+      }
+
+      /**
+       * @return {@code true} if the key was locked again by a nested invocation, so it must stay locked
+       */
+      boolean exit(Object key) {
+         if (reentered == null)
+            return false;
+         Integer count = reentered.get(key);
+         if (count == null)
+            return false;
+         if (count == 1) {
+            reentered.remove(key);
+         } else {
+            reentered.put(key, count - 1);
+         }
+         return true;
+      }
+
+      @Override
+      public String toString() {
+         return "OwnerLock{owner=" + owner.getName() + '}';
+      }
+   }
+
+   /**
+    * A thread waiting for a key. Either the releasing thread grants it the key, or the waiter cancels itself because
+    * it acquired the key by itself or gave up, whichever happens first.
+    */
+   private static final class Waiter {
+      private static final int WAITING = 0;
+      private static final int GRANTED = 1;
+      private static final int CANCELLED = 2;
+
+      final OwnerLock lock;
+      private final AtomicInteger state = new AtomicInteger(WAITING);
+
+      Waiter(OwnerLock lock) {
+         this.lock = lock;
+      }
+
+      boolean grant() {
+         return state.compareAndSet(WAITING, GRANTED);
+      }
+
+      boolean cancel() {
+         return state.compareAndSet(WAITING, CANCELLED);
+      }
+
+      boolean isGranted() {
+         return state.get() == GRANTED;
+      }
+   }
+}
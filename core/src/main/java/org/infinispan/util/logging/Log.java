@@ -36,6 +36,7 @@
 import org.infinispan.commons.CacheListenerException;
 import org.infinispan.commons.marshall.AdvancedExternalizer;
 import org.infinispan.commons.util.TypedProperties;
+import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.jmx.JmxDomainConflictException;
 import org.infinispan.lifecycle.ComponentStatus;
 import org.infinispan.partitionhandling.AvailabilityException;
@@ -1299,4 +1300,30 @@ void asyncStoreShutdownTimeoutTooHigh(long configuredAsyncStopTimeout,
 
    @Message(value = "Use of the replication queue is only allowed with an ASYNCHRONOUS cluster mode.", id = 353)
    CacheConfigurationException replicationQueueOnlyForAsyncCaches();
+
+   @Message(value = "Keys '%s' are not available. Not all owners are in this partition", id = 354)
+   AvailabilityException degradedModeKeysUnavailable(Collection<?> keys);
+
+   @Message(value = "The compact data container only stores byte[] or String keys and byte[] values, but the key is a %s and the value a %s", id = 355)
+   CacheException compactDataContainerRequiresByteArrays(String keyType, String valueType);
+
+   @Message(value = "The compact data container can't be used together with %s", id = 356)
+   CacheConfigurationException compactDataContainerNotAllowedWith(String feature);
+
+   @Message(value = "The segmented data container can't be used together with %s", id = 357)
+   CacheConfigurationException segmentedDataContainerNotAllowedWith(String feature);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Listener %s dropped %d events because its event queue was full", id = 358)
+   void droppedListenerEvents(Object target, long count);
+
+   @LogMessage(level = ERROR)
+   @Message(value = "Unexpected error delivering events to listener %s", id = 359)
+   void errorDeliveringListenerEvents(Object target, @Cause Throwable t);
+
+   @Message(value = "The L1 cache can only be bounded with the LRU or LIRS eviction strategies, not %s", id = 360)
+   CacheConfigurationException l1InvalidEvictionStrategy(EvictionStrategy strategy);
+
+   @Message(value = "A bounded L1 cache can't be used together with %s", id = 361)
+   CacheConfigurationException boundedL1NotAllowedWith(String feature);
 }
@@ -69,6 +69,22 @@ public void testConvenienceMethods() {
       assert cache.values().contains(value);
    }
 
+   public void testGetAll() {
+      cache.put("k1", "v1");
+      cache.put("k2", "v2");
+      Set<String> keys = new HashSet<String>();
+      keys.add("k1");
+      keys.add("k2");
+      keys.add("k3");
+
+      Map<Object, Object> result = cache.getAdvancedCache().getAll(keys);
+      assertEquals(2, result.size());
+      assertEquals("v1", result.get("k1"));
+      assertEquals("v2", result.get("k2"));
+      assertFalse(result.containsKey("k3"));
+      assertNoLocks(cache);
+   }
+
       public void testStopClearsData() throws Exception {
       String key = "key", value = "value";
       int size = 0;
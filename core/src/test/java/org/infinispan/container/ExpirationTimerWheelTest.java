@@ -0,0 +1,160 @@
+package org.infinispan.container;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.equivalence.ByteArrayEquivalence;
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * @since 7.2
+ */
+@Test(groups = "unit", testName = "container.ExpirationTimerWheelTest")
+public class ExpirationTimerWheelTest extends AbstractInfinispanTest {
+
+   private static final long START = 1000000;
+
+   public void testVisitOnlyDueKeys() {
+      ExpirationTimerWheel<String> wheel = newWheel();
+      wheel.schedule("k1", START + 10);
+      wheel.schedule("k2", START + 100);
+      wheel.schedule("k3", START + 100000);
+
+      assertEquals(0, advance(wheel, START + 10).size());
+      assertEquals(list("k1"), advance(wheel, START + 11));
+      assertEquals(list("k2"), advance(wheel, START + 500));
+      assertEquals(1, wheel.size());
+      assertEquals(list("k3"), advance(wheel, START + 100001));
+      assertEquals(0, wheel.size());
+   }
+
+   public void testCascadeFromHigherLevels() {
+      ExpirationTimerWheel<String> wheel = newWheel();
+      long[] expirations = {START + 300, START + TimeUnit.SECONDS.toMillis(20), START + TimeUnit.MINUTES.toMillis(30),
+                            START + TimeUnit.HOURS.toMillis(10)};
+      for (int i = 0; i < expirations.length; i++) {
+         wheel.schedule("k" + i, expirations[i]);
+      }
+      long now = START;
+      for (int i = 0; i < expirations.length; i++) {
+         assertEquals(0, advance(wheel, expirations[i]).size());
+         assertEquals(list("k" + i), advance(wheel, expirations[i] + 1));
+         now = expirations[i] + 1;
+      }
+      assertEquals(0, advance(wheel, now + TimeUnit.HOURS.toMillis(1)).size());
+   }
+
+   public void testOverflowWrapWithManyKeys() {
+      ExpirationTimerWheel<String> wheel = newWheel();
+      int numKeys = 10000;
+      long expiryTime = START + TimeUnit.DAYS.toMillis(2);
+      for (int i = 0; i < numKeys; i++) {
+         wheel.schedule("k" + i, expiryTime + i % 100);
+      }
+      // Advance in steps shorter than the span of the wheel, so that the overflow slot wraps around a few times
+      long now = START;
+      while (now + TimeUnit.HOURS.toMillis(1) <= expiryTime) {
+         now += TimeUnit.HOURS.toMillis(1);
+         assertEquals(0, advance(wheel, now).size());
+      }
+      assertEquals(numKeys, wheel.size());
+      List<String> visited = advance(wheel, expiryTime + 100);
+      assertEquals(numKeys, visited.size());
+      assertEquals(numKeys, new HashSet<String>(visited).size());
+      assertEquals(0, wheel.size());
+   }
+
+   public void testAlreadyDue() {
+      ExpirationTimerWheel<String> wheel = newWheel();
+      wheel.schedule("k", START - 50);
+      assertEquals(list("k"), advance(wheel, START + 1));
+   }
+
+   public void testScheduleAgain() {
+      ExpirationTimerWheel<String> wheel = newWheel();
+      wheel.schedule("k", START + 10);
+      wheel.schedule("k", START + 5000);
+      // The first schedule is stale but still visited
+      assertEquals(list("k"), advance(wheel, START + 11));
+      assertEquals(list("k"), advance(wheel, START + 5001));
+      assertEquals(0, wheel.size());
+   }
+
+   public void testClockJump() {
+      ExpirationTimerWheel<String> wheel = newWheel();
+      wheel.schedule("k1", START + 10);
+      wheel.schedule("k2", START + TimeUnit.DAYS.toMillis(365));
+      List<String> visited = advance(wheel, START + TimeUnit.DAYS.toMillis(30));
+      assertEquals(2, visited.size());
+      assertTrue(visited.contains("k1"));
+      assertTrue(visited.contains("k2"));
+   }
+
+   public void testAdvanceInRandomSteps() {
+      // Advancing skips the empty ticks, but every key is still visited on the first advance after its expiration
+      ExpirationTimerWheel<String> wheel = newWheel();
+      Random random = new Random(42);
+      Map<String, Long> expirations = new HashMap<String, Long>();
+      for (int i = 0; i < 5000; i++) {
+         long expiryTime = START + random.nextInt(2000000);
+         expirations.put("k" + i, expiryTime);
+         wheel.schedule("k" + i, expiryTime);
+      }
+      long previous = START;
+      long now = START;
+      int visited = 0;
+      while (visited < expirations.size()) {
+         now += 1 + random.nextInt(3000);
+         for (String key : advance(wheel, now)) {
+            long expiryTime = expirations.get(key);
+            assertTrue(expiryTime < now);
+            assertTrue(expiryTime >= previous);
+            visited++;
+         }
+         previous = now;
+      }
+      assertEquals(0, wheel.size());
+   }
+
+   @SuppressWarnings("unchecked")
+   public void testKeyEquivalence() {
+      ExpirationTimerWheel<byte[]> wheel = new ExpirationTimerWheel<byte[]>(
+            (Equivalence) ByteArrayEquivalence.INSTANCE, ExpirationTimerWheel.DEFAULT_TICK_MILLIS, START);
+      wheel.schedule(new byte[]{1}, START + 10);
+      wheel.schedule(new byte[]{1}, START + 10);
+      assertEquals(1, wheel.size());
+   }
+
+   private ExpirationTimerWheel<String> newWheel() {
+      return new ExpirationTimerWheel<String>(AnyEquivalence.<String>getInstance(),
+                                              ExpirationTimerWheel.DEFAULT_TICK_MILLIS, START);
+   }
+
+   private List<String> advance(ExpirationTimerWheel<String> wheel, long now) {
+      final List<String> visited = new ArrayList<String>();
+      wheel.advance(now, new ExpirationTimerWheel.DueKeyVisitor<String>() {
+         @Override
+         public void visit(String key) {
+            visited.add(key);
+         }
+      });
+      return visited;
+   }
+
+   private List<String> list(String key) {
+      List<String> list = new ArrayList<String>();
+      list.add(key);
+      return list;
+   }
+}
@@ -0,0 +1,116 @@
+package org.infinispan.container;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.TestAddress;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.distribution.ch.impl.DefaultConsistentHashFactory;
+import org.infinispan.eviction.ActivationManager;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.remoting.transport.Address;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "container.SegmentedDataContainerTest")
+public class SegmentedDataContainerTest extends SimpleDataContainerTest {
+
+   private static final int NUM_SEGMENTS = 8;
+
+   private final ConsistentHash ch = new DefaultConsistentHashFactory().create(MurmurHash3.getInstance(), 1,
+         NUM_SEGMENTS, Arrays.<Address>asList(new TestAddress(0)), null);
+
+   @Override
+   protected DataContainer createContainer() {
+      DefaultSegmentedDataContainer<Object, String> dc = new DefaultSegmentedDataContainer<Object, String>(16,
+            AnyEquivalence.getInstance(), ch);
+      InternalEntryFactoryImpl internalEntryFactory = new InternalEntryFactoryImpl();
+      internalEntryFactory.injectTimeService(TIME_SERVICE);
+      dc.initialize(null, null, internalEntryFactory, mock(ActivationManager.class), null, TIME_SERVICE);
+      return dc;
+   }
+
+   public void testSegmentSizeInBytes() {
+      SegmentedDataContainer<Object, String> sdc = (SegmentedDataContainer<Object, String>) dc;
+      // The average starts at 0 and moves by 1/16 of the difference with each write
+      char[] chars = new char[100];
+      Arrays.fill(chars, 'v');
+      String value = new String(chars);
+      dc.put("k", value, new EmbeddedMetadata.Builder().build());
+      int segment = ch.getSegment("k");
+      assertTrue(sdc.segmentSizeInBytes(segment) > 0);
+
+      // Keys that can't be sized make the estimate unknown until the container is cleared
+      dc.put(1, "v", new EmbeddedMetadata.Builder().build());
+      assertEquals(-1, sdc.segmentSizeInBytes(segment));
+      dc.clear();
+      dc.put("k", value, new EmbeddedMetadata.Builder().build());
+      assertTrue(sdc.segmentSizeInBytes(segment) > 0);
+   }
+
+   public void testSegments() {
+      SegmentedDataContainer<Object, String> sdc = (SegmentedDataContainer<Object, String>) dc;
+      assertEquals(NUM_SEGMENTS, sdc.getNumSegments());
+      for (int i = 0; i < 100; i++) {
+         dc.put("k" + i, "v" + i, new EmbeddedMetadata.Builder().build());
+      }
+
+      int total = 0;
+      Set<Object> keys = new HashSet<Object>();
+      for (int segment = 0; segment < NUM_SEGMENTS; segment++) {
+         int count = 0;
+         for (Iterator<InternalCacheEntry<Object, String>> it = sdc.segmentIterator(segment); it.hasNext(); ) {
+            Object key = it.next().getKey();
+            assertEquals(ch.getSegment(key), segment);
+            assertTrue(keys.add(key));
+            count++;
+         }
+         assertEquals(count, sdc.segmentSize(segment));
+         total += count;
+      }
+      assertEquals(100, total);
+      assertEquals(100, dc.size());
+
+      Set<Integer> firstTwo = new HashSet<Integer>(Arrays.asList(0, 1));
+      int count = 0;
+      for (Iterator<InternalCacheEntry<Object, String>> it = sdc.segmentIterator(firstTwo); it.hasNext(); ) {
+         assertTrue(firstTwo.contains(ch.getSegment(it.next().getKey())));
+         count++;
+      }
+      assertEquals(sdc.segmentSize(0) + sdc.segmentSize(1), count);
+
+      int cleared = sdc.segmentSize(0);
+      sdc.clearSegment(0);
+      assertEquals(0, sdc.segmentSize(0));
+      assertFalse(sdc.segmentIterator(0).hasNext());
+      assertEquals(100 - cleared, dc.size());
+      for (int i = 0; i < 100; i++) {
+         assertEquals(ch.getSegment("k" + i) != 0, dc.containsKey("k" + i));
+      }
+   }
+
+   @Test(expectedExceptions = CacheConfigurationException.class)
+   public void testLocalCacheNotAllowed() {
+      new ConfigurationBuilder().dataContainer().segmented(true).build();
+   }
+
+   @Test(expectedExceptions = CacheConfigurationException.class)
+   public void testEvictionNotAllowed() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.clustering().cacheMode(CacheMode.DIST_SYNC).dataContainer().segmented(true);
+      builder.eviction().maxEntries(10);
+      builder.build();
+   }
+}
@@ -26,7 +26,7 @@
 
 @Test(groups = "unit", testName = "container.SimpleDataContainerTest")
 public class SimpleDataContainerTest extends AbstractInfinispanTest {
-   DataContainer<Object, String> dc;
+   protected DataContainer<Object, String> dc;
 
    @BeforeMethod
    public void setUp() {
@@ -0,0 +1,279 @@
+package org.infinispan.container.compact;
+
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.nio.charset.Charset;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.commons.CacheException;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.InternalEntryFactoryImpl;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.MortalCacheEntry;
+import org.infinispan.container.entries.TransientCacheEntry;
+import org.infinispan.container.entries.TransientMortalCacheEntry;
+import org.infinispan.container.entries.metadata.MetadataImmortalCacheEntry;
+import org.infinispan.container.versioning.EntryVersion;
+import org.infinispan.container.versioning.NumericVersion;
+import org.infinispan.container.versioning.SimpleClusteredVersion;
+import org.infinispan.eviction.ActivationManager;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "container.compact.CompactDataContainerTest")
+public class CompactDataContainerTest extends AbstractInfinispanTest {
+
+   private CompactDataContainer<byte[], byte[]> dc;
+   private EvictionManager evictionManager;
+
+   @BeforeMethod
+   public void setUp() {
+      dc = createContainer(16, -1, EvictionStrategy.NONE);
+   }
+
+   private CompactDataContainer<byte[], byte[]> createContainer(int concurrencyLevel, int maxEntries, EvictionStrategy strategy) {
+      CompactDataContainer<byte[], byte[]> dc = new CompactDataContainer<byte[], byte[]>(concurrencyLevel, maxEntries, strategy);
+      InternalEntryFactoryImpl internalEntryFactory = new InternalEntryFactoryImpl();
+      internalEntryFactory.injectTimeService(TIME_SERVICE);
+      evictionManager = mock(EvictionManager.class);
+      dc.initialize(evictionManager, mock(PassivationManager.class), internalEntryFactory,
+            mock(ActivationManager.class), TIME_SERVICE);
+      return dc;
+   }
+
+   private static byte[] bytes(String s) {
+      return s.getBytes(Charset.forName("UTF-8"));
+   }
+
+   public void testPutGetRemove() {
+      dc.put(bytes("k"), bytes("v"), new EmbeddedMetadata.Builder().build());
+      InternalCacheEntry<byte[], byte[]> ice = dc.get(bytes("k"));
+      assertEquals(ImmortalCacheEntry.class, ice.getClass());
+      assertTrue(Arrays.equals(bytes("k"), ice.getKey()));
+      assertTrue(Arrays.equals(bytes("v"), ice.getValue()));
+      assertTrue(dc.containsKey(bytes("k")));
+      assertEquals(1, dc.size());
+
+      dc.put(bytes("k"), bytes("v2"), new EmbeddedMetadata.Builder().build());
+      assertEquals(1, dc.size());
+      assertTrue(Arrays.equals(bytes("v2"), dc.remove(bytes("k")).getValue()));
+      assertNull(dc.get(bytes("k")));
+      assertFalse(dc.containsKey(bytes("k")));
+      assertEquals(0, dc.size());
+   }
+
+   public void testUnsupportedKeys() {
+      assertNull(dc.get(1));
+      assertNull(dc.peek(1));
+      assertFalse(dc.containsKey(1));
+      assertNull(dc.remove(1));
+   }
+
+   public void testStringKeys() {
+      CompactDataContainer<Object, byte[]> mixed = new CompactDataContainer<Object, byte[]>(16);
+      InternalEntryFactoryImpl internalEntryFactory = new InternalEntryFactoryImpl();
+      internalEntryFactory.injectTimeService(TIME_SERVICE);
+      mixed.initialize(mock(EvictionManager.class), mock(PassivationManager.class), internalEntryFactory,
+            mock(ActivationManager.class), TIME_SERVICE);
+      mixed.put("k\u00e9", bytes("v1"), new EmbeddedMetadata.Builder().build());
+      mixed.put(bytes("k\u00e9"), bytes("v2"), new EmbeddedMetadata.Builder().build());
+      assertEquals(2, mixed.size());
+      assertEquals("k\u00e9", mixed.get("k\u00e9").getKey());
+      assertTrue(Arrays.equals(bytes("v1"), mixed.get("k\u00e9").getValue()));
+      assertTrue(Arrays.equals(bytes("v2"), mixed.get(bytes("k\u00e9")).getValue()));
+      assertTrue(mixed.keySet().contains("k\u00e9"));
+
+      assertNotNull(mixed.remove("k\u00e9"));
+      assertNull(mixed.get("k\u00e9"));
+      assertNotNull(mixed.get(bytes("k\u00e9")));
+   }
+
+   @Test(expectedExceptions = CacheException.class)
+   public void testNonByteArrayValue() {
+      DataContainer raw = dc;
+      raw.put(bytes("k"), "v", new EmbeddedMetadata.Builder().build());
+   }
+
+   @Test(expectedExceptions = CacheConfigurationException.class)
+   public void testCompatibilityModeNotAllowed() {
+      new ConfigurationBuilder().dataContainer().compact(true).compatibility().enable().build();
+   }
+
+   public void testExpiration() throws InterruptedException {
+      dc.put(bytes("k"), bytes("v"), new EmbeddedMetadata.Builder().maxIdle(100, TimeUnit.MINUTES).build());
+      InternalCacheEntry entry = dc.get(bytes("k"));
+      assertEquals(TransientCacheEntry.class, entry.getClass());
+      long lastUsed = entry.getLastUsed();
+      Thread.sleep(100);
+      assertTrue(dc.get(bytes("k")).getLastUsed() > lastUsed);
+
+      dc.put(bytes("k"), bytes("v"), new EmbeddedMetadata.Builder().lifespan(100, TimeUnit.MINUTES).build());
+      entry = dc.get(bytes("k"));
+      assertEquals(MortalCacheEntry.class, entry.getClass());
+      assertEquals(TimeUnit.MINUTES.toMillis(100), entry.getLifespan());
+
+      dc.put(bytes("k"), bytes("v"), new EmbeddedMetadata.Builder().lifespan(100, TimeUnit.MINUTES)
+            .maxIdle(100, TimeUnit.MINUTES).build());
+      assertEquals(TransientMortalCacheEntry.class, dc.get(bytes("k")).getClass());
+
+      dc.put(bytes("k"), bytes("v"), new EmbeddedMetadata.Builder().lifespan(0, TimeUnit.MINUTES).build());
+      Thread.sleep(10);
+      assertNull(dc.get(bytes("k")));
+      assertEquals(0, dc.size());
+
+      dc.put(bytes("k"), bytes("v"), new EmbeddedMetadata.Builder().lifespan(0, TimeUnit.MINUTES).build());
+      Thread.sleep(10);
+      dc.purgeExpired();
+      assertEquals(0, dc.size());
+   }
+
+   public void testNumericVersionIsPacked() {
+      dc.put(bytes("k"), bytes("v"), new EmbeddedMetadata.Builder().version(new NumericVersion(42))
+            .lifespan(100, TimeUnit.MINUTES).build());
+      InternalCacheEntry ice = dc.get(bytes("k"));
+      assertEquals(new NumericVersion(42), ice.getMetadata().version());
+      assertEquals(TimeUnit.MINUTES.toMillis(100), ice.getLifespan());
+   }
+
+   public void testCustomMetadata() {
+      EntryVersion version = new SimpleClusteredVersion(1, 7);
+      dc.put(bytes("k1"), bytes("v1"), new EmbeddedMetadata.Builder().version(version).build());
+      Metadata custom = new CustomMetadata();
+      dc.put(bytes("k2"), bytes("v2"), custom);
+      dc.put(bytes("k3"), bytes("v3"), new EmbeddedMetadata.Builder().build());
+
+      assertEquals(version, dc.get(bytes("k1")).getMetadata().version());
+      InternalCacheEntry ice = dc.get(bytes("k2"));
+      assertEquals(MetadataImmortalCacheEntry.class, ice.getClass());
+      assertTrue(ice.getMetadata() == custom);
+      assertNull(dc.get(bytes("k3")).getMetadata().version());
+   }
+
+   public void testRehash() {
+      for (int i = 0; i < 10000; i++) {
+         dc.put(bytes("k" + i), bytes("v" + i), new EmbeddedMetadata.Builder().build());
+      }
+      for (int i = 0; i < 10000; i += 2) {
+         dc.remove(bytes("k" + i));
+      }
+      for (int i = 10000; i < 15000; i++) {
+         dc.put(bytes("k" + i), bytes("v" + i), new EmbeddedMetadata.Builder().build());
+      }
+      assertEquals(10000, dc.size());
+      for (int i = 1; i < 15000; i += i < 10000 ? 2 : 1) {
+         assertTrue(Arrays.equals(bytes("v" + i), dc.get(bytes("k" + i)).getValue()));
+      }
+      Set<String> keys = new HashSet<String>();
+      for (InternalCacheEntry<byte[], byte[]> ice : dc) {
+         assertTrue(keys.add(new String(ice.getKey())));
+      }
+      assertEquals(10000, keys.size());
+      assertEquals(10000, dc.keySet().size());
+      assertEquals(10000, dc.values().size());
+      dc.clear();
+      assertEquals(0, dc.size());
+      assertFalse(dc.iterator().hasNext());
+   }
+
+   public void testEntrySet() {
+      dc.put(bytes("k1"), bytes("v1"), new EmbeddedMetadata.Builder().build());
+      dc.put(bytes("k2"), bytes("v2"), new EmbeddedMetadata.Builder().build());
+      assertEquals(2, dc.entrySet().size());
+      assertTrue(dc.entrySet().contains(new AbstractMap.SimpleEntry<byte[], byte[]>(bytes("k2"), bytes("v2"))));
+      assertFalse(dc.entrySet().contains(new AbstractMap.SimpleEntry<byte[], byte[]>(bytes("k2"), bytes("v1"))));
+   }
+
+   public void testClockEviction() {
+      CompactDataContainer<byte[], byte[]> bounded = createContainer(1, 3, EvictionStrategy.LRU);
+      bounded.put(bytes("k1"), bytes("v1"), new EmbeddedMetadata.Builder().build());
+      bounded.put(bytes("k2"), bytes("v2"), new EmbeddedMetadata.Builder().build());
+      bounded.put(bytes("k3"), bytes("v3"), new EmbeddedMetadata.Builder().build());
+      // The first insertion over the bound clears the reference bits of all the entries, then evicts one of them
+      bounded.put(bytes("k4"), bytes("v4"), new EmbeddedMetadata.Builder().build());
+      assertEquals(3, bounded.size());
+      List<byte[]> survivors = new ArrayList<byte[]>();
+      for (String k : new String[]{"k1", "k2", "k3", "k4"}) {
+         // peek doesn't set the reference bit
+         if (bounded.peek(bytes(k)) != null)
+            survivors.add(bytes(k));
+      }
+      assertEquals(3, survivors.size());
+      // Two of the survivors are referenced again, so the hand skips them and evicts the third one
+      assertNotNull(bounded.get(survivors.get(0)));
+      assertNotNull(bounded.get(survivors.get(1)));
+      bounded.put(bytes("k5"), bytes("v5"), new EmbeddedMetadata.Builder().build());
+      assertEquals(3, bounded.size());
+      assertNotNull(bounded.peek(survivors.get(0)));
+      assertNotNull(bounded.peek(survivors.get(1)));
+      assertNull(bounded.peek(survivors.get(2)));
+      assertNotNull(bounded.peek(bytes("k5")));
+      verify(evictionManager, times(2)).onEntryEviction(anyMap());
+   }
+
+   public void testCompute() {
+      dc.put(bytes("k"), bytes("v"), new EmbeddedMetadata.Builder().build());
+      dc.compute(bytes("k"), new DataContainer.ComputeAction<byte[], byte[]>() {
+         @Override
+         public InternalCacheEntry<byte[], byte[]> compute(byte[] key, InternalCacheEntry<byte[], byte[]> oldEntry,
+                                                           InternalEntryFactory factory) {
+            return factory.create(key, bytes("v2"), oldEntry.getMetadata());
+         }
+      });
+      assertTrue(Arrays.equals(bytes("v2"), dc.get(bytes("k")).getValue()));
+      dc.compute(bytes("k"), new DataContainer.ComputeAction<byte[], byte[]>() {
+         @Override
+         public InternalCacheEntry<byte[], byte[]> compute(byte[] key, InternalCacheEntry<byte[], byte[]> oldEntry,
+                                                           InternalEntryFactory factory) {
+            return null;
+         }
+      });
+      assertNull(dc.get(bytes("k")));
+      assertEquals(0, dc.size());
+   }
+
+   private static class CustomMetadata implements Metadata {
+      @Override
+      public long lifespan() {
+         return -1;
+      }
+
+      @Override
+      public long maxIdle() {
+         return -1;
+      }
+
+      @Override
+      public EntryVersion version() {
+         return null;
+      }
+
+      @Override
+      public Builder builder() {
+         return new EmbeddedMetadata.Builder();
+      }
+   }
+}
@@ -0,0 +1,231 @@
+package org.infinispan.container.offheap;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.InternalEntryFactoryImpl;
+import org.infinispan.container.SimpleDataContainerTest;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.versioning.NumericVersion;
+import org.infinispan.eviction.ActivationManager;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.marshall.TestObjectStreamMarshaller;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "container.offheap.OffHeapDataContainerTest")
+public class OffHeapDataContainerTest extends SimpleDataContainerTest {
+
+   private TestObjectStreamMarshaller marshaller;
+
+   @BeforeClass
+   public void createMarshaller() {
+      marshaller = new TestObjectStreamMarshaller();
+   }
+
+   @AfterClass
+   public void stopMarshaller() {
+      marshaller.stop();
+   }
+
+   @AfterMethod
+   @Override
+   public void tearDown() {
+      ((OffHeapDataContainer) dc).stop();
+      super.tearDown();
+   }
+
+   @Override
+   protected DataContainer createContainer() {
+      return createContainer(-1, EvictionStrategy.NONE);
+   }
+
+   private OffHeapDataContainer<Object, String> createContainer(int maxEntries, EvictionStrategy strategy) {
+      OffHeapDataContainer<Object, String> dc = new OffHeapDataContainer<Object, String>(16, maxEntries, strategy,
+            AnyEquivalence.getInstance());
+      InternalEntryFactoryImpl internalEntryFactory = new InternalEntryFactoryImpl();
+      internalEntryFactory.injectTimeService(TIME_SERVICE);
+      dc.initialize(mock(EvictionManager.class), mock(PassivationManager.class), internalEntryFactory,
+            mock(ActivationManager.class), TIME_SERVICE, marshaller);
+      return dc;
+   }
+
+   @Override
+   public void testUpdatingLastUsed() throws Exception {
+      // Entries returned by the off-heap container are snapshots, so check the stored timestamp on every read
+      long idle = 600000;
+      dc.put("k", "v", new EmbeddedMetadata.Builder().maxIdle(idle, TimeUnit.MILLISECONDS).build());
+      long lastUsed = dc.get("k").getLastUsed();
+      Thread.sleep(100); // for time calc granularity
+      InternalCacheEntry ice = dc.get("k");
+      assertTrue(ice.getLastUsed() > lastUsed);
+      assertEquals(idle, ice.getMaxIdle());
+      assertEquals(-1, ice.getLifespan());
+   }
+
+   @Override
+   public void testEntrySet() {
+      // Snapshots are never identical, so compare the key/value pairs instead
+      dc.put("k1", "v1", new EmbeddedMetadata.Builder().lifespan(100, TimeUnit.MINUTES).build());
+      dc.put("k2", "v2", new EmbeddedMetadata.Builder().build());
+      dc.put("k3", "v3", new EmbeddedMetadata.Builder().maxIdle(100, TimeUnit.MINUTES).build());
+
+      Map<Object, Object> expected = new HashMap<Object, Object>();
+      expected.put("k1", "v1");
+      expected.put("k2", "v2");
+      expected.put("k3", "v3");
+
+      Map<Object, Object> actual = new HashMap<Object, Object>();
+      for (Map.Entry<Object, String> o : dc.entrySet()) actual.put(o.getKey(), o.getValue());
+
+      assertEquals(expected, actual);
+      assertTrue(dc.entrySet().contains(new AbstractMap.SimpleEntry<Object, Object>("k2", "v2")));
+   }
+
+   public void testVersionedMetadata() {
+      dc.put("k", "v", new EmbeddedMetadata.Builder().version(new NumericVersion(3)).build());
+      InternalCacheEntry ice = dc.get("k");
+      assertEquals("v", ice.getValue());
+      assertEquals(new NumericVersion(3), ice.getMetadata().version());
+   }
+
+   public void testResize() {
+      for (int i = 0; i < 10000; i++) {
+         dc.put(i, "v" + i, new EmbeddedMetadata.Builder().build());
+      }
+      assertEquals(10000, dc.size());
+      for (int i = 0; i < 10000; i++) {
+         assertEquals("v" + i, dc.get(i).getValue());
+      }
+      Set<Object> keys = new HashSet<Object>();
+      for (InternalCacheEntry ice : dc) {
+         assertTrue(keys.add(ice.getKey()));
+      }
+      assertEquals(10000, keys.size());
+   }
+
+   public void testIterationDuringResize() {
+      for (int i = 0; i < 500; i++) {
+         dc.put(i, "v" + i, new EmbeddedMetadata.Builder().build());
+      }
+      Iterator<InternalCacheEntry<Object, String>> it = dc.iterator();
+      Set<Object> keys = new HashSet<Object>();
+      for (int i = 0; i < 10; i++) {
+         assertTrue(keys.add(it.next().getKey()));
+      }
+      // Grows the table a few times while iterating
+      for (int i = 500; i < 10000; i++) {
+         dc.put(i, "v" + i, new EmbeddedMetadata.Builder().build());
+      }
+      while (it.hasNext()) {
+         assertTrue(keys.add(it.next().getKey()));
+      }
+      for (int i = 0; i < 500; i++) {
+         assertTrue(keys.contains(i));
+      }
+   }
+
+   public void testRemoveAndClearReleaseMemory() {
+      OffHeapDataContainer<Object, String> offHeap = (OffHeapDataContainer<Object, String>) dc;
+      long empty = offHeap.getAllocatedMemory();
+      dc.put("k1", "v1", new EmbeddedMetadata.Builder().build());
+      dc.put("k2", "v2", new EmbeddedMetadata.Builder().build());
+      assertTrue(offHeap.getAllocatedMemory() > empty);
+      assertEquals("v1", dc.remove("k1").getValue());
+      assertNull(dc.get("k1"));
+      dc.clear();
+      assertEquals(0, dc.size());
+      assertEquals(empty, offHeap.getAllocatedMemory());
+   }
+
+   public void testLRUEviction() {
+      OffHeapDataContainer<Object, String> bounded = createContainer(3, EvictionStrategy.LRU);
+      bounded.put("k1", "v1", new EmbeddedMetadata.Builder().build());
+      bounded.put("k2", "v2", new EmbeddedMetadata.Builder().build());
+      bounded.put("k3", "v3", new EmbeddedMetadata.Builder().build());
+      // k1 becomes the most recently used entry, so k2 is the eldest one
+      assertNotNull(bounded.get("k1"));
+      bounded.put("k4", "v4", new EmbeddedMetadata.Builder().build());
+      assertEquals(3, bounded.size());
+      assertNull(bounded.peek("k2"));
+      assertNotNull(bounded.peek("k1"));
+      assertNotNull(bounded.peek("k3"));
+      assertNotNull(bounded.peek("k4"));
+      bounded.stop();
+   }
+
+   public void testConcurrentReadsAndEviction() throws Exception {
+      final OffHeapDataContainer<Object, String> bounded = createContainer(50, EvictionStrategy.LRU);
+      final int numKeys = 200;
+      Future<?>[] futures = new Future<?>[4];
+      for (int t = 0; t < futures.length; t++) {
+         futures[t] = fork(new Callable<Void>() {
+            @Override
+            public Void call() {
+               for (int i = 0; i < 20000; i++) {
+                  int k = i % numKeys;
+                  if (i % 3 == 0) {
+                     bounded.put(k, "v" + k, new EmbeddedMetadata.Builder().maxIdle(10, TimeUnit.MINUTES).build());
+                  } else {
+                     InternalCacheEntry ice = bounded.get(k);
+                     // An evicted entry must never be replaced by the value of another key
+                     if (ice != null)
+                        assertEquals("v" + k, ice.getValue());
+                  }
+               }
+               return null;
+            }
+         });
+      }
+      for (Future<?> future : futures) {
+         future.get(30, TimeUnit.SECONDS);
+      }
+      assertTrue(bounded.size() <= 50);
+      for (InternalCacheEntry ice : bounded) {
+         assertEquals("v" + ice.getKey(), ice.getValue());
+      }
+      bounded.stop();
+   }
+
+   public void testCompute() {
+      dc.put("k", "v", new EmbeddedMetadata.Builder().build());
+      dc.compute("k", new DataContainer.ComputeAction<Object, String>() {
+         @Override
+         public InternalCacheEntry<Object, String> compute(Object key, InternalCacheEntry<Object, String> oldEntry,
+                                                           InternalEntryFactory factory) {
+            return factory.create(key, oldEntry.getValue() + "2", oldEntry.getMetadata());
+         }
+      });
+      assertEquals("v2", dc.get("k").getValue());
+      dc.compute("k", new DataContainer.ComputeAction<Object, String>() {
+         @Override
+         public InternalCacheEntry<Object, String> compute(Object key, InternalCacheEntry<Object, String> oldEntry,
+                                                           InternalEntryFactory factory) {
+            return null;
+         }
+      });
+      assertNull(dc.get("k"));
+      assertEquals(0, dc.size());
+   }
+}
@@ -0,0 +1,71 @@
+package org.infinispan.distexec.mapreduce;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SpillingTwoNodesMapReduceTest tests Map/Reduce functionality using two Infinispan nodes and local
+ * reduce, with a spill threshold low enough for the intermediate values to be spilled to disk
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "distexec.mapreduce.SpillingTwoNodesMapReduceTest")
+public class SpillingTwoNodesMapReduceTest extends BaseWordCountMapReduceTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(getCacheMode(), true);
+      builder.jmxStatistics().enable();
+      createClusteredCaches(2, cacheName(), builder);
+   }
+
+   @SuppressWarnings({ "rawtypes", "unchecked" })
+   @Override
+   protected MapReduceTask<String, String, String, Integer> createMapReduceTask(Cache c){
+      return new MapReduceTask<String, String, String, Integer>(c).spillThreshold(2);
+   }
+
+   public void testIntermediateValuesSpilled() throws Exception {
+      MapReduceManagerImpl manager1 = (MapReduceManagerImpl) TestingUtil.extractComponent(cache(0, cacheName()),
+            MapReduceManager.class);
+      MapReduceManagerImpl manager2 = (MapReduceManagerImpl) TestingUtil.extractComponent(cache(1, cacheName()),
+            MapReduceManager.class);
+      manager1.resetStatistics();
+      manager2.resetStatistics();
+
+      MapReduceTask<String, String, String, Integer> task = invokeMapReduce(null, false);
+      Map<String, Integer> mapReduce = task.execute();
+      verifyResults(mapReduce);
+
+      assertTrue(manager1.getSpills() + manager2.getSpills() > 0);
+      assertTrue(manager1.getMapPhases() + manager2.getMapPhases() == 2);
+   }
+
+   public void testIntermediateValuesSpilledWithCombiner() throws Exception {
+      MapReduceTask<String, String, String, Integer> task = invokeMapReduce(null, true);
+      Map<String, Integer> mapReduce = task.execute();
+      verifyResults(mapReduce);
+   }
+
+   public void testStatisticsDisabled() throws Exception {
+      MapReduceManagerImpl manager = (MapReduceManagerImpl) TestingUtil.extractComponent(cache(0, cacheName()),
+            MapReduceManager.class);
+      manager.setStatisticsEnabled(false);
+      try {
+         assertEquals(-1, manager.getMapPhases());
+         assertEquals(-1, manager.getAverageMapTime());
+         assertEquals(-1, manager.getAverageCombineTime());
+         assertEquals(-1, manager.getAverageMigrationTime());
+         assertEquals(-1, manager.getAverageReduceTime());
+      } finally {
+         manager.setStatisticsEnabled(true);
+      }
+   }
+}
@@ -0,0 +1,82 @@
+package org.infinispan.distribution;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.interceptors.CacheMgmtInterceptor;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.Test;
+
+import static org.infinispan.test.TestingUtil.findInterceptor;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the L1 entries bounded by {@link org.infinispan.configuration.cache.L1Configuration#maxEntries()} and the L1
+ * statistics.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "distribution.BoundedL1Test")
+public class BoundedL1Test extends MultipleCacheManagersTest {
+
+   private static final int MAX_L1_ENTRIES = 5;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(1);
+      builder.clustering().l1().enable().maxEntries(MAX_L1_ENTRIES);
+      builder.jmxStatistics().enable();
+      createCluster(builder, 3);
+      waitForClusterToForm();
+   }
+
+   public void testL1EntriesBounded() {
+      Cache<Object, Object> reader = cache(0);
+      int owned = 0;
+      for (int i = 0; i < 50; i++) {
+         cache(i % 3).put("k" + i, "v" + i);
+         if (DistributionTestHelper.isOwner(reader, "k" + i)) owned++;
+      }
+      for (int i = 0; i < 50; i++) {
+         assertEquals("v" + i, reader.get("k" + i));
+      }
+
+      int l1 = 0, nonL1 = 0;
+      DataContainer<Object, Object> container = reader.getAdvancedCache().getDataContainer();
+      for (InternalCacheEntry<Object, Object> entry : container) {
+         if (entry.isL1Entry()) l1++;
+         else nonL1++;
+      }
+      assertTrue("L1 entries: " + l1, l1 > 0 && l1 <= MAX_L1_ENTRIES);
+      // The entries owned by the reader are never evicted to make room for L1 entries
+      assertEquals(owned, nonL1);
+      assertEquals(l1 + nonL1, container.size());
+   }
+
+   public void testL1Statistics() {
+      Cache<Object, Object> reader = cache(0);
+      Object key = getKeyForCache(1);
+      cache(1).put(key, "v1");
+      final CacheMgmtInterceptor stats = findInterceptor(reader, CacheMgmtInterceptor.class);
+      stats.resetStatistics();
+
+      assertEquals("v1", reader.get(key));
+      assertEquals("v1", reader.get(key));
+      assertEquals(1, stats.getL1Misses());
+      assertEquals(1, stats.getL1Hits());
+      assertEquals(0.5, stats.getL1HitRatio(), 0.0);
+
+      cache(1).put(key, "v2");
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return stats.getL1Invalidations() == 1;
+         }
+      });
+      assertEquals("v2", reader.get(key));
+   }
+}
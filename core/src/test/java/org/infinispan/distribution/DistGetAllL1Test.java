@@ -0,0 +1,11 @@
+package org.infinispan.distribution;
+
+import org.testng.annotations.Test;
+
+@Test(groups = "functional", testName = "distribution.DistGetAllL1Test")
+public class DistGetAllL1Test extends DistGetAllTest {
+
+   public DistGetAllL1Test() {
+      l1 = true;
+   }
+}
@@ -0,0 +1,122 @@
+package org.infinispan.distribution;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.context.Flag;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests {@link AdvancedCache#getAll(Set)} with keys spread over all the nodes of the cluster.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "distribution.DistGetAllTest")
+public class DistGetAllTest extends MultipleCacheManagersTest {
+
+   protected boolean transactional = false;
+   protected boolean l1 = false;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, transactional);
+      builder.clustering().hash().numOwners(1).l1().enabled(l1);
+      createCluster(builder, 3);
+      waitForClusterToForm();
+   }
+
+   public void testGetAllFromAllOwners() throws Exception {
+      List<MagicKey> keys = populate("testGetAllFromAllOwners");
+      for (int i = 0; i < 3; i++) {
+         Map<MagicKey, String> result = this.<MagicKey, String>advancedCache(i).getAll(new LinkedHashSet<MagicKey>(keys));
+         assertEquals(keys.size(), result.size());
+         for (MagicKey key : keys) {
+            assertEquals(valueFor(key), result.get(key));
+         }
+      }
+   }
+
+   public void testGetAllKeepsKeyOrder() throws Exception {
+      List<MagicKey> keys = populate("testGetAllKeepsKeyOrder");
+      Collections.reverse(keys);
+      Map<MagicKey, String> result = this.<MagicKey, String>advancedCache(0).getAll(new LinkedHashSet<MagicKey>(keys));
+      assertEquals(keys, new ArrayList<MagicKey>(result.keySet()));
+   }
+
+   public void testGetAllMissingKeys() throws Exception {
+      List<MagicKey> keys = populate("testGetAllMissingKeys");
+      Set<MagicKey> requested = new HashSet<MagicKey>(keys);
+      MagicKey missingRemote = new MagicKey("testGetAllMissingKeys-missing1", cache(1));
+      MagicKey missingLocal = new MagicKey("testGetAllMissingKeys-missing0", cache(0));
+      requested.add(missingRemote);
+      requested.add(missingLocal);
+
+      Map<MagicKey, String> result = this.<MagicKey, String>advancedCache(0).getAll(requested);
+      assertEquals(keys.size(), result.size());
+      assertFalse(result.containsKey(missingRemote));
+      assertFalse(result.containsKey(missingLocal));
+   }
+
+   public void testGetAllEmpty() {
+      assertTrue(advancedCache(0).getAll(Collections.emptySet()).isEmpty());
+   }
+
+   public void testGetAllCacheModeLocal() throws Exception {
+      List<MagicKey> keys = populate("testGetAllCacheModeLocal");
+      Map<MagicKey, String> result = this.<MagicKey, String>advancedCache(0).withFlags(Flag.CACHE_MODE_LOCAL)
+            .getAll(new HashSet<MagicKey>(keys));
+      assertEquals(1, result.size());
+      assertEquals(valueFor(keys.get(0)), result.get(keys.get(0)));
+   }
+
+   @Test(expectedExceptions = NullPointerException.class)
+   public void testGetAllNullKey() {
+      advancedCache(0).getAll(new HashSet<Object>(Arrays.asList("k", null)));
+   }
+
+   public void testGetAllStoresInL1() throws Exception {
+      if (!l1) return;
+      List<MagicKey> keys = populate("testGetAllStoresInL1");
+      advancedCache(0).getAll(new HashSet<MagicKey>(keys));
+      for (MagicKey key : keys.subList(1, keys.size())) {
+         InternalCacheEntry ice = advancedCache(0).getDataContainer().get(key);
+         assertNotNull("Key " + key + " not found in L1", ice);
+         assertTrue(ice.isL1Entry());
+      }
+      assertNull(advancedCache(1).getDataContainer().get(keys.get(0)));
+   }
+
+   /**
+    * @return one key owned by each node, starting with the key owned by node 0
+    */
+   private List<MagicKey> populate(String prefix) throws Exception {
+      List<MagicKey> keys = new ArrayList<MagicKey>();
+      for (int i = 0; i < 3; i++) {
+         MagicKey key = new MagicKey(prefix + i, cache(i));
+         keys.add(key);
+         cache(i).put(key, valueFor(key));
+      }
+      return keys;
+   }
+
+   private String valueFor(MagicKey key) {
+      return "v-" + key;
+   }
+}
@@ -0,0 +1,107 @@
+package org.infinispan.distribution;
+
+import org.infinispan.Cache;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commons.util.concurrent.CompletableNotifyingFuture;
+import org.infinispan.commons.util.concurrent.FutureListener;
+import org.infinispan.commons.util.concurrent.NotifyingFuture;
+import org.infinispan.interceptors.InterceptorChain;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.responses.SuccessfulResponse;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.util.concurrent.ReclosableLatch;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.infinispan.test.TestingUtil.k;
+import static org.infinispan.test.TestingUtil.v;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests the async write methods invoked on a non-owner, which forward the command to the primary owner without
+ * blocking a thread while waiting for the response.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "distribution.NonBlockingAsyncWriteTest")
+public class NonBlockingAsyncWriteTest extends BaseDistFunctionalTest<Object, String> {
+
+   public NonBlockingAsyncWriteTest() {
+      INIT_CLUSTER_SIZE = 3;
+      numOwners = 1;
+      sync = true;
+      tx = false;
+      l1CacheEnabled = false;
+   }
+
+   public void testChainIsStageAware() {
+      for (Cache<Object, String> cache : caches) {
+         assertTrue(TestingUtil.extractComponent(cache, InterceptorChain.class).isStageAware());
+      }
+   }
+
+   public void testAsyncWritesOnNonOwner(Method m) throws Exception {
+      String key = k(m);
+      Cache<Object, String> nonOwner = getFirstNonOwner(key);
+      Cache<Object, String> owner = getFirstOwner(key);
+
+      NotifyingFuture<String> f = nonOwner.putAsync(key, v(m));
+      assertTrue(f instanceof CompletableNotifyingFuture);
+      assertNull(f.get(10, TimeUnit.SECONDS));
+      assertEquals(v(m), owner.get(key));
+
+      assertEquals(v(m), nonOwner.putIfAbsentAsync(key, v(m, 1)).get(10, TimeUnit.SECONDS));
+      assertEquals(v(m), nonOwner.replaceAsync(key, v(m, 2)).get(10, TimeUnit.SECONDS));
+      assertFalse(nonOwner.replaceAsync(key, v(m), v(m, 3)).get(10, TimeUnit.SECONDS));
+      assertTrue(nonOwner.replaceAsync(key, v(m, 2), v(m, 3)).get(10, TimeUnit.SECONDS));
+      assertEquals(v(m, 3), owner.get(key));
+
+      assertFalse(nonOwner.removeAsync(key, v(m)).get(10, TimeUnit.SECONDS));
+      assertEquals(v(m, 3), nonOwner.removeAsync(key).get(10, TimeUnit.SECONDS));
+      assertNull(owner.get(key));
+      assertRemovedOnAllCaches(key);
+   }
+
+   public void testListenerNotified(Method m) throws Exception {
+      String key = k(m);
+      Cache<Object, String> nonOwner = getFirstNonOwner(key);
+      final ReclosableLatch latch = new ReclosableLatch(false);
+      nonOwner.putAsync(key, v(m)).attachListener(new FutureListener<String>() {
+         @Override
+         public void futureDone(Future<String> future) {
+            latch.open();
+         }
+      });
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+      assertEquals(v(m), getFirstOwner(key).get(key));
+   }
+
+   public void testInvokeRemotelyAsync(Method m) throws Exception {
+      String key = k(m);
+      Cache<Object, String> nonOwner = getFirstNonOwner(key);
+      Cache<Object, String> owner = getFirstOwner(key);
+      owner.put(key, v(m));
+      RpcManager rpcManager = nonOwner.getAdvancedCache().getRpcManager();
+      PutKeyValueCommand command = TestingUtil.extractCommandsFactory(nonOwner)
+            .buildPutKeyValueCommand(key, v(m, 1), new EmbeddedMetadata.Builder().build(), null);
+
+      Address ownerAddress = addressOf(owner);
+      Map<Address, Response> responses = rpcManager.invokeRemotelyAsync(Collections.singletonList(ownerAddress),
+            command, rpcManager.getDefaultRpcOptions(true)).get(10, TimeUnit.SECONDS);
+      assertEquals(1, responses.size());
+      // the primary owner returns the previous value
+      assertEquals(SuccessfulResponse.create(v(m)), responses.get(ownerAddress));
+      assertEquals(v(m, 1), owner.get(key));
+   }
+}
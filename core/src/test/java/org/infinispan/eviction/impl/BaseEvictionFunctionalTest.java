@@ -26,12 +26,16 @@ protected BaseEvictionFunctionalTest() {
 
    protected abstract EvictionStrategy getEvictionStrategy();
 
+   protected void configure(ConfigurationBuilder builder) {
+   }
+
    protected EmbeddedCacheManager createCacheManager() throws Exception {
       ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
       builder.eviction().maxEntries(CACHE_SIZE)
             .strategy(getEvictionStrategy()).expiration().wakeUpInterval(100L).locking()
             .useLockStriping(false) // to minimize chances of deadlock in the unit test
             .invocationBatching();
+      configure(builder);
       EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(builder);
       cache = cm.getCache();
       cache.addListener(new EvictionListener());
@@ -0,0 +1,25 @@
+package org.infinispan.eviction.impl;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.offheap.OffHeapDataContainer;
+import org.infinispan.eviction.EvictionStrategy;
+import org.testng.annotations.Test;
+
+@Test(groups = "functional", testName = "eviction.OffHeapEvictionFunctionalTest")
+public class OffHeapEvictionFunctionalTest extends BaseEvictionFunctionalTest {
+
+   @Override
+   protected EvictionStrategy getEvictionStrategy() {
+      return EvictionStrategy.LRU;
+   }
+
+   @Override
+   protected void configure(ConfigurationBuilder builder) {
+      builder.dataContainer().offHeap(true);
+   }
+
+   public void testOffHeapDataContainerInUse() {
+      assert cache.getAdvancedCache().getDataContainer() instanceof OffHeapDataContainer;
+   }
+
+}
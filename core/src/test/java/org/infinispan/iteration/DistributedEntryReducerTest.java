@@ -0,0 +1,136 @@
+package org.infinispan.iteration;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.context.Flag;
+import org.infinispan.filter.AcceptAllKeyValueFilter;
+import org.infinispan.filter.CollectionKeyFilter;
+import org.infinispan.filter.Converter;
+import org.infinispan.filter.KeyFilterAsKeyValueFilter;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.Test;
+
+import java.io.Serializable;
+import java.util.Collections;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests the reduction of the entries on the nodes that own them, with both the default and the segmented data
+ * container.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "iteration.DistributedEntryReducerTest")
+public class DistributedEntryReducerTest extends MultipleCacheManagersTest {
+   private static final String SEGMENTED_CACHE_NAME = "segmented";
+   private static final int NUM_KEYS = 100;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(2);
+      createClusteredCaches(3, builder);
+
+      ConfigurationBuilder segmentedBuilder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      segmentedBuilder.clustering().hash().numOwners(2).dataContainer().segmented(true);
+      for (int i = 0; i < 3; i++) {
+         manager(i).defineConfiguration(SEGMENTED_CACHE_NAME, segmentedBuilder.build());
+      }
+      waitForClusterToForm(SEGMENTED_CACHE_NAME);
+   }
+
+   public void testReduce() {
+      testReduce(cache(0), cache(1));
+   }
+
+   public void testReduceSegmented() {
+      testReduce(cache(0, SEGMENTED_CACHE_NAME), cache(1, SEGMENTED_CACHE_NAME));
+   }
+
+   public void testReduceWithFilter() {
+      Cache<Object, String> cache = cache(0);
+      int expected = putValues(cache);
+      KeyFilterAsKeyValueFilter<Object, String> filter = new KeyFilterAsKeyValueFilter<Object, String>(
+            new CollectionKeyFilter<Object>(Collections.<Object>singleton("k0")));
+      try (EntryIterable<Object, String> iterable = cache(2).getAdvancedCache().filterEntries(filter)) {
+         assertEquals(iterable.reduce(new LengthReducer()), Long.valueOf(expected - "v0".length()));
+      }
+   }
+
+   public void testReduceLocalOnly() {
+      Cache<Object, String> cache = cache(0);
+      putValues(cache);
+      long expected = 0;
+      for (String value : cache.getAdvancedCache().getDataContainer().values()) {
+         expected += value.length();
+      }
+      try (EntryIterable<Object, String> iterable = cache.getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL)
+            .filterEntries(AcceptAllKeyValueFilter.getInstance())) {
+         assertEquals(iterable.reduce(new LengthReducer()), Long.valueOf(expected));
+      }
+   }
+
+   private void testReduce(Cache<Object, String> writer, Cache<Object, String> reader) {
+      int expected = putValues(writer);
+      try (EntryIterable<Object, String> iterable = reader.getAdvancedCache().filterEntries(
+            AcceptAllKeyValueFilter.getInstance())) {
+         assertEquals(iterable.reduce(new LengthReducer()), Long.valueOf(expected));
+         assertEquals(iterable.reduce(new LengthConverter(), new SumReducer()), Long.valueOf(expected));
+      }
+   }
+
+   private int putValues(Cache<Object, String> cache) {
+      cache.clear();
+      int totalLength = 0;
+      for (int i = 0; i < NUM_KEYS; i++) {
+         String value = "v" + i;
+         cache.put("k" + i, value);
+         totalLength += value.length();
+      }
+      return totalLength;
+   }
+
+   private static class LengthReducer implements EntryReducer<Object, String, Long>, Serializable {
+      @Override
+      public Long identity() {
+         return 0L;
+      }
+
+      @Override
+      public Long accumulate(Long result, Object key, String value) {
+         return result + value.length();
+      }
+
+      @Override
+      public Long combine(Long result, Long other) {
+         return result + other;
+      }
+   }
+
+   private static class LengthConverter implements Converter<Object, String, Integer>, Serializable {
+      @Override
+      public Integer convert(Object key, String value, Metadata metadata) {
+         return value.length();
+      }
+   }
+
+   private static class SumReducer implements EntryReducer<Object, Integer, Long>, Serializable {
+      @Override
+      public Long identity() {
+         return 0L;
+      }
+
+      @Override
+      public Long accumulate(Long result, Object key, Integer value) {
+         return result + value;
+      }
+
+      @Override
+      public Long combine(Long result, Long other) {
+         return result + other;
+      }
+   }
+}
@@ -0,0 +1,213 @@
+package org.infinispan.lock;
+
+import org.infinispan.commons.equivalence.ByteArrayEquivalence;
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.util.concurrent.locks.containers.LockFreePerEntryLockContainer;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "lock.LockFreePerEntryLockContainerTest")
+public class LockFreePerEntryLockContainerTest extends AbstractInfinispanTest {
+
+   @SuppressWarnings("unchecked")
+   private final LockFreePerEntryLockContainer lc = new LockFreePerEntryLockContainer(
+         16, (Equivalence) ByteArrayEquivalence.INSTANCE);
+
+   public void testAcquireAndRelease() throws Exception {
+      byte[] key = {1, 2, 3};
+      assertNotNull(lc.acquireLock(null, key, 0, TimeUnit.MILLISECONDS));
+      assertTrue(lc.isLocked(new byte[]{1, 2, 3}));
+      assertTrue(lc.ownsLock(key, null));
+      assertSame(Thread.currentThread(), lc.getLock(key).getOwner());
+      assertEquals(1, lc.getNumLocksHeld());
+
+      lc.releaseLock(null, new byte[]{1, 2, 3});
+      assertFalse(lc.isLocked(key));
+      assertEquals(0, lc.getNumLocksHeld());
+   }
+
+   public void testContendedAcquisition() throws Exception {
+      final byte[] key = {4};
+      lc.acquireLock(null, key, 0, TimeUnit.MILLISECONDS);
+
+      Future<Object> timedOut = fork(new Callable<Object>() {
+         @Override
+         public Object call() throws Exception {
+            assertFalse(lc.ownsLock(key, null));
+            return lc.acquireLock(null, key, 10, TimeUnit.MILLISECONDS);
+         }
+      });
+      assertNull(timedOut.get(10, TimeUnit.SECONDS));
+
+      final CountDownLatch waiting = new CountDownLatch(1);
+      Future<Boolean> acquired = fork(new Callable<Boolean>() {
+         @Override
+         public Boolean call() throws Exception {
+            waiting.countDown();
+            boolean locked = lc.acquireLock(null, key, 10, TimeUnit.SECONDS) != null;
+            lc.releaseLock(null, key);
+            return locked;
+         }
+      });
+      waiting.await(10, TimeUnit.SECONDS);
+      Thread.sleep(50);
+      lc.releaseLock(null, key);
+      assertTrue(acquired.get(10, TimeUnit.SECONDS));
+      assertEquals(0, lc.getNumLocksHeld());
+   }
+
+   public void testReleaseHandsOverToOldestWaiter() throws Exception {
+      final byte[] key = {8};
+      lc.acquireLock(null, key, 0, TimeUnit.MILLISECONDS);
+
+      final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+      Thread[] waiters = new Thread[3];
+      Future<?>[] futures = new Future[waiters.length];
+      final CountDownLatch release = new CountDownLatch(1);
+      for (int i = 0; i < waiters.length; i++) {
+         final int index = i;
+         final Thread[] waiterThread = new Thread[1];
+         final CountDownLatch started = new CountDownLatch(1);
+         futures[i] = fork(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               waiterThread[0] = Thread.currentThread();
+               started.countDown();
+               assertNotNull(lc.acquireLock(null, key, 10, TimeUnit.SECONDS));
+               order.add(index);
+               release.await(10, TimeUnit.SECONDS);
+               lc.releaseLock(null, key);
+               return null;
+            }
+         });
+         started.await(10, TimeUnit.SECONDS);
+         waiters[i] = waiterThread[0];
+         awaitParked(waiters[i]);
+      }
+
+      lc.releaseLock(null, key);
+      // The key is never free, it goes straight to the first waiter
+      assertTrue(lc.isLocked(key));
+      assertSame(waiters[0], lc.getLock(key).getOwner());
+      assertNull(lc.acquireLock(null, key, 0, TimeUnit.MILLISECONDS));
+
+      release.countDown();
+      for (Future<?> future : futures) {
+         future.get(10, TimeUnit.SECONDS);
+      }
+      assertEquals(Arrays.asList(0, 1, 2), order);
+      assertEquals(0, lc.getNumLocksHeld());
+   }
+
+   public void testLockInterface() throws Exception {
+      final byte[] key = {9};
+      LockFreePerEntryLockContainer.KeyLock lock = lc.acquireLock(null, key, 0, TimeUnit.MILLISECONDS);
+      assertSame(Thread.currentThread(), lock.getOwner());
+      lock.unlock();
+      assertFalse(lc.isLocked(key));
+
+      assertTrue(lock.tryLock());
+      assertTrue(lc.ownsLock(key, null));
+      Future<Boolean> tryLock = fork(new Callable<Boolean>() {
+         @Override
+         public Boolean call() throws Exception {
+            return lc.getLock(key).tryLock(10, TimeUnit.MILLISECONDS);
+         }
+      });
+      assertFalse(tryLock.get(10, TimeUnit.SECONDS));
+      lock.unlock();
+
+      lock.lock();
+      assertTrue(lc.ownsLock(key, null));
+      lock.unlock();
+      assertFalse(lc.isLocked(key));
+   }
+
+   public void testNestedAcquisition() throws Exception {
+      byte[] key = {5};
+      lc.acquireLock(null, key, 0, TimeUnit.MILLISECONDS);
+      // e.g. a listener writing the same key
+      assertNotNull(lc.acquireLock(null, key, 0, TimeUnit.MILLISECONDS));
+      lc.releaseLock(null, key);
+      assertTrue(lc.ownsLock(key, null));
+      lc.releaseLock(null, key);
+      assertFalse(lc.isLocked(key));
+   }
+
+   public void testMutualExclusion() throws Exception {
+      final byte[] key = {6};
+      final AtomicInteger holders = new AtomicInteger();
+      final int threads = 4;
+      Future<?>[] futures = new Future[threads];
+      for (int i = 0; i < threads; i++) {
+         futures[i] = fork(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               for (int j = 0; j < 1000; j++) {
+                  assertNotNull(lc.acquireLock(null, key, 10, TimeUnit.SECONDS));
+                  try {
+                     assertEquals(1, holders.incrementAndGet());
+                     holders.decrementAndGet();
+                  } finally {
+                     lc.releaseLock(null, key);
+                  }
+               }
+               return null;
+            }
+         });
+      }
+      for (Future<?> future : futures) {
+         future.get(30, TimeUnit.SECONDS);
+      }
+      assertEquals(0, lc.getNumLocksHeld());
+   }
+
+   @Test(expectedExceptions = IllegalMonitorStateException.class)
+   public void testReleaseByOtherThread() throws Throwable {
+      final byte[] key = {7};
+      lc.acquireLock(null, key, 0, TimeUnit.MILLISECONDS);
+      try {
+         fork(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               lc.releaseLock(null, key);
+               return null;
+            }
+         }).get(10, TimeUnit.SECONDS);
+      } catch (ExecutionException e) {
+         throw e.getCause();
+      } finally {
+         lc.releaseLock(null, key);
+      }
+   }
+
+   private void awaitParked(final Thread thread) {
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return thread.getState() == Thread.State.TIMED_WAITING;
+         }
+      });
+   }
+}
@@ -0,0 +1,223 @@
+package org.infinispan.marshall;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.infinispan.commons.marshall.AbstractExternalizer;
+import org.infinispan.commons.marshall.Externalized;
+import org.infinispan.commons.marshall.ExternalizedField;
+import org.infinispan.commons.marshall.Externalizer;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.CacheManagerCallable;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the externalizers generated for {@link Externalized} classes by the annotation processor.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "marshall.GeneratedExternalizerTest")
+public class GeneratedExternalizerTest extends AbstractInfinispanTest {
+
+   public void testGeneratedExternalizerRegistered() {
+      TestingUtil.withCacheManager(new CacheManagerCallable(TestCacheManagerFactory.createCacheManager(false)) {
+         @Override
+         public void call() {
+            // the classes are not Serializable, so this only works with the generated externalizers
+            StreamingMarshaller marshaller = globalMarshaller(cm);
+            PersonV1 person = PersonV1.create();
+            PersonV1 copy = (PersonV1) copy(marshaller, person);
+            assertPerson(person, copy);
+
+            PersonV1 empty = new PersonV1();
+            PersonV1 emptyCopy = (PersonV1) copy(marshaller, empty);
+            assertPerson(empty, emptyCopy);
+         }
+      });
+   }
+
+   public void testExplicitExternalizerTakesPrecedence() {
+      TestingUtil.withCacheManager(new CacheManagerCallable(createCacheManagerWithExternalizer()) {
+         @Override
+         public void call() {
+            StreamingMarshaller marshaller = globalMarshaller(cm);
+            PersonV1 copy = (PersonV1) copy(marshaller, PersonV1.create());
+            assertEquals("Renamed", copy.name);
+         }
+      });
+   }
+
+   public void testSchemaEvolution() throws Exception {
+      PersonV1 person = PersonV1.create();
+
+      // V2 removed the age and added the email
+      PersonV2 newPerson = roundTrip(person, new GeneratedExternalizerTest_PersonV1_Externalizer(),
+            new GeneratedExternalizerTest_PersonV2_Externalizer());
+      assertEquals(person.name, newPerson.name);
+      assertEquals(person.aliases, newPerson.aliases);
+      assertEquals("unknown", newPerson.email);
+
+      newPerson.email = "galder@infinispan.org";
+      PersonV1 oldPerson = roundTrip(newPerson, new GeneratedExternalizerTest_PersonV2_Externalizer(),
+            new GeneratedExternalizerTest_PersonV1_Externalizer());
+      assertEquals(newPerson.name, oldPerson.name);
+      assertEquals(newPerson.aliases, oldPerson.aliases);
+      assertEquals(0, oldPerson.age);
+   }
+
+   public void testInheritedFields() throws Exception {
+      Employee employee = new Employee();
+      employee.value = "Galder";
+      employee.count = 3;
+      employee.team = "Infinispan";
+      Employee copy = roundTrip(employee, new GeneratedExternalizerTest_Employee_Externalizer(),
+            new GeneratedExternalizerTest_Employee_Externalizer());
+      assertEquals(employee.value, copy.value);
+      assertEquals(employee.count, copy.count);
+      assertEquals(employee.team, copy.team);
+   }
+
+   private EmbeddedCacheManager createCacheManagerWithExternalizer() {
+      GlobalConfigurationBuilder global = new GlobalConfigurationBuilder().nonClusteredDefault();
+      global.serialization().addAdvancedExternalizer(7200003, new RenamingPersonExternalizer());
+      return TestCacheManagerFactory.createCacheManager(global, new ConfigurationBuilder());
+   }
+
+   private static StreamingMarshaller globalMarshaller(EmbeddedCacheManager cm) {
+      // the global components are started with the first cache
+      cm.getCache();
+      return TestingUtil.extractGlobalMarshaller(cm);
+   }
+
+   private static Object copy(StreamingMarshaller marshaller, Object object) {
+      try {
+         return marshaller.objectFromByteBuffer(marshaller.objectToByteBuffer(object));
+      } catch (Exception e) {
+         throw new AssertionError(e);
+      }
+   }
+
+   private <I, O> O roundTrip(I object, Externalizer<I> writer, Externalizer<O> reader) throws Exception {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      ObjectOutputStream output = new ObjectOutputStream(bytes);
+      writer.writeObject(output, object);
+      output.close();
+      ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+      try {
+         return reader.readObject(input);
+      } finally {
+         input.close();
+      }
+   }
+
+   private void assertPerson(PersonV1 expected, PersonV1 actual) {
+      assertEquals(expected.name, actual.name);
+      assertEquals(expected.age, actual.age);
+      assertEquals(expected.id, actual.id);
+      assertEquals(expected.active, actual.active);
+      assertEquals(expected.score, actual.score);
+      assertEquals(expected.initial, actual.initial);
+      assertEquals(expected.aliases, actual.aliases);
+      assertNull(actual.description);
+      assertTrue(Arrays.equals(expected.data, actual.data));
+   }
+
+   @Externalized(id = 7200001)
+   static class PersonV1 {
+      @ExternalizedField(id = 1)
+      String name;
+      @ExternalizedField(id = 2)
+      int age;
+      @ExternalizedField(id = 3)
+      List<String> aliases;
+      @ExternalizedField(id = 4)
+      long id;
+      @ExternalizedField(id = 5)
+      boolean active;
+      @ExternalizedField(id = 6)
+      double score;
+      @ExternalizedField(id = 7)
+      char initial;
+      @ExternalizedField(id = 8)
+      byte[] data;
+      // not marshalled
+      String description;
+
+      static PersonV1 create() {
+         PersonV1 person = new PersonV1();
+         person.name = "Galder";
+         person.age = 30;
+         person.aliases = Arrays.asList("G", "Z");
+         person.id = Long.MAX_VALUE;
+         person.active = true;
+         person.score = 0.5;
+         person.initial = 'G';
+         person.data = new byte[]{1, 2, 3};
+         person.description = "ignored";
+         return person;
+      }
+   }
+
+   @Externalized(id = 7200002)
+   static class PersonV2 {
+      @ExternalizedField(id = 1)
+      String name;
+      @ExternalizedField(id = 3)
+      List<String> aliases;
+      @ExternalizedField(id = 9)
+      String email = "unknown";
+   }
+
+   static class Named<T> {
+      @ExternalizedField(id = 1)
+      T value;
+      @ExternalizedField(id = 2)
+      int count;
+   }
+
+   @Externalized(id = 7200004)
+   static class Employee extends Named<String> {
+      @ExternalizedField(id = 3)
+      String team;
+   }
+
+   static class RenamingPersonExternalizer extends AbstractExternalizer<PersonV1> {
+      private final GeneratedExternalizerTest_PersonV1_Externalizer delegate = new GeneratedExternalizerTest_PersonV1_Externalizer();
+
+      @Override
+      public Set<Class<? extends PersonV1>> getTypeClasses() {
+         return Util.<Class<? extends PersonV1>>asSet(PersonV1.class);
+      }
+
+      @Override
+      public void writeObject(ObjectOutput output, PersonV1 object) throws IOException {
+         delegate.writeObject(output, object);
+      }
+
+      @Override
+      public PersonV1 readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+         PersonV1 person = delegate.readObject(input);
+         person.name = "Renamed";
+         return person;
+      }
+   }
+}
@@ -0,0 +1,185 @@
+package org.infinispan.notifications.cachelistener;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.notifications.IncorrectListenerException;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryRemoved;
+import org.infinispan.notifications.cachelistener.event.CacheEntryCreatedEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryRemovedEvent;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the delivery of events to {@link Listener#batch()} listeners.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "notifications.cachelistener.BatchedListenerTest")
+public class BatchedListenerTest extends SingleCacheManagerTest {
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      return TestCacheManagerFactory.createCacheManager(new ConfigurationBuilder());
+   }
+
+   public void testEventsDeliveredInOrder() {
+      final BatchedListener listener = new BatchedListener();
+      cache.addListener(listener);
+      try {
+         for (int i = 0; i < 100; i++) {
+            cache.put(i, "v");
+         }
+         cache.remove(0);
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return listener.events.size() == 101;
+            }
+         });
+         for (int i = 0; i < 100; i++) {
+            CacheEntryEvent event = listener.events.get(i);
+            assertTrue(event instanceof CacheEntryCreatedEvent);
+            assertEquals(i, event.getKey());
+         }
+         assertTrue(listener.events.get(100) instanceof CacheEntryRemovedEvent);
+         assertTrue(listener.batches.get() <= 101);
+      } finally {
+         cache.removeListener(listener);
+      }
+   }
+
+   public void testDropNewest() throws Exception {
+      final BlockingListener listener = new BlockingListener();
+      cache.addListener(listener);
+      try {
+         cache.put("first", "v");
+         assertTrue(listener.blocked.await(10, TimeUnit.SECONDS));
+         // The queue holds the pre and post events of 2 writes, writers don't wait for the listener
+         for (int i = 0; i < 10; i++) {
+            cache.put("k" + i, "v");
+         }
+         listener.release.countDown();
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return listener.keys.size() == 3;
+            }
+         });
+         assertEquals("first", listener.keys.get(0));
+         assertEquals("k0", listener.keys.get(1));
+         assertEquals("k1", listener.keys.get(2));
+      } finally {
+         cache.removeListener(listener);
+      }
+   }
+
+   public void testDeliveryAfterError() {
+      final FailingListener listener = new FailingListener();
+      cache.addListener(listener);
+      try {
+         cache.put("fail", "v");
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return listener.failed;
+            }
+         });
+         cache.put("k", "v");
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return listener.keys.contains("k");
+            }
+         });
+      } finally {
+         cache.removeListener(listener);
+      }
+   }
+
+   @Test(expectedExceptions = IncorrectListenerException.class)
+   public void testSyncBatchedListener() {
+      cache.addListener(new SyncBatchedListener());
+   }
+
+   @Test(expectedExceptions = IncorrectListenerException.class)
+   public void testListParameterWithoutBatch() {
+      cache.addListener(new UnbatchedListListener());
+   }
+
+   @Listener(sync = false, batch = true)
+   public static class BatchedListener {
+      final List<CacheEntryEvent> events = new CopyOnWriteArrayList<CacheEntryEvent>();
+      final AtomicInteger batches = new AtomicInteger();
+
+      @CacheEntryCreated
+      public void created(List<CacheEntryCreatedEvent> batch) {
+         batches.incrementAndGet();
+         for (CacheEntryCreatedEvent event : batch) {
+            if (!event.isPre()) events.add(event);
+         }
+      }
+
+      @CacheEntryRemoved
+      public void removed(CacheEntryRemovedEvent event) {
+         if (!event.isPre()) events.add(event);
+      }
+   }
+
+   @Listener(sync = false, batch = true, batchCapacity = 4, overflow = Listener.Overflow.DROP_NEWEST)
+   public static class BlockingListener {
+      final List<Object> keys = new CopyOnWriteArrayList<Object>();
+      final CountDownLatch blocked = new CountDownLatch(1);
+      final CountDownLatch release = new CountDownLatch(1);
+
+      @CacheEntryCreated
+      public void created(CacheEntryCreatedEvent event) throws InterruptedException {
+         if (event.isPre()) return;
+         keys.add(event.getKey());
+         blocked.countDown();
+         release.await(10, TimeUnit.SECONDS);
+      }
+   }
+
+   @Listener(sync = false, batch = true)
+   public static class FailingListener {
+      final List<Object> keys = new CopyOnWriteArrayList<Object>();
+      volatile boolean failed;
+
+      @CacheEntryCreated
+      public void created(CacheEntryCreatedEvent event) {
+         if (event.isPre()) return;
+         if ("fail".equals(event.getKey())) {
+            failed = true;
+            throw new AssertionError("Listener failure");
+         }
+         keys.add(event.getKey());
+      }
+   }
+
+   @Listener(batch = true)
+   public static class SyncBatchedListener {
+      @CacheEntryCreated
+      public void created(CacheEntryCreatedEvent event) {
+      }
+   }
+
+   @Listener(sync = false)
+   public static class UnbatchedListListener {
+      @CacheEntryCreated
+      public void created(List<CacheEntryCreatedEvent> events) {
+      }
+   }
+}
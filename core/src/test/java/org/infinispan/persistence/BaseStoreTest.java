@@ -5,10 +5,12 @@
 import static org.testng.AssertJUnit.*;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.infinispan.filter.CollectionKeyFilter;
@@ -25,6 +27,7 @@
 import org.infinispan.metadata.InternalMetadata;
 import org.infinispan.persistence.spi.AdvancedCacheWriter;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.BatchingCacheWriter;
 import org.infinispan.persistence.spi.InitializationContext;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.test.AbstractInfinispanTest;
@@ -379,6 +382,33 @@ public void testStoreAndRemove() throws PersistenceException {
       assertEquals("k4", set.iterator().next().getKey());
    }
 
+   @SuppressWarnings("unchecked")
+   public void testWriteAndDeleteBatch() throws PersistenceException {
+      if (!(cl instanceof BatchingCacheWriter)) return;
+      BatchingCacheWriter<Object, Object> writer = (BatchingCacheWriter<Object, Object>) cl;
+      assertIsEmpty();
+
+      cl.write(marshalledEntry("k1", "v0", null));
+      List<MarshalledEntry<?, ?>> entries = new ArrayList<>();
+      for (int i = 1; i <= 5; i++) {
+         entries.add(marshalledEntry("k" + i, "v" + i, null));
+      }
+      writer.writeBatch((Iterable) entries);
+
+      assertSize(TestingUtil.allEntries(cl), 5);
+      for (int i = 1; i <= 5; i++) {
+         assertEquals("v" + i, unwrap(cl.load("k" + i).getValue()));
+      }
+
+      writer.deleteBatch(Arrays.<Object>asList("k1", "k2", "k3", "missing"));
+
+      Set<MarshalledEntry> set = TestingUtil.allEntries(cl);
+      assertSize(set, 2);
+      assertFalse(cl.contains("k1"));
+      assertTrue(cl.contains("k4"));
+      assertTrue(cl.contains("k5"));
+   }
+
    public void testPurgeExpired() throws Exception {
       assertIsEmpty();
       // Increased lifespan and idle timeouts to accommodate slower cache stores
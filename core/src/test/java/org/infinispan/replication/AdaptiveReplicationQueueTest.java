@@ -0,0 +1,159 @@
+package org.infinispan.replication;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.remoting.AdaptiveReplicationQueue;
+import org.infinispan.remoting.ReplicationQueue;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the batching of {@link AdaptiveReplicationQueue}.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "replication.AdaptiveReplicationQueueTest")
+public class AdaptiveReplicationQueueTest extends MultipleCacheManagersTest {
+
+   private static final int MAX_ELEMENTS = 10;
+   private static final long LONG_INTERVAL = TimeUnit.MINUTES.toMillis(10);
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      createCluster(getDefaultClusteredCacheConfig(CacheMode.REPL_ASYNC, false), 2);
+
+      manager(0).defineConfiguration("merge", createCacheConfig(new AdaptiveReplicationQueue(), LONG_INTERVAL));
+      manager(0).defineConfiguration("latency", createCacheConfig(new AdaptiveReplicationQueue(), 50));
+      manager(0).defineConfiguration("bytes", createCacheConfig(new AdaptiveReplicationQueue(1000), LONG_INTERVAL));
+      for (String cacheName : new String[]{"merge", "latency", "bytes"}) {
+         manager(1).defineConfiguration(cacheName, createCacheConfig(null, LONG_INTERVAL));
+      }
+      waitForClusterToForm("merge", "latency", "bytes");
+   }
+
+   private Configuration createCacheConfig(ReplicationQueue replicationQueue, long interval) {
+      ConfigurationBuilder config = getDefaultClusteredCacheConfig(CacheMode.REPL_ASYNC, false);
+      config.clustering().async()
+            .useReplQueue(replicationQueue != null)
+            .replQueue(replicationQueue)
+            .replQueueInterval(interval)
+            .replQueueMaxElements(MAX_ELEMENTS);
+      return config.build();
+   }
+
+   public void testMergeWritesToSameKey() {
+      Cache<Object, Object> cache1 = cache(0, "merge");
+      final Cache<Object, Object> cache2 = cache(1, "merge");
+      AdaptiveReplicationQueue queue = extractQueue(cache1);
+
+      cache1.put("k1", "v1");
+      cache1.put("k2", "v1");
+      cache1.put("k1", "v2");
+      cache1.remove("k2");
+      cache1.putIfAbsent("k3", "v1");
+      cache1.put("k3", "v2");
+      assertEquals(3, queue.getElementsCount());
+      assertEquals(3, queue.getMergedCommands());
+      assertNull(cache2.get("k1"));
+
+      assertEquals(3, queue.flush());
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return "v2".equals(cache2.get("k3"));
+         }
+      });
+      assertEquals("v2", cache2.get("k1"));
+      assertNull(cache2.get("k2"));
+      assertEquals(0, queue.getElementsCount());
+   }
+
+   public void testFlushOnSize() {
+      Cache<Object, Object> cache1 = cache(0, "merge");
+      final Cache<Object, Object> cache2 = cache(1, "merge");
+      AdaptiveReplicationQueue queue = extractQueue(cache1);
+      queue.resetStatistics();
+
+      for (int i = 0; i < MAX_ELEMENTS; i++) {
+         cache1.put("size" + i, "v");
+      }
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return cache2.get("size" + (MAX_ELEMENTS - 1)) != null;
+         }
+      });
+      assertEquals(0, queue.getElementsCount());
+      assertEquals(1, queue.getSizeFlushes());
+      assertEquals(MAX_ELEMENTS, queue.getMaxBatchSize());
+      assertTrue(queue.getBatchSizeDistribution(), queue.getBatchSizeDistribution().contains("8-15=1"));
+   }
+
+   public void testFlushOnLatency() {
+      Cache<Object, Object> cache1 = cache(0, "latency");
+      final Cache<Object, Object> cache2 = cache(1, "latency");
+      AdaptiveReplicationQueue queue = extractQueue(cache1);
+
+      cache1.put("k", "v");
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return cache2.get("k") != null;
+         }
+      });
+      assertEquals(1, queue.getLatencyFlushes());
+   }
+
+   public void testFlushOnBytes() {
+      Cache<Object, Object> cache1 = cache(0, "bytes");
+      final Cache<Object, Object> cache2 = cache(1, "bytes");
+      AdaptiveReplicationQueue queue = extractQueue(cache1);
+
+      cache1.put("k", new byte[2000]);
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return cache2.get("k") != null;
+         }
+      });
+      assertEquals(1, queue.getBytesFlushes());
+      assertEquals(0, queue.getElementsCount());
+   }
+
+   public void testMergedWritesDontCountTowardsBytes() {
+      Cache<Object, Object> cache1 = cache(0, "bytes");
+      final Cache<Object, Object> cache2 = cache(1, "bytes");
+      AdaptiveReplicationQueue queue = extractQueue(cache1);
+      queue.resetStatistics();
+
+      // Each value is more than half the byte limit, only the last one is still in the batch
+      for (int i = 0; i < 3; i++) {
+         cache1.put("merged", new byte[600]);
+      }
+      assertEquals(1, queue.getElementsCount());
+      assertTrue(String.valueOf(queue.getElementsBytes()), queue.getElementsBytes() < 1000);
+      assertEquals(0, queue.getBytesFlushes());
+
+      assertEquals(1, queue.flush());
+      eventually(new Condition() {
+         @Override
+         public boolean isSatisfied() throws Exception {
+            return cache2.get("merged") != null;
+         }
+      });
+      assertEquals(0, queue.getElementsBytes());
+   }
+
+   private AdaptiveReplicationQueue extractQueue(Cache<?, ?> cache) {
+      return (AdaptiveReplicationQueue) TestingUtil.extractComponent(cache, ReplicationQueue.class);
+   }
+}
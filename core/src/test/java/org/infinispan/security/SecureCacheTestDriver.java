@@ -102,6 +102,11 @@ public void testPut_Object_Object_Metadata(SecureCache<String, String> cache) {
       cache.put("a", "a", metadata);
    }
 
+   @TestCachePermission(AuthorizationPermission.WRITE)
+   public void testPutAll_Map_Metadata(SecureCache<String, String> cache) {
+      cache.putAll(Collections.singletonMap("a", "a"), metadata);
+   }
+
    @TestCachePermission(AuthorizationPermission.ADMIN)
    public void testAddInterceptor_CommandInterceptor_int(SecureCache<String, String> cache) {
       cache.addInterceptor(interceptor, 0);
@@ -363,6 +368,11 @@ public void testGetCacheEntry_Object(SecureCache<String, String> cache) {
       cache.getCacheEntry("a");
    }
 
+   @TestCachePermission(AuthorizationPermission.READ)
+   public void testGetAll_Set(SecureCache<String, String> cache) {
+      cache.getAll(Collections.singleton("a"));
+   }
+
    @TestCachePermission(AuthorizationPermission.NONE)
    public void testGetTransactionManager(SecureCache<String, String> cache) {
       cache.getTransactionManager();
@@ -0,0 +1,84 @@
+package org.infinispan.statetransfer;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.infinispan.Cache;
+import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that state transfer sends all the entries when several chunks are sent without waiting for the previous ones
+ * to be applied.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "statetransfer.PipelinedStateTransferTest")
+public class PipelinedStateTransferTest extends MultipleCacheManagersTest {
+
+   private static final int NUM_KEYS = 1000;
+
+   private ConfigurationBuilder builder;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(2).numSegments(40)
+            .stateTransfer().fetchInMemoryState(true).chunkSize(10).maxInFlightChunks(4);
+      createClusteredCaches(2, builder);
+   }
+
+   public void testJoinAndLeave() {
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache(0).put("k" + i, "v" + i);
+      }
+
+      addClusterEnabledCacheManager(builder);
+      waitForClusterToForm();
+      TestingUtil.waitForRehashToComplete(caches());
+      assertAllKeys();
+
+      StateTransferManager joinerStm = stateTransferManager(cache(2));
+      assertTrue(joinerStm.getInboundEntriesApplied() > 0);
+      assertEquals(0, joinerStm.getInboundChunksPending());
+      assertEquals(0, joinerStm.getInboundSegmentsPending());
+      assertTrue(joinerStm.getInboundEntriesPerSecond() > 0);
+      long entriesSent = 0;
+      for (Cache<Object, Object> cache : caches()) {
+         StateTransferManager stm = stateTransferManager(cache);
+         entriesSent += stm.getOutboundEntriesSent();
+         assertEquals(0, stm.getOutboundChunksInFlight());
+      }
+      assertEquals(joinerStm.getInboundEntriesApplied(), entriesSent);
+
+      killMember(0);
+      TestingUtil.waitForRehashToComplete(caches());
+      assertAllKeys();
+   }
+
+   @Test(expectedExceptions = CacheConfigurationException.class)
+   public void testInvalidMaxInFlightChunks() {
+      new ConfigurationBuilder().clustering().stateTransfer().maxInFlightChunks(0).build();
+   }
+
+   private void assertAllKeys() {
+      for (Cache<Object, Object> cache : caches()) {
+         for (int i = 0; i < NUM_KEYS; i++) {
+            assertEquals("v" + i, cache.get("k" + i));
+         }
+      }
+      int total = 0;
+      for (Cache<Object, Object> cache : caches()) {
+         total += cache.getAdvancedCache().getDataContainer().size();
+      }
+      assertEquals(2 * NUM_KEYS, total);
+   }
+
+   private StateTransferManager stateTransferManager(Cache<Object, Object> cache) {
+      return TestingUtil.extractComponent(cache, StateTransferManager.class);
+   }
+}
@@ -0,0 +1,80 @@
+package org.infinispan.statetransfer;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Iterator;
+import java.util.Set;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that state transfer moves the entries of whole segments when the data container is segmented.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "statetransfer.SegmentedDataContainerStateTransferTest")
+public class SegmentedDataContainerStateTransferTest extends MultipleCacheManagersTest {
+
+   private static final int NUM_KEYS = 200;
+
+   private ConfigurationBuilder builder;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(2).numSegments(20)
+            .stateTransfer().fetchInMemoryState(true)
+            .dataContainer().segmented(true);
+      createClusteredCaches(2, builder);
+   }
+
+   public void testJoinAndLeave() {
+      // with 2 nodes both own all the segments, a joiner takes some from each and a leaver hands its segments over
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache(0).put("k" + i, "v" + i);
+      }
+      assertSegmentsOwned();
+
+      addClusterEnabledCacheManager(builder);
+      waitForClusterToForm();
+      assertSegmentsOwned();
+
+      killMember(0);
+      assertSegmentsOwned();
+   }
+
+   private void assertSegmentsOwned() {
+      TestingUtil.waitForRehashToComplete(caches());
+      int total = 0;
+      for (Cache<Object, Object> cache : caches()) {
+         DataContainer dataContainer = TestingUtil.extractComponent(cache, DataContainer.class);
+         assertTrue(dataContainer instanceof SegmentedDataContainer);
+         SegmentedDataContainer<Object, Object> segmented = (SegmentedDataContainer<Object, Object>) dataContainer;
+         ConsistentHash ch = cache.getAdvancedCache().getDistributionManager().getReadConsistentHash();
+         Set<Integer> owned = ch.getSegmentsForOwner(address(cache));
+         for (int segment = 0; segment < segmented.getNumSegments(); segment++) {
+            if (!owned.contains(segment)) {
+               assertEquals(0, segmented.segmentSize(segment));
+            }
+            for (Iterator<InternalCacheEntry<Object, Object>> it = segmented.segmentIterator(segment); it.hasNext(); ) {
+               assertEquals(segment, ch.getSegment(it.next().getKey()));
+            }
+         }
+         total += dataContainer.size();
+      }
+      assertEquals(2 * NUM_KEYS, total);
+      for (int i = 0; i < NUM_KEYS; i++) {
+         assertEquals("v" + i, cache(0).get("k" + i));
+      }
+   }
+}
@@ -198,6 +198,7 @@ public RpcOptionsBuilder answer(InvocationOnMock invocation) {
 
       // create state provider
       final StateConsumerImpl stateConsumer = new StateConsumerImpl();
+      stateConsumer.injectTimeService(TIME_SERVICE);
       stateConsumer.init(cache, pooledExecutorService, stateTransferManager, interceptorChain, icf, configuration, rpcManager, null,
             commandsFactory, persistenceManager, dataContainer, transactionTable, stateTransferLock, cacheNotifier,
             totalOrderManager, remoteCommandsExecutor, l1Manager, new CommitManager(AnyEquivalence.getInstance()));
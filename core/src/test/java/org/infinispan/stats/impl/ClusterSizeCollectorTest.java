@@ -0,0 +1,90 @@
+package org.infinispan.stats.impl;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.CacheContainer;
+import org.infinispan.stats.ClusterCacheStats;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the cluster wide sizes computed from the segment sizes of a segmented data container.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "stats.impl.ClusterSizeCollectorTest")
+public class ClusterSizeCollectorTest extends MultipleCacheManagersTest {
+
+   private static final String REPL_CACHE = "repl";
+   private static final int NUM_KEYS = 100;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(2).numSegments(20)
+            .dataContainer().segmented(true)
+            .jmxStatistics().enable();
+      createClusteredCaches(3, builder);
+
+      ConfigurationBuilder replBuilder = getDefaultClusteredCacheConfig(CacheMode.REPL_SYNC, false);
+      replBuilder.dataContainer().segmented(true);
+      for (int i = 0; i < 3; i++) {
+         manager(i).defineConfiguration(REPL_CACHE, replBuilder.build());
+      }
+      waitForClusterToForm(REPL_CACHE);
+   }
+
+   public void testDistributedSize() {
+      testSize(CacheContainer.DEFAULT_CACHE_NAME);
+   }
+
+   public void testReplicatedSize() {
+      testSize(REPL_CACHE);
+   }
+
+   public void testClusterCacheStats() {
+      cache(0).clear();
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache(0).put("stats" + i, new byte[100]);
+      }
+      ClusterCacheStatsImpl stats = (ClusterCacheStatsImpl) TestingUtil.extractComponent(cache(1),
+                                                                                          ClusterCacheStats.class);
+      stats.setStaleStatsTreshold(0);
+      TestingUtil.sleepThread(10);
+      assertEquals(cache(1).size(), stats.getNumberOfEntries());
+      assertTrue(stats.getEstimatedDataSize() > 0);
+   }
+
+   private void testSize(String cacheName) {
+      cache(0, cacheName).clear();
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache(i % 3, cacheName).put("k" + i, "v" + i);
+      }
+      assertSizes(cacheName, NUM_KEYS);
+
+      for (int i = 0; i < 10; i++) {
+         cache(0, cacheName).remove("k" + i);
+      }
+      assertSizes(cacheName, NUM_KEYS - 10);
+
+      cache(0, cacheName).clear();
+      assertSizes(cacheName, 0);
+   }
+
+   private void assertSizes(String cacheName, int expected) {
+      for (int i = 0; i < 3; i++) {
+         Cache<Object, Object> cache = cache(i, cacheName);
+         long[] totals = TestingUtil.extractComponent(cache, ClusterSizeCollector.class).collect();
+         assertEquals(expected, totals[0]);
+         assertEquals(expected, cache.size());
+         if (expected > 0) {
+            assertTrue(totals[1] > 0);
+         }
+      }
+   }
+}
@@ -5,6 +5,8 @@
 import org.infinispan.commands.read.EntryRetrievalCommand;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.commands.remote.GetKeysInGroupCommand;
+import org.infinispan.iteration.EntryReducer;
+import org.infinispan.iteration.impl.EntryReduceCommand;
 import org.infinispan.iteration.impl.EntryRequestCommand;
 import org.infinispan.iteration.impl.EntryResponseCommand;
 import org.infinispan.metadata.Metadata;
@@ -16,6 +18,7 @@
 import org.infinispan.commands.control.LockControlCommand;
 import org.infinispan.commands.read.DistributedExecuteCommand;
 import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.commands.read.GetAllCommand;
 import org.infinispan.commands.read.GetCacheEntryCommand;
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
@@ -23,7 +26,9 @@
 import org.infinispan.commands.read.ReduceCommand;
 import org.infinispan.commands.read.SizeCommand;
 import org.infinispan.commands.read.ValuesCommand;
+import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
+import org.infinispan.commands.remote.GetSegmentSizesCommand;
 import org.infinispan.commands.remote.MultipleRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
 import org.infinispan.commands.remote.recovery.CompleteTransactionCommand;
@@ -249,6 +254,16 @@ public ClusteredGetCommand buildClusteredGetCommand(Object key, Set<Flag> flags,
       return actual.buildClusteredGetCommand(key, flags, acquireRemoteLock, gtx);
    }
 
+   @Override
+   public ClusteredGetAllCommand buildClusteredGetAllCommand(List<Object> keys, Set<Flag> flags, GlobalTransaction gtx) {
+      return actual.buildClusteredGetAllCommand(keys, flags, gtx);
+   }
+
+   @Override
+   public GetSegmentSizesCommand buildGetSegmentSizesCommand() {
+      return actual.buildGetSegmentSizesCommand();
+   }
+
    @Override
    public LockControlCommand buildLockControlCommand(Collection<Object> keys, Set<Flag> flags, GlobalTransaction gtx) {
       return actual.buildLockControlCommand(keys, flags, gtx);
@@ -366,6 +381,11 @@ public <K, V, C> EntryRequestCommand<K, V, C> buildEntryRequestCommand(UUID iden
       return actual.buildEntryRequestCommand(identifier, segments, keysToFilter, filter, converter, flags);
    }
 
+   @Override
+   public <K, V, C, R> EntryReduceCommand<K, V, C, R> buildEntryReduceCommand(Set<Integer> segments, KeyValueFilter<? super K, ? super V> filter, Converter<? super K, ? super V, ? extends C> converter, EntryReducer<? super K, ? super C, R> reducer, Set<Flag> flags) {
+      return actual.buildEntryReduceCommand(segments, filter, converter, reducer, flags);
+   }
+
    @Override
    public <K, C> EntryResponseCommand<K, C> buildEntryResponseCommand(UUID identifier, Set<Integer> completedSegments,
                                                                 Set<Integer> inDoubtSegments, Collection<CacheEntry<K, C>> values,
@@ -383,4 +403,9 @@ public GetCacheEntryCommand buildGetCacheEntryCommand(Object key, Set<Flag> expl
       return actual.buildGetCacheEntryCommand(key, explicitFlags);
    }
 
+   @Override
+   public GetAllCommand buildGetAllCommand(Collection<?> keys, Set<Flag> flags, boolean returnEntries) {
+      return actual.buildGetAllCommand(keys, flags, returnEntries);
+   }
+
 }
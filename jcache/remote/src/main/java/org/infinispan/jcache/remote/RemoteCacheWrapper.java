@@ -78,6 +78,11 @@ public Map<K, V> getBulk(int size) {
       return delegate.getBulk(size);
    }
 
+   @Override
+   public Map<K, V> getAll(Set<? extends K> keys) {
+      return delegate.getAll(keys);
+   }
+
    @Override
    public Set<Object> getListeners() {
       return delegate.getListeners();
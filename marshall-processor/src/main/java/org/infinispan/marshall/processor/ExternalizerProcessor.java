@@ -0,0 +1,248 @@
+package org.infinispan.marshall.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+import org.infinispan.commons.marshall.Externalized;
+import org.infinispan.commons.marshall.ExternalizedField;
+import org.infinispan.commons.marshall.GeneratedExternalizer;
+
+/**
+ * Generates a {@link GeneratedExternalizer} for every class annotated with {@link Externalized}, and lists the
+ * generated externalizers in {@code META-INF/services} so that the global marshaller can find them.
+ *
+ * The generated code accesses the fields directly and creates the instances with the no-arg constructor, so the
+ * marshalling doesn't need any reflection.
+ *
+ * @since 7.2
+ */
+@SupportedAnnotationTypes("org.infinispan.commons.marshall.Externalized")
+public class ExternalizerProcessor extends AbstractProcessor {
+
+   static final String SERVICES_FILE = "META-INF/services/" + GeneratedExternalizer.class.getName();
+   static final String SUFFIX = "_Externalizer";
+
+   private final Set<String> generated = new TreeSet<String>();
+
+   @Override
+   public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+   }
+
+   @Override
+   public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      for (Element element : roundEnv.getElementsAnnotatedWith(Externalized.class)) {
+         TypeElement type = (TypeElement) element;
+         List<VariableElement> fields = validate(type);
+         if (fields != null) {
+            generate(type, fields);
+         }
+      }
+      if (roundEnv.processingOver() && !generated.isEmpty()) {
+         writeServicesFile();
+      }
+      return true;
+   }
+
+   /**
+    * @return the fields to marshall, or {@code null} if the class can't be externalized
+    */
+   private List<VariableElement> validate(TypeElement type) {
+      boolean valid = true;
+      if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) {
+         valid = error(type, "@Externalized can only be used on concrete classes");
+      }
+      for (Element e = type; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+         if (e.getModifiers().contains(Modifier.PRIVATE)) {
+            valid = error(type, "@Externalized classes and their enclosing classes must not be private");
+         }
+         if (!(e instanceof TypeElement)) {
+            valid = error(type, "@Externalized can't be used on local classes");
+            break;
+         }
+         if (((TypeElement) e).getNestingKind() == NestingKind.MEMBER && !e.getModifiers().contains(Modifier.STATIC)) {
+            valid = error(type, "@Externalized nested classes must be static");
+         }
+      }
+      if (type.getAnnotation(Externalized.class).id() < 0) {
+         valid = error(type, "The @Externalized id must not be negative");
+      }
+      if (!hasNoArgConstructor(type)) {
+         valid = error(type, "@Externalized classes need a non-private no-arg constructor");
+      }
+
+      List<VariableElement> fields = new ArrayList<VariableElement>();
+      Map<Integer, VariableElement> ids = new HashMap<Integer, VariableElement>();
+      // The names declared by the class and its subclasses in the hierarchy, which hide the superclass fields
+      Set<String> names = new HashSet<String>();
+      PackageElement typePackage = packageOf(type);
+      // The fields of the superclasses are marshalled too, the generated code accesses them through the subclass
+      for (TypeElement current = type; current != null; current = superclassOf(current)) {
+         boolean inherited = current != type;
+         boolean samePackage = packageOf(current).equals(typePackage);
+         List<VariableElement> declared = ElementFilter.fieldsIn(current.getEnclosedElements());
+         for (VariableElement field : declared) {
+            ExternalizedField annotation = field.getAnnotation(ExternalizedField.class);
+            if (annotation == null)
+               continue;
+
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.STATIC)) {
+               valid = error(field, "@ExternalizedField fields must not be private, final or static");
+            }
+            if (inherited && !samePackage && !modifiers.contains(Modifier.PUBLIC)) {
+               valid = error(type, "@ExternalizedField field " + current.getSimpleName() + "." + field.getSimpleName()
+                     + " is inherited from another package, so it must be public");
+            }
+            if (names.contains(field.getSimpleName().toString())) {
+               valid = error(type, "@ExternalizedField field " + current.getSimpleName() + "." + field.getSimpleName()
+                     + " is hidden by a subclass field with the same name");
+            }
+            int id = annotation.id();
+            if (id < 1 || id > GeneratedExternalizer.MAX_FIELD_ID) {
+               valid = error(field, "The @ExternalizedField id must be between 1 and " + GeneratedExternalizer.MAX_FIELD_ID);
+            }
+            VariableElement previous = ids.put(id, field);
+            if (previous != null) {
+               valid = error(inherited ? type : field, "The @ExternalizedField id " + id + " of "
+                     + field.getSimpleName() + " is already used by " + previous.getSimpleName());
+            }
+            fields.add(field);
+         }
+         for (VariableElement field : declared) {
+            names.add(field.getSimpleName().toString());
+         }
+      }
+      return valid ? fields : null;
+   }
+
+   /**
+    * @return the superclass of the given class, or {@code null} if it is {@link Object}
+    */
+   private static TypeElement superclassOf(TypeElement type) {
+      TypeMirror superclass = type.getSuperclass();
+      if (superclass.getKind() != TypeKind.DECLARED)
+         return null;
+      TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+      return element.getQualifiedName().contentEquals(Object.class.getName()) ? null : element;
+   }
+
+   private boolean hasNoArgConstructor(TypeElement type) {
+      for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+         if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE))
+            return true;
+      }
+      return false;
+   }
+
+   private void generate(TypeElement type, List<VariableElement> fields) {
+      String packageName = packageOf(type).getQualifiedName().toString();
+      String simpleName = externalizerSimpleName(type);
+      String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+      try {
+         JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+         Writer writer = file.openWriter();
+         try {
+            new ExternalizerWriter(processingEnv.getTypeUtils(), writer).write(packageName, simpleName, type,
+                  type.getAnnotation(Externalized.class).id(), fields);
+         } finally {
+            writer.close();
+         }
+         generated.add(qualifiedName);
+      } catch (IOException e) {
+         error(type, "Unable to generate " + qualifiedName + ": " + e);
+      }
+   }
+
+   private void writeServicesFile() {
+      // Keep the externalizers generated by a previous, incremental compilation
+      Set<String> services = new TreeSet<String>(generated);
+      try {
+         FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICES_FILE);
+         BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), Charset.forName("UTF-8")));
+         try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+               line = line.trim();
+               if (!line.isEmpty() && !line.startsWith("#"))
+                  services.add(line);
+            }
+         } finally {
+            reader.close();
+         }
+      } catch (IOException e) {
+         // No services file yet
+      }
+
+      try {
+         FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICES_FILE);
+         Writer writer = file.openWriter();
+         try {
+            for (String service : services) {
+               writer.write(service);
+               writer.write('\n');
+            }
+         } finally {
+            writer.close();
+         }
+      } catch (IOException e) {
+         processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write " + SERVICES_FILE + ": " + e);
+      }
+   }
+
+   private static PackageElement packageOf(Element element) {
+      Element e = element;
+      while (e.getKind() != ElementKind.PACKAGE) {
+         e = e.getEnclosingElement();
+      }
+      return (PackageElement) e;
+   }
+
+   /**
+    * @return the simple name of the generated externalizer, e.g. {@code Outer_Inner_Externalizer} for the nested
+    *         class {@code Outer.Inner}
+    */
+   static String externalizerSimpleName(TypeElement type) {
+      StringBuilder sb = new StringBuilder(type.getSimpleName()).append(SUFFIX);
+      for (Element e = type.getEnclosingElement(); e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+         sb.insert(0, '_').insert(0, e.getSimpleName());
+      }
+      return sb.toString();
+   }
+
+   private boolean error(Element element, String message) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+      return false;
+   }
+}
@@ -0,0 +1,159 @@
+package org.infinispan.marshall.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+
+import org.infinispan.commons.marshall.ExternalizedField;
+import org.infinispan.commons.marshall.GeneratedExternalizer;
+
+/**
+ * Writes the source of the externalizer for an {@link org.infinispan.commons.marshall.Externalized} class.
+ *
+ * @since 7.2
+ */
+class ExternalizerWriter {
+
+   private final Types types;
+   private final Writer out;
+
+   ExternalizerWriter(Types types, Writer out) {
+      this.types = types;
+      this.out = out;
+   }
+
+   void write(String packageName, String simpleName, TypeElement type, int id, List<VariableElement> fields) throws IOException {
+      String typeName = types.erasure(type.asType()).toString();
+
+      if (!packageName.isEmpty()) {
+         line(0, "package " + packageName + ";");
+         line(0, "");
+      }
+      line(0, "/**");
+      line(0, " * Externalizer for {@link " + typeName + "}, generated by " + ExternalizerProcessor.class.getName() + ".");
+      line(0, " */");
+      line(0, "@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+      line(0, "public final class " + simpleName + " extends " + GeneratedExternalizer.class.getName() + "<" + typeName + "> {");
+      line(0, "");
+      line(1, "public " + simpleName + "() {");
+      line(2, "super(" + typeName + ".class, " + id + ");");
+      line(1, "}");
+      line(0, "");
+
+      line(1, "@Override");
+      line(1, "public void writeObject(java.io.ObjectOutput output, " + typeName + " object) throws java.io.IOException {");
+      int primitiveFields = 0;
+      for (VariableElement field : fields) {
+         if (field.asType().getKind().isPrimitive())
+            primitiveFields++;
+      }
+      line(2, "int fieldCount = " + primitiveFields + ";");
+      for (VariableElement field : fields) {
+         if (!field.asType().getKind().isPrimitive())
+            line(2, "if (object." + field.getSimpleName() + " != null) fieldCount++;");
+      }
+      line(2, "writeFieldCount(output, fieldCount);");
+      for (VariableElement field : fields) {
+         Wire wire = Wire.of(field.asType());
+         String name = "object." + field.getSimpleName();
+         int fieldId = field.getAnnotation(ExternalizedField.class).id();
+         int indent = 2;
+         if (wire == Wire.OBJECT) {
+            line(2, "if (" + name + " != null) {");
+            indent = 3;
+         }
+         line(indent, "writeTag(output, " + fieldId + ", " + wire.constant + ");");
+         line(indent, "output.write" + wire.method(field.asType()) + "(" + name + ");");
+         if (wire == Wire.OBJECT) {
+            line(2, "}");
+         }
+      }
+      line(1, "}");
+      line(0, "");
+
+      line(1, "@Override");
+      line(1, "public " + typeName + " readObject(java.io.ObjectInput input) throws java.io.IOException, ClassNotFoundException {");
+      line(2, typeName + " object = new " + typeName + "();");
+      line(2, "for (int i = readFieldCount(input); i > 0; i--) {");
+      line(3, "int tag = readTag(input);");
+      if (!fields.isEmpty()) {
+         line(3, "switch (fieldId(tag)) {");
+         for (VariableElement field : fields) {
+            // The type of an inherited field may be a type variable bound by the subclass
+            TypeMirror fieldType = types.asMemberOf((DeclaredType) type.asType(), field);
+            Wire wire = Wire.of(fieldType);
+            String read = "input.read" + wire.method(fieldType) + "()";
+            if (wire == Wire.OBJECT) {
+               read = "(" + types.erasure(fieldType) + ") " + read;
+            }
+            line(4, "case " + field.getAnnotation(ExternalizedField.class).id() + ":");
+            line(5, "if (wireType(tag) == " + wire.constant + ") {");
+            line(6, "object." + field.getSimpleName() + " = " + read + ";");
+            line(6, "continue;");
+            line(5, "}");
+            line(5, "break;");
+         }
+         line(3, "}");
+      }
+      line(3, "// an unknown field, or a field whose type has changed");
+      line(3, "skipField(input, tag);");
+      line(2, "}");
+      line(2, "return object;");
+      line(1, "}");
+      line(0, "}");
+   }
+
+   private void line(int indent, String code) throws IOException {
+      for (int i = 0; i < indent; i++) {
+         out.write("   ");
+      }
+      out.write(code);
+      out.write('\n');
+   }
+
+   private enum Wire {
+      BYTE("WIRE_BYTE"), SHORT("WIRE_SHORT"), INT("WIRE_INT"), LONG("WIRE_LONG"), OBJECT("WIRE_OBJECT");
+
+      final String constant;
+
+      Wire(String constant) {
+         this.constant = constant;
+      }
+
+      static Wire of(TypeMirror type) {
+         switch (type.getKind()) {
+            case BOOLEAN:
+            case BYTE:
+               return BYTE;
+            case CHAR:
+            case SHORT:
+               return SHORT;
+            case INT:
+            case FLOAT:
+               return INT;
+            case LONG:
+            case DOUBLE:
+               return LONG;
+            default:
+               return OBJECT;
+         }
+      }
+
+      /**
+       * @return the suffix of the {@code ObjectOutput.writeX} and {@code ObjectInput.readX} methods for the type
+       */
+      String method(TypeMirror type) {
+         if (this == OBJECT)
+            return "Object";
+         String kind = type.getKind().name();
+         return kind.charAt(0) + kind.substring(1).toLowerCase(Locale.ENGLISH);
+      }
+   }
+}
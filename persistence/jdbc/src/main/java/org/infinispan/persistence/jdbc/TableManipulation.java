@@ -40,6 +40,7 @@ public class TableManipulation implements Cloneable {
    /* Cache the sql for managing data */
    private String insertRowSql;
    private String updateRowSql;
+   private String upsertRowSql;
    private String selectRowSql;
    private String selectIdRowSql;
    private String deleteRowSql;
@@ -49,12 +50,16 @@ public class TableManipulation implements Cloneable {
    private String deleteAllRows;
    private String selectExpiredRowsSql;
    private String deleteExpiredRowsSql;
+   private String loadNonExpiredRowsInRangeSql;
+   private String deleteExpiredRowsInRangeSql;
    private String loadSomeRowsSql;
    private DatabaseType databaseType;
    private String loadAllKeysBinarySql;
    private String loadAllKeysStringSql;
 
    private TableName tableName;
+   // set on start when an existing table lacks the configured segment column
+   private boolean segmentColumnMissing;
 
    public TableManipulation(TableManipulationConfiguration config, DatabaseType databaseType) {
       this.config = config;
@@ -73,16 +78,7 @@ public boolean tableExists(Connection connection, TableName tableName) throws Pe
          // we need to make sure, that (even if the user has extended permissions) only the tables in current schema are checked
          // explicit set of the schema to the current user one to make sure only tables of the current users are requested
          DatabaseMetaData metaData = connection.getMetaData();
-         String schemaPattern = tableName.getSchema();
-         if(schemaPattern == null){
-            switch (getDialect()) {
-               case ORACLE:
-                  schemaPattern = metaData.getUserName();
-                  break;
-               default:
-            }
-         }
-         rs = metaData.getTables(null, schemaPattern, tableName.getName(), new String[] {"TABLE"});
+         rs = metaData.getTables(null, getSchemaPattern(metaData, tableName), tableName.getName(), new String[] {"TABLE"});
          return rs.next();
       } catch (SQLException e) {
          if (log.isTraceEnabled())
@@ -93,17 +89,61 @@ public boolean tableExists(Connection connection, TableName tableName) throws Pe
       }
    }
 
+   /**
+    * Checks whether an existing table has the given column. Unquoted identifiers may be stored in upper or lower case
+    * depending on the database, so the names are compared ignoring case.
+    */
+   public boolean columnExists(Connection connection, TableName tableName, String columnName) throws PersistenceException {
+      ResultSet rs = null;
+      try {
+         DatabaseMetaData metaData = connection.getMetaData();
+         rs = metaData.getColumns(null, getSchemaPattern(metaData, tableName), tableName.getName(), null);
+         while (rs.next()) {
+            if (columnName.equalsIgnoreCase(rs.getString("COLUMN_NAME")))
+               return true;
+         }
+         return false;
+      } catch (SQLException e) {
+         throw new PersistenceException(e);
+      } finally {
+         JdbcUtil.safeClose(rs);
+      }
+   }
+
+   private String getSchemaPattern(DatabaseMetaData metaData, TableName tableName) throws SQLException {
+      String schemaPattern = tableName.getSchema();
+      if(schemaPattern == null){
+         switch (getDialect()) {
+            case ORACLE:
+               schemaPattern = metaData.getUserName();
+               break;
+            default:
+         }
+      }
+      return schemaPattern;
+   }
+
    public void createTable(Connection conn) throws PersistenceException {
       // removed CONSTRAINT clause as this causes problems with some databases, like Informix.
       assertMandatoryElementsPresent();
       String createTableDdl = "CREATE TABLE " + getTableName() + "(" + config.idColumnName() + " " + config.idColumnType()
             + " NOT NULL, " + config.dataColumnName() + " " + config.dataColumnType() + ", "
             + config.timestampColumnName() + " " + config.timestampColumnType() +
+            (hasSegmentColumn() ? ", " + config.segmentColumnName() + " " + config.segmentColumnType() : "") +
             ", PRIMARY KEY (" + config.idColumnName() + "))";
       if (log.isTraceEnabled()) {
          log.tracef("Creating table with following DDL: '%s'.", createTableDdl);
       }
       executeUpdateSql(conn, createTableDdl);
+      if (hasSegmentColumn()) {
+         // without the index each range scan would read the whole table
+         String createIndexDdl = "CREATE INDEX " + getIdentifierQuoteString() + getTableName().getName() + "_SEGMENT_IDX"
+               + getIdentifierQuoteString() + " ON " + getTableName() + " (" + config.segmentColumnName() + ")";
+         if (log.isTraceEnabled()) {
+            log.tracef("Creating index with following DDL: '%s'.", createIndexDdl);
+         }
+         executeUpdateSql(conn, createIndexDdl);
+      }
    }
 
    private void assertMandatoryElementsPresent() throws PersistenceException {
@@ -141,12 +181,17 @@ public void dropTable(Connection conn) throws PersistenceException {
 
    public void start(ConnectionFactory connectionFactory) throws PersistenceException {
       this.connectionFactory = connectionFactory;
-      if (config.createOnStart()) {
+      if (config.createOnStart() || hasSegmentColumn()) {
          Connection conn = null;
          try {
             conn = this.connectionFactory.getConnection();
             if (!tableExists(conn, getTableName())) {
-               createTable(conn);
+               if (config.createOnStart())
+                  createTable(conn);
+            } else if (hasSegmentColumn() && !columnExists(conn, getTableName(), config.segmentColumnName())) {
+               // a table created before the segment column was configured has neither the column nor its index
+               log.segmentColumnMissing(getTableName(), config.segmentColumnName());
+               segmentColumnMissing = true;
             }
          } finally {
             this.connectionFactory.releaseConnection(conn);
@@ -166,13 +211,25 @@ public void stop() throws PersistenceException {
       }
    }
 
+   /**
+    * The parameters are the data, timestamp and id, followed by the segment if the table has a segment column.
+    */
    public String getInsertRowSql() {
       if (insertRowSql == null) {
-         insertRowSql = "INSERT INTO " + getTableName() + " (" + config.dataColumnName() + ", " + config.timestampColumnName() + ", " + config.idColumnName() + ") VALUES(?,?,?)";
+         insertRowSql = "INSERT INTO " + getTableName() + " (" + getInsertColumns() + ") VALUES(" + getInsertParameters() + ")";
       }
       return insertRowSql;
    }
 
+   private String getInsertColumns() {
+      String columns = config.dataColumnName() + ", " + config.timestampColumnName() + ", " + config.idColumnName();
+      return hasSegmentColumn() ? columns + ", " + config.segmentColumnName() : columns;
+   }
+
+   private String getInsertParameters() {
+      return hasSegmentColumn() ? "?,?,?,?" : "?,?,?";
+   }
+
    public String getUpdateRowSql() {
       if (updateRowSql == null) {
          switch(getDialect()) {
@@ -190,6 +247,71 @@ public String getUpdateRowSql() {
       return updateRowSql;
    }
 
+   /**
+    * Returns a statement which inserts the row or updates it if it exists already, in a single round trip, or null
+    * if the dialect has no such statement. The parameters are the same as for {@link #getInsertRowSql()}.
+    */
+   public String getUpsertRowSql() {
+      if (upsertRowSql == null) {
+         String dataColumn = config.dataColumnName();
+         String timestampColumn = config.timestampColumnName();
+         String idColumn = config.idColumnName();
+         // the segment of given id never changes, therefore it is only inserted and never updated
+         String columns = getInsertColumns();
+         String tmpColumns = "tmp." + dataColumn + ", tmp." + timestampColumn + ", tmp." + idColumn
+               + (hasSegmentColumn() ? ", tmp." + config.segmentColumnName() : "");
+         switch (getDialect()) {
+            case MYSQL:
+               upsertRowSql = String.format("%1$s ON DUPLICATE KEY UPDATE %2$s = VALUES(%2$s), %3$s = VALUES(%3$s)",
+                     getInsertRowSql(), dataColumn, timestampColumn);
+               break;
+            case POSTGRES:
+               // ON CONFLICT is available since PostgreSQL 9.5
+               if (isDatabaseVersionAtLeast(9, 5)) {
+                  upsertRowSql = String.format("%1$s ON CONFLICT (%2$s) DO UPDATE SET %3$s = EXCLUDED.%3$s, %4$s = EXCLUDED.%4$s",
+                        getInsertRowSql(), idColumn, dataColumn, timestampColumn);
+               } else {
+                  upsertRowSql = "";
+               }
+               break;
+            case H2:
+               upsertRowSql = String.format("MERGE INTO %1$s (%2$s) KEY(%3$s) VALUES(%4$s)",
+                     getTableName(), columns, idColumn, getInsertParameters());
+               break;
+            case ORACLE:
+               String selectParameters = "? " + dataColumn + ", ? " + timestampColumn + ", ? " + idColumn
+                     + (hasSegmentColumn() ? ", ? " + config.segmentColumnName() : "");
+               upsertRowSql = String.format("MERGE INTO %1$s t USING (SELECT %2$s FROM dual) tmp ON (t.%3$s = tmp.%3$s) " +
+                     "WHEN MATCHED THEN UPDATE SET t.%4$s = tmp.%4$s, t.%5$s = tmp.%5$s " +
+                     "WHEN NOT MATCHED THEN INSERT (%6$s) VALUES (%7$s)",
+                     getTableName(), selectParameters, idColumn, dataColumn, timestampColumn, columns, tmpColumns);
+               break;
+            case SQL_SERVER:
+               // without HOLDLOCK two concurrent merges of the same new key could both attempt the insert
+               upsertRowSql = String.format("MERGE INTO %1$s WITH (HOLDLOCK) AS t USING (VALUES (%2$s)) AS tmp (%6$s) ON (t.%3$s = tmp.%3$s) " +
+                     "WHEN MATCHED THEN UPDATE SET %4$s = tmp.%4$s, %5$s = tmp.%5$s " +
+                     "WHEN NOT MATCHED THEN INSERT (%6$s) VALUES (%7$s);",
+                     getTableName(), getInsertParameters(), idColumn, dataColumn, timestampColumn, columns, tmpColumns);
+               break;
+            case DB2:
+               // DB2 does not infer the types of untyped parameter markers in the VALUES clause
+               String castParameters = "CAST(? AS " + config.dataColumnType() + "), CAST(? AS " + config.timestampColumnType()
+                     + "), CAST(? AS " + config.idColumnType() + ")"
+                     + (hasSegmentColumn() ? ", CAST(? AS " + config.segmentColumnType() + ")" : "");
+               upsertRowSql = String.format("MERGE INTO %1$s AS t USING (VALUES (%2$s)) AS tmp (%6$s) ON (t.%3$s = tmp.%3$s) " +
+                     "WHEN MATCHED THEN UPDATE SET %4$s = tmp.%4$s, %5$s = tmp.%5$s " +
+                     "WHEN NOT MATCHED THEN INSERT (%6$s) VALUES (%7$s)",
+                     getTableName(), castParameters, idColumn, dataColumn, timestampColumn, columns, tmpColumns);
+               break;
+            default:
+               // empty string marks that the dialect has been checked already
+               upsertRowSql = "";
+               break;
+         }
+      }
+      return upsertRowSql.isEmpty() ? null : upsertRowSql;
+   }
+
    public String getSelectRowSql() {
       if (selectRowSql == null) {
          switch(getDialect()) {
@@ -277,6 +399,74 @@ public String getSelectExpiredRowsSql() {
       return selectExpiredRowsSql;
    }
 
+   /**
+    * Same as {@link #getLoadNonExpiredAllRowsSql()}, restricted to the rows with segment within the range given by the
+    * second and third parameter (inclusive).
+    */
+   public String getLoadNonExpiredRowsInRangeSql() {
+      if (loadNonExpiredRowsInRangeSql == null) {
+         loadNonExpiredRowsInRangeSql = "SELECT " + config.dataColumnName() + "," + config.idColumnName() + ", " + config.timestampColumnName() + " FROM " + getTableName() + " WHERE (" +
+               config.timestampColumnName() + " > ? OR " + config.timestampColumnName() + " < 0) AND " + getSegmentRangeCondition();
+      }
+      return loadNonExpiredRowsInRangeSql;
+   }
+
+   /**
+    * Same as {@link #getDeleteExpiredRowsSql()}, restricted to the rows with segment within the range given by the
+    * second and third parameter (inclusive).
+    */
+   public String getDeleteExpiredRowsInRangeSql() {
+      if (deleteExpiredRowsInRangeSql == null) {
+         deleteExpiredRowsInRangeSql = getDeleteExpiredRowsSql() + " AND " + getSegmentRangeCondition();
+      }
+      return deleteExpiredRowsInRangeSql;
+   }
+
+   private String getSegmentRangeCondition() {
+      return config.segmentColumnName() + " >= ? AND " + config.segmentColumnName() + " <= ?";
+   }
+
+   /**
+    * Whether the table has the configured segment column. Tables created before the column was configured don't
+    * have it, in which case the rows are neither written with a segment nor scanned in segment ranges.
+    */
+   public boolean hasSegmentColumn() {
+      String segmentColumnName = config.segmentColumnName();
+      return segmentColumnName != null && !segmentColumnName.isEmpty() && !segmentColumnMissing;
+   }
+
+   /**
+    * The value stored in the segment column for the row with given id. It depends only on the id, so that it does
+    * not change when the row is rewritten.
+    */
+   public int getSegment(String id) {
+      return id.hashCode();
+   }
+
+   /**
+    * Splits the whole range of segments into the given number of disjoint ranges of roughly the same size.
+    *
+    * @return array of inclusive lower and upper bounds
+    */
+   public int[][] getSegmentRanges(int numRanges) {
+      int[][] ranges = new int[numRanges][];
+      long rangeSize = ((long) Integer.MAX_VALUE - Integer.MIN_VALUE + 1) / numRanges;
+      long from = Integer.MIN_VALUE;
+      for (int i = 0; i < numRanges; ++i) {
+         long to = i == numRanges - 1 ? Integer.MAX_VALUE : from + rangeSize - 1;
+         ranges[i] = new int[] { (int) from, (int) to };
+         from = to + 1;
+      }
+      return ranges;
+   }
+
+   /**
+    * Number of segment ranges scanned concurrently when the table has a segment column, 1 otherwise.
+    */
+   public int getScanParallelism() {
+      return hasSegmentColumn() ? Runtime.getRuntime().availableProcessors() : 1;
+   }
+
    public String getDeleteExpiredRowsSql() {
       if (deleteExpiredRowsSql == null) {
          deleteExpiredRowsSql = "DELETE FROM " + getTableName() + " WHERE " + config.timestampColumnName() + "< ? AND " + config.timestampColumnName() + "> 0";
@@ -381,6 +571,21 @@ public int getBatchSize() {
       return config.batchSize();
    }
 
+   private boolean isDatabaseVersionAtLeast(int major, int minor) {
+      Connection connection = null;
+      try {
+         connection = connectionFactory.getConnection();
+         DatabaseMetaData metaData = connection.getMetaData();
+         int databaseMajor = metaData.getDatabaseMajorVersion();
+         return databaseMajor > major || (databaseMajor == major && metaData.getDatabaseMinorVersion() >= minor);
+      } catch (Exception e) {
+         log.debug("Unable to read database version from JDBC metadata.", e);
+         return false;
+      } finally {
+         connectionFactory.releaseConnection(connection);
+      }
+   }
+
    private DatabaseType getDialect() {
       if (databaseType == null) {
          // need to guess from the database type!
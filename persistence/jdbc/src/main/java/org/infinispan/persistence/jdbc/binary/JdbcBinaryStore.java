@@ -176,6 +176,10 @@ public final boolean delete(Object key) {
 
    @Override
    public void process(final KeyFilter filter, final CacheLoaderTask task, Executor executor, final boolean fetchValue, final boolean fetchMetadata) {
+      if (tableManipulation.hasSegmentColumn()) {
+         processSegmentRanges(filter, task, executor, fetchValue, fetchMetadata);
+         return;
+      }
       Connection conn = null;
       PreparedStatement ps = null;
       ResultSet rs = null;
@@ -192,7 +196,7 @@ public void process(final KeyFilter filter, final CacheLoaderTask task, Executor
          ExecutorAllCompletionService ecs = new ExecutorAllCompletionService(executor);
          final TaskContextImpl taskContext = new TaskContextImpl();
          //we can do better here: ATM we load the entries in the caller's thread and process them in parallel
-         // we can do the loading (expensive operation) in parallel as well.
+         // we can do the loading (expensive operation) in parallel as well, if the table has a segment column.
          while (rs.next()) {
             InputStream binaryStream = rs.getBinaryStream(1);
             final Bucket bucket = unmarshallBucket(binaryStream);
@@ -200,15 +204,7 @@ public void process(final KeyFilter filter, final CacheLoaderTask task, Executor
                @Override
                public Void call() throws Exception {
                   try {
-                     for (MarshalledEntry me : bucket.getStoredEntries(filter, ctx.getTimeService()).values()) {
-                        if (!taskContext.isStopped()) {
-                           if (!fetchValue || !fetchMetadata) {
-                              me = ctx.getMarshalledEntryFactory().newMarshalledEntry(me.getKey(),
-                                    fetchValue ? me.getValue() : null, fetchMetadata ? me.getMetadata() : null);
-                           }
-                           task.processEntry(me, taskContext);
-                        }
-                     }
+                     processBucket(bucket, filter, task, taskContext, fetchValue, fetchMetadata);
                      return null;
                   } catch (Exception e) {
                      log.errorExecutingParallelStoreTask(e);
@@ -231,6 +227,71 @@ public Void call() throws Exception {
       }
    }
 
+   /**
+    * Reads the buckets in several segment ranges concurrently, each through its own connection, and processes the
+    * buckets in the thread that has read them.
+    */
+   private void processSegmentRanges(final KeyFilter filter, final CacheLoaderTask task, Executor executor, final boolean fetchValue, final boolean fetchMetadata) {
+      ExecutorAllCompletionService ecs = new ExecutorAllCompletionService(executor);
+      final TaskContextImpl taskContext = new TaskContextImpl();
+      final long now = ctx.getTimeService().wallClockTime();
+      for (final int[] range : tableManipulation.getSegmentRanges(tableManipulation.getScanParallelism())) {
+         ecs.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               Connection conn = null;
+               PreparedStatement ps = null;
+               ResultSet rs = null;
+               try {
+                  String sql = tableManipulation.getLoadNonExpiredRowsInRangeSql();
+                  if (log.isTraceEnabled()) {
+                     log.tracef("Running sql %s on range %d - %d", sql, range[0], range[1]);
+                  }
+                  conn = connectionFactory.getConnection();
+                  ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                  ps.setLong(1, now);
+                  ps.setInt(2, range[0]);
+                  ps.setInt(3, range[1]);
+                  ps.setFetchSize(tableManipulation.getFetchSize());
+                  rs = ps.executeQuery();
+                  while (rs.next() && !taskContext.isStopped()) {
+                     Bucket bucket = unmarshallBucket(rs.getBinaryStream(1));
+                     processBucket(bucket, filter, task, taskContext, fetchValue, fetchMetadata);
+                  }
+                  return null;
+               } catch (SQLException e) {
+                  log.sqlFailureFetchingAllStoredEntries(e);
+                  throw new PersistenceException("SQL error while fetching all StoredEntries", e);
+               } catch (Exception e) {
+                  log.errorExecutingParallelStoreTask(e);
+                  throw e;
+               } finally {
+                  JdbcUtil.safeClose(rs);
+                  JdbcUtil.safeClose(ps);
+                  connectionFactory.releaseConnection(conn);
+               }
+            }
+         });
+      }
+      ecs.waitUntilAllCompleted();
+      if (ecs.isExceptionThrown()) {
+         throw new PersistenceException("Execution exception!", ecs.getFirstException());
+      }
+   }
+
+   private void processBucket(Bucket bucket, KeyFilter filter, CacheLoaderTask task, TaskContextImpl taskContext,
+                              boolean fetchValue, boolean fetchMetadata) throws InterruptedException {
+      for (MarshalledEntry me : bucket.getStoredEntries(filter, ctx.getTimeService()).values()) {
+         if (!taskContext.isStopped()) {
+            if (!fetchValue || !fetchMetadata) {
+               me = ctx.getMarshalledEntryFactory().newMarshalledEntry(me.getKey(),
+                     fetchValue ? me.getValue() : null, fetchMetadata ? me.getMetadata() : null);
+            }
+            task.processEntry(me, taskContext);
+         }
+      }
+   }
+
    @Override
    public void clear() {
       Connection conn = null;
@@ -470,6 +531,9 @@ protected void insertBucket(Bucket bucket) {
          ps.setBinaryStream(1, new ByteArrayInputStream(byteBuffer.getBuf(), byteBuffer.getOffset(), byteBuffer.getLength()), byteBuffer.getLength());
          ps.setLong(2, bucket.timestampOfFirstEntryToExpire());
          ps.setString(3, bucket.getBucketIdAsString());
+         if (tableManipulation.hasSegmentColumn()) {
+            ps.setInt(4, tableManipulation.getSegment(bucket.getBucketIdAsString()));
+         }
          int insertedRows = ps.executeUpdate();
          if (insertedRows != 1) {
             throw new PersistenceException("Unexpected insert result: '" + insertedRows + "'. Expected values is 1");
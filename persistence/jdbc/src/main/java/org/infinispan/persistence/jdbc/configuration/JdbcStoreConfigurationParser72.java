@@ -315,6 +315,14 @@ private void parseTableElements(XMLExtendedStreamReader reader, TableManipulatio
                builder.timestampColumnType(column.type);
                break;
             }
+            case SEGMENT_COLUMN: {
+               Column column = parseTableElementAttributes(reader);
+               builder.segmentColumnName(column.name);
+               if (column.type != null) {
+                  builder.segmentColumnType(column.type);
+               }
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedElement(reader);
             }
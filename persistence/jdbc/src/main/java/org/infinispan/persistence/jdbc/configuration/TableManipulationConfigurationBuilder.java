@@ -122,6 +122,24 @@ public S timestampColumnType(String timestampColumnType) {
       return self();
    }
 
+   /**
+    * The name of the database column used to store the hash of the id. When set, the rows are read and purged in
+    * hash ranges concurrently, each range on its own connection. Not set by default. An existing table must be
+    * altered to contain this column.
+    */
+   public S segmentColumnName(String segmentColumnName) {
+      attributes.attribute(SEGMENT_COLUMN_NAME).set(segmentColumnName);
+      return self();
+   }
+
+   /**
+    * The type of the database column used to store the hash of the id, must hold 32-bit signed integers
+    */
+   public S segmentColumnType(String segmentColumnType) {
+      attributes.attribute(SEGMENT_COLUMN_TYPE).set(segmentColumnType);
+      return self();
+   }
+
    @Override
    public void validate() {
       validateIfSet(ID_COLUMN_NAME, ID_COLUMN_TYPE, DATA_COLUMN_NAME, DATA_COLUMN_TYPE, TIMESTAMP_COLUMN_NAME, TIMESTAMP_COLUMN_TYPE, TABLE_NAME_PREFIX);
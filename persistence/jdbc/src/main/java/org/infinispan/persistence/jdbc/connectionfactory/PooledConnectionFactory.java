@@ -30,6 +30,12 @@
 public class PooledConnectionFactory extends ConnectionFactory {
 
    private static final Log log = LogFactory.getLog(PooledConnectionFactory.class, Log.class);
+   /**
+    * Number of prepared statements cached on each pooled connection, unless set differently in c3p0 configuration.
+    * The stores prepare only a handful of distinct statements, so these are parsed by the database just once per
+    * connection instead of on every operation.
+    */
+   public static final int DEFAULT_MAX_STATEMENTS_PER_CONNECTION = 32;
    private ComboPooledDataSource pooledDataSource;
 
    @Override
@@ -59,6 +65,9 @@ public void start(ConnectionFactoryConfiguration config, ClassLoader classLoader
       pooledDataSource.setJdbcUrl(pooledConfiguration.connectionUrl());
       pooledDataSource.setUser(pooledConfiguration.username());
       pooledDataSource.setPassword(pooledConfiguration.password());
+      if (pooledDataSource.getMaxStatements() == 0 && pooledDataSource.getMaxStatementsPerConnection() == 0) {
+         pooledDataSource.setMaxStatementsPerConnection(DEFAULT_MAX_STATEMENTS_PER_CONNECTION);
+      }
       if (log.isTraceEnabled()) {
          log.tracef("Started connection factory with config: %s", config);
       }
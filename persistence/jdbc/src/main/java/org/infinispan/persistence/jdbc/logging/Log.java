@@ -144,4 +144,9 @@ public interface Log extends org.infinispan.util.logging.Log {
 
    @Message(value = "Cannot specify a ConnectionFactory and manageConnectionFactory at the same time", id = 8030)
    CacheConfigurationException unmanagedConnectionFactory();
+
+   @LogMessage(level = WARN)
+   @Message(value = "Table %s was created without the segment column %s, it will be scanned and purged through a single " +
+         "cursor. Recreate the table to scan it in parallel segment ranges.", id = 8031)
+   void segmentColumnMissing(Object tableName, String segmentColumnName);
 }
@@ -8,16 +8,16 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.Future;
 
 import org.infinispan.commons.configuration.ConfiguredBy;
 import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.executors.ExecutorAllCompletionService;
 import org.infinispan.filter.KeyFilter;
 import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.persistence.TaskContextImpl;
@@ -31,6 +31,7 @@
 import org.infinispan.persistence.keymappers.TwoWayKey2StringMapper;
 import org.infinispan.persistence.keymappers.UnsupportedKeyTypeException;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.BatchingCacheWriter;
 import org.infinispan.persistence.spi.InitializationContext;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.util.KeyValuePair;
@@ -71,7 +72,7 @@
  * @see org.infinispan.persistence.keymappers.DefaultTwoWayKey2StringMapper
  */
 @ConfiguredBy(JdbcStringBasedStoreConfiguration.class)
-public class JdbcStringBasedStore implements AdvancedLoadWriteStore {
+public class JdbcStringBasedStore implements AdvancedLoadWriteStore, BatchingCacheWriter {
 
    private static final Log log = LogFactory.getLog(JdbcStringBasedStore.class, Log.class);
 
@@ -152,25 +153,34 @@ public void write(MarshalledEntry entry) {
       String keyStr = key2Str(entry.getKey());
       try {
          connection = connectionFactory.getConnection();
-         String sql = tableManipulation.getSelectIdRowSql();
-         if (log.isTraceEnabled()) {
-            log.tracef("Running sql '%s'. Key string is '%s'", sql, keyStr);
-         }
-         ps = connection.prepareStatement(sql);
-         ps.setString(1, keyStr);
-         ResultSet rs = ps.executeQuery();
-         if (rs.next()) {
-            sql = tableManipulation.getUpdateRowSql();
-         } else {
-            sql = tableManipulation.getInsertRowSql();
+         String sql = tableManipulation.getUpsertRowSql();
+         boolean update = false;
+         if (sql == null) {
+            // the dialect can't insert or update in one statement, find out whether the row exists
+            sql = tableManipulation.getSelectIdRowSql();
+            if (log.isTraceEnabled()) {
+               log.tracef("Running sql '%s'. Key string is '%s'", sql, keyStr);
+            }
+            ps = connection.prepareStatement(sql);
+            ps.setString(1, keyStr);
+            ResultSet rs = ps.executeQuery();
+            if (rs.next()) {
+               sql = tableManipulation.getUpdateRowSql();
+               update = true;
+            } else {
+               sql = tableManipulation.getInsertRowSql();
+            }
+            JdbcUtil.safeClose(rs);
+            JdbcUtil.safeClose(ps);
          }
-         JdbcUtil.safeClose(rs);
-         JdbcUtil.safeClose(ps);
          if (log.isTraceEnabled()) {
              log.tracef("Running sql '%s'. Key string is '%s'", sql, keyStr);
          }
          ps = connection.prepareStatement(sql);
          updateStatement(entry, keyStr, ps);
+         if (!update) {
+            setSegment(keyStr, ps);
+         }
          ps.executeUpdate();
       } catch (SQLException ex) {
          log.sqlFailureStoringKey(keyStr, ex);
@@ -186,6 +196,117 @@ public void write(MarshalledEntry entry) {
       }
    }
 
+   @Override
+   public void writeBatch(Iterable entries) {
+      // the same key can't be both inserted and updated in one batch, keep only its last entry
+      Map<String, MarshalledEntry> entriesByKey = new LinkedHashMap<String, MarshalledEntry>();
+      for (Object o : entries) {
+         MarshalledEntry entry = (MarshalledEntry) o;
+         entriesByKey.put(key2Str(entry.getKey()), entry);
+      }
+      if (entriesByKey.isEmpty()) return;
+
+      String upsertSql = tableManipulation.getUpsertRowSql();
+      if (upsertSql != null) {
+         upsertBatch(entriesByKey, upsertSql);
+         return;
+      }
+
+      int batchSize = tableManipulation.getBatchSize();
+      Connection connection = null;
+      PreparedStatement selectPs = null;
+      PreparedStatement insertPs = null;
+      PreparedStatement updatePs = null;
+      try {
+         connection = connectionFactory.getConnection();
+         selectPs = connection.prepareStatement(tableManipulation.getSelectIdRowSql());
+         insertPs = connection.prepareStatement(tableManipulation.getInsertRowSql());
+         updatePs = connection.prepareStatement(tableManipulation.getUpdateRowSql());
+         int inserts = 0;
+         int updates = 0;
+         for (Map.Entry<String, MarshalledEntry> e : entriesByKey.entrySet()) {
+            String keyStr = e.getKey();
+            selectPs.setString(1, keyStr);
+            ResultSet rs = selectPs.executeQuery();
+            boolean exists;
+            try {
+               exists = rs.next();
+            } finally {
+               JdbcUtil.safeClose(rs);
+            }
+            if (exists) {
+               updateStatement(e.getValue(), keyStr, updatePs);
+               updatePs.addBatch();
+               if (++updates == batchSize) {
+                  updatePs.executeBatch();
+                  updates = 0;
+               }
+            } else {
+               updateStatement(e.getValue(), keyStr, insertPs);
+               setSegment(keyStr, insertPs);
+               insertPs.addBatch();
+               if (++inserts == batchSize) {
+                  insertPs.executeBatch();
+                  inserts = 0;
+               }
+            }
+         }
+         if (inserts > 0) insertPs.executeBatch();
+         if (updates > 0) updatePs.executeBatch();
+         if (log.isTraceEnabled()) {
+            log.tracef("Stored batch of %d entries", entriesByKey.size());
+         }
+      } catch (SQLException ex) {
+         log.sqlFailureStoringKeys(ex);
+         throw new PersistenceException("Error while storing a batch of string keys to database", ex);
+      } catch (InterruptedException e) {
+         if (log.isTraceEnabled()) {
+            log.trace("Interrupted while marshalling to store");
+         }
+         Thread.currentThread().interrupt();
+      } finally {
+         JdbcUtil.safeClose(selectPs);
+         JdbcUtil.safeClose(insertPs);
+         JdbcUtil.safeClose(updatePs);
+         connectionFactory.releaseConnection(connection);
+      }
+   }
+
+   private void upsertBatch(Map<String, MarshalledEntry> entriesByKey, String sql) {
+      int batchSize = tableManipulation.getBatchSize();
+      Connection connection = null;
+      PreparedStatement ps = null;
+      try {
+         connection = connectionFactory.getConnection();
+         ps = connection.prepareStatement(sql);
+         int batched = 0;
+         for (Map.Entry<String, MarshalledEntry> e : entriesByKey.entrySet()) {
+            updateStatement(e.getValue(), e.getKey(), ps);
+            setSegment(e.getKey(), ps);
+            ps.addBatch();
+            if (++batched == batchSize) {
+               ps.executeBatch();
+               batched = 0;
+            }
+         }
+         if (batched > 0) ps.executeBatch();
+         if (log.isTraceEnabled()) {
+            log.tracef("Stored batch of %d entries", entriesByKey.size());
+         }
+      } catch (SQLException ex) {
+         log.sqlFailureStoringKeys(ex);
+         throw new PersistenceException("Error while storing a batch of string keys to database", ex);
+      } catch (InterruptedException e) {
+         if (log.isTraceEnabled()) {
+            log.trace("Interrupted while marshalling to store");
+         }
+         Thread.currentThread().interrupt();
+      } finally {
+         JdbcUtil.safeClose(ps);
+         connectionFactory.releaseConnection(connection);
+      }
+   }
+
    @Override
    public MarshalledEntry load(Object key) {
       String lockingKey = key2Str(key);
@@ -244,6 +365,34 @@ public boolean delete(Object key) {
       }
    }
 
+   @Override
+   public void deleteBatch(Iterable keys) {
+      int batchSize = tableManipulation.getBatchSize();
+      Connection connection = null;
+      PreparedStatement ps = null;
+      try {
+         String sql = tableManipulation.getDeleteRowSql();
+         connection = connectionFactory.getConnection();
+         ps = connection.prepareStatement(sql);
+         int batched = 0;
+         for (Object key : keys) {
+            ps.setString(1, key2Str(key));
+            ps.addBatch();
+            if (++batched == batchSize) {
+               ps.executeBatch();
+               batched = 0;
+            }
+         }
+         if (batched > 0) ps.executeBatch();
+      } catch (SQLException ex) {
+         log.sqlFailureRemovingKeys(ex);
+         throw new PersistenceException("Error while removing string keys from database", ex);
+      } finally {
+         JdbcUtil.safeClose(ps);
+         connectionFactory.releaseConnection(connection);
+      }
+   }
+
    @Override
    public void clear() throws PersistenceException {
       Connection conn = null;
@@ -268,38 +417,57 @@ public void clear() throws PersistenceException {
    @Override
    public void purge(Executor executor, PurgeListener task) {
       //todo we should make the notification to the purge listener here
-      ExecutorCompletionService<Void> ecs = new ExecutorCompletionService<Void>(executor);
-      Future<Void> future = ecs.submit(new Callable<Void>() {
-         @Override
-         public Void call() throws Exception {
-            Connection conn = null;
-            PreparedStatement ps = null;
-            try {
-               String sql = tableManipulation.getDeleteExpiredRowsSql();
-               conn = connectionFactory.getConnection();
-               ps = conn.prepareStatement(sql);
-               ps.setLong(1, ctx.getTimeService().wallClockTime());
-               int result = ps.executeUpdate();
-               if (log.isTraceEnabled()) {
-                  log.tracef("Successfully purged %d rows.", result);
+      ExecutorAllCompletionService ecs = new ExecutorAllCompletionService(executor);
+      final long now = ctx.getTimeService().wallClockTime();
+      if (tableManipulation.hasSegmentColumn()) {
+         // each range is deleted in its own statement and connection
+         for (final int[] range : tableManipulation.getSegmentRanges(tableManipulation.getScanParallelism())) {
+            ecs.submit(new Callable<Void>() {
+               @Override
+               public Void call() throws Exception {
+                  purgeRows(now, range);
+                  return null;
                }
-            } catch (SQLException ex) {
-               log.failedClearingJdbcCacheStore(ex);
-               throw new PersistenceException("Failed clearing string based JDBC store", ex);
-            } finally {
-               JdbcUtil.safeClose(ps);
-               connectionFactory.releaseConnection(conn);
-            }
-            return null;
+            });
          }
-      });
+      } else {
+         ecs.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               purgeRows(now, null);
+               return null;
+            }
+         });
+      }
+      ecs.waitUntilAllCompleted();
+      if (ecs.isExceptionThrown()) {
+         log.errorExecutingParallelStoreTask(ecs.getFirstException());
+         throw new PersistenceException(ecs.getFirstException());
+      }
+   }
+
+   private void purgeRows(long now, int[] segmentRange) {
+      Connection conn = null;
+      PreparedStatement ps = null;
       try {
-         future.get();
-      } catch (InterruptedException e) {
-         Thread.currentThread().interrupt();
-      } catch (ExecutionException e) {
-         log.errorExecutingParallelStoreTask(e);
-         throw new PersistenceException(e);
+         String sql = segmentRange == null ? tableManipulation.getDeleteExpiredRowsSql() : tableManipulation.getDeleteExpiredRowsInRangeSql();
+         conn = connectionFactory.getConnection();
+         ps = conn.prepareStatement(sql);
+         ps.setLong(1, now);
+         if (segmentRange != null) {
+            ps.setInt(2, segmentRange[0]);
+            ps.setInt(3, segmentRange[1]);
+         }
+         int result = ps.executeUpdate();
+         if (log.isTraceEnabled()) {
+            log.tracef("Successfully purged %d rows.", result);
+         }
+      } catch (SQLException ex) {
+         log.failedClearingJdbcCacheStore(ex);
+         throw new PersistenceException("Failed clearing string based JDBC store", ex);
+      } finally {
+         JdbcUtil.safeClose(ps);
+         connectionFactory.releaseConnection(conn);
       }
    }
 
@@ -312,61 +480,80 @@ public boolean contains(Object key) {
 
    @Override
    public void process(final KeyFilter filter, final CacheLoaderTask task, Executor executor, final boolean fetchValue, final boolean fetchMetadata) {
-
-      ExecutorCompletionService<Void> ecs = new ExecutorCompletionService<Void>(executor);
-      Future<Void> future = ecs.submit(new Callable<Void>() {
-         @Override
-         public Void call() throws Exception {
-            Connection conn = null;
-            PreparedStatement ps = null;
-            ResultSet rs = null;
-            try {
-               String sql = tableManipulation.getLoadNonExpiredAllRowsSql();
-               if (log.isTraceEnabled()) {
-                  log.tracef("Running sql %s", sql);
-               }
-               conn = connectionFactory.getConnection();
-               ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
-               ps.setLong(1, ctx.getTimeService().wallClockTime());
-               ps.setFetchSize(tableManipulation.getFetchSize());
-               rs = ps.executeQuery();
-
-               TaskContext taskContext = new TaskContextImpl();
-               while (rs.next()) {
-                  String keyStr = rs.getString(2);
-                  Object key = ((TwoWayKey2StringMapper) key2StringMapper).getKeyMapping(keyStr);
-                  if (taskContext.isStopped()) break;
-                  if (filter != null && !filter.accept(key))
-                     continue;
-                  InputStream inputStream = rs.getBinaryStream(1);
-                  MarshalledEntry entry;
-                  if (fetchValue || fetchMetadata) {
-                     KeyValuePair<ByteBuffer, ByteBuffer> kvp = JdbcUtil.unmarshall(ctx.getMarshaller(), inputStream);
-                     entry = ctx.getMarshalledEntryFactory().newMarshalledEntry(
-                           key, fetchValue ? kvp.getKey() : null, fetchMetadata ? kvp.getValue() : null);
-                  } else {
-                     entry = ctx.getMarshalledEntryFactory().newMarshalledEntry(key, (Object)null, null);
-                  }
-                  task.processEntry(entry, taskContext);
+      ExecutorAllCompletionService ecs = new ExecutorAllCompletionService(executor);
+      final TaskContext taskContext = new TaskContextImpl();
+      final long now = ctx.getTimeService().wallClockTime();
+      if (tableManipulation.hasSegmentColumn()) {
+         // each range is read through its own cursor, using separate connection
+         for (final int[] range : tableManipulation.getSegmentRanges(tableManipulation.getScanParallelism())) {
+            ecs.submit(new Callable<Void>() {
+               @Override
+               public Void call() throws Exception {
+                  processRows(filter, task, fetchValue, fetchMetadata, taskContext, now, range);
+                  return null;
                }
+            });
+         }
+      } else {
+         ecs.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+               processRows(filter, task, fetchValue, fetchMetadata, taskContext, now, null);
                return null;
-            } catch (SQLException e) {
-               log.sqlFailureFetchingAllStoredEntries(e);
-               throw new PersistenceException("SQL error while fetching all StoredEntries", e);
-            } finally {
-               JdbcUtil.safeClose(rs);
-               JdbcUtil.safeClose(ps);
-               connectionFactory.releaseConnection(conn);
             }
-         }
-      });
+         });
+      }
+      ecs.waitUntilAllCompleted();
+      if (ecs.isExceptionThrown()) {
+         log.errorExecutingParallelStoreTask(ecs.getFirstException());
+         throw new PersistenceException(ecs.getFirstException());
+      }
+   }
+
+   private void processRows(KeyFilter filter, CacheLoaderTask task, boolean fetchValue, boolean fetchMetadata,
+                            TaskContext taskContext, long now, int[] segmentRange) throws InterruptedException {
+      Connection conn = null;
+      PreparedStatement ps = null;
+      ResultSet rs = null;
       try {
-         future.get();
-      } catch (InterruptedException e) {
-         Thread.currentThread().interrupt();
-      } catch (ExecutionException e) {
-         log.errorExecutingParallelStoreTask(e);
-         throw new PersistenceException(e);
+         String sql = segmentRange == null ? tableManipulation.getLoadNonExpiredAllRowsSql() : tableManipulation.getLoadNonExpiredRowsInRangeSql();
+         if (log.isTraceEnabled()) {
+            log.tracef("Running sql %s", sql);
+         }
+         conn = connectionFactory.getConnection();
+         ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+         ps.setLong(1, now);
+         if (segmentRange != null) {
+            ps.setInt(2, segmentRange[0]);
+            ps.setInt(3, segmentRange[1]);
+         }
+         ps.setFetchSize(tableManipulation.getFetchSize());
+         rs = ps.executeQuery();
+
+         while (rs.next()) {
+            String keyStr = rs.getString(2);
+            Object key = ((TwoWayKey2StringMapper) key2StringMapper).getKeyMapping(keyStr);
+            if (taskContext.isStopped()) break;
+            if (filter != null && !filter.accept(key))
+               continue;
+            InputStream inputStream = rs.getBinaryStream(1);
+            MarshalledEntry entry;
+            if (fetchValue || fetchMetadata) {
+               KeyValuePair<ByteBuffer, ByteBuffer> kvp = JdbcUtil.unmarshall(ctx.getMarshaller(), inputStream);
+               entry = ctx.getMarshalledEntryFactory().newMarshalledEntry(
+                     key, fetchValue ? kvp.getKey() : null, fetchMetadata ? kvp.getValue() : null);
+            } else {
+               entry = ctx.getMarshalledEntryFactory().newMarshalledEntry(key, (Object)null, null);
+            }
+            task.processEntry(entry, taskContext);
+         }
+      } catch (SQLException e) {
+         log.sqlFailureFetchingAllStoredEntries(e);
+         throw new PersistenceException("SQL error while fetching all StoredEntries", e);
+      } finally {
+         JdbcUtil.safeClose(rs);
+         JdbcUtil.safeClose(ps);
+         connectionFactory.releaseConnection(conn);
       }
    }
 
@@ -399,6 +586,12 @@ private void updateStatement(MarshalledEntry entry, String key, PreparedStatemen
       ps.setString(3, key);
    }
 
+   private void setSegment(String key, PreparedStatement ps) throws SQLException {
+      if (tableManipulation.hasSegmentColumn()) {
+         ps.setInt(4, tableManipulation.getSegment(key));
+      }
+   }
+
    private String key2Str(Object key) throws PersistenceException {
       if (!key2StringMapper.isSupportedType(key.getClass())) {
          throw new UnsupportedKeyTypeException(key);
@@ -86,6 +86,47 @@ public void testConnectionLeakGuessDialect() throws Exception {
       factory.stop();
    }
 
+   public void testExistingTableWithoutSegmentColumn() throws Exception {
+      JdbcStringBasedStoreConfigurationBuilder storeBuilder = TestCacheManagerFactory
+            .getDefaultCacheConfiguration(false)
+            .persistence()
+               .addStore(JdbcStringBasedStoreConfigurationBuilder.class);
+      UnitTestDatabaseManager.setDialect(storeBuilder);
+      UnitTestDatabaseManager.buildTableManipulation(storeBuilder.table(), false);
+      PooledConnectionFactory factory = new PooledConnectionFactory();
+      factory.start(UnitTestDatabaseManager.configureUniqueConnectionFactory(storeBuilder).create(),
+            Thread.currentThread().getContextClassLoader());
+
+      // the table is created before the segment column is configured
+      TableManipulation legacy = new TableManipulation(storeBuilder.table().create(), storeBuilder.create().dialect());
+      legacy.setCacheName("segments");
+      legacy.start(factory);
+      assert !legacy.hasSegmentColumn();
+
+      storeBuilder.table().segmentColumnName("SEGMENT_COLUMN");
+      TableManipulation segmented = new TableManipulation(storeBuilder.table().create(), storeBuilder.create().dialect());
+      segmented.setCacheName("segments");
+      segmented.start(factory);
+      assert !segmented.hasSegmentColumn() : "the existing table has no segment column";
+      assert segmented.getScanParallelism() == 1;
+      assert !segmented.getInsertRowSql().contains("SEGMENT_COLUMN");
+
+      Connection conn = factory.getConnection();
+      try {
+         legacy.dropTable(conn);
+         // a new table gets the segment column
+         segmented = new TableManipulation(storeBuilder.table().create(), storeBuilder.create().dialect());
+         segmented.setCacheName("segments");
+         segmented.start(factory);
+         assert segmented.hasSegmentColumn();
+         assert segmented.columnExists(conn, segmented.getTableName(), "SEGMENT_COLUMN");
+         segmented.dropTable(conn);
+      } finally {
+         factory.releaseConnection(conn);
+      }
+      factory.stop();
+   }
+
    public void testInsufficientConfigParams() throws Exception {
       Connection mockConnection = mock(Connection.class);
       Statement mockStatement = mock(Statement.class);
@@ -136,6 +177,39 @@ public void testTableQuoting() throws Exception {
       assert existsTable(connection, tableManipulation.getTableName());
    }
 
+   public void testUpsert() throws Exception {
+      TableManipulation upsert = tableManipulation.clone();
+      upsert.setCacheName("upsert");
+      upsert.createTable(connection);
+      String sql = upsert.getUpsertRowSql();
+      assert sql != null : "The test dialect supports single statement upserts";
+      PreparedStatement ps = null;
+      try {
+         ps = connection.prepareStatement(sql);
+         for (long timestamp = 1; timestamp <= 2; ++timestamp) {
+            ps.setBytes(1, new byte[] { (byte) timestamp });
+            ps.setLong(2, timestamp);
+            ps.setString(3, "key");
+            // MySQL reports 2 rows affected when the row has been updated
+            assert ps.executeUpdate() > 0;
+         }
+      } finally {
+         JdbcUtil.safeClose(ps);
+      }
+      Statement st = connection.createStatement();
+      ResultSet rs = null;
+      try {
+         rs = st.executeQuery("SELECT COUNT(*), MAX(TIMESTAMP_COLUMN) FROM " + upsert.getTableName());
+         assert rs.next();
+         assert rs.getInt(1) == 1 : "The second upsert must update the row";
+         assert rs.getLong(2) == 2;
+      } finally {
+         JdbcUtil.safeClose(rs);
+         JdbcUtil.safeClose(st);
+      }
+      upsert.dropTable(connection);
+   }
+
    static boolean existsTable(Connection connection, TableName tableName) throws Exception {
       Statement st = connection.createStatement();
       ResultSet rs = null;
@@ -0,0 +1,31 @@
+package org.infinispan.persistence.jdbc.binary;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.persistence.ParallelIterationTest;
+import org.infinispan.persistence.jdbc.configuration.JdbcBinaryStoreConfigurationBuilder;
+import org.infinispan.test.fwk.UnitTestDatabaseManager;
+import org.testng.annotations.Test;
+
+/**
+ * Iterates over a table with segment column, which is read in several segment ranges concurrently.
+ *
+ * @since 7.2
+ */
+@Test (groups = "functional", testName = "persistence.jdbc.binary.JdbcBinaryStoreSegmentedParallelIterationTest")
+public class JdbcBinaryStoreSegmentedParallelIterationTest extends ParallelIterationTest {
+
+   @Override
+   protected int numThreads() {
+      return KnownComponentNames.getDefaultThreads(KnownComponentNames.PERSISTENCE_EXECUTOR) + 1 /** caller's thread */;
+   }
+
+   @Override
+   protected void configurePersistence(ConfigurationBuilder cb) {
+      JdbcBinaryStoreConfigurationBuilder store = cb.persistence()
+            .addStore(JdbcBinaryStoreConfigurationBuilder.class);
+      UnitTestDatabaseManager.buildTableManipulation(store.table(), true);
+      store.table().segmentColumnName("SEGMENT_COLUMN");
+      UnitTestDatabaseManager.configureUniqueConnectionFactory(store);
+   }
+}
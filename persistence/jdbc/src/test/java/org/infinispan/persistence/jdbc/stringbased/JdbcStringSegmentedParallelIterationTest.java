@@ -0,0 +1,32 @@
+package org.infinispan.persistence.jdbc.stringbased;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.persistence.ParallelIterationTest;
+import org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfigurationBuilder;
+import org.infinispan.test.fwk.UnitTestDatabaseManager;
+import org.testng.annotations.Test;
+
+/**
+ * Iterates over a table with segment column, which is read in several segment ranges concurrently.
+ *
+ * @since 7.2
+ */
+@Test(groups = "functional", testName = "persistence.jdbc.stringbased.JdbcStringSegmentedParallelIterationTest")
+public class JdbcStringSegmentedParallelIterationTest extends ParallelIterationTest {
+
+   @Override
+   protected int numThreads() {
+      return KnownComponentNames.getDefaultThreads(KnownComponentNames.PERSISTENCE_EXECUTOR) + 1 /** caller's thread */;
+   }
+
+   @Override
+   protected void configurePersistence(ConfigurationBuilder cb) {
+      JdbcStringBasedStoreConfigurationBuilder storeBuilder =
+            cb.persistence().addStore(JdbcStringBasedStoreConfigurationBuilder.class);
+      UnitTestDatabaseManager.configureUniqueConnectionFactory(storeBuilder);
+      UnitTestDatabaseManager.buildTableManipulation(storeBuilder.table(), false);
+      storeBuilder.table().segmentColumnName("SEGMENT_COLUMN");
+   }
+
+}
@@ -25,6 +25,7 @@
 import org.infinispan.persistence.leveldb.configuration.LevelDBStoreConfiguration;
 import org.infinispan.persistence.leveldb.logging.Log;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.BatchingCacheWriter;
 import org.infinispan.persistence.spi.InitializationContext;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.util.logging.LogFactory;
@@ -34,9 +35,10 @@
 import org.iq80.leveldb.DBIterator;
 import org.iq80.leveldb.Options;
 import org.iq80.leveldb.ReadOptions;
+import org.iq80.leveldb.WriteBatch;
 
 @ConfiguredBy(LevelDBStoreConfiguration.class)
-public class LevelDBStore implements AdvancedLoadWriteStore {
+public class LevelDBStore implements AdvancedLoadWriteStore, BatchingCacheWriter {
    private static final Log log = LogFactory.getLog(LevelDBStore.class, Log.class);
 
    private static final String JNI_DB_FACTORY_CLASS_NAME = "org.fusesource.leveldbjni.JniDBFactory";
@@ -403,6 +405,65 @@ public void write(MarshalledEntry me)  {
       }
    }
 
+   @Override
+   public void writeBatch(Iterable entries) {
+      try {
+         WriteBatch batch = db.createWriteBatch();
+         try {
+            List<MarshalledEntry> expiring = new ArrayList<MarshalledEntry>();
+            for (Object o : entries) {
+               MarshalledEntry me = (MarshalledEntry) o;
+               batch.put(marshall(me.getKey()), marshall(me));
+               InternalMetadata meta = me.getMetadata();
+               if (meta != null && meta.expiryTime() > -1) {
+                  expiring.add(me);
+               }
+            }
+            semaphore.acquire();
+            try {
+               if (stopped) {
+                  throw new PersistenceException("LevelDB is stopped");
+               }
+               db.write(batch);
+            } finally {
+               semaphore.release();
+            }
+            for (MarshalledEntry me : expiring) {
+               addNewExpiry(me);
+            }
+         } finally {
+            batch.close();
+         }
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   @Override
+   public void deleteBatch(Iterable keys) {
+      try {
+         WriteBatch batch = db.createWriteBatch();
+         try {
+            for (Object key : keys) {
+               batch.delete(marshall(key));
+            }
+            semaphore.acquire();
+            try {
+               if (stopped) {
+                  throw new PersistenceException("LevelDB is stopped");
+               }
+               db.write(batch);
+            } finally {
+               semaphore.release();
+            }
+         } finally {
+            batch.close();
+         }
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
    @Override
    public MarshalledEntry load(Object key)  {
       try {
@@ -1,15 +1,24 @@
 package org.infinispan.persistence.sifs;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.infinispan.commons.marshall.Marshaller;
+import org.infinispan.persistence.spi.AdvancedCacheWriter;
 import org.infinispan.util.TimeService;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -19,14 +28,22 @@
  * becomes cluttered with old records, the valid records are moved to another file and the old ones are dropped.
  * Expired records are moved as tombstones without values (records of entry removal).
  *
+ * The space occupied by records with expiration is tracked per file as well, so that files with many expired records
+ * can be compacted even if these were never overwritten. Files dominated by expired records are compacted first,
+ * removing the expired entries from the index.
+ *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
 class Compactor extends Thread {
    private static final Log log = LogFactory.getLog(Compactor.class);
    private static final boolean trace = log.isTraceEnabled();
+   // expiration times are tracked with this precision (in milliseconds)
+   private static final long EXPIRATION_GRANULARITY = 1000;
+   // limits the memory used for expiration statistics of single file
+   private static final int MAX_EXPIRATION_BUCKETS = 64;
 
    private final ConcurrentMap<Integer, Stats> fileStats = new ConcurrentHashMap<Integer, Stats>();
-   private final BlockingQueue<Integer> scheduledCompaction = new LinkedBlockingQueue<Integer>();
+   private final BlockingDeque<Integer> scheduledCompaction = new LinkedBlockingDeque<Integer>();
    private final BlockingQueue<IndexRequest> indexQueue;
    private final FileProvider fileProvider;
    private final TemporaryTable temporaryTable;
@@ -41,6 +58,7 @@ class Compactor extends Thread {
    private volatile boolean terminateSignal = false;
    private volatile CountDownLatch compactorResume;
    private volatile CountDownLatch compactorStop;
+   private volatile AdvancedCacheWriter.PurgeListener purgeListener;
 
 
    public Compactor(FileProvider fileProvider,
@@ -66,20 +84,100 @@ public void releaseStats(int file) {
       fileStats.remove(file);
    }
 
-   public void free(int file, int size) {
+   public void setPurgeListener(AdvancedCacheWriter.PurgeListener purgeListener) {
+      this.purgeListener = purgeListener;
+   }
+
+   /**
+    * @param expiration expiration of the freed record if it has a value, -1 otherwise
+    */
+   public void free(int file, int size, long expiration) {
       // entries expired from compacted file are reported with file = -1
       if (file < 0) return;
-      recordFreeSpace(getStats(file), file, size);
+      Stats stats = getStats(file);
+      if (expiration >= 0) {
+         stats.removeExpiring(expiration, size);
+      }
+      recordFreeSpace(stats, file, size);
+   }
+
+   /**
+    * Records that the file contains a record with value that expires at given time.
+    */
+   public void addExpiring(int file, int size, long expiration) {
+      getStats(file).addExpiring(expiration, size);
+   }
+
+   /**
+    * Schedules compaction of completed files where the unused space together with the space occupied by records
+    * that have already expired exceeds the compaction threshold. Files where the expired records prevail are put
+    * in front of the other scheduled files, in order of the expired ratio.
+    */
+   public void scheduleExpired() {
+      long now = timeService.wallClockTime();
+      final Map<Integer, Double> expiredRatios = new HashMap<Integer, Double>();
+      for (Map.Entry<Integer, Stats> entry : fileStats.entrySet()) {
+         Stats stats = entry.getValue();
+         int expired = stats.getExpired(now);
+         if (expired == 0) {
+            continue;
+         }
+         int free = stats.getFree();
+         if (stats.readyToBeScheduled(compactionThreshold, free + expired)) {
+            if (expired >= free) {
+               expiredRatios.put(entry.getKey(), (double) expired / Math.max(stats.getTotal(), 1));
+            } else {
+               schedule(entry.getKey(), stats, false);
+            }
+         }
+      }
+      List<Integer> files = new ArrayList<Integer>(expiredRatios.keySet());
+      Collections.sort(files, new Comparator<Integer>() {
+         @Override
+         public int compare(Integer file1, Integer file2) {
+            return Double.compare(expiredRatios.get(file1), expiredRatios.get(file2));
+         }
+      });
+      // the file with highest ratio is put to the front of queue as the last one
+      for (int file : files) {
+         Stats stats = fileStats.get(file);
+         if (stats != null) {
+            schedule(file, stats, true);
+         }
+      }
    }
 
    public void completeFile(int file) {
       Stats stats = getStats(file);
       stats.setCompleted();
       if (stats.readyToBeScheduled(compactionThreshold, stats.getFree())) {
-         schedule(file, stats);
+         schedule(file, stats, false);
       }
    }
 
+   /**
+    * Completes file loaded along with index checkpoint, with the unused space recorded in the checkpoint.
+    */
+   public void completeFile(int file, int free, Map<Long, Integer> expiring) {
+      Stats stats = getStats(file);
+      stats.addFree(free, compactionThreshold);
+      stats.addExpiring(expiring);
+      completeFile(file);
+   }
+
+   public int getFree(int file) {
+      Stats stats = fileStats.get(file);
+      return stats == null ? 0 : stats.getFree();
+   }
+
+   /**
+    * @return space occupied by records with expiration, by the time when these expire
+    */
+   public Map<Long, Integer> getExpiring(int file) {
+      Stats stats = fileStats.get(file);
+      return stats == null ? Collections.<Long, Integer>emptyMap() : stats.getExpiring();
+   }
+
    private Stats getStats(int file) {
       Stats stats = fileStats.get(file);
       if (stats == null) {
@@ -104,17 +202,21 @@ private Stats getStats(int file) {
 
    private void recordFreeSpace(Stats stats, int file, int size) {
       if (stats.addFree(size, compactionThreshold)) {
-         schedule(file, stats);
+         schedule(file, stats, false);
       }
    }
 
-   private void schedule(int file, Stats stats) {
+   private void schedule(int file, Stats stats, boolean first) {
       try {
          synchronized (stats) {
             if (!stats.isScheduled()) {
                log.debug(String.format("Scheduling file %d for compaction: %d/%d free", file, stats.free.get(), stats.total));
                stats.setScheduled();
-               scheduledCompaction.put(file);
+               if (first) {
+                  scheduledCompaction.putFirst(file);
+               } else {
+                  scheduledCompaction.put(file);
+               }
             }
          }
       } catch (InterruptedException e) {
@@ -151,6 +253,7 @@ public void run() {
                   completeFile(logFile.fileId);
                   logFile = null;
                }
+               scheduleExpired();
                continue;
             }
 
@@ -181,7 +284,8 @@ public void run() {
                         }
                      }
                   } else {
-                     EntryPosition position = index.getPosition(key, serializedKey);
+                     // the position must be found even for expired entries, these are replaced by tombstones
+                     EntryPosition position = index.getLeafPosition(key, serializedKey);
                      if (position != null && position.file == scheduledFile && position.offset == scheduledOffset) {
                         drop = false;
                      } else if (trace) {
@@ -215,15 +319,22 @@ public void run() {
                   byte[] serializedValue;
                   byte[] serializedMetadata;
                   int entryOffset;
+                  long expiration;
                   // we have to keep track of expired entries but only as tombstones - do not copy the value nor metadata
                   if (header.valueLength() > 0 && (header.expiryTime() < 0 || header.expiryTime() > timeService.wallClockTime())) {
                      serializedMetadata = EntryRecord.readMetadata(handle, header, scheduledOffset);
                      serializedValue = EntryRecord.readValue(handle, header, scheduledOffset);
                      entryOffset = currentOffset;
+                     expiration = header.expiryTime();
                   } else {
                      serializedMetadata = null;
                      serializedValue = null;
                      entryOffset = ~currentOffset;
+                     expiration = -1;
+                     if (header.valueLength() > 0) {
+                        // the tombstone removes the expired entry from index
+                        notifyPurged(key);
+                     }
                   }
 
                   EntryRecord.writeEntry(logFile.fileChannel, serializedKey, serializedMetadata, serializedValue, header.seqId(), header.expiryTime());
@@ -234,7 +345,7 @@ public void run() {
                   // entryFile cannot be used as we have to report the file due to free space statistics
                   indexQueue.put(new IndexRequest(key, serializedKey,
                         logFile.fileId, entryOffset,
-                        header.totalLength(), scheduledFile, scheduledOffset));
+                        header.totalLength(), expiration, scheduledFile, scheduledOffset));
 
                   currentOffset += header.totalLength();
                   scheduledOffset += header.totalLength();
@@ -266,6 +377,17 @@ public void run() {
       }
    }
 
+   private void notifyPurged(Object key) {
+      AdvancedCacheWriter.PurgeListener listener = purgeListener;
+      if (listener != null) {
+         try {
+            listener.entryPurged(key);
+         } catch (RuntimeException e) {
+            log.debug("Purge listener failed for key " + key, e);
+         }
+      }
+   }
+
    private void pauseCompactor(FileProvider.Log logFile) throws IOException, InterruptedException {
       if (logFile != null) {
          logFile.close();
@@ -305,6 +427,12 @@ private static class Stats {
          */
       private volatile boolean completed = false;
       private volatile boolean scheduled = false;
+      /* Space occupied by records with value and expiration, by the expiration time rounded up. When there are too
+         many distinct times, the records are accounted to a later time - these are considered expired later than
+         they really are, but never earlier. Records from bucket for given time are therefore always in the bucket
+         for the ceiling time.
+         */
+      private final TreeMap<Long, Integer> expiring = new TreeMap<Long, Integer>();
 
       private Stats(int total, int free) {
          this.free = new AtomicInteger(free);
@@ -348,5 +476,56 @@ public boolean isCompleted() {
       public void setCompleted() {
          this.completed = true;
       }
+
+      public synchronized void addExpiring(long expiration, int size) {
+         long time = roundUp(expiration);
+         Integer bytes = expiring.get(time);
+         if (bytes == null && expiring.size() >= MAX_EXPIRATION_BUCKETS) {
+            Map.Entry<Long, Integer> ceiling = expiring.ceilingEntry(time);
+            if (ceiling != null) {
+               time = ceiling.getKey();
+               bytes = ceiling.getValue();
+            } else {
+               // the floor bucket is the last one, move it to the new time
+               bytes = expiring.pollLastEntry().getValue();
+            }
+         }
+         expiring.put(time, bytes == null ? size : bytes + size);
+      }
+
+      public synchronized void addExpiring(Map<Long, Integer> expiring) {
+         for (Map.Entry<Long, Integer> entry : expiring.entrySet()) {
+            addExpiring(entry.getKey(), entry.getValue());
+         }
+      }
+
+      public synchronized void removeExpiring(long expiration, int size) {
+         Map.Entry<Long, Integer> entry = expiring.ceilingEntry(roundUp(expiration));
+         if (entry == null) {
+            return;
+         }
+         int bytes = entry.getValue() - size;
+         if (bytes > 0) {
+            expiring.put(entry.getKey(), bytes);
+         } else {
+            expiring.remove(entry.getKey());
+         }
+      }
+
+      public synchronized int getExpired(long now) {
+         int expired = 0;
+         for (int bytes : expiring.headMap(now, true).values()) {
+            expired += bytes;
+         }
+         return expired;
+      }
+
+      public synchronized Map<Long, Integer> getExpiring() {
+         return new TreeMap<Long, Integer>(expiring);
+      }
+
+      private static long roundUp(long expiration) {
+         return (expiration + EXPIRATION_GRANULARITY - 1) / EXPIRATION_GRANULARITY * EXPIRATION_GRANULARITY;
+      }
    }
 }
@@ -3,6 +3,7 @@
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.Arrays;
 
 /**
  * Helper for reading/writing entries into file.
@@ -50,6 +51,37 @@ public EntryRecord loadMetadataAndValue(FileProvider.Handle handle, int offset)
       return this;
    }
 
+   /**
+    * Reads the whole record using single read, the size must be known in advance (it is kept in the index).
+    * Returns null when the record cannot be read completely.
+    */
+   public static EntryRecord readEntry(FileProvider.Handle handle, int offset, int size) throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocate(size);
+      if (read(handle, buffer, offset, size) < 0) return null;
+      buffer.flip();
+      EntryHeader header;
+      try {
+         header = new EntryHeader(buffer);
+      } catch (IllegalStateException e) {
+         throw new IllegalStateException("Error reading from " + handle.getFileId() + ":" + offset);
+      }
+      if (header.totalLength() != size) {
+         throw new IllegalStateException("Record at " + handle.getFileId() + ":" + offset + " has " + header
+               + " but the index expects " + size + " bytes");
+      }
+      byte[] array = buffer.array();
+      int position = EntryHeader.HEADER_SIZE;
+      byte[] key = Arrays.copyOfRange(array, position, position + header.keyLength());
+      position += header.keyLength();
+      byte[] metadata = null;
+      if (header.metadataLength() > 0) {
+         metadata = Arrays.copyOfRange(array, position, position + header.metadataLength());
+         position += header.metadataLength();
+      }
+      byte[] value = Arrays.copyOfRange(array, position, position + header.valueLength());
+      return new EntryRecord(header, key, metadata, value);
+   }
+
    public static EntryHeader readEntryHeader(FileProvider.Handle handle, long offset) throws IOException {
       ByteBuffer header = ByteBuffer.allocate(EntryHeader.HEADER_SIZE);
       if (read(handle, header, offset, EntryHeader.HEADER_SIZE) < 0) return null;
@@ -7,6 +7,7 @@
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -37,11 +38,16 @@ class FileProvider {
    private final AtomicInteger currentOpenFiles = new AtomicInteger(0);
    private final ReadWriteLock lock = new ReentrantReadWriteLock();
    private final Set<Integer> logFiles = new HashSet<Integer>();
+   private final boolean memoryMapped;
 
    private int nextFileId = 0;
 
-   public FileProvider(String dataDir, int openFileLimit) {
+   /**
+    * @param memoryMapped if true, files that are not written anymore are mapped into memory when opened.
+    */
+   public FileProvider(String dataDir, int openFileLimit, boolean memoryMapped) {
       this.openFileLimit = openFileLimit;
+      this.memoryMapped = memoryMapped;
       this.recordQueue = new ArrayBlockingQueue<Record>(openFileLimit);
       this.dataDir = new File(dataDir);
       this.dataDir.mkdirs();
@@ -75,6 +81,15 @@ public Handle getFile(int fileId) throws IOException {
                      return null;
                   }
                   Record newRecord = new Record(fileChannel, fileId);
+                  if (memoryMapped && !logFiles.contains(fileId)) {
+                     // the file is complete and won't grow anymore; the mapping stays valid until it is garbage
+                     // collected, even after the channel is closed or the file deleted
+                     try {
+                        newRecord.mappedBuffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+                     } catch (IOException e) {
+                        log.debug("Cannot map file " + fileId + ", falling back to channel reads", e);
+                     }
+                  }
                   Record other = openFiles.putIfAbsent(fileId, newRecord);
                   if (other != null) {
                      fileChannel.close();
@@ -288,6 +303,20 @@ private Handle(Record record) {
 
       public int read(ByteBuffer buffer, long offset) throws IOException {
          if (!usable) throw new IllegalStateException();
+         MappedByteBuffer mappedBuffer = record.mappedBuffer;
+         if (mappedBuffer != null) {
+            if (offset >= mappedBuffer.limit()) {
+               return -1;
+            }
+            ByteBuffer source = mappedBuffer.duplicate();
+            source.position((int) offset);
+            if (source.remaining() > buffer.remaining()) {
+               source.limit(source.position() + buffer.remaining());
+            }
+            int read = source.remaining();
+            buffer.put(source);
+            return read;
+         }
          return record.getFileChannel().read(buffer, offset);
       }
 
@@ -311,6 +340,7 @@ public int getFileId() {
    private class Record {
       private final int fileId;
       private FileChannel fileChannel;
+      private volatile MappedByteBuffer mappedBuffer;
       private int handleCount;
       private boolean deleteOnClose = false;
 
@@ -334,6 +364,7 @@ void decreaseHandleCount() throws IOException {
             // but physically close and delete the file
             fileChannel.close();
             fileChannel = null;
+            mappedBuffer = null;
             openFiles.remove(fileId, this);
             delete();
          }
@@ -354,6 +385,7 @@ public int getFileId() {
       public void close() throws IOException {
          fileChannel.close();
          fileChannel = null;
+         mappedBuffer = null;
          if (deleteOnClose) {
             delete();
          }
@@ -369,6 +401,7 @@ public void deleteOnClose() throws IOException {
             if (fileChannel != null) {
                fileChannel.close();
                fileChannel = null;
+               mappedBuffer = null;
             }
             openFiles.remove(fileId, this);
             delete();
@@ -1,10 +1,22 @@
 package org.infinispan.persistence.sifs;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -14,6 +26,7 @@
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
 
 import org.infinispan.commons.equivalence.Equivalence;
 import org.infinispan.util.TimeService;
@@ -25,13 +38,20 @@
  * of key's hashcodes (according to DataContainer's key equivalence configuration) - writes to each index segment
  * are performed by single thread, having multiple segments spreads the load between them.
  *
+ * The index files are not updated consistently, therefore these can be used after restart only when the store was
+ * stopped orderly: then the segments persist their roots and a checkpoint file with the state of segments and data
+ * files is written. The checkpoint is removed when loaded, after a crash the index has to be rebuilt from data files.
+ *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
 class Index {
    private static final Log log = LogFactory.getLog(Index.class);
    private static final boolean trace = log.isTraceEnabled();
+   private static final String CHECKPOINT_FILE = "index.state";
+   private static final int CHECKPOINT_MAGIC = 0x51F51DC3;
 
    private final String indexDir;
+   private final File checkpointFile;
    private final FileProvider fileProvider;
    private final Compactor compactor;
    private final int minNodeSize;
@@ -51,6 +71,7 @@ public Index(FileProvider fileProvider, String indexDir, int segments, int minNo
       this.indexDir = indexDir;
       this.minNodeSize = minNodeSize;
       this.maxNodeSize = maxNodeSize;
+      this.checkpointFile = new File(indexDir, CHECKPOINT_FILE);
       new File(indexDir).mkdirs();
 
       this.segments = new Segment[segments];
@@ -79,6 +100,20 @@ public EntryPosition getPosition(Object key, byte[] serializedKey) throws IOExce
       }
    }
 
+   /**
+    * Returns the position in the leaf where the key would be found, even if the entry has already expired. As the key
+    * stored on this position is not verified, it is up to the caller to compare the position with the record it has
+    * found the key in.
+    */
+   public EntryPosition getLeafPosition(Object key, byte[] serializedKey) throws IOException {
+      int segment = Math.abs(keyEquivalence.hashCode(key)) % segments.length;
+      lock.readLock().lock();
+      try {
+         return IndexNode.applyOnLeaf(segments[segment], serializedKey, segments[segment].rootReadLock(), IndexNode.ReadOperation.GET_LEAF_POSITION);
+      } finally {
+         lock.readLock().unlock();
+      }
+   }
 
    public void clear() throws IOException {
       lock.writeLock().lock();
@@ -111,6 +146,136 @@ public long size() throws InterruptedException {
       return size;
    }
 
+   /**
+    * Loads the index persisted on last orderly stop. The checkpoint is deleted before the index files are modified,
+    * so it can be loaded only once. When the checkpoint is missing or corrupt, the index is reset to empty state.
+    * Must be called before any request is enqueued into the index queue.
+    *
+    * @return the checkpoint, or null if the index has to be rebuilt from data files
+    */
+   public Checkpoint loadCheckpoint() throws IOException {
+      Checkpoint checkpoint = null;
+      if (checkpointFile.exists()) {
+         try {
+            checkpoint = readCheckpoint();
+         } catch (IOException | RuntimeException e) {
+            log.warn("Cannot load index checkpoint, the index will be rebuilt", e);
+         }
+         if (!checkpointFile.delete()) {
+            throw new IOException("Cannot delete index checkpoint " + checkpointFile);
+         }
+      } else {
+         log.debug("No index checkpoint found, the index will be rebuilt");
+      }
+      if (checkpoint == null) {
+         for (Segment seg : segments) {
+            seg.reset();
+         }
+      }
+      return checkpoint;
+   }
+
+   private Checkpoint readCheckpoint() throws IOException {
+      byte[] bytes = Files.readAllBytes(checkpointFile.toPath());
+      if (bytes.length < 8) {
+         throw new IOException("Index checkpoint is truncated");
+      }
+      CRC32 checksum = new CRC32();
+      checksum.update(bytes, 0, bytes.length - 8);
+      if (checksum.getValue() != ByteBuffer.wrap(bytes, bytes.length - 8, 8).getLong()) {
+         throw new IOException("Index checkpoint is corrupt");
+      }
+      DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 8));
+      if (input.readInt() != CHECKPOINT_MAGIC) {
+         throw new IOException("Unknown index checkpoint format");
+      }
+      int numSegments = input.readInt();
+      if (numSegments != segments.length) {
+         throw new IOException("Index checkpoint has " + numSegments + " segments but " + segments.length + " are configured");
+      }
+      long seqId = input.readLong();
+      int numFiles = input.readInt();
+      Map<Integer, Long> fileSizes = new HashMap<Integer, Long>();
+      Map<Integer, Integer> freeSpace = new HashMap<Integer, Integer>();
+      Map<Integer, Map<Long, Integer>> expiring = new HashMap<Integer, Map<Long, Integer>>();
+      for (int i = 0; i < numFiles; ++i) {
+         int file = input.readInt();
+         long fileSize = input.readLong();
+         // the index may point anywhere into the file, it must not have been shortened nor removed
+         if (fileProvider.getFileSize(file) < fileSize) {
+            throw new IOException("Data file " + file + " was truncated or removed after the index checkpoint");
+         }
+         fileSizes.put(file, fileSize);
+         freeSpace.put(file, input.readInt());
+         int numExpiring = input.readInt();
+         Map<Long, Integer> fileExpiring = new TreeMap<Long, Integer>();
+         for (int j = 0; j < numExpiring; ++j) {
+            fileExpiring.put(input.readLong(), input.readInt());
+         }
+         expiring.put(file, fileExpiring);
+      }
+      for (Segment seg : segments) {
+         seg.readState(input);
+      }
+      log.debugf("Loaded index checkpoint with %d data files, next seqId is %d", numFiles, seqId);
+      return new Checkpoint(seqId, fileSizes, freeSpace, expiring);
+   }
+
+   /**
+    * Writes the checkpoint allowing to load the index on next start, along with the sequence id the log should
+    * continue with and the size, unused space and expiration statistics of each data file. Must be called after {@link #stopOperations()},
+    * when the data files are not modified anymore.
+    */
+   public void writeCheckpoint(long seqId) throws IOException {
+      for (Segment seg : segments) {
+         if (seg.rootSpace == null) {
+            log.debug("Index segment " + seg.getName() + " was not persisted, not writing index checkpoint");
+            return;
+         }
+      }
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream output = new DataOutputStream(bytes);
+      output.writeInt(CHECKPOINT_MAGIC);
+      output.writeInt(segments.length);
+      output.writeLong(seqId);
+      List<Integer> files = new ArrayList<Integer>();
+      for (Iterator<Integer> iterator = fileProvider.getFileIterator(); iterator.hasNext(); ) {
+         files.add(iterator.next());
+      }
+      output.writeInt(files.size());
+      for (int file : files) {
+         output.writeInt(file);
+         output.writeLong(fileProvider.getFileSize(file));
+         output.writeInt(compactor.getFree(file));
+         Map<Long, Integer> expiring = compactor.getExpiring(file);
+         output.writeInt(expiring.size());
+         for (Map.Entry<Long, Integer> entry : expiring.entrySet()) {
+            output.writeLong(entry.getKey());
+            output.writeInt(entry.getValue());
+         }
+      }
+      for (Segment seg : segments) {
+         seg.writeState(output);
+      }
+      CRC32 checksum = new CRC32();
+      checksum.update(bytes.toByteArray());
+      output.writeLong(checksum.getValue());
+      output.flush();
+
+      File tmpFile = new File(indexDir, CHECKPOINT_FILE + ".tmp");
+      FileOutputStream stream = new FileOutputStream(tmpFile);
+      try {
+         bytes.writeTo(stream);
+         stream.getFD().sync();
+      } finally {
+         stream.close();
+      }
+      if (!tmpFile.renameTo(checkpointFile)) {
+         throw new IOException("Cannot write index checkpoint " + checkpointFile);
+      }
+      log.debugf("Written index checkpoint with %d data files, next seqId is %d", files.size(), seqId);
+   }
+
    class Segment extends Thread {
       private final BlockingQueue<IndexRequest> indexQueue;
       private final TemporaryTable temporaryTable;
@@ -120,6 +285,8 @@ class Segment extends Thread {
       private FileChannel indexFile;
       private long indexFileSize = 0;
       private AtomicLong size = new AtomicLong();
+      // set by the updater thread when it has persisted the root on stop
+      private IndexSpace rootSpace;
 
       private volatile IndexNode root = IndexNode.emptyWithLeaves(this);
 
@@ -131,8 +298,8 @@ private Segment(int id, BlockingQueue<IndexRequest> indexQueue, TemporaryTable t
          this.temporaryTable = temporaryTable;
 
          this.indexFileFile = new File(indexDir, "index." + id);
+         // the content is either loaded from checkpoint or dropped in loadCheckpoint()
          this.indexFile = new RandomAccessFile(indexFileFile, "rw").getChannel();
-         this.indexFile.truncate(0);
 
          start();
       }
@@ -166,6 +333,8 @@ public void run() {
                      }
                      continue;
                   case STOP:
+                     rootSpace = root.storeRoot();
+                     indexFile.force(false);
                      return;
                   case GET_SIZE :
                      request.setResult(size.get());
@@ -182,7 +351,8 @@ public boolean check(int oldFile, int oldOffset) {
 
                      @Override
                      public void setOverwritten(boolean overwritten, int prevFile, int prevOffset) {
-                        if (overwritten && request.getOffset() < 0 && request.getPrevOffset() >= 0) {
+                        // expired entries are removed even if the key cannot be compared anymore
+                        if (request.getOffset() < 0 && prevOffset >= 0) {
                            size.decrementAndGet();
                         }
                      }
@@ -200,8 +370,12 @@ public void setOverwritten(boolean overwritten, int prevFile, int prevOffset) {
                      }
                   };
                }
+               if (request.getExpiration() >= 0) {
+                  // registered before the update as the update may free the record right away
+                  compactor.addExpiring(request.getFile(), request.getSize(), request.getExpiration());
+               }
                try {
-                  IndexNode.setPosition(root, request.getSerializedKey(), request.getFile(), request.getOffset(), request.getSize(), overwriteHook);
+                  IndexNode.setPosition(root, request.getSerializedKey(), request.getFile(), request.getOffset(), request.getSize(), request.getExpiration(), overwriteHook);
                } catch (IllegalStateException e) {
                   throw new IllegalStateException(request.toString(), e);
                }
@@ -217,7 +391,10 @@ public void setOverwritten(boolean overwritten, int prevFile, int prevOffset) {
          } finally {
             try {
                indexFile.close();
-               indexFileFile.delete();
+               if (rootSpace == null) {
+                  // the index file is not consistent, it cannot be loaded
+                  indexFileFile.delete();
+               }
             } catch (IOException e) {
                log.error("Failed to close/delete the index", e);
             }
@@ -228,12 +405,58 @@ public CountDownLatch pauseAndClear() throws InterruptedException, IOException {
          IndexRequest clear = IndexRequest.clearRequest();
          indexQueue.put(clear);
          CountDownLatch pause = (CountDownLatch) clear.getResult();
+         reset();
+         return pause;
+      }
+
+      private void reset() throws IOException {
          root = IndexNode.emptyWithLeaves(this);
          indexFile.truncate(0);
          indexFileSize = 0;
          freeBlocks.clear();
          size.set(0);
-         return pause;
+      }
+
+      // this should be called only after the updater thread has persisted the root
+      private void writeState(DataOutput output) throws IOException {
+         output.writeLong(size.get());
+         output.writeLong(indexFileSize);
+         output.writeLong(rootSpace.offset);
+         output.writeInt(rootSpace.length);
+         int numFreeBlocks = 0;
+         for (List<IndexSpace> list : freeBlocks.values()) {
+            numFreeBlocks += list.size();
+         }
+         output.writeInt(numFreeBlocks);
+         for (List<IndexSpace> list : freeBlocks.values()) {
+            for (IndexSpace space : list) {
+               output.writeLong(space.offset);
+               output.writeInt(space.length);
+            }
+         }
+      }
+
+      // this should be called before the updater thread gets any request
+      private void readState(DataInput input) throws IOException {
+         long size = input.readLong();
+         long indexFileSize = input.readLong();
+         long rootOffset = input.readLong();
+         int rootLength = input.readInt();
+         if (rootOffset < 0 || rootLength <= 0 || rootOffset + rootLength > indexFileSize || indexFile.size() < indexFileSize) {
+            throw new IOException("Index file " + indexFileFile + " does not match the checkpoint");
+         }
+         int numFreeBlocks = input.readInt();
+         for (int i = 0; i < numFreeBlocks; ++i) {
+            IndexSpace space = new IndexSpace(input.readLong(), input.readInt());
+            List<IndexSpace> list = freeBlocks.get(space.length);
+            if (list == null) {
+               freeBlocks.put(space.length, list = new ArrayList<IndexSpace>());
+            }
+            list.add(space);
+         }
+         this.indexFileSize = indexFileSize;
+         this.size.set(size);
+         this.root = new IndexNode(this, rootOffset, rootLength);
       }
 
       public long size() throws InterruptedException {
@@ -320,6 +543,56 @@ public TimeService getTimeService() {
       }
    }
 
+   /**
+    * State of the data files recorded together with the persisted index.
+    */
+   static class Checkpoint {
+      private final long seqId;
+      private final Map<Integer, Long> fileSizes;
+      private final Map<Integer, Integer> freeSpace;
+      private final Map<Integer, Map<Long, Integer>> expiring;
+
+      private Checkpoint(long seqId, Map<Integer, Long> fileSizes, Map<Integer, Integer> freeSpace,
+                         Map<Integer, Map<Long, Integer>> expiring) {
+         this.seqId = seqId;
+         this.fileSizes = fileSizes;
+         this.freeSpace = freeSpace;
+         this.expiring = expiring;
+      }
+
+      /**
+       * @return sequence id the log should continue with
+       */
+      public long getSeqId() {
+         return seqId;
+      }
+
+      /**
+       * @return size of the data file when the checkpoint was written, or -1 if the file did not exist then
+       */
+      public long getFileSize(int file) {
+         Long fileSize = fileSizes.get(file);
+         return fileSize == null ? -1 : fileSize;
+      }
+
+      /**
+       * @return amount of unused space in the data file when the checkpoint was written
+       */
+      public int getFree(int file) {
+         Integer free = freeSpace.get(file);
+         return free == null ? 0 : free;
+      }
+
+      /**
+       * @return space occupied by records with expiration in the data file when the checkpoint was written,
+       *         by the time when these expire
+       */
+      public Map<Long, Integer> getExpiring(int file) {
+         Map<Long, Integer> fileExpiring = expiring.get(file);
+         return fileExpiring == null ? Collections.<Long, Integer>emptyMap() : fileExpiring;
+      }
+   }
+
    /**
     * Offset-length pair
     */
@@ -33,7 +33,7 @@ class IndexNode {
    private static final byte HAS_LEAVES = 1;
    private static final int INNER_NODE_HEADER_SIZE = 5;
    private static final int INNER_NODE_REFERENCE_SIZE = 10;
-   private static final int LEAF_NODE_REFERENCE_SIZE = 8;
+   private static final int LEAF_NODE_REFERENCE_SIZE = 12;
 
    public static final int RESERVED_SPACE
          = INNER_NODE_HEADER_SIZE + 2 * Math.max(INNER_NODE_REFERENCE_SIZE, LEAF_NODE_REFERENCE_SIZE);
@@ -71,7 +71,7 @@ public IndexNode(Index.Segment segment, long offset, int occupiedSpace) throws I
       if ((flags & HAS_LEAVES) != 0) {
          leafNodes = new LeafNode[numKeyParts + 1];
          for (int i = 0; i < numKeyParts + 1; ++i) {
-            leafNodes[i] = new LeafNode(buffer.getInt(), buffer.getInt());
+            leafNodes[i] = new LeafNode(buffer.getInt(), buffer.getInt(), buffer.getInt());
          }
       } else {
          innerNodes = new InnerNode[numKeyParts + 1];
@@ -172,6 +172,7 @@ private void store(Index.IndexSpace indexSpace) throws IOException {
          for (int i = 0; i < leafNodes.length; ++i) {
             buffer.putInt(leafNodes[i].file);
             buffer.putInt(leafNodes[i].offset);
+            buffer.putInt(leafNodes[i].size);
          }
       }
       buffer.flip();
@@ -182,6 +183,19 @@ private void store(Index.IndexSpace indexSpace) throws IOException {
             innerNodes != null ? "children" : "leaves", offset, occupiedSpace);
    }
 
+   /**
+    * The root node is kept only in memory, this stores it into the index file (if it is not there yet)
+    * so that the index can be loaded from the file later. Can be called only from the segment updater thread.
+    *
+    * @return the space the node occupies in the index file
+    */
+   public Index.IndexSpace storeRoot() throws IOException {
+      if (offset < 0) {
+         store(segment.allocateIndexSpace(length()));
+      }
+      return new Index.IndexSpace(offset, occupiedSpace);
+   }
+
    private static class Path {
       public IndexNode node;
       public int index;
@@ -208,6 +222,13 @@ protected EntryPosition apply(LeafNode leafNode, byte[] key, FileProvider filePr
             }
             return null;
          }
+      },
+      GET_LEAF_POSITION {
+         @Override
+         protected EntryPosition apply(LeafNode leafNode, byte[] key, FileProvider fileProvider, TimeService timeService) {
+            // neither the key nor expiration is checked, the caller has to compare the position with known record
+            return leafNode;
+         }
       };
 
       protected abstract <T> T apply(LeafNode leafNode, byte[] key, FileProvider fileProvider, TimeService timeService) throws IOException, IndexNodeOutdatedException;
@@ -260,7 +281,7 @@ public static <T> T applyOnLeaf(Index.Segment segment, byte[] key, Lock rootLock
       }
    }
 
-   public static void setPosition(IndexNode root, byte[] key, int file, int offset, int size, OverwriteHook overwriteHook) throws IOException {
+   public static void setPosition(IndexNode root, byte[] key, int file, int offset, int size, long expiration, OverwriteHook overwriteHook) throws IOException {
       IndexNode node = root;
       Stack<Path> stack = new Stack<Path>();
       while (node.innerNodes != null) {
@@ -269,7 +290,7 @@ public static void setPosition(IndexNode root, byte[] key, int file, int offset,
          if (trace) log.tracef("Pushed %08x (length %d, %d children) to stack (insertion point %d)", System.identityHashCode(node), node.length(), node.innerNodes.length, insertionPoint);
          node = node.innerNodes[insertionPoint].getIndexNode(root.segment);
       }
-      IndexNode copy = node.copyWith(key, file, offset, size, overwriteHook);
+      IndexNode copy = node.copyWith(key, file, offset, size, expiration, overwriteHook);
       if (copy == node) {
          // no change was executed
          return;
@@ -508,9 +529,10 @@ private byte[] rightmostKey() throws IOException, IndexNodeOutdatedException {
     * @param key
     * @param file
     * @param offset
+    * @param expiration expiration of the new record if it has a value, -1 otherwise
     * @return
     */
-   public IndexNode copyWith(byte[] key, int file, int offset, int size, OverwriteHook overwriteHook) throws IOException {
+   public IndexNode copyWith(byte[] key, int file, int offset, int size, long expiration, OverwriteHook overwriteHook) throws IOException {
       if (leafNodes == null) throw new IllegalArgumentException();
       byte[] newPrefix;
       byte[][] newKeyParts;
@@ -518,9 +540,9 @@ public IndexNode copyWith(byte[] key, int file, int offset, int size, OverwriteH
       if (leafNodes.length == 0) {
          overwriteHook.setOverwritten(false, -1, -1);
          if (overwriteHook.check(-1, -1)) {
-            return new IndexNode(segment, prefix, keyParts, new LeafNode[]{ new LeafNode(file, offset)});
+            return new IndexNode(segment, prefix, keyParts, new LeafNode[]{ new LeafNode(file, offset, size)});
          } else {
-            segment.getCompactor().free(file, size);
+            segment.getCompactor().free(file, size, expiration);
             return this;
          }
       }
@@ -545,14 +567,14 @@ public IndexNode copyWith(byte[] key, int file, int offset, int size, OverwriteH
                         leafNodes[insertPart].file, leafNodes[insertPart].offset,
                         hak == null ? "removed" : (hak.getKey() == null ? "expired" : "matching"), file, offset));
                }
-               newLeafNodes[insertPart] = new LeafNode(file, offset);
+               newLeafNodes[insertPart] = new LeafNode(file, offset, size);
                if (hak != null) {
-                  segment.getCompactor().free(leafNodes[insertPart].file, hak.getHeader().totalLength());
+                  segment.getCompactor().free(leafNodes[insertPart].file, hak.getHeader().totalLength(), expiration(hak.getHeader()));
                }
                overwriteHook.setOverwritten(true, leafNodes[insertPart].file, leafNodes[insertPart].offset);
             } else {
                overwriteHook.setOverwritten(false, -1, -1);
-               segment.getCompactor().free(file, size);
+               segment.getCompactor().free(file, size, expiration);
                return this;
             }
          } else {
@@ -578,7 +600,7 @@ public IndexNode copyWith(byte[] key, int file, int offset, int size, OverwriteH
                newLeafNodes = leafNodes;
             }
             if (hak != null) {
-               segment.getCompactor().free(leafNodes[insertPart].file, hak.getHeader().totalLength());
+               segment.getCompactor().free(leafNodes[insertPart].file, hak.getHeader().totalLength(), expiration(hak.getHeader()));
             }
          }
       } else {
@@ -601,17 +623,22 @@ public IndexNode copyWith(byte[] key, int file, int offset, int size, OverwriteH
             newKeyParts[insertPart] = substring(key, newPrefix.length, keyComp);
             System.arraycopy(leafNodes, 0, newLeafNodes, 0, insertPart + 1);
             System.arraycopy(leafNodes, insertPart + 1, newLeafNodes, insertPart + 2, leafNodes.length - insertPart - 1);
-            newLeafNodes[insertPart + 1] = new LeafNode(file, offset);
+            newLeafNodes[insertPart + 1] = new LeafNode(file, offset, size);
          } else {
             newKeyParts[insertPart] = substring(hak.getKey(), newPrefix.length, -keyComp);
             System.arraycopy(leafNodes, 0, newLeafNodes, 0, insertPart);
             System.arraycopy(leafNodes, insertPart, newLeafNodes, insertPart + 1, leafNodes.length - insertPart);
-            newLeafNodes[insertPart] = new LeafNode(file, offset);
+            newLeafNodes[insertPart] = new LeafNode(file, offset, size);
          }
       }
       return new IndexNode(segment, newPrefix, newKeyParts, newLeafNodes);
    }
 
+   private static long expiration(EntryHeader header) {
+      // only records with value are accounted as expiring, tombstones are not
+      return header.valueLength() > 0 ? header.expiryTime() : -1;
+   }
+
    private int getInsertionPoint(byte[] key) {
       int comp = compare(prefix, key, prefix.length);
       int insertionPoint;
@@ -807,7 +834,7 @@ public int length() {
    }
 
    public static IndexNode emptyWithLeaves(Index.Segment segment) {
-      return new IndexNode(segment, new byte[0], new byte[0][], new LeafNode[] { new LeafNode(-1, -1) });
+      return new IndexNode(segment, new byte[0], new byte[0][], new LeafNode[] { new LeafNode(-1, -1, -1) });
    }
 
    public static IndexNode emptyWithInnerNodes(Index.Segment segment) {
@@ -854,11 +881,13 @@ public IndexNode getIndexNode(Index.Segment segment) throws IOException {
    }
 
    private static class LeafNode extends EntryPosition {
-
+      // total length of the record, -1 if not known
+      private final int size;
       private volatile SoftReference<EntryRecord> keyReference;
 
-      public LeafNode(int file, int offset) {
+      public LeafNode(int file, int offset, int size) {
          super(file, offset);
+         this.size = size;
       }
 
       public EntryRecord loadHeaderAndKey(FileProvider fileProvider, TimeService timeService) throws IOException, IndexNodeOutdatedException {
@@ -914,11 +943,32 @@ public EntryRecord loadRecord(FileProvider fileProvider, byte[] key, TimeService
             throw new IndexNodeOutdatedException(file + ":" + offset);
          }
          try {
-            EntryRecord headerAndKey = getHeaderAndKey(fileProvider, handle, timeService);
+            EntryRecord headerAndKey = keyReference == null ? null : keyReference.get();
+            if (headerAndKey == null && size > 0) {
+               // the record is not cached, fetch it whole at once instead of reading header, key and the rest apart
+               EntryRecord record = EntryRecord.readEntry(handle, offset, size);
+               if (record == null) {
+                  throw new IllegalStateException("Error reading record from " + file + ":" + offset + " | " + handle.getFileSize());
+               }
+               synchronized (this) {
+                  if (keyReference == null || keyReference.get() == null) {
+                     keyReference = new SoftReference<EntryRecord>(new EntryRecord(record.getHeader(), record.getKey(), null, null));
+                  }
+               }
+               EntryHeader header = record.getHeader();
+               if (header.expiryTime() > 0 && header.expiryTime() <= timeService.wallClockTime()) {
+                  return null;
+               }
+               return Arrays.equals(key, record.getKey()) ? record : null;
+            }
+            headerAndKey = getHeaderAndKey(fileProvider, handle, timeService);
             if (!Arrays.equals(key, headerAndKey.getKey())) {
                return null;
             }
-            return headerAndKey.loadMetadataAndValue(handle, offset);
+            if (size > 0) {
+               return EntryRecord.readEntry(handle, offset, size);
+            }
+            return new EntryRecord(headerAndKey.getHeader(), headerAndKey.getKey(), null, null).loadMetadataAndValue(handle, offset);
          } finally {
             handle.close();
          }
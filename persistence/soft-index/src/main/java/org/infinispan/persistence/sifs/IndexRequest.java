@@ -26,23 +26,27 @@ public enum Type {
    private int prevOffset = -1;
    private byte[] serializedKey;
    private int size;
+   // expiration of the record if it has a value, -1 otherwise
+   private long expiration = -1;
    private volatile Object result;
    private AtomicInteger countDown;
 
-   public IndexRequest(Object key, byte[] serializedKey, int file, int offset, int size) {
+   public IndexRequest(Object key, byte[] serializedKey, int file, int offset, int size, long expiration) {
       this.key = key;
       this.serializedKey = serializedKey;
       this.file = file;
       this.offset = offset;
       this.size = size;
+      this.expiration = expiration;
    }
 
-   public IndexRequest(Object key, byte[] serializedKey, int file, int offset, int size, int prevFile, int prevOffset) {
+   public IndexRequest(Object key, byte[] serializedKey, int file, int offset, int size, long expiration, int prevFile, int prevOffset) {
       this.key = key;
       this.serializedKey = serializedKey;
       this.file = file;
       this.offset = offset;
       this.size = size;
+      this.expiration = expiration;
       this.prevFile = prevFile;
       this.prevOffset = prevOffset;
    }
@@ -127,6 +131,10 @@ public int getSize() {
       return size;
    }
 
+   public long getExpiration() {
+      return expiration;
+   }
+
    @Override
    public String toString() {
       return "IndexRequest{" +
@@ -135,6 +143,7 @@ public String toString() {
             ", prevFile=" + prevFile +
             ", prevOffset=" + prevOffset +
             ", size=" + size +
+            ", expiration=" + expiration +
             ", type=" + type +
             '}';
    }
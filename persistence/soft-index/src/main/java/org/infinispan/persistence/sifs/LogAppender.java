@@ -47,6 +47,10 @@ public void setSeqId(long seqId) {
       this.seqId = seqId;
    }
 
+   public long getSeqId() {
+      return seqId;
+   }
+
    public void pause() throws InterruptedException {
       LogRequest pause = LogRequest.pauseRequest();
       queue.pushAndWait(pause);
@@ -81,6 +85,8 @@ public void run() {
                   log.debug("Appending records to " + logFile.fileId);
                   continue;
                } else if (request.isStop()) {
+                  // close the file so that its size can be recorded in index checkpoint
+                  logFile.close();
                   queue.notifyNoWait();
                   break;
                } else if (request.isPause()) {
@@ -100,7 +106,7 @@ public void run() {
                int offset = request.getSerializedValue() == null ? ~currentOffset : currentOffset;
                temporaryTable.set(request.getKey(), logFile.fileId, offset);
                IndexRequest indexRequest = new IndexRequest(request.getKey(), raw(request.getSerializedKey()),
-                     logFile.fileId, offset, request.length());
+                     logFile.fileId, offset, request.length(), offset < 0 ? -1 : request.getExpiration());
                request.setIndexRequest(indexRequest);
                indexQueue.put(indexRequest);
                currentOffset += request.length();
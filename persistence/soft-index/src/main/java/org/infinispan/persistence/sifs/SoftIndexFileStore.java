@@ -1,7 +1,9 @@
 package org.infinispan.persistence.sifs;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -17,6 +19,7 @@
 import org.infinispan.persistence.TaskContextImpl;
 import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.persistence.spi.BatchingCacheWriter;
 import org.infinispan.persistence.spi.InitializationContext;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.util.TimeService;
@@ -62,6 +65,8 @@
  *                   space for each file.
  * - Index:          B+-tree of IndexNodes. The tree is dropped and built a new if the process
  *                   crashes, it does not need to flush disk operations. On disk it is kept as single random-accessed file, with free blocks list stored in memory.
+ *                   On orderly stop the free blocks list and roots are written into a checkpoint,
+ *                   on start only the records written after the checkpoint are indexed.
  *
  * As IndexUpdater may easily become a bottleneck under heavy load, the IndexUpdater thread,
  * UpdateQueue and tree of IndexNodes may be multiplied several times - the Index is divided
@@ -97,7 +102,7 @@
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
-public class SoftIndexFileStore implements AdvancedLoadWriteStore {
+public class SoftIndexFileStore implements AdvancedLoadWriteStore, BatchingCacheWriter {
 
    private static final Log log = LogFactory.getLog(SoftIndexFileStore.class);
    private static final boolean trace = log.isTraceEnabled();
@@ -134,7 +139,7 @@ public void start() {
       temporaryTable = new TemporaryTable(configuration.indexQueueLength() * configuration.indexSegments(), keyEquivalence);
       storeQueue = new SyncProcessingQueue<LogRequest>();
       indexQueue = new IndexQueue(configuration.indexSegments(), configuration.indexQueueLength(), keyEquivalence);
-      fileProvider = new FileProvider(configuration.dataLocation(), configuration.openFilesLimit());
+      fileProvider = new FileProvider(configuration.dataLocation(), configuration.openFilesLimit(), configuration.memoryMappedReads());
       compactor = new Compactor(fileProvider, temporaryTable, indexQueue, marshaller, timeService, configuration.maxFileSize(), configuration.compactionThreshold());
       logAppender = new LogAppender(storeQueue, indexQueue, temporaryTable, compactor, fileProvider, configuration.syncWrites(), configuration.maxFileSize());
       try {
@@ -145,73 +150,107 @@ public void start() {
          throw new PersistenceException("Cannot open index file in " + configuration.indexLocation(), e);
       }
       compactor.setIndex(index);
-      final AtomicLong maxSeqId = new AtomicLong(0);
-      if (configuration.purgeOnStartup()) {
-         log.debug("Not building the index - purge will be executed");
-      } else {
-         log.debug("Building the index");
-         forEachOnDisk(false, false, new EntryFunctor() {
-            @Override
-            public boolean apply(int file, int offset, int size, byte[] serializedKey, byte[] serializedMetadata, byte[] serializedValue, long seqId, long expiration) throws IOException, ClassNotFoundException {
-               long prevSeqId;
-               while (seqId > (prevSeqId = maxSeqId.get()) && !maxSeqId.compareAndSet(prevSeqId, seqId));
-               Object key = marshaller.objectFromByteBuffer(serializedKey);
-               if (trace) log.tracef("Loaded %d:%d (seqId %d, expiration %d)", file, offset, seqId, expiration);
-               try {
-                  // We may check the seqId safely as we are the only thread writing to index
-                  EntryPosition entry = temporaryTable.get(key);
-                  if (entry == null) {
-                     entry = index.getPosition(key, serializedKey);
-                  }
-                  if (entry != null) {
-                     FileProvider.Handle handle = fileProvider.getFile(entry.file);
-                     try {
-                        EntryHeader header = EntryRecord.readEntryHeader(handle, entry.offset);
-                        if (header == null) {
-                           throw new IllegalStateException("Cannot read " + entry.file + ":" + entry.offset);
-                        }
-                        if (seqId < header.seqId()) {
-                           if (trace) log.tracef("Record on %d:%d has seqId %d > %d", entry.file, entry.offset, header.seqId(), seqId);
-                           return true;
-                        }
-                     } finally {
-                        handle.close();
+      Index.Checkpoint checkpoint;
+      try {
+         checkpoint = index.loadCheckpoint();
+      } catch (IOException e) {
+         throw new PersistenceException("Cannot load index from " + configuration.indexLocation(), e);
+      }
+      final AtomicLong nextSeqId = new AtomicLong(checkpoint == null ? 0 : checkpoint.getSeqId());
+      EntryFunctor indexBuilder = new EntryFunctor() {
+         @Override
+         public boolean apply(int file, int offset, int size, byte[] serializedKey, byte[] serializedMetadata, byte[] serializedValue, long seqId, long expiration) throws IOException, ClassNotFoundException {
+            long prevSeqId;
+            while (seqId >= (prevSeqId = nextSeqId.get()) && !nextSeqId.compareAndSet(prevSeqId, seqId + 1));
+            Object key = marshaller.objectFromByteBuffer(serializedKey);
+            if (trace) log.tracef("Loaded %d:%d (seqId %d, expiration %d)", file, offset, seqId, expiration);
+            try {
+               // We may check the seqId safely as we are the only thread writing to index
+               EntryPosition entry = temporaryTable.get(key);
+               if (entry == null) {
+                  entry = index.getPosition(key, serializedKey);
+               }
+               if (entry != null) {
+                  FileProvider.Handle handle = fileProvider.getFile(entry.file);
+                  try {
+                     EntryHeader header = EntryRecord.readEntryHeader(handle, entry.offset);
+                     if (header == null) {
+                        throw new IllegalStateException("Cannot read " + entry.file + ":" + entry.offset);
+                     }
+                     if (seqId < header.seqId()) {
+                        if (trace) log.tracef("Record on %d:%d has seqId %d > %d", entry.file, entry.offset, header.seqId(), seqId);
+                        return true;
                      }
+                  } finally {
+                     handle.close();
                   }
-                  temporaryTable.set(key, file, offset);
-                  indexQueue.put(new IndexRequest(key, serializedKey, file, offset, size));
-               } catch (InterruptedException e) {
-                  log.error("Interrupted building of index, the index won't be built properly!", e);
-                  return false;
                }
-               return true;
+               temporaryTable.set(key, file, offset);
+               indexQueue.put(new IndexRequest(key, serializedKey, file, offset, size, offset < 0 ? -1 : expiration));
+            } catch (InterruptedException e) {
+               log.error("Interrupted building of index, the index won't be built properly!", e);
+               return false;
             }
-         }, new FileFunctor() {
+            return true;
+         }
+      };
+      if (configuration.purgeOnStartup()) {
+         log.debug("Not building the index - purge will be executed");
+      } else if (checkpoint == null) {
+         log.debug("Building the index");
+         forEachOnDisk(false, false, indexBuilder, new FileFunctor() {
             @Override
             public void afterFile(int file) {
                compactor.completeFile(file);
             }
          });
+      } else {
+         log.debug("Index loaded from checkpoint, replaying files written after that");
+         replayAfterCheckpoint(checkpoint, indexBuilder);
+      }
+      logAppender.setSeqId(nextSeqId.get());
+   }
+
+   private void replayAfterCheckpoint(Index.Checkpoint checkpoint, EntryFunctor indexBuilder) throws PersistenceException {
+      try {
+         Iterator<Integer> iterator = fileProvider.getFileIterator();
+         while (iterator.hasNext()) {
+            int file = iterator.next();
+            long checkpointSize = checkpoint.getFileSize(file);
+            if (fileProvider.getFileSize(file) > checkpointSize) {
+               // only the records appended after the checkpoint are not indexed yet
+               int offset = (int) Math.max(checkpointSize, 0);
+               log.debug("Loading entries from file " + file + " starting at " + offset);
+               forEachInFile(file, offset, false, false, indexBuilder);
+            }
+            compactor.completeFile(file, checkpoint.getFree(file), checkpoint.getExpiring(file));
+         }
+      } catch (Exception e) {
+         throw new PersistenceException(e);
       }
-      logAppender.setSeqId(0);
    }
 
    @Override
    public void stop() {
       try {
          logAppender.stopOperations();
+         long seqId = logAppender.getSeqId();
          logAppender = null;
          compactor.stopOperations();
-         compactor = null;
          index.stopOperations();
-         index = null;
+         // files compacted before stop are deleted when closed
          fileProvider.stop();
+         index.writeCheckpoint(seqId);
+         compactor = null;
+         index = null;
          fileProvider = null;
          temporaryTable = null;
          indexQueue = null;
          storeQueue = null;
       } catch (InterruptedException e) {
          throw new PersistenceException("Cannot stop cache store", e);
+      } catch (IOException e) {
+         throw new PersistenceException("Cannot write index checkpoint to " + configuration.indexLocation(), e);
       }
    }
 
@@ -254,12 +293,40 @@ public synchronized int size() {
 
    @Override
    public void purge(Executor threadPool, PurgeListener listener) {
-      log.trace("Purge method not supported, ignoring.");
-      // TODO: in future we may support to force compactor run on all files
+      // Expired records are dropped from the data files and from the index when their file is compacted; the files
+      // are compacted in background, therefore the listener is notified asynchronously
+      compactor.setPurgeListener(listener);
+      compactor.scheduleExpired();
    }
 
    @Override
    public void write(MarshalledEntry entry) {
+      checkKeyLength(entry);
+      try {
+         storeQueue.pushAndWait(LogRequest.storeRequest(entry));
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   @Override
+   public void writeBatch(Iterable entries) {
+      for (Object entry : entries) {
+         checkKeyLength((MarshalledEntry) entry);
+      }
+      try {
+         List<LogRequest> requests = new ArrayList<LogRequest>();
+         for (Object entry : entries) {
+            requests.add(LogRequest.storeRequest((MarshalledEntry) entry));
+         }
+         // the log appender writes all the requests in a row and syncs the file only once
+         storeQueue.pushAllAndWait(requests);
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   private void checkKeyLength(MarshalledEntry entry) {
       int keyLength = entry.getKeyBytes().getLength();
       if (keyLength > maxKeyLength) {
          throw new PersistenceException("Configuration 'maxNodeSize' is too low - with maxNodeSize="
@@ -269,11 +336,6 @@ public void write(MarshalledEntry entry) {
          // TODO this limitation could be removed by different key length encoding
          throw new PersistenceException("SoftIndexFileStore is limited to keys with serialized size <= 32767 bytes");
       }
-      try {
-         storeQueue.pushAndWait(LogRequest.storeRequest(entry));
-      } catch (Exception e) {
-         throw new PersistenceException(e);
-      }
    }
 
    @Override
@@ -287,6 +349,19 @@ public boolean delete(Object key) {
       }
    }
 
+   @Override
+   public void deleteBatch(Iterable keys) {
+      try {
+         List<LogRequest> requests = new ArrayList<LogRequest>();
+         for (Object key : keys) {
+            requests.add(LogRequest.deleteRequest(key, toBuffer(marshaller.objectToByteBuffer(key))));
+         }
+         storeQueue.pushAllAndWait(requests);
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
    @Override
    public boolean contains(Object key) {
       try {
@@ -406,54 +481,63 @@ private void forEachOnDisk(boolean readMetadata, boolean readValues, EntryFuncto
          while (iterator.hasNext()) {
             int file = iterator.next();
             log.debug("Loading entries from file " + file);
-            FileProvider.Handle handle = fileProvider.getFile(file);
-            if (handle == null) {
-               log.debug("File " + file + " was deleted during iteration");
+            boolean proceed;
+            try {
+               proceed = forEachInFile(file, 0, readMetadata, readValues, functor);
+            } finally {
                fileFunctor.afterFile(file);
-               continue;
+            }
+            if (!proceed) {
+               return;
+            }
+         }
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   private boolean forEachInFile(int file, int offset, boolean readMetadata, boolean readValues, EntryFunctor functor) throws Exception {
+      FileProvider.Handle handle = fileProvider.getFile(file);
+      if (handle == null) {
+         log.debug("File " + file + " was deleted during iteration");
+         return true;
+      }
+      try {
+         for (;;) {
+            EntryHeader header = EntryRecord.readEntryHeader(handle, offset);
+            if (header == null) {
+               return true; // end of file;
             }
             try {
-               int offset = 0;
-               for (;;) {
-                  EntryHeader header = EntryRecord.readEntryHeader(handle, offset);
-                  if (header == null) {
-                     break; // end of file;
-                  }
-                  try {
-                     byte[] serializedKey = EntryRecord.readKey(handle, header, offset);
-                     if (serializedKey == null) {
-                        break; // we have read the file concurrently with writing there
-                        //throw new CacheLoaderException("File " + file + " appears corrupt when reading key from " + offset + ": header is " + header);
-                     }
-                     byte[] serializedMetadata = null;
-                     if (readMetadata && header.metadataLength() > 0) {
-                        serializedMetadata = EntryRecord.readMetadata(handle, header, offset);
-                     }
-                     byte[] serializedValue = null;
-                     int offsetOrNegation = offset;
-                     if (header.valueLength() > 0) {
-                        if (header.expiryTime() >= 0 && header.expiryTime() <= timeService.wallClockTime()) {
-                           offsetOrNegation = ~offset;
-                        } else if (readValues) {
-                           serializedValue = EntryRecord.readValue(handle, header, offset);
-                        }
-                     } else {
-                        offsetOrNegation = ~offset;
-                     }
-                     if (!functor.apply(file, offsetOrNegation, header.totalLength(), serializedKey, serializedMetadata, serializedValue, header.seqId(), header.expiryTime())) {
-                        return;
-                     }
-                  } finally {
-                     offset += header.totalLength();
+               byte[] serializedKey = EntryRecord.readKey(handle, header, offset);
+               if (serializedKey == null) {
+                  return true; // we have read the file concurrently with writing there
+                  //throw new CacheLoaderException("File " + file + " appears corrupt when reading key from " + offset + ": header is " + header);
+               }
+               byte[] serializedMetadata = null;
+               if (readMetadata && header.metadataLength() > 0) {
+                  serializedMetadata = EntryRecord.readMetadata(handle, header, offset);
+               }
+               byte[] serializedValue = null;
+               int offsetOrNegation = offset;
+               if (header.valueLength() > 0) {
+                  if (header.expiryTime() >= 0 && header.expiryTime() <= timeService.wallClockTime()) {
+                     offsetOrNegation = ~offset;
+                  } else if (readValues) {
+                     serializedValue = EntryRecord.readValue(handle, header, offset);
                   }
+               } else {
+                  offsetOrNegation = ~offset;
+               }
+               if (!functor.apply(file, offsetOrNegation, header.totalLength(), serializedKey, serializedMetadata, serializedValue, header.seqId(), header.expiryTime())) {
+                  return false;
                }
             } finally {
-               handle.close();
-               fileFunctor.afterFile(file);
+               offset += header.totalLength();
             }
          }
-      } catch (Exception e) {
-         throw new PersistenceException(e);
+      } finally {
+         handle.close();
       }
    }
 
@@ -46,6 +46,19 @@ public void pushAndWait(T element) throws InterruptedException {
       waitFor(push(element));
    }
 
+   /**
+    * Pushes all the elements before waiting for them, so that the consumer can process them in a single loop.
+    */
+   public void pushAllAndWait(Iterable<? extends T> elements) throws InterruptedException {
+      long lastIndex = -1;
+      for (T element : elements) {
+         lastIndex = push(element);
+      }
+      if (lastIndex >= 0) {
+         waitFor(lastIndex);
+      }
+   }
+
    public long push(T element) {
       synchronized (queue) {
          queue.push(element);
@@ -3,15 +3,22 @@
 import static org.infinispan.persistence.PersistenceUtil.internalMetadata;
 import static org.infinispan.test.TestingUtil.recursiveFileRemove;
 
+import java.io.File;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.marshall.core.MarshalledEntryImpl;
 import org.infinispan.persistence.BaseStoreTest;
 import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfigurationBuilder;
+import org.infinispan.persistence.spi.AdvancedCacheWriter;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
 import org.infinispan.test.TestingUtil;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
 import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
+import org.infinispan.util.concurrent.WithinThreadExecutor;
 import org.testng.AssertJUnit;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -83,6 +90,120 @@ public void testLoadUnload() {
       }
    }
 
+   public void testStartFromIndexCheckpoint() {
+      int numEntries = 1000;
+      for (int i = 0; i < numEntries; ++i) {
+         InternalCacheEntry ice = TestInternalCacheEntryFactory.create(key(i), "value" + i);
+         store.write(new MarshalledEntryImpl(ice.getKey(), ice.getValue(), internalMetadata(ice), getMarshaller()));
+      }
+      for (int i = 0; i < numEntries; i += 2) {
+         store.delete(key(i));
+      }
+      File checkpoint = new File(tmpDirectory, "index.state");
+      store.stop();
+      AssertJUnit.assertTrue(checkpoint.exists());
+      store.start();
+      // the checkpoint can be used only once
+      AssertJUnit.assertFalse(checkpoint.exists());
+      AssertJUnit.assertEquals(numEntries / 2, store.size());
+      for (int i = 0; i < numEntries; ++i) {
+         if (i % 2 == 0) {
+            AssertJUnit.assertNull(store.load(key(i)));
+         } else {
+            AssertJUnit.assertEquals("value" + i, store.load(key(i)).getValue());
+         }
+      }
+
+      // records written after the restart must not be overwritten by older ones on next start
+      InternalCacheEntry ice = TestInternalCacheEntryFactory.create(key(1), "updated");
+      store.write(new MarshalledEntryImpl(ice.getKey(), ice.getValue(), internalMetadata(ice), getMarshaller()));
+      store.stop();
+      checkpoint.delete();
+      store.start();
+      AssertJUnit.assertEquals(numEntries / 2, store.size());
+      AssertJUnit.assertEquals("updated", store.load(key(1)).getValue());
+   }
+
+   public void testPurgeCompactsExpiredFiles() throws Exception {
+      String location = tmpDirectory + "/expiring";
+      SoftIndexFileStore expiringStore = new SoftIndexFileStore();
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.persistence()
+               .addStore(SoftIndexFileStoreConfigurationBuilder.class)
+                  .indexLocation(location).dataLocation(location + "/data").maxFileSize(1000);
+      expiringStore.init(createContext(builder.build()));
+      expiringStore.start();
+      try {
+         final int numEntries = 100;
+         final Set<Object> expiringKeys = new HashSet<Object>();
+         for (int i = 0; i < numEntries; ++i) {
+            // every fourth entry is immortal
+            InternalCacheEntry ice = internalCacheEntry(key(i), "value" + i, i % 4 == 0 ? -1 : 1000);
+            expiringStore.write(TestingUtil.marshalledEntry(ice, getMarshaller()));
+            if (i % 4 != 0) {
+               expiringKeys.add(key(i));
+            }
+         }
+         timeService.advance(1001);
+
+         final Set<Object> purged = Collections.synchronizedSet(new HashSet<Object>());
+         expiringStore.purge(new WithinThreadExecutor(), new AdvancedCacheWriter.PurgeListener<Object>() {
+            @Override
+            public void entryPurged(Object key) {
+               purged.add(key);
+            }
+         });
+         // the file with the most recent records is not compacted, as the log appender is still writing there
+         eventually(new Condition() {
+            @Override
+            public boolean isSatisfied() throws Exception {
+               return purged.size() > expiringKeys.size() / 2;
+            }
+         });
+         AssertJUnit.assertTrue(expiringKeys.containsAll(purged));
+         AssertJUnit.assertTrue(expiringStore.size() < numEntries);
+         for (int i = 0; i < numEntries; i += 4) {
+            AssertJUnit.assertEquals("value" + i, expiringStore.load(key(i)).getValue());
+         }
+      } finally {
+         expiringStore.stop();
+      }
+   }
+
+   public void testMemoryMappedReads() throws Exception {
+      String location = tmpDirectory + "/mapped";
+      SoftIndexFileStore mappedStore = new SoftIndexFileStore();
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      builder.persistence()
+               .addStore(SoftIndexFileStoreConfigurationBuilder.class)
+                  .indexLocation(location).dataLocation(location + "/data").maxFileSize(1000)
+                  .memoryMappedReads(true);
+      mappedStore.init(createContext(builder.build()));
+      mappedStore.start();
+      try {
+         int numEntries = 100;
+         for (int i = 0; i < numEntries; ++i) {
+            InternalCacheEntry ice = TestInternalCacheEntryFactory.create(key(i), "value" + i);
+            mappedStore.write(TestingUtil.marshalledEntry(ice, getMarshaller()));
+         }
+         // the older files are complete and mapped, the most recent one is still being written
+         for (int i = 0; i < numEntries; ++i) {
+            AssertJUnit.assertEquals("value" + i, mappedStore.load(key(i)).getValue());
+         }
+         for (int i = 0; i < numEntries; i += 2) {
+            InternalCacheEntry ice = TestInternalCacheEntryFactory.create(key(i), "updated" + i);
+            mappedStore.write(TestingUtil.marshalledEntry(ice, getMarshaller()));
+         }
+         mappedStore.stop();
+         mappedStore.start();
+         for (int i = 0; i < numEntries; ++i) {
+            AssertJUnit.assertEquals((i % 2 == 0 ? "updated" : "value") + i, mappedStore.load(key(i)).getValue());
+         }
+      } finally {
+         mappedStore.stop();
+      }
+   }
+
    private String key(int i) {
       return String.format("key%010d", i);
    }
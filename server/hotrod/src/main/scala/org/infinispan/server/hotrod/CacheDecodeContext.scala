@@ -174,6 +174,16 @@ class CacheDecodeContext(server: HotRodServer) extends ServerConstants with Log
 
    def get(keyBytes: Bytes): Response = createGetResponse(cache.getCacheEntry(keyBytes))
 
+   def getAll(keys: java.util.Set[Bytes]): Response =
+      new GetAllResponse(header.version, header.messageId, header.cacheName, header.clientIntel,
+         header.topologyId, cache.getAll(keys))
+
+   def putAll(entries: java.util.Map[Bytes, Bytes]): Response = {
+      // All the entries of a batch share the same version
+      cache.putAll(entries, buildMetadata)
+      successResp(null)
+   }
+
    def replaceIfUnmodified: Response = {
       val entry = cache.withFlags(Flag.SKIP_LISTENER_NOTIFICATION).getCacheEntry(key)
       if (entry != null) {
@@ -80,6 +80,8 @@ object Decoder2x extends AbstractVersionedDecoder with ServerConstants with Log
          case 0x27 => (RemoveClientListenerRequest, false)
          case 0x29 => (SizeRequest, true)
          case 0x2B => (ExecRequest, true)
+         case 0x2D => (PutAllRequest, false)
+         case 0x2F => (GetAllRequest, false)
          case _ => throw new HotRodUnknownOperationException(
             "Unknown operation: " + streamOp, version, messageId)
       }
@@ -113,6 +115,10 @@ object Decoder2x extends AbstractVersionedDecoder with ServerConstants with Log
    override def readParameters(header: HotRodHeader, buffer: ByteBuf): (RequestParameters, Boolean) = {
       header.op match {
          case RemoveRequest => (null, true)
+         case PutAllRequest =>
+            val lifespan = readLifespanOrMaxIdle(buffer, hasFlag(header, ProtocolFlag.DefaultLifespan))
+            val maxIdle = readLifespanOrMaxIdle(buffer, hasFlag(header, ProtocolFlag.DefaultMaxIdle))
+            (new RequestParameters(-1, lifespan, maxIdle, -1), false)
          case RemoveIfUnmodifiedRequest => (new RequestParameters(-1, -1, -1, buffer.readLong), true)
          case ReplaceIfUnmodifiedRequest =>
             val lifespan = readLifespanOrMaxIdle(buffer, hasFlag(header, ProtocolFlag.DefaultLifespan))
@@ -473,7 +479,9 @@ object Decoder2x extends AbstractVersionedDecoder with ServerConstants with Log
                  | ContainsKeyRequest
                  | BulkGetRequest
                  | GetWithMetadataRequest
-                 | BulkGetKeysRequest =>
+                 | BulkGetKeysRequest
+                 | PutAllRequest
+                 | GetAllRequest =>
                optCache = optCache.withFlags(SKIP_CACHE_LOAD)
             case _ =>
          }
@@ -485,7 +493,8 @@ object Decoder2x extends AbstractVersionedDecoder with ServerConstants with Log
                  | RemoveRequest
                  | RemoveIfUnmodifiedRequest
                  | ReplaceRequest
-                 | ReplaceIfUnmodifiedRequest =>
+                 | ReplaceIfUnmodifiedRequest
+                 | PutAllRequest =>
                optCache = optCache.withFlags(SKIP_INDEXING)
             case _ =>
          }
@@ -493,7 +502,8 @@ object Decoder2x extends AbstractVersionedDecoder with ServerConstants with Log
       if (!hasFlag(h, ForceReturnPreviousValue)) {
          h.op match {
             case PutRequest
-                 | PutIfAbsentRequest =>
+                 | PutIfAbsentRequest
+                 | PutAllRequest =>
                optCache = optCache.withFlags(IGNORE_RETURN_VALUES)
             case _ =>
          }
@@ -279,6 +279,12 @@ object Encoder2x extends AbstractVersionedEncoder with Constants with Log {
                }
                buf.writeByte(0) // Done
             }
+         case g: GetAllResponse =>
+            writeUnsignedInt(g.entries.size, buf)
+            for ((key, value) <- g.entries) {
+               writeRangedBytes(key, buf)
+               writeRangedBytes(value, buf)
+            }
          case g: GetResponse =>
             if (g.status == Success) writeRangedBytes(g.data.get, buf)
          case q: QueryResponse =>
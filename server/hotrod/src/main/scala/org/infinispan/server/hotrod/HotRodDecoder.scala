@@ -14,6 +14,7 @@ import org.infinispan.manager.EmbeddedCacheManager
 import org.infinispan.security.Security
 import HotRodDecoderState._
 import org.infinispan.server.core.Operation._
+import org.infinispan.server.hotrod.HotRodOperation._
 import org.infinispan.server.core._
 import org.infinispan.server.core.logging.Log
 import org.infinispan.server.core.security.AuthorizingCallbackHandler
@@ -103,6 +104,10 @@ extends ReplayingDecoder[HotRodDecoderState](DECODE_HEADER) with StatsChannelHan
          case GetWithVersionRequest => writeResponse(ch, decodeCtx.get(readKey(buffer)._1))
          case PutIfAbsentRequest | ReplaceRequest | ReplaceIfUnmodifiedRequest =>
             handleModification(ch, buffer)
+         case GetAllRequest => writeResponse(ch, decodeCtx.getAll(readKeys(buffer)))
+         case PutAllRequest =>
+            readParameters(ch, buffer)
+            writeResponse(ch, decodeCtx.putAll(readEntries(buffer)))
          case _ => customDecodeKey(ctx, buffer)
       }
    }
@@ -182,6 +187,27 @@ extends ReplayingDecoder[HotRodDecoderState](DECODE_HEADER) with StatsChannelHan
 
    def readKey(b: ByteBuf): (Bytes, Boolean) = decodeCtx.decoder.readKey(decodeCtx.header, b)
 
+   /**
+    * Reads a count followed by that many keys. The whole batch is read before the operation is invoked, so if not all
+    * the bytes have arrived yet, the batch is read again from the start once they have.
+    */
+   def readKeys(b: ByteBuf): java.util.Set[Bytes] = {
+      val count = readUnsignedInt(b)
+      val keys = new java.util.LinkedHashSet[Bytes](count)
+      for (i <- 0 until count) keys.add(readKey(b)._1)
+      keys
+   }
+
+   /**
+    * Reads a count followed by that many key/value pairs.
+    */
+   def readEntries(b: ByteBuf): java.util.Map[Bytes, Bytes] = {
+      val count = readUnsignedInt(b)
+      val entries = new java.util.LinkedHashMap[Bytes, Bytes](count)
+      for (i <- 0 until count) entries.put(readKey(b)._1, readRangedBytes(b))
+      entries
+   }
+
    def readParameters(ch: Channel, b: ByteBuf): Boolean = {
       val (parameters, endOfOp) = decodeCtx.decoder.readParameters(decodeCtx.header, b)
       decodeCtx.params = parameters
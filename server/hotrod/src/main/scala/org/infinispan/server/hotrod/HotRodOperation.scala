@@ -24,4 +24,6 @@ object HotRodOperation extends Enumeration(20) {
    val RemoveClientListenerRequest = Value
    val SizeRequest = Value
    val ExecRequest = Value
+   val PutAllRequest = Value
+   val GetAllRequest = Value
 }
@@ -43,6 +43,8 @@ object OperationResponse extends Enumeration {
    
    // 2.1
    val ExecResponse = Value(0x2C)
+   val PutAllResponse = Value(0x2E)
+   val GetAllResponse = Value(0x30)
 
    def toResponse(request: Enumeration#Value): OperationResponse = {
       request match {
@@ -67,6 +69,8 @@ object OperationResponse extends Enumeration {
          case AddClientListenerRequest => AddClientListenerResponse
          case RemoveClientListenerRequest => RemoveClientListenerResponse
          case ExecRequest => ExecResponse
+         case PutAllRequest => PutAllResponse
+         case GetAllRequest => GetAllResponse
       }
    }
 
@@ -0,0 +1,28 @@
+package org.infinispan.server.hotrod
+
+import org.infinispan.container.compact.CompactDataContainer
+import org.infinispan.manager.EmbeddedCacheManager
+import org.infinispan.server.hotrod.test.HotRodTestingUtil._
+import org.infinispan.test.fwk.TestCacheManagerFactory
+import org.testng.Assert._
+import org.testng.annotations.Test
+
+/**
+ * Runs the Hot Rod functional tests against a cache using the compact data container.
+ *
+ * @since 7.2
+ */
+@Test(groups = Array("functional"), testName = "server.hotrod.HotRodCompactDataContainerTest")
+class HotRodCompactDataContainerTest extends HotRodFunctionalTest {
+
+   override protected def createTestCacheManager: EmbeddedCacheManager = {
+      val builder = hotRodCacheConfiguration()
+      builder.dataContainer().compact(true)
+      TestCacheManagerFactory.createCacheManager(builder)
+   }
+
+   def testCompactDataContainerInUse() {
+      assertTrue(advancedCache.getDataContainer.isInstanceOf[CompactDataContainer[_, _]])
+   }
+
+}
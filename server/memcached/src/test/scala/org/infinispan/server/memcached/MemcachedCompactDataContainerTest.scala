@@ -0,0 +1,28 @@
+package org.infinispan.server.memcached
+
+import org.infinispan.configuration.cache.ConfigurationBuilder
+import org.infinispan.container.compact.CompactDataContainer
+import org.infinispan.manager.EmbeddedCacheManager
+import org.infinispan.test.fwk.TestCacheManagerFactory
+import org.testng.Assert._
+import org.testng.annotations.Test
+
+/**
+ * Runs the Memcached functional tests against a cache using the compact data container.
+ *
+ * @since 7.2
+ */
+@Test(groups = Array("functional"), testName = "server.memcached.MemcachedCompactDataContainerTest")
+class MemcachedCompactDataContainerTest extends MemcachedFunctionalTest {
+
+   override protected def createTestCacheManager: EmbeddedCacheManager = {
+      val builder = new ConfigurationBuilder
+      builder.dataContainer().compact(true)
+      TestCacheManagerFactory.createCacheManager(builder)
+   }
+
+   def testCompactDataContainerInUse() {
+      assertTrue(cache.getAdvancedCache.getDataContainer.isInstanceOf[CompactDataContainer[_, _]])
+   }
+
+}